@@ -47,6 +47,19 @@ public interface JanusGraphComputer extends GraphComputer {
     @Override
     JanusGraphComputer workers(int threads);
 
+    /**
+     * Whether the rows read from the edge store in the first iteration are kept in memory and the following
+     * iterations are answered from this snapshot instead of the storage backend. Defaults to
+     * {@link org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration#COMPUTER_SNAPSHOT}. This is only a
+     * performance hint which implementations that do not support snapshots ignore.
+     *
+     * @param snapshot whether to snapshot the edge store
+     * @return this computer
+     */
+    default JanusGraphComputer snapshot(boolean snapshot) {
+        return this;
+    }
+
     default JanusGraphComputer resultMode(ResultMode mode) {
         result(mode.toResultGraph());
         persist(mode.toPersist());
@@ -123,6 +123,7 @@ public enum ReflectiveConfigOptionLoader {
             "org.janusgraph.diskstorage.cassandra.thrift.CassandraThriftStoreManager",
             "org.janusgraph.diskstorage.cql.CQLConfigOptions",
             "org.janusgraph.diskstorage.es.ElasticSearchIndex",
+            "org.janusgraph.diskstorage.lucene.LuceneIndex",
             "org.janusgraph.diskstorage.solr.SolrIndex",
             "org.janusgraph.diskstorage.log.kcvs.KCVSLog",
             "org.janusgraph.diskstorage.log.kcvs.KCVSLogManager",
@@ -26,11 +26,13 @@ import org.janusgraph.diskstorage.configuration.*;
 import org.janusgraph.diskstorage.idmanagement.ConsistentKeyIDAuthority;
 import org.janusgraph.diskstorage.indexing.*;
 import org.janusgraph.diskstorage.keycolumnvalue.*;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheInvalidationLog;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheTransaction;
-import org.janusgraph.diskstorage.keycolumnvalue.cache.ExpirationKCVSCache;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.DBCacheType;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVSCache;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.NoKCVSCache;
 import org.janusgraph.diskstorage.keycolumnvalue.keyvalue.*;
+import org.janusgraph.diskstorage.keycolumnvalue.scan.ScanSnapshot;
 import org.janusgraph.diskstorage.keycolumnvalue.scan.StandardScanner;
 import org.janusgraph.diskstorage.locking.Locker;
 import org.janusgraph.diskstorage.locking.LockerProvider;
@@ -40,8 +42,11 @@ import org.janusgraph.diskstorage.log.Log;
 import org.janusgraph.diskstorage.log.LogManager;
 import org.janusgraph.diskstorage.log.kcvs.KCVSLog;
 import org.janusgraph.diskstorage.log.kcvs.KCVSLogManager;
+import org.janusgraph.diskstorage.util.BackendCompression;
+import org.janusgraph.diskstorage.util.BackendCompressionType;
 import org.janusgraph.diskstorage.util.BackendOperation;
 import org.janusgraph.diskstorage.configuration.backend.KCVSConfiguration;
+import org.janusgraph.diskstorage.util.CompressedStoreManager;
 import org.janusgraph.diskstorage.util.MetricInstrumentedStoreManager;
 import org.janusgraph.diskstorage.util.StandardBaseTransactionConfig;
 import org.janusgraph.diskstorage.util.time.TimestampProvider;
@@ -60,6 +65,7 @@ import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Predicate;
 
 import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.*;
 
@@ -96,6 +102,7 @@ public class Backend implements LockerProvider, AutoCloseable {
 
     public static final String SYSTEM_TX_LOG_NAME = "txlog";
     public static final String SYSTEM_MGMT_LOG_NAME = "systemlog";
+    public static final String SYSTEM_CACHE_LOG_NAME = "cachelog";
 
     public static final double EDGESTORE_CACHE_PERCENT = 0.8;
     public static final double INDEXSTORE_CACHE_PERCENT = 0.2;
@@ -111,6 +118,7 @@ public class Backend implements LockerProvider, AutoCloseable {
     private KCVSCache edgeStore;
     private KCVSCache indexStore;
     private KCVSCache txLogStore;
+    private CacheInvalidationLog cacheInvalidationLog;
     private IDAuthority idAuthority;
     private KCVSConfiguration systemConfig;
     private KCVSConfiguration userConfig;
@@ -124,6 +132,7 @@ public class Backend implements LockerProvider, AutoCloseable {
 
 
     private final Map<String, IndexProvider> indexes;
+    private final Map<String, BulkIndexPipeline> indexPipelines;
 
     private final int bufferSize;
     private final Duration maxWriteTime;
@@ -141,10 +150,14 @@ public class Backend implements LockerProvider, AutoCloseable {
 
         KeyColumnValueStoreManager manager = getStorageManager(configuration);
         if (configuration.get(BASIC_METRICS)) {
-            storeManager = new MetricInstrumentedStoreManager(manager,METRICS_STOREMANAGER_NAME,configuration.get(METRICS_MERGE_STORES),METRICS_MERGED_STORE);
-        } else {
-            storeManager = manager;
+            manager = new MetricInstrumentedStoreManager(manager,METRICS_STOREMANAGER_NAME,configuration.get(METRICS_MERGE_STORES),METRICS_MERGED_STORE);
+        }
+        final BackendCompressionType compressionType = ConfigOption.getEnumValue(configuration.get(STORAGE_COMPRESSION_CODEC), BackendCompressionType.class);
+        if (compressionType != BackendCompressionType.NONE) {
+            manager = new CompressedStoreManager(manager, compressionType.create(configuration.get(STORAGE_COMPRESSION_THRESHOLD)),
+                    getCompressedStores(configuration.get(STORAGE_COMPRESSION_STORES)));
         }
+        storeManager = manager;
         indexes = getIndexes(configuration);
         storeFeatures = storeManager.getFeatures();
 
@@ -163,6 +176,7 @@ public class Backend implements LockerProvider, AutoCloseable {
 
         maxWriteTime = configuration.get(STORAGE_WRITE_WAITTIME);
         maxReadTime = configuration.get(STORAGE_READ_WAITTIME);
+        indexPipelines = getIndexPipelines(configuration);
 
         if (!storeFeatures.hasLocking()) {
             Preconditions.checkArgument(storeFeatures.isKeyConsistent(),"Store needs to support some form of locking");
@@ -258,8 +272,18 @@ public class Backend implements LockerProvider, AutoCloseable {
                 long edgeStoreCacheSize = Math.round(cacheSizeBytes * EDGESTORE_CACHE_PERCENT);
                 long indexStoreCacheSize = Math.round(cacheSizeBytes * INDEXSTORE_CACHE_PERCENT);
 
-                edgeStore = new ExpirationKCVSCache(edgeStoreRaw,getMetricsCacheName(EDGESTORE_NAME),expirationTime,cleanWaitTime,edgeStoreCacheSize);
-                indexStore = new ExpirationKCVSCache(indexStoreRaw,getMetricsCacheName(INDEXSTORE_NAME),expirationTime,cleanWaitTime,indexStoreCacheSize);
+                final DBCacheType edgeStoreCacheType = ConfigOption.getEnumValue(configuration.get(DB_CACHE_EDGESTORE_TYPE), DBCacheType.class);
+                final DBCacheType indexStoreCacheType = ConfigOption.getEnumValue(configuration.get(DB_CACHE_INDEXSTORE_TYPE), DBCacheType.class);
+                final KCVSCache edgeStoreCache = edgeStoreCacheType.create(edgeStoreRaw,getMetricsCacheName(EDGESTORE_NAME),expirationTime,cleanWaitTime,edgeStoreCacheSize);
+                final KCVSCache indexStoreCache = indexStoreCacheType.create(indexStoreRaw,getMetricsCacheName(INDEXSTORE_NAME),expirationTime,cleanWaitTime,indexStoreCacheSize);
+                if (configuration.get(DB_CACHE_INVALIDATION)) {
+                    cacheInvalidationLog = new CacheInvalidationLog(managementLogManager.openLog(SYSTEM_CACHE_LOG_NAME),
+                            configuration.get(UNIQUE_INSTANCE_ID),
+                            ImmutableMap.of(edgeStoreCache.getName(), edgeStoreCache, indexStoreCache.getName(), indexStoreCache),
+                            configuration.get(DB_CACHE_INVALIDATION_BATCH_SIZE));
+                }
+                edgeStore = edgeStoreCache;
+                indexStore = indexStoreCache;
             } else {
                 edgeStore = new NoKCVSCache(edgeStoreRaw);
                 indexStore = new NoKCVSCache(indexStoreRaw);
@@ -342,7 +366,23 @@ public class Backend implements LockerProvider, AutoCloseable {
         return buildStoreIndexScanJob(INDEXSTORE_NAME);
     }
 
+    /**
+     * Returns a new, empty {@link ScanSnapshot} of the edge store. Scan jobs covered by the snapshot are built with
+     * {@link #buildScanJob(ScanSnapshot)}.
+     */
+    public ScanSnapshot buildEdgeScanSnapshot() throws BackendException {
+        return new ScanSnapshot(EDGESTORE_NAME, configuration.get(TIMESTAMP_PROVIDER));
+    }
+
+    public StandardScanner.Builder buildScanJob(ScanSnapshot snapshot) {
+        return buildStoreIndexScanJob(snapshot.getStoreName(), snapshot.getScanner());
+    }
+
     private StandardScanner.Builder buildStoreIndexScanJob(String storeName) {
+        return buildStoreIndexScanJob(storeName, scanner);
+    }
+
+    private StandardScanner.Builder buildStoreIndexScanJob(String storeName, StandardScanner scanner) {
         TimestampProvider provider = configuration.get(TIMESTAMP_PROVIDER);
         ModifiableConfiguration jobConfig = GraphDatabaseConfiguration.buildJobConfiguration();
         jobConfig.set(JOB_START_TIME,provider.getTime().toEpochMilli());
@@ -352,6 +392,7 @@ public class Backend implements LockerProvider, AutoCloseable {
                 .setJobConfiguration(jobConfig)
                 .setGraphConfiguration(configuration)
                 .setNumProcessingThreads(1)
+                .setNumKeyRanges(configuration.get(SCAN_KEY_RANGES))
                 .setWorkBlockSize(10000);
     }
 
@@ -376,6 +417,30 @@ public class Backend implements LockerProvider, AutoCloseable {
         return userConfig;
     }
 
+    /**
+     * Returns the compression of the values of the given store as configured in the given configuration, or
+     * {@link BackendCompression#NO_COMPRESSION} if its values are stored uncompressed. This is meant for tools which
+     * read the store directly instead of going through a {@link Backend}, e.g. the Hadoop input formats.
+     */
+    public static BackendCompression getStoreCompression(Configuration configuration, String storeName) {
+        final BackendCompressionType compressionType = ConfigOption.getEnumValue(configuration.get(STORAGE_COMPRESSION_CODEC), BackendCompressionType.class);
+        if (compressionType == BackendCompressionType.NONE
+                || !getCompressedStores(configuration.get(STORAGE_COMPRESSION_STORES)).test(storeName)) {
+            return BackendCompression.NO_COMPRESSION;
+        }
+        return compressionType.create(configuration.get(STORAGE_COMPRESSION_THRESHOLD));
+    }
+
+    private static Predicate<String> getCompressedStores(String[] storeNames) {
+        final Set<String> names = new HashSet<>();
+        final List<String> prefixes = new ArrayList<>();
+        for (String storeName : storeNames) {
+            if (storeName.endsWith("*")) prefixes.add(storeName.substring(0, storeName.length() - 1));
+            else names.add(storeName);
+        }
+        return storeName -> names.contains(storeName) || prefixes.stream().anyMatch(storeName::startsWith);
+    }
+
     private String getMetricsCacheName(String storeName) {
         if (!configuration.get(BASIC_METRICS)) return null;
         return configuration.get(METRICS_MERGE_STORES) ? METRICS_MERGED_CACHE : storeName + METRICS_CACHE_SUFFIX;
@@ -468,6 +533,21 @@ public class Backend implements LockerProvider, AutoCloseable {
         return builder.build();
     }
 
+    private Map<String, BulkIndexPipeline> getIndexPipelines(Configuration config) {
+        ImmutableMap.Builder<String, BulkIndexPipeline> builder = ImmutableMap.builder();
+        for (Map.Entry<String, IndexProvider> entry : indexes.entrySet()) {
+            final String index = entry.getKey();
+            if (!config.get(INDEX_BULK_ASYNC, index)) continue;
+            log.info("Applying mutations of index [{}] asynchronously", index);
+            builder.put(index, new BulkIndexPipeline(index, entry.getValue(),
+                    StandardBaseTransactionConfig.of(config.get(TIMESTAMP_PROVIDER)),
+                    config.get(INDEX_BULK_CONCURRENT_REQUESTS, index), config.get(INDEX_BULK_MAX_ACTIONS, index),
+                    config.get(INDEX_BULK_MAX_BYTES, index), config.get(INDEX_BULK_FLUSH_INTERVAL, index),
+                    config.get(INDEX_BULK_MAX_PENDING, index), maxWriteTime));
+        }
+        return builder.build();
+    }
+
     public static <T> T getImplementationClass(Configuration config, String className, Map<String, String> registeredImplementations) {
         if (registeredImplementations.containsKey(className.toLowerCase())) {
             className = registeredImplementations.get(className.toLowerCase());
@@ -504,6 +584,14 @@ public class Backend implements LockerProvider, AutoCloseable {
         return storeManager;
     }
 
+    /**
+     * Returns the thread pool used to parallelize backend operations or null if
+     * {@link GraphDatabaseConfiguration#PARALLEL_BACKEND_OPS} is disabled.
+     */
+    public ExecutorService getThreadPool() {
+        return threadPool;
+    }
+
     /**
      * Returns the {@link IndexFeatures} of all configured index backends
      */
@@ -528,12 +616,13 @@ public class Backend implements LockerProvider, AutoCloseable {
         StoreTransaction tx = storeManagerLocking.beginTransaction(configuration);
 
         // Cache
-        CacheTransaction cacheTx = new CacheTransaction(tx, storeManagerLocking, bufferSize, maxWriteTime, configuration.hasEnabledBatchLoading());
+        CacheTransaction cacheTx = new CacheTransaction(tx, storeManagerLocking, bufferSize, maxWriteTime, configuration.hasEnabledBatchLoading(), cacheInvalidationLog);
 
         // Index transactions
         final Map<String, IndexTransaction> indexTx = new HashMap<>(indexes.size());
         for (Map.Entry<String, IndexProvider> entry : indexes.entrySet()) {
-            indexTx.put(entry.getKey(), new IndexTransaction(entry.getValue(), indexKeyRetriever.get(entry.getKey()), configuration, maxWriteTime));
+            indexTx.put(entry.getKey(), new IndexTransaction(entry.getValue(), indexKeyRetriever.get(entry.getKey()), configuration, maxWriteTime,
+                    indexPipelines.get(entry.getKey())));
         }
 
         return new BackendTransaction(cacheTx, configuration, storeFeatures,
@@ -544,6 +633,8 @@ public class Backend implements LockerProvider, AutoCloseable {
     public synchronized void close() throws BackendException {
         if (!hasAttemptedClose) {
             hasAttemptedClose = true;
+            //Pending index mutations report their status to the transaction log
+            for (BulkIndexPipeline pipeline : indexPipelines.values()) pipeline.close();
             managementLogManager.close();
             txLogManager.close();
             userLogManager.close();
@@ -575,6 +666,7 @@ public class Backend implements LockerProvider, AutoCloseable {
     public synchronized void clearStorage() throws BackendException {
         if (!hasAttemptedClose) {
             hasAttemptedClose = true;
+            for (BulkIndexPipeline pipeline : indexPipelines.values()) pipeline.close();
             managementLogManager.close();
             txLogManager.close();
             userLogManager.close();
@@ -18,9 +18,14 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -134,18 +139,70 @@ public class BackendTransaction implements LoggableTransaction {
         storeTx.commit();
     }
 
+    /**
+     * Commits all index transactions, concurrently if a thread pool is configured, and returns the exceptions of
+     * those that failed by index name. The calling thread commits index transactions as well, so that this does
+     * not deadlock when it is invoked from a thread of the pool itself or the pool is saturated.
+     */
     public Map<String,Throwable> commitIndexes() {
-        final Map<String,Throwable> exceptions = new HashMap<>(indexTx.size());
-        for (Map.Entry<String,IndexTransaction> indexTransactionEntry : indexTx.entrySet()) {
+        final Map<String,Throwable> exceptions = new ConcurrentHashMap<>(indexTx.size());
+        if (threadPool == null || indexTx.size() < MIN_TASKS_TO_PARALLELIZE) {
+            for (Map.Entry<String,IndexTransaction> indexTransactionEntry : indexTx.entrySet()) {
+                commitIndex(indexTransactionEntry.getKey(), indexTransactionEntry.getValue(), exceptions);
+            }
+        } else {
+            final Queue<Map.Entry<String,IndexTransaction>> remaining = new ConcurrentLinkedQueue<>(indexTx.entrySet());
+            final CountDownLatch doneSignal = new CountDownLatch(indexTx.size());
+            final Runnable committer = () -> {
+                Map.Entry<String,IndexTransaction> indexTransactionEntry;
+                while ((indexTransactionEntry = remaining.poll()) != null) {
+                    try {
+                        commitIndex(indexTransactionEntry.getKey(), indexTransactionEntry.getValue(), exceptions);
+                    } finally {
+                        doneSignal.countDown();
+                    }
+                }
+            };
             try {
-                indexTransactionEntry.getValue().commit();
-            } catch (Throwable e) {
-                exceptions.put(indexTransactionEntry.getKey(),e);
+                for (int i = 1; i < indexTx.size(); i++) threadPool.execute(committer);
+            } catch (RejectedExecutionException e) {
+                log.debug("Committing the remaining index transactions on the calling thread", e);
+            }
+            committer.run();
+            try {
+                // Only waits for index transactions that a running pool thread has already taken
+                doneSignal.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JanusGraphException("Interrupted while waiting for index transactions to commit", e);
             }
         }
         return exceptions;
     }
 
+    /**
+     * Returns the mutations of the committed index transactions which are still being applied asynchronously
+     * by index name.
+     *
+     * @see IndexTransaction#getPendingMutations()
+     */
+    public Map<String,CompletableFuture<Void>> getPendingIndexMutations() {
+        final Map<String,CompletableFuture<Void>> pending = new HashMap<>();
+        for (Map.Entry<String,IndexTransaction> indexTransactionEntry : indexTx.entrySet()) {
+            final CompletableFuture<Void> mutations = indexTransactionEntry.getValue().getPendingMutations();
+            if (mutations != null) pending.put(indexTransactionEntry.getKey(), mutations);
+        }
+        return pending;
+    }
+
+    private static void commitIndex(String index, IndexTransaction itx, Map<String,Throwable> exceptions) {
+        try {
+            itx.commit();
+        } catch (Throwable e) {
+            exceptions.put(index,e);
+        }
+    }
+
     @Override
     public void commit() throws BackendException {
         storeTx.commit();
@@ -464,6 +521,21 @@ public class BackendTransaction implements LoggableTransaction {
         return executeRead(new TotalsCallable(query, indexTx));
     }
 
+    public Long totals(final String index, final IndexQuery query) {
+        final IndexTransaction indexTx = getIndexTransaction(index);
+        return executeRead(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return indexTx.totals(query);
+            }
+
+            @Override
+            public String toString() {
+                return "IndexTotals";
+            }
+        });
+    }
+
 
     private <V> V executeRead(Callable<V> exe) throws JanusGraphException {
         try {
@@ -0,0 +1,330 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.indexing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.BaseTransaction;
+import org.janusgraph.diskstorage.BaseTransactionConfig;
+import org.janusgraph.diskstorage.PermanentBackendException;
+import org.janusgraph.diskstorage.util.BackendOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies the mutations of many transactions against an {@link IndexProvider} asynchronously and in bulk.
+ * <p>
+ * Documents are assigned to one of a fixed number of lanes by store and document id. Each lane applies its mutations
+ * with one {@link IndexProvider#mutate(Map, KeyInformation.IndexRetriever, BaseTransaction)} call at a time, so the
+ * mutations of a document are applied in the order in which they were submitted while one request per lane can be
+ * in flight. A lane coalesces the mutations submitted by subsequent transactions into a single request until it
+ * contains the maximum number of documents or bytes, or until its oldest mutation has waited for the flush interval.
+ * <p>
+ * Submitting mutations blocks while the number of documents which have not yet been applied exceeds the configured
+ * maximum.
+ */
+public class BulkIndexPipeline implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIndexPipeline.class);
+
+    private final String name;
+    private final IndexProvider index;
+    private final BaseTransactionConfig txConfig;
+    private final int maxActions;
+    private final long maxBytes;
+    private final long flushIntervalNanos;
+    private final int maxPending;
+    private final Duration maxWriteTime;
+
+    private final Semaphore pending;
+    private final Lane[] lanes;
+    private final ExecutorService executor;
+    private volatile boolean closed = false;
+
+    public BulkIndexPipeline(String name, IndexProvider index, BaseTransactionConfig txConfig, int concurrentRequests,
+                             int maxActions, long maxBytes, Duration flushInterval, int maxPending,
+                             Duration maxWriteTime) {
+        Preconditions.checkArgument(name != null && index != null && txConfig != null);
+        Preconditions.checkArgument(concurrentRequests > 0 && maxActions > 0 && maxBytes > 0 && maxPending > 0);
+        Preconditions.checkArgument(flushInterval != null && !flushInterval.isNegative());
+        Preconditions.checkArgument(maxWriteTime != null && !maxWriteTime.isZero());
+        this.name = name;
+        this.index = index;
+        this.txConfig = txConfig;
+        this.maxActions = maxActions;
+        this.maxBytes = maxBytes;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxPending = maxPending;
+        this.maxWriteTime = maxWriteTime;
+        this.pending = new Semaphore(maxPending);
+        this.lanes = new Lane[concurrentRequests];
+        this.executor = Executors.newFixedThreadPool(concurrentRequests,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("index-bulk-" + name + "-%d").build());
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane();
+            executor.execute(lanes[i]);
+        }
+    }
+
+    /**
+     * Submits the given consolidated mutations to be applied asynchronously.
+     * <p>
+     * The information on the keys of all stores that are mutated is retrieved before this method returns, hence the
+     * retriever is not used once the transaction that submitted the mutations has been closed.
+     *
+     * @return Future which completes once all mutations have been applied, or exceptionally with the first failure
+     * @throws BackendException if the pipeline has been closed or the calling thread has been interrupted while waiting
+     * for pending mutations to be applied
+     */
+    public CompletableFuture<Void> submit(Map<String, Map<String, IndexMutation>> mutations,
+                                          KeyInformation.IndexRetriever information) throws BackendException {
+        int numDocuments = 0;
+        for (Map<String, IndexMutation> documents : mutations.values()) numDocuments += documents.size();
+        if (numDocuments == 0) return CompletableFuture.completedFuture(null);
+        if (closed) throw new PermanentBackendException("Bulk pipeline of index [" + name + "] has been closed");
+
+        final int permits = Math.min(numDocuments, maxPending);
+        try {
+            pending.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PermanentBackendException("Interrupted while waiting for pending mutations of index [" + name + "]", e);
+        }
+        final Submission submission = new Submission(numDocuments, permits);
+        for (Map.Entry<String, Map<String, IndexMutation>> store : mutations.entrySet()) {
+            final KeyInformation.StoreRetriever storeInformation = information.get(store.getKey());
+            for (Map.Entry<String, IndexMutation> document : store.getValue().entrySet()) {
+                final Lane lane = lanes[Math.floorMod(Objects.hash(store.getKey(), document.getKey()), lanes.length)];
+                if (!lane.add(store.getKey(), document.getKey(), document.getValue(), storeInformation, submission)) {
+                    submission.done(new PermanentBackendException("Bulk pipeline of index [" + name + "] has been closed"));
+                }
+            }
+        }
+        return submission.future;
+    }
+
+    /**
+     * Applies all pending mutations and stops accepting new ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Lane lane : lanes) lane.close();
+        executor.shutdown();
+        try {
+            //Every request is bounded by the maximum write time
+            while (!executor.awaitTermination(maxWriteTime.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.info("Waiting for pending mutations of index [{}] to be applied", name);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void apply(Batch batch) {
+        Throwable failure = null;
+        try {
+            BackendOperation.execute(() -> {
+                final BaseTransaction tx = index.beginTransaction(txConfig);
+                try {
+                    index.mutate(batch.mutations, batch, tx);
+                } catch (Exception e) {
+                    tx.rollback();
+                    throw e;
+                }
+                tx.commit();
+                return true;
+            }, maxWriteTime);
+        } catch (Throwable e) {
+            log.error("Could not apply bulk request of {} documents to index [{}]", batch.submissions.size(), name, e);
+            failure = e;
+        }
+        for (Submission submission : batch.submissions) submission.done(failure);
+    }
+
+    /**
+     * Rough estimate of the size of a document's mutation in a bulk request.
+     */
+    private static long estimateSize(String store, String documentId, IndexMutation mutation) {
+        long size = store.length() + documentId.length();
+        if (mutation.hasAdditions()) {
+            for (IndexEntry entry : mutation.getAdditions()) size += estimateSize(entry);
+        }
+        if (mutation.hasDeletions()) {
+            for (IndexEntry entry : mutation.getDeletions()) size += estimateSize(entry);
+        }
+        return size;
+    }
+
+    private static long estimateSize(IndexEntry entry) {
+        return entry.field.length() + (entry.value instanceof String ? ((String) entry.value).length() : 8);
+    }
+
+    private class Lane implements Runnable {
+
+        private final Deque<Batch> batches = new ArrayDeque<>();
+        private boolean closing = false;
+        private boolean terminated = false;
+
+        /**
+         * @return false if this lane has terminated and the mutation cannot be applied
+         */
+        private synchronized boolean add(String store, String documentId, IndexMutation mutation,
+                                         KeyInformation.StoreRetriever information, Submission submission) {
+            if (terminated) return false;
+            Batch batch = batches.peekLast();
+            //Mutations of the same document must not be merged since they may conflict, hence apply them in order
+            if (batch == null || batch.isFull() || batch.contains(store, documentId)) {
+                batch = new Batch();
+                batches.addLast(batch);
+                notifyAll();
+            }
+            batch.add(store, documentId, mutation, information, submission);
+            if (batch.isFull()) notifyAll();
+            return true;
+        }
+
+        private synchronized void close() {
+            closing = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the oldest batch is full or has waited for the flush interval and removes it.
+         *
+         * @return the batch to apply or null if this lane has been closed and all batches have been taken
+         */
+        private synchronized Batch take() throws InterruptedException {
+            while (true) {
+                final Batch batch = batches.peekFirst();
+                if (batch == null) {
+                    if (closing) {
+                        terminated = true;
+                        return null;
+                    }
+                    wait();
+                } else {
+                    final long remaining = batch.created + flushIntervalNanos - System.nanoTime();
+                    if (closing || remaining <= 0 || batches.size() > 1 || batch.isFull()) {
+                        return batches.pollFirst();
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Batch batch;
+                while ((batch = take()) != null) apply(batch);
+            } catch (InterruptedException e) {
+                final List<Batch> remaining;
+                synchronized (this) {
+                    terminated = true;
+                    remaining = new ArrayList<>(batches);
+                    batches.clear();
+                }
+                final PermanentBackendException failure = new PermanentBackendException(
+                    "Interrupted before mutations of index [" + name + "] were applied", e);
+                for (Batch batch : remaining) {
+                    for (Submission submission : batch.submissions) submission.done(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     * The mutations applied with a single request, which at most contain one mutation per document.
+     */
+    private class Batch implements KeyInformation.IndexRetriever {
+
+        private final long created = System.nanoTime();
+        private final Map<String, Map<String, IndexMutation>> mutations = new HashMap<>();
+        private final Map<String, KeyInformation.StoreRetriever> information = new HashMap<>();
+        private final List<Submission> submissions = new ArrayList<>();
+        private long bytes = 0;
+
+        private boolean contains(String store, String documentId) {
+            final Map<String, IndexMutation> documents = mutations.get(store);
+            return documents != null && documents.containsKey(documentId);
+        }
+
+        private boolean isFull() {
+            return submissions.size() >= maxActions || bytes >= maxBytes;
+        }
+
+        private void add(String store, String documentId, IndexMutation mutation,
+                         KeyInformation.StoreRetriever storeInformation, Submission submission) {
+            mutations.computeIfAbsent(store, s -> new HashMap<>()).put(documentId, mutation);
+            information.putIfAbsent(store, storeInformation);
+            submissions.add(submission);
+            bytes += estimateSize(store, documentId, mutation);
+        }
+
+        @Override
+        public KeyInformation get(String store, String key) {
+            return get(store).get(key);
+        }
+
+        @Override
+        public KeyInformation.StoreRetriever get(String store) {
+            return information.get(store);
+        }
+    }
+
+    /**
+     * Tracks the documents of the mutations submitted by one transaction.
+     */
+    private class Submission {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final AtomicInteger remaining;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final int permits;
+
+        private Submission(int numDocuments, int permits) {
+            this.remaining = new AtomicInteger(numDocuments);
+            this.permits = permits;
+        }
+
+        private void done(Throwable documentFailure) {
+            if (documentFailure != null) failure.compareAndSet(null, documentFailure);
+            if (remaining.decrementAndGet() == 0) {
+                pending.release(permits);
+                if (failure.get() == null) future.complete(null);
+                else future.completeExceptionally(failure.get());
+            }
+        }
+    }
+}
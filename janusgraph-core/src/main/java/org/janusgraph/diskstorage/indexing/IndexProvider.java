@@ -108,6 +108,22 @@ public interface IndexProvider extends IndexInformation {
      */
     Long totals(RawQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException;
 
+    /**
+     * Returns the number of documents matching the given query, ignoring its order and limit. The query optimizer uses
+     * this as a cardinality estimate to choose between indexes, hence implementations should only support it if it
+     * is considerably cheaper than executing the query.
+     *
+     * @param query Query to count the matching documents for
+     * @param information Information on the keys used in the query accessible through {@link KeyInformation.IndexRetriever}.
+     * @param tx Enclosing transaction
+     * @return Number of matching documents or null if this index cannot count them
+     * @throws org.janusgraph.diskstorage.BackendException
+     * @see IndexQuery
+     */
+    default Long totals(IndexQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException {
+        return null;
+    }
+
     /**
      * Returns a transaction handle for a new index transaction.
      *
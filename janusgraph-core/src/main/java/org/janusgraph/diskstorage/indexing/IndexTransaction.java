@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,12 +48,24 @@ public class IndexTransaction implements BaseTransaction, LoggableTransaction {
     private final KeyInformation.IndexRetriever keyInformation;
 
     private final Duration maxWriteTime;
+    private final BulkIndexPipeline pipeline;
 
     private Map<String,Map<String,IndexMutation>> mutations;
+    private CompletableFuture<Void> pendingMutations;
 
     public IndexTransaction(final IndexProvider index, final KeyInformation.IndexRetriever keyInformation,
                             BaseTransactionConfig config,
                             Duration maxWriteTime) throws BackendException {
+        this(index, keyInformation, config, maxWriteTime, null);
+    }
+
+    /**
+     * @param pipeline Applies the mutations of this transaction asynchronously on commit, or null to apply them
+     *                 synchronously
+     */
+    public IndexTransaction(final IndexProvider index, final KeyInformation.IndexRetriever keyInformation,
+                            BaseTransactionConfig config,
+                            Duration maxWriteTime, BulkIndexPipeline pipeline) throws BackendException {
         Preconditions.checkNotNull(index);
         Preconditions.checkNotNull(keyInformation);
         this.index=index;
@@ -60,6 +73,7 @@ public class IndexTransaction implements BaseTransaction, LoggableTransaction {
         this.indexTx=index.beginTransaction(config);
         Preconditions.checkNotNull(indexTx);
         this.maxWriteTime = maxWriteTime;
+        this.pipeline = pipeline;
         this.mutations = new HashMap<>(DEFAULT_OUTER_MAP_SIZE);
     }
 
@@ -124,6 +138,10 @@ public class IndexTransaction implements BaseTransaction, LoggableTransaction {
         return index.totals(query, keyInformation,indexTx);
     }
 
+    public Long totals(IndexQuery query) throws BackendException {
+        return index.totals(query, keyInformation,indexTx);
+    }
+
     public void restore(Map<String, Map<String,List<IndexEntry>>> documents) throws BackendException {
         index.restore(documents, keyInformation,indexTx);
     }
@@ -134,6 +152,14 @@ public class IndexTransaction implements BaseTransaction, LoggableTransaction {
         indexTx.commit();
     }
 
+    /**
+     * Returns the mutations which have been submitted to the {@link BulkIndexPipeline} on commit and complete once
+     * they have been applied, or null if there are no such mutations.
+     */
+    public CompletableFuture<Void> getPendingMutations() {
+        return pendingMutations;
+    }
+
     @Override
     public void rollback() throws BackendException {
         mutations=null;
@@ -149,6 +175,12 @@ public class IndexTransaction implements BaseTransaction, LoggableTransaction {
                 for (IndexMutation mut : store.values()) mut.consolidate();
             }
 
+            if (pipeline != null) {
+                pendingMutations = pipeline.submit(mutations, keyInformation);
+                mutations=null;
+                return;
+            }
+
             BackendOperation.execute(new Callable<Boolean>() {
                 @Override
                 public Boolean call() throws Exception {
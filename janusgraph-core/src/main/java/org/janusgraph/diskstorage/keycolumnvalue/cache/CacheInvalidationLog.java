@@ -0,0 +1,138 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.cache;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.diskstorage.ReadBuffer;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.log.Log;
+import org.janusgraph.diskstorage.log.Message;
+import org.janusgraph.diskstorage.log.MessageReader;
+import org.janusgraph.diskstorage.log.ReadMarker;
+import org.janusgraph.diskstorage.util.StaticArrayBuffer;
+import org.janusgraph.diskstorage.util.WriteByteBuffer;
+import org.janusgraph.graphdb.database.idhandling.VariableLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Propagates the invalidations of database level caches between JanusGraph instances through a {@link Log}.
+ * <p>
+ * The keys mutated by a {@link CacheTransaction} are published per store in batches of at most the configured
+ * number of keys. The keys of a batch are sorted and front-coded, i.e. each key only stores the bytes which differ from
+ * the preceding key, which compresses the messages well since most keys share long prefixes. Messages received from
+ * other instances invalidate the contained keys in the local {@link KCVSCache} of the respective store.
+ */
+public class CacheInvalidationLog implements MessageReader {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationLog.class);
+
+    private final Log invalidationLog;
+    private final String senderId;
+    private final Map<String, KCVSCache> caches;
+    private final int batchSize;
+
+    public CacheInvalidationLog(Log invalidationLog, String senderId, Map<String, KCVSCache> caches, int batchSize) {
+        Preconditions.checkArgument(invalidationLog != null && senderId != null && caches != null);
+        Preconditions.checkArgument(batchSize > 0, "Invalid batch size: %s", batchSize);
+        this.invalidationLog = invalidationLog;
+        this.senderId = senderId;
+        this.caches = caches;
+        this.batchSize = batchSize;
+        invalidationLog.registerReader(ReadMarker.fromNow(), this);
+    }
+
+    /**
+     * Publishes the given keys which have been mutated in the store with the given name. Stores whose caches are not
+     * propagated by this log are ignored.
+     */
+    public void publish(String storeName, Collection<StaticBuffer> keys) {
+        if (keys.isEmpty() || !caches.containsKey(storeName)) return;
+        final List<StaticBuffer> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        for (int from = 0; from < sorted.size(); from += batchSize) {
+            final StaticBuffer message = encode(storeName, sorted.subList(from, Math.min(sorted.size(), from + batchSize)));
+            try {
+                invalidationLog.add(message);
+            } catch (RuntimeException e) {
+                //The mutations have been persisted already, hence other instances only read stale data until their caches expire
+                log.error("Could not publish cache invalidations for store " + storeName, e);
+            }
+        }
+    }
+
+    @Override
+    public void read(Message message) {
+        if (senderId.equals(message.getSenderId())) return;
+        final ReadBuffer in = message.getContent().asReadBuffer();
+        final String storeName = new String(in.getBytes((int) VariableLong.readPositive(in)), StandardCharsets.UTF_8);
+        final KCVSCache cache = caches.get(storeName);
+        if (cache == null) return;
+        for (StaticBuffer key : decodeKeys(in)) cache.invalidate(key, Collections.emptyList());
+    }
+
+    @Override
+    public void updateState() {
+        //Nothing to do
+    }
+
+    static StaticBuffer encode(String storeName, List<StaticBuffer> sortedKeys) {
+        final byte[] name = storeName.getBytes(StandardCharsets.UTF_8);
+        final WriteByteBuffer out = new WriteByteBuffer(name.length + 8 + sortedKeys.size() * 8);
+        VariableLong.writePositive(out, name.length);
+        out.putBytes(name);
+        VariableLong.writePositive(out, sortedKeys.size());
+        StaticBuffer previous = null;
+        for (StaticBuffer key : sortedKeys) {
+            final int shared = previous == null ? 0 : commonPrefixLength(previous, key);
+            VariableLong.writePositive(out, shared);
+            VariableLong.writePositive(out, key.length() - shared);
+            out.putBytes(key.subrange(shared, key.length() - shared));
+            previous = key;
+        }
+        return out.getStaticBuffer();
+    }
+
+    static List<StaticBuffer> decodeKeys(ReadBuffer in) {
+        final int numKeys = (int) VariableLong.readPositive(in);
+        final List<StaticBuffer> keys = new ArrayList<>(numKeys);
+        byte[] previous = null;
+        for (int i = 0; i < numKeys; i++) {
+            final int shared = (int) VariableLong.readPositive(in);
+            final int suffixLength = (int) VariableLong.readPositive(in);
+            final byte[] key = new byte[shared + suffixLength];
+            if (shared > 0) System.arraycopy(previous, 0, key, 0, shared);
+            System.arraycopy(in.getBytes(suffixLength), 0, key, shared, suffixLength);
+            keys.add(new StaticArrayBuffer(key));
+            previous = key;
+        }
+        return keys;
+    }
+
+    private static int commonPrefixLength(StaticBuffer a, StaticBuffer b) {
+        final int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.getByte(i) == b.getByte(i)) i++;
+        return i;
+    }
+
+}
@@ -42,17 +42,33 @@ public class CacheTransaction implements StoreTransaction, LoggableTransaction {
     private final boolean batchLoading;
     private final int persistChunkSize;
     private final Duration maxWriteTime;
+    private final CacheInvalidationLog invalidationLog;
 
     private int numMutations;
     private final Map<KCVSCache, Map<StaticBuffer, KCVEntryMutation>> mutations;
 
     public CacheTransaction(StoreTransaction tx, KeyColumnValueStoreManager manager,
                              int persistChunkSize, Duration maxWriteTime, boolean batchLoading) {
-        this(tx, manager, persistChunkSize, maxWriteTime, batchLoading, 2);
+        this(tx, manager, persistChunkSize, maxWriteTime, batchLoading, 2, null);
+    }
+
+    /**
+     * @param invalidationLog log on which the keys mutated by this transaction are published to other instances,
+     *                        or null if cache invalidations are not propagated
+     */
+    public CacheTransaction(StoreTransaction tx, KeyColumnValueStoreManager manager, int persistChunkSize,
+                            Duration maxWriteTime, boolean batchLoading, CacheInvalidationLog invalidationLog) {
+        this(tx, manager, persistChunkSize, maxWriteTime, batchLoading, 2, invalidationLog);
     }
 
     public CacheTransaction(StoreTransaction tx, KeyColumnValueStoreManager manager, int persistChunkSize,
                             Duration maxWriteTime, boolean batchLoading, int expectedNumStores) {
+        this(tx, manager, persistChunkSize, maxWriteTime, batchLoading, expectedNumStores, null);
+    }
+
+    public CacheTransaction(StoreTransaction tx, KeyColumnValueStoreManager manager, int persistChunkSize,
+                            Duration maxWriteTime, boolean batchLoading, int expectedNumStores,
+                            CacheInvalidationLog invalidationLog) {
         Preconditions.checkArgument(tx != null && manager != null && persistChunkSize > 0);
         this.tx = tx;
         this.manager = manager;
@@ -60,6 +76,7 @@ public class CacheTransaction implements StoreTransaction, LoggableTransaction {
         this.numMutations = 0;
         this.persistChunkSize = persistChunkSize;
         this.maxWriteTime = maxWriteTime;
+        this.invalidationLog = invalidationLog;
         this.mutations = new HashMap<>(expectedNumStores);
     }
 
@@ -158,6 +175,7 @@ public class CacheTransaction implements StoreTransaction, LoggableTransaction {
                         cache.invalidate(mutationsForKey.getKey(),entries);
                     }
                 }
+                if (invalidationLog != null) invalidationLog.publish(cache.getName(), storeMutations.getValue().keySet());
             }
             clear();
         }
@@ -0,0 +1,60 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.cache;
+
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+
+/**
+ * The implementations of the database level cache which can be configured for a store.
+ */
+public enum DBCacheType {
+
+    /**
+     * Guava cache with LRU eviction, see {@link ExpirationKCVSCache}
+     */
+    EXPIRATION {
+        @Override
+        public KCVSCache create(KeyColumnValueStore store, String metricsName, long cacheTimeMS,
+                                long invalidationGracePeriodMS, long maximumByteSize) {
+            return new ExpirationKCVSCache(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize);
+        }
+    },
+
+    /**
+     * Frequency based admission and size-aware eviction, see {@link TinyLfuKCVSCache}
+     */
+    TINYLFU {
+        @Override
+        public KCVSCache create(KeyColumnValueStore store, String metricsName, long cacheTimeMS,
+                                long invalidationGracePeriodMS, long maximumByteSize) {
+            return new TinyLfuKCVSCache(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize);
+        }
+    },
+
+    /**
+     * Serialized results in direct memory outside of the heap, see {@link OffHeapKCVSCache}
+     */
+    OFFHEAP {
+        @Override
+        public KCVSCache create(KeyColumnValueStore store, String metricsName, long cacheTimeMS,
+                                long invalidationGracePeriodMS, long maximumByteSize) {
+            return new OffHeapKCVSCache(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize);
+        }
+    };
+
+    public abstract KCVSCache create(KeyColumnValueStore store, String metricsName, long cacheTimeMS,
+                                     long invalidationGracePeriodMS, long maximumByteSize);
+
+}
@@ -0,0 +1,327 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.cache;
+
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.util.StaticArrayEntryList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A database level cache which stores the serialized query results outside of the Java heap, so that large caches
+ * do not increase garbage collection pauses.
+ * <p>
+ * Each segment allocates direct memory in slabs of equal size up to its share of the maximum byte size. Slabs are
+ * divided into chunks of one size class, where the chunk sizes grow by a constant factor, and every result is stored
+ * in a chunk of the smallest fitting class. Each size class has its own LRU list. If no chunk of the required class is
+ * free and no further slab can be allocated, the least recently used result of that class is evicted. If another
+ * class holds a result which has been used less recently, or holds no results at all, one of its slabs is reassigned
+ * to the required class instead, evicting the results stored in it. Otherwise, the slabs would remain assigned to the
+ * size classes which happened to be needed first, and results of other sizes could never be cached.
+ * <p>
+ * Results are serialized with {@link StaticArrayEntryList#writeTo(ByteBuffer)} and copied back onto the heap in bulk
+ * when they are read. Handing out views of the direct memory instead is not safe because chunks are reused as soon
+ * as their results are evicted or invalidated. Only the index of the cached queries remains on the heap.
+ * <p>
+ * The direct memory is allocated lazily and bounded by {@code -XX:MaxDirectMemorySize}, which therefore must be
+ * configured large enough for the cache.
+ */
+public class OffHeapKCVSCache extends SegmentedKCVSCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapKCVSCache.class);
+
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double CHUNK_GROWTH_FACTOR = 1.25;
+
+    public OffHeapKCVSCache(final KeyColumnValueStore store, String metricsName, final long cacheTimeMS,
+                            final long invalidationGracePeriodMS, final long maximumByteSize) {
+        this(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public OffHeapKCVSCache(final KeyColumnValueStore store, String metricsName, final long cacheTimeMS,
+                            final long invalidationGracePeriodMS, final long maximumByteSize, final int concurrencyLevel) {
+        super(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize, concurrencyLevel);
+    }
+
+    @Override
+    protected Segment newSegment(long maximumByteSize) {
+        return new SlabSegment(maximumByteSize);
+    }
+
+    /**
+     * Returns the chunk sizes of the size classes for the given slab size. Chunks are 8-byte aligned.
+     */
+    static int[] getChunkSizes(int slabSize) {
+        final List<Integer> sizes = new ArrayList<>();
+        int size = Math.min(MIN_CHUNK_SIZE, slabSize);
+        while (size < slabSize) {
+            sizes.add(size);
+            size = Math.max(size + 8, (int) (size * CHUNK_GROWTH_FACTOR) + 7 & ~7);
+        }
+        sizes.add(slabSize);
+        final int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) result[i] = sizes.get(i);
+        return result;
+    }
+
+    private static class Chunk {
+
+        private final ByteBuffer slab;
+        private final int offset;
+
+        private Chunk(ByteBuffer slab, int offset) {
+            this.slab = slab;
+            this.offset = offset;
+        }
+
+        private ByteBuffer buffer() {
+            final ByteBuffer buffer = slab.duplicate();
+            buffer.position(offset);
+            return buffer;
+        }
+    }
+
+    private static class Node {
+
+        private final KeySliceQuery query;
+        private final SizeClass sizeClass;
+        private final Chunk chunk;
+        private final long expires;
+        private long accessed;
+        private Node previous;
+        private Node next;
+
+        private Node(KeySliceQuery query, SizeClass sizeClass, Chunk chunk, long expires) {
+            this.query = query;
+            this.sizeClass = sizeClass;
+            this.chunk = chunk;
+            this.expires = expires;
+        }
+    }
+
+    private static class SizeClass {
+
+        private final int chunkSize;
+        private final ArrayDeque<Chunk> freeChunks = new ArrayDeque<>();
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        /**
+         * Most recently used result of this class
+         */
+        private Node head;
+        /**
+         * Least recently used result of this class
+         */
+        private Node tail;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private void addFirst(Node node) {
+            node.previous = null;
+            node.next = head;
+            if (head != null) head.previous = node;
+            head = node;
+            if (tail == null) tail = node;
+        }
+
+        private void unlink(Node node) {
+            if (node.previous != null) node.previous.next = node.next;
+            else head = node.next;
+            if (node.next != null) node.next.previous = node.previous;
+            else tail = node.previous;
+            node.previous = null;
+            node.next = null;
+        }
+
+        private void moveToFront(Node node) {
+            if (head == node) return;
+            unlink(node);
+            addFirst(node);
+        }
+    }
+
+    private class SlabSegment extends Segment {
+
+        private final int slabSize;
+        private final int[] chunkSizes;
+        private final SizeClass[] sizeClasses;
+        private final Map<KeySliceQuery,Node> nodes = new HashMap<>();
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private final ArrayDeque<ByteBuffer> spareSlabs = new ArrayDeque<>();
+        private int maxSlabs;
+        private long usedBytes = 0;
+        /**
+         * Logical clock recording the order in which results are used
+         */
+        private long accessClock = 0;
+
+        private SlabSegment(long maxBytes) {
+            slabSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(DEFAULT_SLAB_SIZE, maxBytes));
+            maxSlabs = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxBytes / slabSize));
+            chunkSizes = getChunkSizes(slabSize);
+            sizeClasses = new SizeClass[chunkSizes.length];
+            for (int i = 0; i < chunkSizes.length; i++) sizeClasses[i] = new SizeClass(chunkSizes[i]);
+        }
+
+        @Override
+        protected EntryList getIfPresent(KeySliceQuery query, int hash) {
+            final Node node = nodes.get(query);
+            if (node == null) return null;
+            if (node.expires < System.currentTimeMillis()) {
+                remove(query);
+                return null;
+            }
+            node.accessed = ++accessClock;
+            node.sizeClass.moveToFront(node);
+            return StaticArrayEntryList.readFrom(node.chunk.buffer());
+        }
+
+        @Override
+        protected void add(KeySliceQuery query, int hash, EntryList entries) {
+            final StaticArrayEntryList list = entries.isEmpty() ? null
+                    : entries instanceof StaticArrayEntryList ? (StaticArrayEntryList) entries
+                    : (StaticArrayEntryList) StaticArrayEntryList.of(entries);
+            final int size = list == null ? 4 : list.getSerializedSize();
+            if (size > slabSize) return;
+            int classIndex = Arrays.binarySearch(chunkSizes, size);
+            if (classIndex < 0) classIndex = -classIndex - 1;
+            final SizeClass sizeClass = sizeClasses[classIndex];
+            final Chunk chunk = allocate(sizeClass);
+            if (chunk == null) return;
+            final ByteBuffer out = chunk.buffer();
+            if (list == null) out.putInt(0);
+            else list.writeTo(out);
+            final Node node = new Node(query, sizeClass, chunk, System.currentTimeMillis() + cacheTimeMS);
+            node.accessed = ++accessClock;
+            nodes.put(query, node);
+            sizeClass.addFirst(node);
+            usedBytes += sizeClass.chunkSize;
+            addToIndex(query);
+        }
+
+        private Chunk allocate(SizeClass sizeClass) {
+            if (sizeClass.freeChunks.isEmpty()) {
+                ByteBuffer slab = allocateSlab();
+                if (slab == null) slab = reassignSlab(sizeClass);
+                if (slab != null) {
+                    sizeClass.slabs.add(slab);
+                    for (int offset = 0; offset + sizeClass.chunkSize <= slabSize; offset += sizeClass.chunkSize) {
+                        sizeClass.freeChunks.add(new Chunk(slab, offset));
+                    }
+                } else if (sizeClass.tail != null) {
+                    remove(sizeClass.tail.query);
+                }
+            }
+            return sizeClass.freeChunks.poll();
+        }
+
+        /**
+         * Takes a slab away from the size class which holds no results or otherwise the least recently used result
+         * of all classes, evicting the results stored in that slab. Returns null if the given class holds the least
+         * recently used result itself, in which case that result is evicted instead.
+         */
+        private ByteBuffer reassignSlab(SizeClass target) {
+            SizeClass victim = null;
+            for (SizeClass sizeClass : sizeClasses) {
+                if (sizeClass == target || sizeClass.slabs.isEmpty()) continue;
+                if (sizeClass.tail == null) {
+                    victim = sizeClass;
+                    break;
+                }
+                if (victim == null || sizeClass.tail.accessed < victim.tail.accessed) victim = sizeClass;
+            }
+            if (victim == null) return null;
+            if (victim.tail != null && target.tail != null && target.tail.accessed < victim.tail.accessed) return null;
+            final ByteBuffer slab = victim.tail == null ? victim.slabs.get(victim.slabs.size() - 1) : victim.tail.chunk.slab;
+            Node node = victim.tail;
+            while (node != null) {
+                final Node previous = node.previous;
+                if (node.chunk.slab == slab) remove(node.query);
+                node = previous;
+            }
+            //Slabs are compared by identity since ByteBuffer.equals compares their contents
+            victim.freeChunks.removeIf(chunk -> chunk.slab == slab);
+            victim.slabs.removeIf(victimSlab -> victimSlab == slab);
+            return slab;
+        }
+
+        private ByteBuffer allocateSlab() {
+            if (!spareSlabs.isEmpty()) return spareSlabs.poll();
+            if (slabs.size() >= maxSlabs) return null;
+            final ByteBuffer slab;
+            try {
+                slab = ByteBuffer.allocateDirect(slabSize);
+            } catch (OutOfMemoryError e) {
+                log.warn("Could not allocate direct memory for the off-heap cache, limiting it to {} bytes in this segment. " +
+                        "Consider increasing -XX:MaxDirectMemorySize", (long) slabs.size() * slabSize);
+                maxSlabs = slabs.size();
+                return null;
+            }
+            slabs.add(slab);
+            return slab;
+        }
+
+        @Override
+        protected void remove(KeySliceQuery query) {
+            final Node node = nodes.remove(query);
+            if (node == null) return;
+            node.sizeClass.unlink(node);
+            node.sizeClass.freeChunks.add(node.chunk);
+            usedBytes -= node.sizeClass.chunkSize;
+            removeFromIndex(query);
+        }
+
+        @Override
+        protected void removeAll() {
+            nodes.clear();
+            for (SizeClass sizeClass : sizeClasses) {
+                sizeClass.freeChunks.clear();
+                sizeClass.slabs.clear();
+                sizeClass.head = null;
+                sizeClass.tail = null;
+            }
+            //Slabs may be assigned to a different size class once they are reused
+            spareSlabs.clear();
+            spareSlabs.addAll(slabs);
+            usedBytes = 0;
+        }
+
+        @Override
+        protected long getWeight() {
+            return usedBytes;
+        }
+
+        @Override
+        protected void release() {
+            //Drop all references to the slabs so that the direct memory can be reclaimed
+            spareSlabs.clear();
+            slabs.clear();
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.cache;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+import org.janusgraph.diskstorage.util.CacheMetricsAction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class for database level caches which are partitioned into independently locked segments by key, so that
+ * all cached results for a key live in the same segment which indexes them by key. Invalidating a key hence only
+ * removes the results of that key rather than sweeping the entire cache.
+ * <p>
+ * Invalidated keys are not cached again for the configured grace period, which accounts for storage backends that
+ * acknowledge writes before they become visible. Results which were loaded from the store while their segment got
+ * invalidated are not cached either.
+ */
+public abstract class SegmentedKCVSCache extends KCVSCache {
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final ConcurrentHashMap<StaticBuffer,Long> invalidatedKeys;
+
+    protected final long cacheTimeMS;
+    private final long invalidationGracePeriodMS;
+
+    /**
+     * @param concurrencyLevel the expected number of concurrently accessing threads which determines the number of
+     *                         segments. Each segment holds an equal share of the maximum byte size.
+     */
+    protected SegmentedKCVSCache(final KeyColumnValueStore store, String metricsName, final long cacheTimeMS,
+                                 final long invalidationGracePeriodMS, final long maximumByteSize, final int concurrencyLevel) {
+        super(store, metricsName);
+        Preconditions.checkArgument(cacheTimeMS > 0, "Cache expiration must be positive: %s", cacheTimeMS);
+        Preconditions.checkArgument(System.currentTimeMillis()+1000L*3600*24*365*100+cacheTimeMS>0,"Cache expiration time too large, overflow may occur: %s",cacheTimeMS);
+        Preconditions.checkArgument(invalidationGracePeriodMS >= 0, "Invalid expiration grace period: %s", invalidationGracePeriodMS);
+        Preconditions.checkArgument(maximumByteSize > 0, "Invalid cache size: %s", maximumByteSize);
+        Preconditions.checkArgument(concurrencyLevel > 0, "Invalid concurrency level: %s", concurrencyLevel);
+        this.cacheTimeMS = cacheTimeMS;
+        this.invalidationGracePeriodMS = invalidationGracePeriodMS;
+        final int numSegments = Integer.highestOneBit(concurrencyLevel * 2 - 1);
+        final long segmentByteSize = maximumByteSize / numSegments;
+        segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) segments[i] = newSegment(segmentByteSize);
+        segmentMask = numSegments - 1;
+        invalidatedKeys = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a segment which holds at most the given number of bytes. This is invoked from the constructor.
+     */
+    protected abstract Segment newSegment(long maximumByteSize);
+
+    @Override
+    public EntryList getSlice(final KeySliceQuery query, final StoreTransaction txh) throws BackendException {
+        incActionBy(1, CacheMetricsAction.RETRIEVAL, txh);
+        final Segment segment = segmentFor(query.getKey());
+        final int hash = spread(query.hashCode());
+        final long version = segment.version();
+        EntryList result = segment.get(query, hash);
+        if (result == null) {
+            incActionBy(1, CacheMetricsAction.MISS, txh);
+            result = store.getSlice(query, unwrapTx(txh));
+            if (!isInvalidated(query.getKey())) segment.put(query, hash, result, version);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<StaticBuffer,EntryList> getSlice(final List<StaticBuffer> keys, final SliceQuery query, final StoreTransaction txh) throws BackendException {
+        final Map<StaticBuffer,EntryList> results = new HashMap<>(keys.size());
+        final List<StaticBuffer> remainingKeys = new ArrayList<>(keys.size());
+        final KeySliceQuery[] ksqs = new KeySliceQuery[keys.size()];
+        final int[] hashes = new int[keys.size()];
+        final long[] versions = new long[keys.size()];
+        incActionBy(keys.size(), CacheMetricsAction.RETRIEVAL, txh);
+        //Find all cached queries
+        for (int i = 0; i < keys.size(); i++) {
+            final StaticBuffer key = keys.get(i);
+            final Segment segment = segmentFor(key);
+            ksqs[i] = new KeySliceQuery(key, query);
+            hashes[i] = spread(ksqs[i].hashCode());
+            versions[i] = segment.version();
+            final EntryList result = segment.get(ksqs[i], hashes[i]);
+            if (result != null) results.put(key, result);
+            else remainingKeys.add(key);
+        }
+        //Request remaining ones from backend
+        if (!remainingKeys.isEmpty()) {
+            incActionBy(remainingKeys.size(), CacheMetricsAction.MISS, txh);
+            final Map<StaticBuffer,EntryList> subresults = store.getSlice(remainingKeys, query, unwrapTx(txh));
+            for (int i = 0; i < keys.size(); i++) {
+                final StaticBuffer key = keys.get(i);
+                final EntryList subresult = subresults.get(key);
+                if (subresult != null) {
+                    results.put(key, subresult);
+                    if (!isInvalidated(key)) segmentFor(key).put(ksqs[i], hashes[i], subresult, versions[i]);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void clearCache() {
+        for (Segment segment : segments) segment.clear();
+        invalidatedKeys.clear();
+    }
+
+    @Override
+    public void invalidate(StaticBuffer key, List<CachableStaticBuffer> entries) {
+        Preconditions.checkArgument(!hasValidateKeysOnly() || entries.isEmpty());
+        if (invalidationGracePeriodMS > 0) invalidatedKeys.put(key, System.currentTimeMillis() + invalidationGracePeriodMS);
+        segmentFor(key).invalidate(key);
+    }
+
+    @Override
+    public void close() throws BackendException {
+        for (Segment segment : segments) segment.close();
+        super.close();
+    }
+
+    /**
+     * Returns the total weight in bytes of all cached results.
+     */
+    public long getByteSize() {
+        long size = 0;
+        for (Segment segment : segments) size += segment.weight();
+        return size;
+    }
+
+    private boolean isInvalidated(StaticBuffer key) {
+        if (invalidatedKeys.isEmpty()) return false;
+        final Long until = invalidatedKeys.get(key);
+        if (until == null) return false;
+        if (until < System.currentTimeMillis()) {
+            invalidatedKeys.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private Segment segmentFor(StaticBuffer key) {
+        return segments[spread(key.hashCode()) & segmentMask];
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A segment of the cache. All methods are invoked while holding the lock of the segment.
+     */
+    protected abstract static class Segment {
+
+        private final Map<StaticBuffer,Set<KeySliceQuery>> queriesByKey = new HashMap<>();
+        /**
+         * Incremented on every invalidation so that results which were loaded concurrently are not cached
+         */
+        private long version = 0;
+
+        /**
+         * Returns the cached and unexpired result for the query, or null
+         */
+        protected abstract EntryList getIfPresent(KeySliceQuery query, int hash);
+
+        /**
+         * Caches the result for the query, which is not currently cached. Implementations must call
+         * {@link #addToIndex(KeySliceQuery)} for every retained result and {@link #removeFromIndex(KeySliceQuery)}
+         * for every result they evict.
+         */
+        protected abstract void add(KeySliceQuery query, int hash, EntryList entries);
+
+        /**
+         * Removes the result for the query, including its index entry, if it is cached.
+         */
+        protected abstract void remove(KeySliceQuery query);
+
+        protected abstract void removeAll();
+
+        protected abstract long getWeight();
+
+        /**
+         * Releases any resources held by this segment once it has been cleared for the last time.
+         */
+        protected void release() {
+            //Nothing to release by default
+        }
+
+        protected final void addToIndex(KeySliceQuery query) {
+            queriesByKey.computeIfAbsent(query.getKey(), k -> new HashSet<>(4)).add(query);
+        }
+
+        protected final void removeFromIndex(KeySliceQuery query) {
+            final Set<KeySliceQuery> queries = queriesByKey.get(query.getKey());
+            if (queries != null && queries.remove(query) && queries.isEmpty()) queriesByKey.remove(query.getKey());
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized long weight() {
+            return getWeight();
+        }
+
+        synchronized EntryList get(KeySliceQuery query, int hash) {
+            return getIfPresent(query, hash);
+        }
+
+        synchronized void put(KeySliceQuery query, int hash, EntryList entries, long expectedVersion) {
+            if (version != expectedVersion) return;
+            remove(query);
+            add(query, hash, entries);
+        }
+
+        synchronized void invalidate(StaticBuffer key) {
+            version++;
+            //Detach the queries of the key first, so that their removal does not modify the iterated set
+            final Set<KeySliceQuery> queries = queriesByKey.remove(key);
+            if (queries == null) return;
+            for (KeySliceQuery query : queries) remove(query);
+        }
+
+        synchronized void clear() {
+            version++;
+            removeAll();
+            queriesByKey.clear();
+        }
+
+        synchronized void close() {
+            clear();
+            release();
+        }
+    }
+
+}
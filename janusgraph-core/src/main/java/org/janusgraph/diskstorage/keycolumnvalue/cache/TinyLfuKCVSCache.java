@@ -0,0 +1,254 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.cache;
+
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.janusgraph.util.datastructures.ByteSize.*;
+
+/**
+ * A database level cache which uses frequency based admission in the style of W-TinyLFU to protect frequently read
+ * entries, e.g. the adjacency lists of supernodes, from being flushed out by entries which are only read once as
+ * happens in scans.
+ * <p>
+ * Newly cached query results enter a small LRU window. Results evicted from the window are only admitted into the
+ * main LRU region if they have been requested more frequently than the results they would displace, as estimated by a
+ * count-min sketch with 4-bit counters that are periodically halved so that the estimate follows changes in the access
+ * pattern. Results are weighed by the actual size of their entries and query.
+ */
+public class TinyLfuKCVSCache extends SegmentedKCVSCache {
+
+    private static final int NODE_SIZE = OBJECT_HEADER + 2 * 4 + 8 + 2 * OBJECT_REFERENCE;
+    private static final int LINKED_HASH_MAP_ENTRY_SIZE = OBJECT_HEADER + 4 + 4 * OBJECT_REFERENCE;
+    private static final int KEY_QUERY_SIZE = OBJECT_HEADER + 4 + 1 + 3 * (OBJECT_REFERENCE + STATICARRAYBUFFER_RAW_SIZE);
+
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final int AVERAGE_ENTRY_SIZE = 512;
+    private static final int MIN_SKETCH_SIZE = 256;
+
+    public TinyLfuKCVSCache(final KeyColumnValueStore store, String metricsName, final long cacheTimeMS,
+                            final long invalidationGracePeriodMS, final long maximumByteSize) {
+        this(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public TinyLfuKCVSCache(final KeyColumnValueStore store, String metricsName, final long cacheTimeMS,
+                            final long invalidationGracePeriodMS, final long maximumByteSize, final int concurrencyLevel) {
+        super(store, metricsName, cacheTimeMS, invalidationGracePeriodMS, maximumByteSize, concurrencyLevel);
+    }
+
+    @Override
+    protected Segment newSegment(long maximumByteSize) {
+        return new LfuSegment(maximumByteSize);
+    }
+
+    private static int getWeight(KeySliceQuery query, EntryList entries) {
+        return NODE_SIZE + 2 * LINKED_HASH_MAP_ENTRY_SIZE + KEY_QUERY_SIZE
+                + query.getKey().length() + query.getSliceStart().length() + query.getSliceEnd().length()
+                + entries.getByteSize();
+    }
+
+    private static class Node {
+
+        private final KeySliceQuery query;
+        private final int hash;
+        private final EntryList entries;
+        private final int weight;
+        private final long expires;
+
+        private Node(KeySliceQuery query, int hash, EntryList entries, long expires) {
+            this.query = query;
+            this.hash = hash;
+            this.entries = entries;
+            this.weight = getWeight(query, entries);
+            this.expires = expires;
+        }
+    }
+
+    private class LfuSegment extends Segment {
+
+        private final LinkedHashMap<KeySliceQuery,Node> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<KeySliceQuery,Node> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+        private final long maxWindowWeight;
+        private final long maxMainWeight;
+
+        private long windowWeight = 0;
+        private long mainWeight = 0;
+
+        private LfuSegment(long maxWeight) {
+            maxWindowWeight = Math.max(1, (long) (maxWeight * WINDOW_FRACTION));
+            maxMainWeight = Math.max(1, maxWeight - maxWindowWeight);
+            sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(MIN_SKETCH_SIZE, maxWeight / AVERAGE_ENTRY_SIZE)));
+        }
+
+        @Override
+        protected EntryList getIfPresent(KeySliceQuery query, int hash) {
+            sketch.increment(hash);
+            Node node = window.get(query);
+            if (node == null) node = main.get(query);
+            if (node == null) return null;
+            if (node.expires < System.currentTimeMillis()) {
+                remove(query);
+                return null;
+            }
+            return node.entries;
+        }
+
+        @Override
+        protected void add(KeySliceQuery query, int hash, EntryList entries) {
+            final Node node = new Node(query, hash, entries, System.currentTimeMillis() + cacheTimeMS);
+            window.put(query, node);
+            windowWeight += node.weight;
+            addToIndex(query);
+            //Evict from the window into the main region, subject to admission
+            final Iterator<Node> windowNodes = window.values().iterator();
+            while (windowWeight > maxWindowWeight && windowNodes.hasNext()) {
+                final Node candidate = windowNodes.next();
+                windowNodes.remove();
+                windowWeight -= candidate.weight;
+                if (admit(candidate)) {
+                    main.put(candidate.query, candidate);
+                    mainWeight += candidate.weight;
+                } else {
+                    removeFromIndex(candidate.query);
+                }
+            }
+        }
+
+        /**
+         * Makes room in the main region for the candidate if it is more frequently requested than each of the least
+         * recently used results it displaces. Returns whether the candidate was admitted. A rejected candidate leaves
+         * the main region untouched.
+         */
+        private boolean admit(Node candidate) {
+            if (candidate.weight > maxMainWeight) return false;
+            if (mainWeight + candidate.weight <= maxMainWeight) return true;
+            final int candidateFrequency = sketch.frequency(candidate.hash);
+            final long now = System.currentTimeMillis();
+            //Select all victims before evicting any of them, so that a rejection does not cost cached results
+            final List<Node> victims = new ArrayList<>();
+            long freedWeight = 0;
+            final Iterator<Node> mainNodes = main.values().iterator();
+            while (mainWeight - freedWeight + candidate.weight > maxMainWeight && mainNodes.hasNext()) {
+                final Node victim = mainNodes.next();
+                if (victim.expires >= now && sketch.frequency(victim.hash) >= candidateFrequency) return false;
+                victims.add(victim);
+                freedWeight += victim.weight;
+            }
+            for (Node victim : victims) {
+                main.remove(victim.query);
+                removeFromIndex(victim.query);
+            }
+            mainWeight -= freedWeight;
+            return true;
+        }
+
+        @Override
+        protected void remove(KeySliceQuery query) {
+            Node node = window.remove(query);
+            if (node != null) windowWeight -= node.weight;
+            else {
+                node = main.remove(query);
+                if (node == null) return;
+                mainWeight -= node.weight;
+            }
+            removeFromIndex(query);
+        }
+
+        @Override
+        protected void removeAll() {
+            window.clear();
+            main.clear();
+            windowWeight = 0;
+            mainWeight = 0;
+        }
+
+        @Override
+        protected long getWeight() {
+            return windowWeight + mainWeight;
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of 4-bit counters which are packed into a single table of longs holding sixteen
+     * counters each. For each row, an item is hashed with the seed of that row to one of the longs and uses one counter
+     * within it, selected by the row and the two lowest bits of the item, so that an item touches up to four different
+     * longs. Once the number of increments reaches ten times the table size, all counters are halved so that old
+     * accesses age out.
+     */
+    static class FrequencySketch {
+
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long COUNTER_MAX = 15L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size = 0;
+
+        FrequencySketch(int expectedItems) {
+            final int capacity = Integer.highestOneBit(Math.max(16, expectedItems) - 1) << 1;
+            table = new long[capacity];
+            tableMask = capacity - 1;
+            sampleSize = 10 * capacity;
+        }
+
+        int frequency(int item) {
+            final int start = (item & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int offset = (start + i) << 2;
+                final long count = (table[indexOf(item, i)] >>> offset) & COUNTER_MAX;
+                frequency = Math.min(frequency, (int) count);
+            }
+            return frequency;
+        }
+
+        void increment(int item) {
+            final int start = (item & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(item, i);
+                final int offset = (start + i) << 2;
+                if (((table[index] >>> offset) & COUNTER_MAX) != COUNTER_MAX) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size >= sampleSize) reset();
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+            size /= 2;
+        }
+
+        private int indexOf(int item, int i) {
+            long hash = (item + SEEDS[i]) * SEEDS[i];
+            hash += hash >>> 32;
+            return ((int) hash) & tableMask;
+        }
+    }
+
+}
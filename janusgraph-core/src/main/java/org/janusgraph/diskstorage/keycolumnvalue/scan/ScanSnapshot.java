@@ -0,0 +1,174 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.keycolumnvalue.scan;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.core.JanusGraphException;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.Entry;
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.configuration.Configuration;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+import org.janusgraph.diskstorage.keycolumnvalue.inmemory.InMemoryKeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.inmemory.InMemoryStoreManager;
+import org.janusgraph.diskstorage.util.StandardBaseTransactionConfig;
+import org.janusgraph.diskstorage.util.time.TimestampProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Keeps an in-memory copy of the rows read by a {@link ScanJob} so that subsequent scans of the same store
+ * can be answered from memory instead of the storage backend.
+ * <p>
+ * A snapshot is recorded by wrapping a job with {@link #record(ScanJob)} and executing the returned job against
+ * the storage backend. Once that scan completed successfully, {@link #complete()} marks the snapshot as usable and
+ * any later scan whose queries are all subsumed by the recorded queries (see {@link #covers(List)}) can be executed
+ * against {@link #getScanner()} instead. The rows are retained in their serialized form.
+ * <p>
+ * This is only valid as long as the scanned store does not change, e.g. for the iterations of an OLAP job which
+ * does not write into the graph.
+ */
+public class ScanSnapshot {
+
+    private final String storeName;
+    private final InMemoryStoreManager manager;
+    private final StandardScanner scanner;
+    private final InMemoryKeyColumnValueStore store;
+    private final StoreTransaction tx;
+
+    private List<SliceQuery> recordedQueries = Collections.emptyList();
+    private volatile boolean complete = false;
+
+    public ScanSnapshot(String storeName, TimestampProvider times) throws BackendException {
+        Preconditions.checkArgument(storeName != null && times != null);
+        this.storeName = storeName;
+        this.manager = new InMemoryStoreManager();
+        this.scanner = new StandardScanner(manager);
+        this.store = (InMemoryKeyColumnValueStore) manager.openDatabase(storeName);
+        this.tx = manager.beginTransaction(StandardBaseTransactionConfig.of(times));
+    }
+
+    /**
+     * Whether this snapshot has been completely recorded and contains the data for all of the given queries.
+     */
+    public boolean covers(List<SliceQuery> queries) {
+        if (!complete) return false;
+        for (SliceQuery query : queries) {
+            if (recordedQueries.stream().noneMatch(recorded -> recorded.subsumes(query))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Discards any previously recorded data and returns a job which records every row processed by the given job
+     * into this snapshot.
+     */
+    public ScanJob record(ScanJob job) {
+        complete = false;
+        store.clear();
+        recordedQueries = new ArrayList<>(job.getQueries());
+        return new RecordingJob(job);
+    }
+
+    /**
+     * Marks the data recorded by the job last returned from {@link #record(ScanJob)} as complete.
+     */
+    public void complete() {
+        complete = true;
+    }
+
+    /**
+     * Returns the scanner against which jobs covered by this snapshot can be executed.
+     */
+    public StandardScanner getScanner() {
+        return scanner;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public void close() throws BackendException {
+        complete = false;
+        scanner.close();
+        tx.rollback();
+        manager.close();
+    }
+
+    private void add(StaticBuffer key, Map<SliceQuery, EntryList> entries) {
+        final List<Entry> additions = new ArrayList<>();
+        for (EntryList entryList : entries.values()) additions.addAll(entryList);
+        if (additions.isEmpty()) return;
+        //Queries may overlap, hence remove duplicate columns
+        Collections.sort(additions);
+        final List<Entry> unique = new ArrayList<>(additions.size());
+        for (Entry entry : additions) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1).compareTo(entry) != 0) unique.add(entry);
+        }
+        try {
+            store.mutate(key, unique, KeyColumnValueStore.NO_DELETIONS, tx);
+        } catch (BackendException e) {
+            throw new JanusGraphException("Could not record row in scan snapshot", e);
+        }
+    }
+
+    private class RecordingJob implements ScanJob {
+
+        private final ScanJob job;
+
+        private RecordingJob(ScanJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void workerIterationStart(Configuration jobConfiguration, Configuration graphConfiguration, ScanMetrics metrics) {
+            job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
+        }
+
+        @Override
+        public void workerIterationEnd(ScanMetrics metrics) {
+            job.workerIterationEnd(metrics);
+        }
+
+        @Override
+        public void process(StaticBuffer key, Map<SliceQuery, EntryList> entries, ScanMetrics metrics) {
+            add(key, entries);
+            job.process(key, entries, metrics);
+        }
+
+        @Override
+        public List<SliceQuery> getQueries() {
+            return job.getQueries();
+        }
+
+        @Override
+        public Predicate<StaticBuffer> getKeyFilter() {
+            return job.getKeyFilter();
+        }
+
+        @Override
+        public RecordingJob clone() {
+            return new RecordingJob(job.clone());
+        }
+    }
+
+}
@@ -86,6 +86,7 @@ public class StandardScanner  {
 
         private ScanJob job;
         private int numProcessingThreads;
+        private int numKeyRanges;
         private int workBlockSize;
         private TimestampProvider times;
         private Configuration graphConfiguration;
@@ -96,6 +97,7 @@ public class StandardScanner  {
 
         private Builder() {
             numProcessingThreads = 1;
+            numKeyRanges = 1;
             workBlockSize = DEFAULT_WORKBLOCK_SIZE;
             job = null;
             times = null;
@@ -113,6 +115,13 @@ public class StandardScanner  {
             return this;
         }
 
+        public Builder setNumKeyRanges(int numRanges) {
+            Preconditions.checkArgument(numRanges>0,
+                    "Need to specify a positive number of key ranges: %s",numRanges);
+            this.numKeyRanges = numRanges;
+            return this;
+        }
+
         public Builder setWorkBlockSize(int size) {
             Preconditions.checkArgument(size>0, "Need to specify a positive work block size: %s",size);
             this.workBlockSize = size;
@@ -207,7 +216,7 @@ public class StandardScanner  {
             openStores.add(kcvs);
             try {
                 StandardScannerExecutor executor = new StandardScannerExecutor(job, finishJob, kcvs, storeTx,
-                        manager.getFeatures(), numProcessingThreads, workBlockSize, jobConfiguration, graphConfiguration);
+                        manager.getFeatures(), numProcessingThreads, numKeyRanges, workBlockSize, jobConfiguration, graphConfiguration);
                 addJob(jobId,executor);
                 new Thread(executor).start();
                 return executor;
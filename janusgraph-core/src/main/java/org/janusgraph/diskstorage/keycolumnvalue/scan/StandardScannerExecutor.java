@@ -22,6 +22,7 @@ import org.janusgraph.diskstorage.configuration.Configuration;
 import org.janusgraph.diskstorage.keycolumnvalue.*;
 import org.janusgraph.diskstorage.util.BufferUtil;
 import org.janusgraph.diskstorage.util.RecordIterator;
+import org.janusgraph.diskstorage.util.StaticArrayBuffer;
 import org.janusgraph.diskstorage.util.StaticArrayEntry;
 import org.janusgraph.diskstorage.util.StaticArrayEntryList;
 import org.janusgraph.util.system.Threads;
@@ -52,21 +53,21 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
     private final StoreTransaction storeTx;
     private final KeyColumnValueStore store;
     private final int numProcessors;
+    private final int numKeyRanges;
     private final int workBlockSize;
     private final Configuration jobConfiguration;
     private final Configuration graphConfiguration;
     private final ScanMetrics metrics;
 
     private boolean hasCompleted = false;
-    private boolean interrupted = false;
+    private volatile boolean interrupted = false;
 
-    private List<BlockingQueue<SliceResult>> dataQueues;
-    private DataPuller[] pullThreads;
+    private List<DataPuller> pullThreads;
 
     StandardScannerExecutor(final ScanJob job, final Consumer<ScanMetrics> finishJob,
                             final KeyColumnValueStore store, final StoreTransaction storeTx,
                             final StoreFeatures storeFeatures,
-                            final int numProcessors, final int workBlockSize,
+                            final int numProcessors, final int numKeyRanges, final int workBlockSize,
                             final Configuration jobConfiguration,
                             final Configuration graphConfiguration) throws BackendException {
         this.job = job;
@@ -75,6 +76,7 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
         this.storeTx = storeTx;
         this.storeFeatures = storeFeatures;
         this.numProcessors = numProcessors;
+        this.numKeyRanges = numKeyRanges;
         this.workBlockSize = workBlockSize;
         this.jobConfiguration = jobConfiguration;
         this.graphConfiguration = graphConfiguration;
@@ -83,20 +85,44 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
 
     }
 
-    private DataPuller addDataPuller(SliceQuery sq, StoreTransaction stx) throws BackendException {
-        final BlockingQueue<SliceResult> queue = new LinkedBlockingQueue<>(QUEUE_SIZE);
-        dataQueues.add(queue);
-
-        DataPuller dp = new DataPuller(sq, queue,
-                KCVSUtil.getKeys(store,sq,storeFeatures,MAX_KEY_LENGTH,stx),job.getKeyFilter());
+    private DataPuller addDataPuller(SliceQuery sq, KeyRange keyRange, BlockingQueue<SliceResult> queue,
+                                     StoreTransaction stx) throws BackendException {
+        final KeyIterator keyIterator = keyRange == null ?
+                KCVSUtil.getKeys(store,sq,storeFeatures,MAX_KEY_LENGTH,stx) :
+                store.getKeys(new KeyRangeQuery(keyRange.getStart(), keyRange.getEnd(), sq), stx);
+        DataPuller dp = new DataPuller(sq, queue, keyIterator, job.getKeyFilter());
+        pullThreads.add(dp);
         dp.start();
         return dp;
     }
 
+    /**
+     * Splits the key space into {@link #numKeyRanges} contiguous ranges of equal width over the first two key bytes.
+     * Returns a single null range (i.e. scan everything with one iterator) if no splitting is requested or the store
+     * cannot scan key ranges.
+     */
+    private List<KeyRange> getKeyRanges() {
+        if (numKeyRanges <= 1 || !storeFeatures.hasOrderedScan()) {
+            return Collections.singletonList(null);
+        }
+        final int numRanges = Math.min(numKeyRanges, 1 << 16);
+        final List<KeyRange> ranges = new ArrayList<>(numRanges);
+        StaticBuffer start = BufferUtil.zeroBuffer(1);
+        for (int i = 1; i < numRanges; i++) {
+            final int prefix = (int) ((((long) i) << 16) / numRanges);
+            final StaticBuffer end = new StaticArrayBuffer(new byte[]{(byte) (prefix >>> 8), (byte) prefix});
+            ranges.add(new KeyRange(start, end));
+            start = end;
+        }
+        ranges.add(new KeyRange(start, BufferUtil.oneBuffer(MAX_KEY_LENGTH)));
+        return ranges;
+    }
+
     @Override
     public void run() {
         final List<SliceQuery> queries;
         final int numQueries;
+        final List<RowCollector> collectors;
         try {
             job.workerIterationStart(jobConfiguration, graphConfiguration, metrics);
 
@@ -113,11 +139,19 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
                 Preconditions.checkArgument(end.equals(BufferUtil.oneBuffer(end.length())),
                         "Expected end of first query to be all 1s: %s",end);
             }
-            dataQueues = new ArrayList<>(numQueries);
-            pullThreads = new DataPuller[numQueries];
-
-            for (int pos = 0; pos< numQueries; pos++) {
-                pullThreads[pos]=addDataPuller(queries.get(pos),storeTx);
+            final List<KeyRange> keyRanges = getKeyRanges();
+            pullThreads = new ArrayList<>(numQueries * keyRanges.size());
+            collectors = new ArrayList<>(keyRanges.size());
+
+            for (KeyRange keyRange : keyRanges) {
+                List<BlockingQueue<SliceResult>> dataQueues = new ArrayList<>(numQueries);
+                DataPuller[] rangePullers = new DataPuller[numQueries];
+                for (int pos = 0; pos< numQueries; pos++) {
+                    final BlockingQueue<SliceResult> queue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+                    dataQueues.add(queue);
+                    rangePullers[pos]=addDataPuller(queries.get(pos),keyRange,queue,storeTx);
+                }
+                collectors.add(new RowCollector(queries, dataQueues, rangePullers));
             }
         }  catch (Throwable e) {
             log.error("Exception trying to setup the job:", e);
@@ -136,44 +170,22 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
         }
 
         try {
-            SliceResult[] currentResults = new SliceResult[numQueries];
-            while (!interrupted) {
-                for (int i = 0; i < numQueries; i++) {
-                    if (currentResults[i]!=null) continue;
-                    BlockingQueue<SliceResult> queue = dataQueues.get(i);
-
-                    SliceResult qr = queue.poll(10,TimeUnit.MILLISECONDS); //Try very short time to see if we are done
-                    if (qr==null) {
-                        if (pullThreads[i].isFinished()) continue; //No more data to be expected
-                        qr = queue.poll(TIMEOUT_MS,TimeUnit.MILLISECONDS); //otherwise, give it more time
-                        if (qr==null && !pullThreads[i].isFinished())
-                            throw new TemporaryBackendException("Timed out waiting for next row data - storage error likely");
-                    }
-                    currentResults[i]=qr;
+            if (collectors.size() == 1) {
+                collectors.get(0).collect(processorQueue);
+            } else {
+                for (RowCollector collector : collectors) {
+                    collector.start(processorQueue);
                 }
-                SliceResult conditionQuery = currentResults[0];
-                if (conditionQuery==null) break; //Termination condition - primary query has no more data
-                final StaticBuffer key = conditionQuery.key;
-
-                Map<SliceQuery,EntryList> queryResults = new HashMap<>(numQueries);
-                for (int i=0;i<currentResults.length;i++) {
-                    SliceQuery query = queries.get(i);
-                    EntryList entries = EntryList.EMPTY_LIST;
-                    if (currentResults[i]!=null && currentResults[i].key.equals(key)) {
-                        assert query.equals(currentResults[i].query);
-                        entries = currentResults[i].entries;
-                        currentResults[i]=null;
-                    }
-                    queryResults.put(query,entries);
+                for (RowCollector collector : collectors) {
+                    collector.await();
                 }
-                processorQueue.put(new Row(key, queryResults));
             }
 
-            for (int i = 0; i < pullThreads.length; i++) {
-                pullThreads[i].join(10);
-                if (pullThreads[i].isAlive()) {
+            for (int i = 0; i < pullThreads.size(); i++) {
+                pullThreads.get(i).join(10);
+                if (pullThreads.get(i).isAlive()) {
                     log.warn("Data pulling thread [{}] did not terminate. Forcing termination",i);
-                    pullThreads[i].interrupt();
+                    pullThreads.get(i).interrupt();
                 }
             }
 
@@ -202,6 +214,9 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
             setException(e);
         } finally {
             Threads.terminate(processors);
+            for (RowCollector collector : collectors) {
+                collector.terminate();
+            }
             cleanupSilent();
         }
     }
@@ -251,6 +266,83 @@ class StandardScannerExecutor extends AbstractFuture<ScanMetrics> implements Jan
 
 
 
+    /**
+     * Merges the results of the data pullers of one key range into rows, in key order, and hands them to the processors.
+     * All data pullers of a key range iterate over the same keys in the same order.
+     */
+    private class RowCollector {
+
+        private final List<SliceQuery> queries;
+        private final List<BlockingQueue<SliceResult>> dataQueues;
+        private final DataPuller[] pullThreads;
+
+        private Thread thread;
+        private volatile Throwable failure;
+
+        private RowCollector(List<SliceQuery> queries, List<BlockingQueue<SliceResult>> dataQueues, DataPuller[] pullThreads) {
+            this.queries = queries;
+            this.dataQueues = dataQueues;
+            this.pullThreads = pullThreads;
+        }
+
+        private void collect(BlockingQueue<Row> processorQueue) throws BackendException, InterruptedException {
+            final int numQueries = queries.size();
+            SliceResult[] currentResults = new SliceResult[numQueries];
+            while (!interrupted) {
+                for (int i = 0; i < numQueries; i++) {
+                    if (currentResults[i]!=null) continue;
+                    BlockingQueue<SliceResult> queue = dataQueues.get(i);
+
+                    SliceResult qr = queue.poll(10,TimeUnit.MILLISECONDS); //Try very short time to see if we are done
+                    if (qr==null) {
+                        if (pullThreads[i].isFinished()) continue; //No more data to be expected
+                        qr = queue.poll(TIMEOUT_MS,TimeUnit.MILLISECONDS); //otherwise, give it more time
+                        if (qr==null && !pullThreads[i].isFinished())
+                            throw new TemporaryBackendException("Timed out waiting for next row data - storage error likely");
+                    }
+                    currentResults[i]=qr;
+                }
+                SliceResult conditionQuery = currentResults[0];
+                if (conditionQuery==null) break; //Termination condition - primary query has no more data
+                final StaticBuffer key = conditionQuery.key;
+
+                Map<SliceQuery,EntryList> queryResults = new HashMap<>(numQueries);
+                for (int i=0;i<currentResults.length;i++) {
+                    SliceQuery query = queries.get(i);
+                    EntryList entries = EntryList.EMPTY_LIST;
+                    if (currentResults[i]!=null && currentResults[i].key.equals(key)) {
+                        assert query.equals(currentResults[i].query);
+                        entries = currentResults[i].entries;
+                        currentResults[i]=null;
+                    }
+                    queryResults.put(query,entries);
+                }
+                processorQueue.put(new Row(key, queryResults));
+            }
+        }
+
+        private void start(BlockingQueue<Row> processorQueue) {
+            thread = new Thread(() -> {
+                try {
+                    collect(processorQueue);
+                } catch (Throwable e) {
+                    failure = e;
+                }
+            });
+            thread.start();
+        }
+
+        private void await() throws Throwable {
+            thread.join();
+            if (failure != null) throw failure;
+        }
+
+        private void terminate() {
+            if (thread != null && thread.isAlive()) thread.interrupt();
+        }
+    }
+
+
     private class Processor extends Thread {
 
         private ScanJob job;
@@ -47,6 +47,14 @@ public class ConsistentKeyLockStatus implements LockStatus {
         return write;
     }
 
+    /**
+     * Whether the lock claim has been written to the store. Claims deferred by a batching
+     * {@link ConsistentKeyLocker} have no write timestamp until the locks are checked.
+     */
+    public boolean isWritten() {
+        return null != write;
+    }
+
     public boolean isChecked() {
         return checked;
     }
@@ -16,6 +16,7 @@ package org.janusgraph.diskstorage.locking.consistentkey;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import org.janusgraph.core.JanusGraphConfigurationException;
 
@@ -36,8 +37,12 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.janusgraph.util.encoding.StringEncoding.UTF8_CHARSET;
 
@@ -120,6 +125,16 @@ import static org.janusgraph.util.encoding.StringEncoding.UTF8_CHARSET;
  * {@code rid} is only unique at the process level.  Without a mediator, distinct
  * threads could write lock columns with the same {@code rid} and be unable to
  * tell their lock claims apart.
+ * <p/>
+ * <h3>Batched locking</h3>
+ * <p/>
+ * When built with {@link Builder#batchLocks(boolean)}, the first step of the
+ * sequence above is deferred from {@link #writeLock(KeyColumn, StoreTransaction)}
+ * until {@link #checkLocks(StoreTransaction)}. All claims of a transaction are
+ * then written with the same timestamp in a single mutation, the locker waits
+ * {@code lockWait} only once and reads all claimed keys back with a single
+ * multi-key slice where the store supports it. The intra-process lock is still
+ * taken immediately by {@code writeLock}.
  */
 public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus> implements Locker {
 
@@ -137,6 +152,11 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
 
     private final int lockRetryCount;
 
+    /**
+     * Whether lock claims are deferred until {@link #checkLocks(StoreTransaction)} and then written and read in bulk.
+     */
+    private final boolean batchLocks;
+
     /**
      * Expired lock cleaner in charge of {@link #store}.
      */
@@ -184,6 +204,7 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
         // Optional (has default)
         private Duration lockWait;
         private int lockRetryCount;
+        private boolean batchLocks;
 
         private enum CleanerConfig {
             NONE,
@@ -199,6 +220,7 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
             this.manager = manager;
             this.lockWait = GraphDatabaseConfiguration.LOCK_WAIT.getDefaultValue();
             this.lockRetryCount = GraphDatabaseConfiguration.LOCK_RETRY.getDefaultValue();
+            this.batchLocks = GraphDatabaseConfiguration.LOCK_BATCH.getDefaultValue();
         }
 
         public Builder lockWait(Duration d) {
@@ -211,6 +233,11 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
             return self();
         }
 
+        public Builder batchLocks(boolean batch) {
+            this.batchLocks = batch;
+            return self();
+        }
+
         public Builder standardCleaner() {
             this.cleanerConfig = CleanerConfig.STANDARD;
             this.customCleanerService = null;
@@ -240,6 +267,8 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
 
             lockExpire(config.get(GraphDatabaseConfiguration.LOCK_EXPIRE));
 
+            batchLocks(config.get(GraphDatabaseConfiguration.LOCK_BATCH));
+
             if (config.get(GraphDatabaseConfiguration.LOCK_CLEAN_EXPIRED)) {
                 standardCleaner();
             }
@@ -269,6 +298,7 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
                     serializer, llm,
                     lockWait,
                     lockRetryCount,
+                    batchLocks,
                     lockExpire,
                     lockState, cleaner);
         }
@@ -291,7 +321,7 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
     private ConsistentKeyLocker(KeyColumnValueStore store, StoreManager manager, StaticBuffer rid,
                                 TimestampProvider times, ConsistentKeyLockerSerializer serializer,
                                 LocalLockMediator<StoreTransaction> llm, Duration lockWait,
-                                int lockRetryCount, Duration lockExpire,
+                                int lockRetryCount, boolean batchLocks, Duration lockExpire,
                                 LockerState<ConsistentKeyLockStatus> lockState,
                                 LockCleanerService cleanerService) {
         super(rid, times, serializer, llm, lockState, lockExpire, log);
@@ -299,6 +329,7 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
         this.manager = manager;
         this.lockWait = lockWait;
         this.lockRetryCount = lockRetryCount;
+        this.batchLocks = batchLocks;
         this.cleanerService = cleanerService;
     }
 
@@ -311,6 +342,10 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
      * the retry limit. If the store throws anything else, such as an unchecked
      * exception or a {@link org.janusgraph.diskstorage.PermanentBackendException}, then we'll try to
      * delete whatever we added and return without further retries.
+     * <p/>
+     * When locks are batched, nothing is written here and the returned status
+     * has no write timestamp; the claim is written by
+     * {@link #checkAllLocks(Map, StoreTransaction)} instead.
      *
      * @param lockID lock to acquire
      * @param txh    transaction
@@ -323,6 +358,10 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
     @Override
     protected ConsistentKeyLockStatus writeSingleLock(KeyColumn lockID, StoreTransaction txh) throws Throwable {
 
+        if (batchLocks) {
+            return new ConsistentKeyLockStatus(null, times.getTime().plus(lockExpire));
+        }
+
         final StaticBuffer lockKey = serializer.toLockKey(lockID.getKey(), lockID.getColumn());
         StaticBuffer oldLockCol = null;
 
@@ -334,29 +373,68 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
                 return new ConsistentKeyLockStatus(writeInstant, expireInstant);
             }
             oldLockCol = wr.getLockCol();
-            handleMutationFailure(lockID, lockKey, wr, txh);
+            handleMutationFailure(Collections.singletonList(lockID), Collections.singletonList(lockKey), wr, txh);
         }
         tryDeleteLockOnce(lockKey, oldLockCol, txh);
         // TODO log exception or successful too-slow write here
         throw new TemporaryBackendException("Lock write retry count exceeded");
     }
 
+    /**
+     * Write the claims of all locks in {@code locks} that have not been written
+     * yet in a single mutation, retrying like
+     * {@link #writeSingleLock(KeyColumn, StoreTransaction)}. On success, the
+     * statuses in {@code locks} are replaced by ones carrying the write
+     * timestamp shared by all claims.
+     */
+    private void writePendingLocks(Map<KeyColumn, ConsistentKeyLockStatus> locks, StoreTransaction txh) throws Throwable {
+        final Map<KeyColumn, StaticBuffer> pending = new LinkedHashMap<>();
+        for (Map.Entry<KeyColumn, ConsistentKeyLockStatus> entry : locks.entrySet()) {
+            if (!entry.getValue().isWritten()) {
+                final KeyColumn kc = entry.getKey();
+                pending.put(kc, serializer.toLockKey(kc.getKey(), kc.getColumn()));
+            }
+        }
+        if (pending.isEmpty())
+            return;
+
+        final Collection<StaticBuffer> lockKeys = pending.values();
+        StaticBuffer oldLockCol = null;
+
+        for (int i = 0; i < lockRetryCount; i++) {
+            WriteResult wr = tryWriteLocksOnce(lockKeys, oldLockCol, txh);
+            if (wr.isSuccessful() && wr.getDuration().compareTo(lockWait) <= 0) {
+                final Instant writeInstant = wr.getWriteTimestamp();
+                final Instant expireInstant = writeInstant.plus(lockExpire);
+                for (KeyColumn kc : pending.keySet()) {
+                    locks.put(kc, new ConsistentKeyLockStatus(writeInstant, expireInstant));
+                    llm.lock(kc, txh, expireInstant); // update local lock expiration time
+                }
+                return;
+            }
+            oldLockCol = wr.getLockCol();
+            handleMutationFailure(pending.keySet(), lockKeys, wr, txh);
+        }
+        tryDeleteLocksOnce(lockKeys, oldLockCol, txh);
+        throw new TemporaryBackendException("Lock write retry count exceeded");
+    }
+
     /**
      * Log a message and/or throw an exception in response to a lock write
      * mutation that failed. "Failed" means that the mutation either succeeded
      * but took longer to complete than configured lock wait time, or that
      * the call to mutate threw something.
      *
-     * @param lockID  coordinates identifying the lock we tried but failed to
-     *                acquire
-     * @param lockKey the byte value of the key that we mutated or attempted to
-     *                mutate in the lock store
+     * @param lockIDs  coordinates identifying the locks we tried but failed to
+     *                 acquire
+     * @param lockKeys the byte values of the keys that we mutated or attempted to
+     *                 mutate in the lock store
      * @param wr      result of the mutation
      * @param txh     transaction attempting the lock
      * @throws Throwable if {@link WriteResult#getThrowable()} is not an instance of
      *                   {@link org.janusgraph.diskstorage.TemporaryBackendException}
      */
-    private void handleMutationFailure(KeyColumn lockID, StaticBuffer lockKey, WriteResult wr,
+    private void handleMutationFailure(Collection<KeyColumn> lockIDs, Collection<StaticBuffer> lockKeys, WriteResult wr,
                                        StoreTransaction txh) throws Throwable {
         Throwable error = wr.getThrowable();
         if (null != error) {
@@ -370,10 +448,10 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
                  * we have retries left.
                  */
                 log.error("Fatal exception encountered during attempted lock write", error);
-                WriteResult dwr = tryDeleteLockOnce(lockKey, wr.getLockCol(), txh);
+                WriteResult dwr = tryDeleteLocksOnce(lockKeys, wr.getLockCol(), txh);
                 if (!dwr.isSuccessful()) {
-                    log.warn("Failed to delete lock write: abandoning potentially-unreleased lock on {}",
-                        lockID, dwr.getThrowable());
+                    log.warn("Failed to delete lock write: abandoning potentially-unreleased locks on {}",
+                        lockIDs, dwr.getThrowable());
                 }
                 throw error;
             }
@@ -415,6 +493,101 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
         return new WriteResult(delTimer.elapsed(), delTimer.getStartTime(), null, t);
     }
 
+    private WriteResult tryWriteLocksOnce(Collection<StaticBuffer> keys, StaticBuffer del, StoreTransaction txh) {
+        Throwable t = null;
+        final Timer writeTimer = times.getTimer().start();
+        StaticBuffer newLockCol = serializer.toLockCol(writeTimer.getStartTime(), rid, times);
+        Entry newLockEntry = StaticArrayEntry.of(newLockCol, zeroBuf);
+        try {
+            final StoreTransaction newTx = overrideTimestamp(txh, writeTimer.getStartTime());
+            mutateLocks(keys, Collections.singletonList(newLockEntry),
+                null == del ? KeyColumnValueStore.NO_DELETIONS : Collections.singletonList(del), newTx);
+        } catch (BackendException e) {
+            log.debug("Batched lock write attempt failed with exception", e);
+            t = e;
+        }
+        writeTimer.stop();
+
+        return new WriteResult(writeTimer.elapsed(), writeTimer.getStartTime(), newLockCol, t);
+    }
+
+    private WriteResult tryDeleteLocksOnce(Collection<StaticBuffer> keys, StaticBuffer col, StoreTransaction txh) {
+        if (1 == keys.size())
+            return tryDeleteLockOnce(Iterables.getOnlyElement(keys), col, txh);
+
+        Throwable t = null;
+        final Timer delTimer = times.getTimer().start();
+        try {
+            final StoreTransaction newTx = overrideTimestamp(txh, delTimer.getStartTime());
+            mutateLocks(keys, ImmutableList.of(), Collections.singletonList(col), newTx);
+        } catch (BackendException e) {
+            t = e;
+        }
+        delTimer.stop();
+
+        return new WriteResult(delTimer.elapsed(), delTimer.getStartTime(), null, t);
+    }
+
+    /**
+     * Apply the same additions and deletions to each of the given lock keys, using a single batch mutation if the
+     * store manager supports it.
+     */
+    private void mutateLocks(Collection<StaticBuffer> keys, List<Entry> additions, List<StaticBuffer> deletions,
+                             StoreTransaction txh) throws BackendException {
+        if (manager instanceof KeyColumnValueStoreManager && manager.getFeatures().hasBatchMutation()) {
+            final Map<StaticBuffer, KCVMutation> mutations = new HashMap<>(keys.size());
+            for (StaticBuffer key : keys) {
+                mutations.put(key, new KCVMutation(additions, deletions));
+            }
+            ((KeyColumnValueStoreManager) manager).mutateMany(ImmutableMap.of(store.getName(), mutations), txh);
+        } else {
+            for (StaticBuffer key : keys) {
+                store.mutate(key, additions, deletions, txh);
+            }
+        }
+    }
+
+    /**
+     * Check all locks of a transaction. Without batching this checks each lock
+     * in turn. With batching, the pending claims are written first, then the
+     * locker sleeps once past the latest claim plus {@code lockWait} and reads
+     * all claimed keys together before checking each lock's seniority.
+     */
+    @Override
+    protected void checkAllLocks(Map<KeyColumn, ConsistentKeyLockStatus> locks, StoreTransaction tx) throws Throwable {
+        if (!batchLocks) {
+            super.checkAllLocks(locks, tx);
+            return;
+        }
+
+        writePendingLocks(locks, tx);
+
+        final Map<KeyColumn, ConsistentKeyLockStatus> unchecked = new LinkedHashMap<>();
+        final Map<KeyColumn, StaticBuffer> lockKeys = new HashMap<>();
+        Instant latestWrite = null;
+        for (Map.Entry<KeyColumn, ConsistentKeyLockStatus> entry : locks.entrySet()) {
+            final ConsistentKeyLockStatus ls = entry.getValue();
+            if (ls.isChecked())
+                continue;
+            final KeyColumn kc = entry.getKey();
+            unchecked.put(kc, ls);
+            lockKeys.put(kc, serializer.toLockKey(kc.getKey(), kc.getColumn()));
+            if (null == latestWrite || latestWrite.isBefore(ls.getWriteTimestamp()))
+                latestWrite = ls.getWriteTimestamp();
+        }
+        if (unchecked.isEmpty())
+            return;
+
+        final Instant now = times.sleepPast(latestWrite.plus(lockWait));
+
+        final Map<StaticBuffer, EntryList> claims = getSlicesWithRetries(new ArrayList<>(lockKeys.values()), tx);
+        for (Map.Entry<KeyColumn, ConsistentKeyLockStatus> entry : unchecked.entrySet()) {
+            final EntryList claimEntries = claims.get(lockKeys.get(entry.getKey()));
+            checkClaims(entry.getKey(), entry.getValue(),
+                null == claimEntries ? EntryList.EMPTY_LIST : claimEntries, now, tx);
+        }
+    }
+
     @Override
     protected void checkSingleLock(final KeyColumn kc, final ConsistentKeyLockStatus ls,
                                    final StoreTransaction tx) throws BackendException, InterruptedException {
@@ -431,6 +604,12 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
             LOCK_COL_END);
         List<Entry> claimEntries = getSliceWithRetries(ksq, tx);
 
+        checkClaims(kc, ls, claimEntries, now, tx);
+    }
+
+    private void checkClaims(final KeyColumn kc, final ConsistentKeyLockStatus ls, final List<Entry> claimEntries,
+                             final Instant now, final StoreTransaction tx) throws BackendException {
+
         // Extract timestamp and rid from the column in each returned Entry...
         final Iterable<TimestampRid> iterable = Iterables.transform(claimEntries,
             e -> serializer.fromLockColumn(e.getColumnAs(StaticBuffer.STATIC_FACTORY), times));
@@ -479,6 +658,31 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
         throw new TemporaryBackendException("Maximum retries (" + lockRetryCount + ") exceeded while checking locks");
     }
 
+    private Map<StaticBuffer, EntryList> getSlicesWithRetries(List<StaticBuffer> keys, StoreTransaction tx) throws BackendException {
+
+        if (!manager.getFeatures().hasMultiQuery()) {
+            final Map<StaticBuffer, EntryList> result = new HashMap<>(keys.size());
+            for (StaticBuffer key : keys) {
+                final List<Entry> entries = getSliceWithRetries(new KeySliceQuery(key, LOCK_COL_START, LOCK_COL_END), tx);
+                result.put(key, StaticArrayEntryList.of(entries));
+            }
+            return result;
+        }
+
+        for (int i = 0; i < lockRetryCount; i++) {
+            try {
+                return store.getSlice(keys, new SliceQuery(LOCK_COL_START, LOCK_COL_END), tx);
+            } catch (PermanentBackendException e) {
+                log.error("Failed to check locks", e);
+                throw new PermanentLockingException(e);
+            } catch (TemporaryBackendException e) {
+                log.warn("Temporary storage failure while checking locks", e);
+            }
+        }
+
+        throw new TemporaryBackendException("Maximum retries (" + lockRetryCount + ") exceeded while checking locks");
+    }
+
     private void checkSeniority(KeyColumn target, ConsistentKeyLockStatus ls,
                                 Iterable<TimestampRid> claimTRs) throws BackendException {
 
@@ -537,6 +741,8 @@ public class ConsistentKeyLocker extends AbstractLocker<ConsistentKeyLockStatus>
 
     @Override
     protected void deleteSingleLock(KeyColumn kc, ConsistentKeyLockStatus ls, StoreTransaction tx) {
+        if (!ls.isWritten())
+            return; // deferred claim which was never written
         List<StaticBuffer> deletions = ImmutableList.of(serializer.toLockCol(ls.getWriteTimestamp(), rid, times));
         for (int i = 0; i < lockRetryCount; i++) {
             try {
@@ -67,6 +67,12 @@ import java.util.concurrent.atomic.AtomicLong;
  * </p>
  * When {@link MessageReader} are registered, one reader thread per partition id and bucket is created which periodically (as configured) checks for
  * new messages in the storage backend and invokes the reader. </br>
+ * If {@link #LOG_ORDERED_DELIVERY} is enabled, the job reading a partition id and bucket also delivers the messages it read to the readers,
+ * in the order in which they were read, before it reads again. Hence, partitions and buckets are processed in parallel by the reader thread pool
+ * while slow readers hold back reading instead of accumulating messages in memory. A job which reached the read batch size or the end of
+ * a time slice reads again immediately rather than after the configured read interval. </br>
+ * Outgoing messages are sent by up to {@link org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration#LOG_SEND_THREADS} background
+ * threads, each of which is responsible for a subset of the buckets. </br>
  * Read-markers are maintained (for each partition-id & bucket id combination) under a dedicated key in the same {@link KeyColumnValueStoreManager} as the
  * log messages. The read markers are updated to the current position before each new iteration of reading messages from the log. If the system fails
  * while reading a batch of messages, a subsequently restarted log reader may therefore read messages twice. Hence, {@link MessageReader} implementations
@@ -100,6 +106,12 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
             "Whether to require consistency for log reading and writing messages to the storage backend",
             ConfigOption.Type.MASKABLE, false);
 
+    public static final ConfigOption<Boolean> LOG_ORDERED_DELIVERY = new ConfigOption<>(LOG_NS, "ordered-delivery",
+            "Whether messages read from a bucket are passed to the readers in order by the thread which read them before reading " +
+            "further messages from that bucket. Buckets are still processed in parallel by the read threads. If false, messages " +
+            "are processed by the read thread pool in no particular order.",
+            ConfigOption.Type.MASKABLE, false);
+
     //########## INTERNAL CONSTANTS #############
 
     /**
@@ -188,19 +200,17 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
     private final Duration maxSendDelay;
     private final Duration maxWriteTime;
     /**
-     * Used for batch addition of messages to the log. Newly added entries are buffered in this queue before being written in batch
-     */
-    private final ArrayBlockingQueue<MessageEnvelope> outgoingMsg;
-    /**
-     * Background thread which periodically writes out the queued up messages. TODO: consider batching messages across ALL logs
+     * Background threads which periodically write out the queued up messages, one per subset of the buckets.
+     * TODO: consider batching messages across ALL logs
      */
-    private final SendThread sendThread;
+    private final SendThread[] sendThreads;
 
     private final int numReadThreads;
     private final int maxReadMsg;
     private final Duration readPollingInterval;
     private final Duration readLagTime;
     private final Duration maxReadTime;
+    private final boolean orderedDelivery;
 
     /**
      * Thread pool to read messages in the specified interval from the various keys in a time slice AND to process
@@ -253,14 +263,18 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
         readPollingInterval = config.get(LOG_READ_INTERVAL);
         readLagTime = config.get(LOG_READ_LAG_TIME).plus(maxSendDelay);
         maxReadTime = config.get(LOG_MAX_READ_TIME);
+        orderedDelivery = config.get(LOG_ORDERED_DELIVERY);
 
         if (MIN_DELIVERY_DELAY.compareTo(maxSendDelay) <= 0) { // No need to locally queue messages since they will be sent immediately
-            outgoingMsg = new ArrayBlockingQueue<>(sendBatchSize * BATCH_SIZE_MULTIPLIER);
-            sendThread = new SendThread();
-            sendThread.start();
+            //Messages are assigned to send threads by bucket, hence there is no point in having more threads than buckets
+            final int numSendThreads = Math.min(config.get(LOG_SEND_THREADS), numBuckets);
+            sendThreads = new SendThread[numSendThreads];
+            for (int i = 0; i < numSendThreads; i++) {
+                sendThreads[i] = new SendThread(numSendThreads == 1 ? "" : "-" + i);
+                sendThreads[i].start();
+            }
         } else {
-            outgoingMsg = null;
-            sendThread = null;
+            sendThreads = null;
         }
 
         //These will be initialized when the first readers are registered (see below)
@@ -288,7 +302,9 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
         if (!isOpen) return;
         this.isOpen = false;
         if (readExecutor!=null) readExecutor.shutdown();
-        if (sendThread!=null) sendThread.close(CLOSE_DOWN_WAIT);
+        if (sendThreads!=null) {
+            for (SendThread sendThread : sendThreads) sendThread.close(CLOSE_DOWN_WAIT);
+        }
         if (readExecutor!=null) {
             try {
                 readExecutor.awaitTermination(1,TimeUnit.SECONDS);
@@ -416,7 +432,8 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
         KCVSMessage msg = new KCVSMessage(content,timestamp,manager.senderId);
         FutureMessage futureMessage = new FutureMessage(msg);
 
-        StaticBuffer key=getLogKey(partitionId,(int)(numBucketCounter.incrementAndGet()%numBuckets),getTimeSlice(timestamp));
+        final int bucketId = (int)(numBucketCounter.incrementAndGet()%numBuckets);
+        StaticBuffer key=getLogKey(partitionId,bucketId,getTimeSlice(timestamp));
         MessageEnvelope envelope = new MessageEnvelope(futureMessage,key,writeMessage(msg));
 
         if (persistor!=null) {
@@ -427,11 +444,12 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                 envelope.message.failed(e);
                 throw e;
             }
-        } else if (outgoingMsg==null) {
+        } else if (sendThreads==null) {
             sendMessages(ImmutableList.of(envelope));
         } else {
             try {
-                outgoingMsg.put(envelope); //Produces back pressure when full
+                //All messages of a bucket are sent by the same thread
+                sendThreads[bucketId % sendThreads.length].outgoingMsg.put(envelope); //Produces back pressure when full
                 log.debug("Enqueued {} for partition {}", envelope, partitionId);
             } catch (InterruptedException e) {
                 throw new JanusGraphException("Got interrupted waiting to send message",e);
@@ -511,10 +529,15 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
      */
     private class SendThread extends BackgroundThread {
 
+        /**
+         * Used for batch addition of messages to the log. Newly added entries are buffered in this queue before being written in batch
+         */
+        private final ArrayBlockingQueue<MessageEnvelope> outgoingMsg;
         private final List<MessageEnvelope> toSend;
 
-        public SendThread() {
-            super("KCVSLogSend"+name, false);
+        public SendThread(String suffix) {
+            super("KCVSLogSend"+name+suffix, false);
+            outgoingMsg = new ArrayBlockingQueue<>(sendBatchSize * BATCH_SIZE_MULTIPLIER);
             toSend = new ArrayList<>(sendBatchSize * 3 / 2);
         }
 
@@ -623,11 +646,16 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                     msgPullers[pos]=new MessagePuller(partitionId,bucketId);
 
                     log.debug("Creating log read executor: initialDelay={} delay={} unit={}", INITIAL_READER_DELAY.toNanos(), readPollingInterval.toNanos(), TimeUnit.NANOSECONDS);
-                    readExecutor.scheduleWithFixedDelay(
-                            msgPullers[pos],
-                            INITIAL_READER_DELAY.toNanos(),
-                            readPollingInterval.toNanos(),
-                            TimeUnit.NANOSECONDS);
+                    if (orderedDelivery) {
+                        //Ordered pullers reschedule themselves depending on whether there are further messages to read
+                        readExecutor.schedule(msgPullers[pos], INITIAL_READER_DELAY.toNanos(), TimeUnit.NANOSECONDS);
+                    } else {
+                        readExecutor.scheduleWithFixedDelay(
+                                msgPullers[pos],
+                                INITIAL_READER_DELAY.toNanos(),
+                                readPollingInterval.toNanos(),
+                                TimeUnit.NANOSECONDS);
+                    }
                     pos++;
                 }
             }
@@ -675,6 +703,25 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
 
         @Override
         public void run() {
+            boolean hasMore = false;
+            try {
+                hasMore = pull();
+            } finally {
+                if (orderedDelivery) reschedule(hasMore);
+            }
+        }
+
+        private void reschedule(boolean hasMore) {
+            if (!isOpen || readExecutor.isShutdown()) return;
+            readExecutor.schedule(this, hasMore ? 0 : readPollingInterval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Reads the next batch of messages and passes them on for processing.
+         *
+         * @return whether further messages may be available to read right away
+         */
+        private boolean pull() {
             try {
                 setReadMarker();
 
@@ -713,7 +760,7 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                         log.debug("MessagePuller configured with ReadMarker timestamp slightly ahead of read lag time; waiting for the clock to catch up");
                     }
 
-                    return;
+                    return false;
                 }
                 Preconditions.checkState(messageTimeStart.compareTo(messageTimeEnd) < 0);
                 Preconditions.checkState(messageTimeEnd.compareTo(currentTime) <= 0, "Attempting to read messages from the future: messageTimeEnd=% vs currentTime=%s", messageTimeEnd, currentTime);
@@ -725,7 +772,8 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
 
                 List<Entry> entries= BackendOperation.execute(getOperation(query),KCVSLog.this,times,maxReadTime);
                 prepareMessageProcessing(entries);
-                if (entries.size()>=maxReadMsg) {
+                final boolean reachedLimit = entries.size()>=maxReadMsg;
+                if (reachedLimit) {
                     /*Read another set of messages to ensure that we have exhausted all messages to the next timestamp.
                     Since we have reached the request limit, it may be possible that there are additional messages
                     with the same timestamp which we would miss on subsequent iterations */
@@ -740,8 +788,11 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                     prepareMessageProcessing(extraEntries);
                 }
                 messageTimeStart = messageTimeEnd;
+                //More messages may be waiting if we hit the read limit or only read up to the end of a past timeslice
+                return reachedLimit || messageTimeEnd.compareTo(maxSafeMessageTime) < 0;
             } catch (Throwable e) {
                 log.warn("Could not read messages for timestamp ["+messageTimeStart+"] (this read will be retried)",e);
+                return false;
             }
         }
 
@@ -763,7 +814,8 @@ public class KCVSLog implements Log, BackendOperation.TransactionalProvider {
                 KCVSMessage message = parseMessage(entry);
                 log.debug("Parsed message {}, about to submit this message to the reader executor", message);
                 for (MessageReader reader : readers) {
-                    readExecutor.submit(new ProcessMessageJob(message,reader));
+                    if (orderedDelivery) new ProcessMessageJob(message,reader).run();
+                    else readExecutor.submit(new ProcessMessageJob(message,reader));
                 }
             }
         }
@@ -0,0 +1,92 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.diskstorage.ReadBuffer;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.WriteBuffer;
+import org.janusgraph.graphdb.database.idhandling.VariableLong;
+
+/**
+ * Base class for {@link BackendCompression}s which compress values with a block codec.
+ * <p>
+ * Every value is prefixed with a header byte. Values shorter than the threshold, or which the codec cannot make
+ * smaller, are stored uncompressed behind a {@code 0} header. Compressed values are stored behind the id of the codec
+ * followed by their uncompressed length as a variable length integer. Reading a value that was compressed with a
+ * different codec hence fails instead of returning garbage.
+ */
+public abstract class AbstractBackendCompression implements BackendCompression {
+
+    private static final byte UNCOMPRESSED = 0;
+
+    private final byte codecId;
+    private final int threshold;
+
+    protected AbstractBackendCompression(byte codecId, int threshold) {
+        Preconditions.checkArgument(codecId != UNCOMPRESSED, "Invalid codec id: %s", codecId);
+        Preconditions.checkArgument(threshold >= 0, "Invalid threshold: %s", threshold);
+        this.codecId = codecId;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compresses the bytes {@code [offset, limit)} of the given array and returns the compressed bytes.
+     */
+    protected abstract byte[] compress(byte[] array, int offset, int limit);
+
+    /**
+     * Decompresses the bytes {@code [offset, limit)} of the given array which hold a value of the given
+     * uncompressed length.
+     */
+    protected abstract byte[] decompress(byte[] array, int offset, int limit, int length);
+
+    @Override
+    public StaticBuffer compress(StaticBuffer value) {
+        return value.as((array, offset, limit) -> {
+            final int length = limit - offset;
+            if (length >= threshold && length > 0) {
+                final byte[] compressed = compress(array, offset, limit);
+                final int headerLength = 1 + VariableLong.positiveLength(length);
+                if (headerLength + compressed.length < length + 1) {
+                    final WriteBuffer result = new WriteByteBuffer(headerLength + compressed.length);
+                    result.putByte(codecId);
+                    VariableLong.writePositive(result, length);
+                    result.putBytes(compressed);
+                    return result.getStaticBuffer();
+                }
+            }
+            final byte[] result = new byte[length + 1];
+            result[0] = UNCOMPRESSED;
+            System.arraycopy(array, offset, result, 1, length);
+            return new StaticArrayBuffer(result);
+        });
+    }
+
+    @Override
+    public StaticBuffer decompress(StaticBuffer value) {
+        Preconditions.checkArgument(value.length() > 0, "Value is missing the compression header");
+        final ReadBuffer in = value.asReadBuffer();
+        final byte header = in.getByte();
+        if (header == UNCOMPRESSED) return value.subrange(1, value.length() - 1);
+        Preconditions.checkArgument(header == codecId,
+            "Value has been compressed with codec [%s] but this store is configured for [%s]", header, codecId);
+        final int length = (int) VariableLong.readPositive(in);
+        final int headerLength = in.getPosition();
+        return value.as((array, offset, limit) ->
+            new StaticArrayBuffer(decompress(array, offset + headerLength, limit, length)));
+    }
+
+}
@@ -0,0 +1,57 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+/**
+ * The codecs which can be configured to compress the values of a store.
+ */
+public enum BackendCompressionType {
+
+    /**
+     * Values are stored as they are, see {@link BackendCompression#NO_COMPRESSION}
+     */
+    NONE {
+        @Override
+        public BackendCompression create(int threshold) {
+            return BackendCompression.NO_COMPRESSION;
+        }
+    },
+
+    /**
+     * Fast compression in the LZ4 block format, see {@link LZ4BackendCompression}
+     */
+    LZ4 {
+        @Override
+        public BackendCompression create(int threshold) {
+            return new LZ4BackendCompression(threshold);
+        }
+    },
+
+    /**
+     * Higher compression ratio at a higher CPU cost, see {@link DeflateBackendCompression}
+     */
+    DEFLATE {
+        @Override
+        public BackendCompression create(int threshold) {
+            return new DeflateBackendCompression(threshold);
+        }
+    };
+
+    /**
+     * Returns the compression of this type which leaves values shorter than the given number of bytes uncompressed.
+     */
+    public abstract BackendCompression create(int threshold);
+
+}
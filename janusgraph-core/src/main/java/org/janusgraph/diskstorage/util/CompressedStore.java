@@ -0,0 +1,198 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.Entry;
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.EntryMetaData;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.keycolumnvalue.KCVSProxy;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyIterator;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyRangeQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wraps a {@link KeyColumnValueStore} and transparently compresses the values of all entries written into the store
+ * and decompresses the values of all entries read from it with the given {@link BackendCompression}. Columns are
+ * left untouched since their order must be preserved.
+ */
+public class CompressedStore extends KCVSProxy {
+
+    private final BackendCompression compression;
+    private final StaticArrayEntry.GetColVal<Entry, StaticBuffer> compressor;
+    private final StaticArrayEntry.GetColVal<Entry, StaticBuffer> decompressor;
+
+    public CompressedStore(KeyColumnValueStore store, BackendCompression compression) {
+        super(store);
+        Preconditions.checkArgument(compression != null);
+        this.compression = compression;
+        this.compressor = new ValueConverter(compression, true);
+        this.decompressor = new ValueConverter(compression, false);
+    }
+
+    /**
+     * Returns the given entries with their values compressed by the given compression.
+     */
+    static List<Entry> compress(List<Entry> additions, BackendCompression compression) {
+        return compress(additions, new ValueConverter(compression, true));
+    }
+
+    /**
+     * Returns a function which decompresses the value of an entry read directly from a store compressed by the
+     * given compression.
+     */
+    public static Function<Entry, Entry> decompressor(BackendCompression compression) {
+        final StaticArrayEntry.GetColVal<Entry, StaticBuffer> decompressor = new ValueConverter(compression, false);
+        return entry -> StaticArrayEntry.ofStaticBuffer(entry, decompressor);
+    }
+
+    private static List<Entry> compress(List<Entry> additions, StaticArrayEntry.GetColVal<Entry, StaticBuffer> compressor) {
+        if (additions.isEmpty()) return additions;
+        final List<Entry> result = new ArrayList<>(additions.size());
+        for (Entry addition : additions) result.add(StaticArrayEntry.ofStaticBuffer(addition, compressor));
+        return result;
+    }
+
+    private EntryList decompress(EntryList entries) {
+        if (entries.isEmpty()) return entries;
+        //The iterator variant converts each value only once
+        return StaticArrayEntryList.ofStaticBuffer(entries.iterator(), decompressor);
+    }
+
+    @Override
+    public void acquireLock(StaticBuffer key, StaticBuffer column, StaticBuffer expectedValue,
+                            StoreTransaction txh) throws BackendException {
+        store.acquireLock(key, column, expectedValue == null ? null : compression.compress(expectedValue), txh);
+    }
+
+    @Override
+    public void mutate(StaticBuffer key, List<Entry> additions, List<StaticBuffer> deletions, StoreTransaction txh) throws BackendException {
+        store.mutate(key, compress(additions, compressor), deletions, txh);
+    }
+
+    @Override
+    public EntryList getSlice(KeySliceQuery query, StoreTransaction txh) throws BackendException {
+        return decompress(store.getSlice(query, txh));
+    }
+
+    @Override
+    public Map<StaticBuffer, EntryList> getSlice(List<StaticBuffer> keys, SliceQuery query, StoreTransaction txh) throws BackendException {
+        final Map<StaticBuffer, EntryList> results = store.getSlice(keys, query, txh);
+        final Map<StaticBuffer, EntryList> decompressed = new HashMap<>(results.size());
+        for (Map.Entry<StaticBuffer, EntryList> result : results.entrySet()) {
+            decompressed.put(result.getKey(), decompress(result.getValue()));
+        }
+        return decompressed;
+    }
+
+    @Override
+    public KeyIterator getKeys(KeyRangeQuery keyQuery, StoreTransaction txh) throws BackendException {
+        return new DecompressingKeyIterator(store.getKeys(keyQuery, txh));
+    }
+
+    @Override
+    public KeyIterator getKeys(SliceQuery columnQuery, StoreTransaction txh) throws BackendException {
+        return new DecompressingKeyIterator(store.getKeys(columnQuery, txh));
+    }
+
+    private static class ValueConverter implements StaticArrayEntry.GetColVal<Entry, StaticBuffer> {
+
+        private final BackendCompression compression;
+        private final boolean compress;
+
+        private ValueConverter(BackendCompression compression, boolean compress) {
+            this.compression = compression;
+            this.compress = compress;
+        }
+
+        @Override
+        public StaticBuffer getColumn(Entry entry) {
+            return entry.getColumn();
+        }
+
+        @Override
+        public StaticBuffer getValue(Entry entry) {
+            return compress ? compression.compress(entry.getValue()) : compression.decompress(entry.getValue());
+        }
+
+        @Override
+        public EntryMetaData[] getMetaSchema(Entry entry) {
+            return StaticArrayEntry.ENTRY_GETTER.getMetaSchema(entry);
+        }
+
+        @Override
+        public Object getMetaData(Entry entry, EntryMetaData meta) {
+            return StaticArrayEntry.ENTRY_GETTER.getMetaData(entry, meta);
+        }
+    }
+
+    private class DecompressingKeyIterator implements KeyIterator {
+
+        private final KeyIterator keys;
+
+        private DecompressingKeyIterator(KeyIterator keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public RecordIterator<Entry> getEntries() {
+            final RecordIterator<Entry> entries = keys.getEntries();
+            return new RecordIterator<Entry>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Entry next() {
+                    return StaticArrayEntry.ofStaticBuffer(entries.next(), decompressor);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    entries.close();
+                }
+            };
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keys.hasNext();
+        }
+
+        @Override
+        public StaticBuffer next() {
+            return keys.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            keys.close();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.BaseTransactionConfig;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.StoreMetaData;
+import org.janusgraph.diskstorage.keycolumnvalue.KCVMutation;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStoreManager;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyRange;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreFeatures;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Wraps a {@link KeyColumnValueStoreManager} so that the stores selected by the given predicate are opened as
+ * {@link CompressedStore}s. All other stores are passed through unchanged.
+ */
+public class CompressedStoreManager implements KeyColumnValueStoreManager {
+
+    private final KeyColumnValueStoreManager manager;
+    private final BackendCompression compression;
+    private final Predicate<String> compressedStores;
+
+    public CompressedStoreManager(KeyColumnValueStoreManager manager, BackendCompression compression,
+                                  Predicate<String> compressedStores) {
+        Preconditions.checkArgument(manager != null && compression != null && compressedStores != null);
+        this.manager = manager;
+        this.compression = compression;
+        this.compressedStores = compressedStores;
+    }
+
+    public boolean isCompressed(String storeName) {
+        return compressedStores.test(storeName);
+    }
+
+    @Override
+    public KeyColumnValueStore openDatabase(String name, StoreMetaData.Container metaData) throws BackendException {
+        final KeyColumnValueStore store = manager.openDatabase(name, metaData);
+        return isCompressed(name) ? new CompressedStore(store, compression) : store;
+    }
+
+    @Override
+    public void mutateMany(Map<String, Map<StaticBuffer, KCVMutation>> mutations, StoreTransaction txh) throws BackendException {
+        final Map<String, Map<StaticBuffer, KCVMutation>> compressed = new HashMap<>(mutations.size());
+        for (Map.Entry<String, Map<StaticBuffer, KCVMutation>> storeMutations : mutations.entrySet()) {
+            final String storeName = storeMutations.getKey();
+            if (!isCompressed(storeName)) {
+                compressed.put(storeName, storeMutations.getValue());
+                continue;
+            }
+            final Map<StaticBuffer, KCVMutation> keyMutations = new HashMap<>(storeMutations.getValue().size());
+            for (Map.Entry<StaticBuffer, KCVMutation> mutation : storeMutations.getValue().entrySet()) {
+                final KCVMutation m = mutation.getValue();
+                keyMutations.put(mutation.getKey(), new KCVMutation(CompressedStore.compress(m.getAdditions(), compression), m.getDeletions()));
+            }
+            compressed.put(storeName, keyMutations);
+        }
+        manager.mutateMany(compressed, txh);
+    }
+
+    @Override
+    public StoreTransaction beginTransaction(BaseTransactionConfig config) throws BackendException {
+        return manager.beginTransaction(config);
+    }
+
+    @Override
+    public void close() throws BackendException {
+        manager.close();
+    }
+
+    @Override
+    public void clearStorage() throws BackendException {
+        manager.clearStorage();
+    }
+
+    @Override
+    public boolean exists() throws BackendException {
+        return manager.exists();
+    }
+
+    @Override
+    public StoreFeatures getFeatures() {
+        return manager.getFeatures();
+    }
+
+    @Override
+    public String getName() {
+        return manager.getName();
+    }
+
+    @Override
+    public List<KeyRange> getLocalKeyPartition() throws BackendException {
+        return manager.getLocalKeyPartition();
+    }
+
+}
@@ -0,0 +1,74 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link BackendCompression} using the DEFLATE algorithm of {@link java.util.zip}. Compresses better than
+ * {@link LZ4BackendCompression} at a higher CPU cost.
+ */
+public class DeflateBackendCompression extends AbstractBackendCompression {
+
+    public static final byte CODEC_ID = 2;
+
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    public DeflateBackendCompression(int threshold) {
+        super(CODEC_ID, threshold);
+    }
+
+    @Override
+    protected byte[] compress(byte[] array, int offset, int limit) {
+        final Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(array, offset, limit - offset);
+        deflater.finish();
+        byte[] result = new byte[limit - offset + 16];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == result.length) result = Arrays.copyOf(result, result.length * 2);
+            length += deflater.deflate(result, length, result.length - length);
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    @Override
+    protected byte[] decompress(byte[] array, int offset, int limit, int length) {
+        final Inflater inflater = inflaters.get();
+        inflater.reset();
+        //The nowrap mode requires an extra dummy byte at the end of the input
+        final byte[] input = Arrays.copyOfRange(array, offset, limit + 1);
+        inflater.setInput(input);
+        final byte[] result = new byte[length];
+        try {
+            int pos = 0;
+            while (pos < length && !inflater.finished()) {
+                final int read = inflater.inflate(result, pos, length - pos);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                pos += read;
+            }
+            if (pos != length) throw new IllegalArgumentException("Compressed value is truncated");
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed value is corrupted", e);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,149 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * {@link BackendCompression} producing the LZ4 block format. This is a pure-Java implementation of the greedy
+ * single-pass LZ4 compressor which favors compression and decompression speed over the compression ratio.
+ */
+public class LZ4BackendCompression extends AbstractBackendCompression {
+
+    public static final byte CODEC_ID = 1;
+
+    private static final int MIN_MATCH = 4;
+    //The last match has to start at least 12 bytes before the end and the last 5 bytes are always literals
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int ML_MASK = 0x0F;
+    private static final int RUN_MASK = 0x0F;
+
+    public LZ4BackendCompression(int threshold) {
+        super(CODEC_ID, threshold);
+    }
+
+    private static int readInt(byte[] array, int pos) {
+        return (array[pos] & 0xFF) | (array[pos + 1] & 0xFF) << 8 | (array[pos + 2] & 0xFF) << 16 | (array[pos + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int writeLength(byte[] dst, int pos, int length) {
+        for (; length >= 255; length -= 255) dst[pos++] = (byte) 255;
+        dst[pos++] = (byte) length;
+        return pos;
+    }
+
+    @Override
+    protected byte[] compress(byte[] src, int offset, int limit) {
+        final int length = limit - offset;
+        final byte[] dst = new byte[length + length / 255 + 16];
+        int dp = 0, anchor = offset;
+        if (length >= MF_LIMIT + 1) {
+            final int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            final int matchStartLimit = limit - MF_LIMIT, matchEndLimit = limit - LAST_LITERALS;
+            int ip = offset;
+            while (ip < matchStartLimit) {
+                final int sequence = readInt(src, ip);
+                final int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+                while (ip > anchor && ref > offset && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchEndLimit && src[ip + matchLength] == src[ref + matchLength]) matchLength++;
+
+                final int literals = ip - anchor;
+                final int token = dp++;
+                if (literals >= RUN_MASK) dp = writeLength(dst, dp, literals - RUN_MASK);
+                System.arraycopy(src, anchor, dst, dp, literals);
+                dp += literals;
+                final int distance = ip - ref;
+                dst[dp++] = (byte) distance;
+                dst[dp++] = (byte) (distance >>> 8);
+                final int extraLength = matchLength - MIN_MATCH;
+                if (extraLength >= ML_MASK) dp = writeLength(dst, dp, extraLength - ML_MASK);
+                dst[token] = (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(extraLength, ML_MASK));
+
+                ip += matchLength;
+                anchor = ip;
+                if (ip < matchStartLimit) table[hash(readInt(src, ip - 2))] = ip - 2;
+            }
+        }
+        final int literals = limit - anchor;
+        dst[dp++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+        if (literals >= RUN_MASK) dp = writeLength(dst, dp, literals - RUN_MASK);
+        System.arraycopy(src, anchor, dst, dp, literals);
+        dp += literals;
+        return Arrays.copyOf(dst, dp);
+    }
+
+    @Override
+    protected byte[] decompress(byte[] src, int offset, int limit, int length) {
+        final byte[] dst = new byte[length];
+        int sp = offset, dp = 0;
+        try {
+            while (true) {
+                final int token = src[sp++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xFF;
+                        literals += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(src, sp, dst, dp, literals);
+                sp += literals;
+                dp += literals;
+                if (sp >= limit) break;
+
+                final int distance = (src[sp++] & 0xFF) | (src[sp++] & 0xFF) << 8;
+                int matchLength = token & ML_MASK;
+                if (matchLength == ML_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int ref = dp - distance;
+                Preconditions.checkArgument(distance > 0 && ref >= 0, "Compressed value is corrupted");
+                //Matches may overlap with the bytes they produce, hence copy byte by byte
+                for (final int end = dp + matchLength; dp < end; ) dst[dp++] = dst[ref++];
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Compressed value is corrupted", e);
+        }
+        Preconditions.checkArgument(dp == length && sp == limit, "Compressed value is corrupted");
+        return dst;
+    }
+
+}
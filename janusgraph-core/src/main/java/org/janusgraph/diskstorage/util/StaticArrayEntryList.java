@@ -451,6 +451,48 @@ public class StaticArrayEntryList extends AbstractList<Entry> implements EntryLi
         return newData;
     }
 
+    /* #########################################
+            Serialization
+     ########################################### */
+
+    /**
+     * Returns the number of bytes written by {@link #writeTo(ByteBuffer)}.
+     */
+    public int getSerializedSize() {
+        return 4 + 1 + metaDataSchema.length + 4 + limitAndValuePos.length * 8 + data.length;
+    }
+
+    /**
+     * Writes this list into the buffer, starting at its current position, such that it can be read back with
+     * {@link #readFrom(ByteBuffer)}. The transient relation caches are not written.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(limitAndValuePos.length);
+        out.put((byte) metaDataSchema.length);
+        for (EntryMetaData meta : metaDataSchema) out.put((byte) meta.ordinal());
+        out.putInt(data.length);
+        out.asLongBuffer().put(limitAndValuePos);
+        out.position(out.position() + limitAndValuePos.length * 8);
+        out.put(data);
+    }
+
+    /**
+     * Reads a list written by {@link #writeTo(ByteBuffer)} from the current position of the buffer. A list of size 0
+     * is read as {@link EntryList#EMPTY_LIST}.
+     */
+    public static EntryList readFrom(ByteBuffer in) {
+        final int size = in.getInt();
+        if (size == 0) return EMPTY_LIST;
+        final EntryMetaData[] metaDataSchema = new EntryMetaData[in.get()];
+        for (int i = 0; i < metaDataSchema.length; i++) metaDataSchema[i] = EntryMetaData.values()[in.get()];
+        final byte[] data = new byte[in.getInt()];
+        final long[] limitAndValuePos = new long[size];
+        in.asLongBuffer().get(limitAndValuePos);
+        in.position(in.position() + size * 8);
+        in.get(data);
+        return new StaticArrayEntryList(data, limitAndValuePos, metaDataSchema);
+    }
+
     /* #########################################
             Meta Data Management
      ########################################### */
@@ -40,6 +40,7 @@ import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStoreManager;
 import org.janusgraph.diskstorage.keycolumnvalue.StoreFeatures;
 import org.janusgraph.diskstorage.log.kcvs.KCVSLog;
 import org.janusgraph.diskstorage.log.kcvs.KCVSLogManager;
+import org.janusgraph.graphdb.database.cache.CompositeIndexCache;
 import org.janusgraph.graphdb.database.cache.MetricInstrumentedSchemaCache;
 import org.janusgraph.graphdb.database.cache.StandardSchemaCache;
 import org.janusgraph.graphdb.database.cache.SchemaCache;
@@ -78,6 +79,7 @@ import org.janusgraph.diskstorage.Backend;
 import org.janusgraph.graphdb.database.idassigner.VertexIDAssigner;
 import org.janusgraph.graphdb.database.serialize.Serializer;
 import org.janusgraph.graphdb.transaction.StandardTransactionBuilder;
+import org.janusgraph.graphdb.transaction.vertexcache.VertexCacheType;
 import org.janusgraph.util.stats.MetricManager;
 
 /**
@@ -212,6 +214,22 @@ public class GraphDatabaseConfiguration {
             "How the graph computer should return the computed results. 'persist' for writing them into the graph, " +
                     "'localtx' for writing them into the local transaction, or 'none' (default)", ConfigOption.Type.MASKABLE, "none");
 
+    public static final ConfigOption<Boolean> COMPUTER_SNAPSHOT = new ConfigOption<>(COMPUTER_NS,"snapshot",
+            "Whether the graph computer should keep an in-memory copy of the edge store data read by a vertex program " +
+                    "and answer subsequent iterations and map jobs from it instead of scanning the storage backend again. " +
+                    "The data read by the vertex program must fit into memory.", ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<String> COMPUTER_VERTEX_MEMORY = new ConfigOption<>(COMPUTER_NS,"vertex-memory",
+            "How the graph computer should hold the compute key values and messages of the vertices. 'object' (default) " +
+                    "keeps one state object per vertex on the heap, 'columnar' keeps the state in columns indexed by a dense " +
+                    "vertex ordinal and stores numeric values outside of the heap",
+            ConfigOption.Type.MASKABLE, "object", s -> "object".equals(s) || "columnar".equals(s));
+
+    public static final ConfigOption<String> COMPUTER_SPILL_DIRECTORY = new ConfigOption<>(COMPUTER_NS,"spill-directory",
+            "Directory in which a 'columnar' vertex memory memory-maps its numeric columns so that they can be paged out " +
+                    "to disk. If not set, these columns are allocated in direct memory.",
+            ConfigOption.Type.MASKABLE, String.class);
+
 
     // ################ Transaction #######################
     // ################################################
@@ -268,11 +286,51 @@ public class GraphDatabaseConfiguration {
                     "light of possibly large result sets. Those will be loaded incrementally if this option is enabled.",
             ConfigOption.Type.MASKABLE, true);
 
+    public static final ConfigOption<String> INDEX_SELECTION = new ConfigOption<>(QUERY_NS,"index-selection",
+            "Strategy the query optimizer uses to choose the indexes answering a graph query: 'heuristic' prefers indexes " +
+                    "covering more equality conditions, 'cost' prefers indexes with fewer estimated results based on the " +
+                    "counts reported by mixed indexes and the sampled row counts of composite indexes. Falls back to 'heuristic' " +
+                    "for queries where not all index candidates can be estimated.",
+            ConfigOption.Type.MASKABLE, "heuristic", s -> "heuristic".equals(s) || "cost".equals(s));
+
+    public static final ConfigOption<Boolean> STREAMING_INTERSECTION = new ConfigOption<>(QUERY_NS,"streaming-intersection",
+            "Whether graph queries answered by several indexes stream the results of the first index in pages and probe " +
+                    "the other composite indexes for each page instead of retrieving and intersecting the complete results " +
+                    "of all indexes. This bounds the memory used by queries on large indexes at the expense of one index " +
+                    "lookup per element and index.",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> INTERSECTION_PAGE_SIZE = new ConfigOption<>(QUERY_NS,"intersection-page-size",
+            "The number of elements retrieved from the first index at a time when " +
+                    ConfigElement.getPath(STREAMING_INTERSECTION) + " is enabled.",
+            ConfigOption.Type.MASKABLE, 500, ConfigOption.positiveInt());
+
     public static final ConfigOption<Boolean> USE_MULTIQUERY = new ConfigOption<>(QUERY_NS,"batch",
             "Whether traversal queries should be batched when executed against the storage backend. This can lead to significant " +
                     "performance improvement if there is a non-trivial latency to the backend.",
             ConfigOption.Type.MASKABLE, false);
 
+    public static final ConfigOption<Integer> MULTIQUERY_BATCH_SIZE = new ConfigOption<>(QUERY_NS,"batch-size",
+            "The maximum number of traversers a batched traversal step collects into a single backend multi-query when " +
+                    ConfigElement.getPath(USE_MULTIQUERY) + " is enabled. Smaller values bound the memory held by wide " +
+                    "traversals and return first results sooner at the expense of more backend round trips.",
+            ConfigOption.Type.MASKABLE, Integer.MAX_VALUE, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> INDEX_RESULT_BATCH_SIZE = new ConfigOption<>(QUERY_NS,"index-result-batch-size",
+            "The number of vertices returned by an index for a graph query that are retrieved from the storage backend " +
+                    "together when " + ConfigElement.getPath(USE_MULTIQUERY) + " is enabled. The existence of the vertices " +
+                    "in a batch, if it is verified, is checked with one multi-query.",
+            ConfigOption.Type.MASKABLE, 100, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Boolean> INDEX_RESULT_PROPERTIES = new ConfigOption<>(QUERY_NS,"index-result-properties",
+            "Whether to load the properties of all vertices in a batch of index results with one multi-query, see " +
+                    ConfigElement.getPath(INDEX_RESULT_BATCH_SIZE) + ". This pays off when the properties of the returned " +
+                    "vertices are accessed, but is wasted work for traversals which only count the vertices, read their " +
+                    "ids or traverse their edges. Traversals whose graph step is directly followed by a step reading " +
+                    "properties, such as values() or valueMap(), load the requested properties with each batch " +
+                    "regardless of this option.",
+            ConfigOption.Type.MASKABLE, false);
+
     // ################ SCHEMA #######################
     // ################################################
 
@@ -351,6 +409,40 @@ public class GraphDatabaseConfiguration {
             "triggers eviction when set to 0).",
             ConfigOption.Type.GLOBAL_OFFLINE, 10000L);
 
+    /**
+     * The implementation of the database level cache for the edge store and the index store respectively.
+     * See {@link org.janusgraph.diskstorage.keycolumnvalue.cache.DBCacheType} for the available implementations.
+     */
+    public static final ConfigOption<String> DB_CACHE_EDGESTORE_TYPE = new ConfigOption<>(CACHE_NS,"db-cache-edgestore-type",
+            "Implementation of the database-level cache for the edge store: 'expiration' uses a Guava cache with LRU eviction, " +
+            "'tinylfu' admits entries based on their access frequency so that scans do not flush out frequently read " +
+            "adjacency lists, weighs entries by their actual size and invalidates keys without sweeping the cache, " +
+            "'offheap' stores serialized entries in direct memory outside of the heap. When using 'offheap', db-cache-size " +
+            "should be an absolute size and -XX:MaxDirectMemorySize must be large enough to hold the cache.",
+            ConfigOption.Type.MASKABLE, "expiration", s -> "expiration".equals(s) || "tinylfu".equals(s) || "offheap".equals(s));
+
+    public static final ConfigOption<String> DB_CACHE_INDEXSTORE_TYPE = new ConfigOption<>(CACHE_NS,"db-cache-indexstore-type",
+            "Implementation of the database-level cache for the index store, see db-cache-edgestore-type.",
+            ConfigOption.Type.MASKABLE, "expiration", s -> "expiration".equals(s) || "tinylfu".equals(s) || "offheap".equals(s));
+
+    /**
+     * Whether the keys mutated by this instance are published on a dedicated log so that other instances can expire
+     * them in their database level caches. With invalidation enabled, the staleness of cached data across a cluster is
+     * bounded by the read interval of the management log rather than {@link #DB_CACHE_TIME}. This only holds if every
+     * instance publishes its mutations, hence the option is global.
+     */
+    public static final ConfigOption<Boolean> DB_CACHE_INVALIDATION = new ConfigOption<>(CACHE_NS,"db-cache-invalidation",
+            "Whether every instance publishes the keys it mutates on a dedicated log and expires the keys published by " +
+            "other instances in its database-level cache. This bounds the staleness of cached data by the read interval " +
+            "of the management log, so that long cache expiration times can be used in multi-instance deployments. " +
+            "An instance which does not publish its mutations would leave stale data in the caches of the others, " +
+            "hence this option can only be changed while all instances are offline.",
+            ConfigOption.Type.GLOBAL_OFFLINE, false);
+
+    public static final ConfigOption<Integer> DB_CACHE_INVALIDATION_BATCH_SIZE = new ConfigOption<>(CACHE_NS,"db-cache-invalidation-batch-size",
+            "Maximum number of mutated keys published in a single cache invalidation message.",
+            ConfigOption.Type.MASKABLE, 1000, ConfigOption.positiveInt());
+
     /**
      * Configures the maximum number of recently-used vertices cached by a transaction. The smaller the cache size, the
      * less memory a transaction can consume at maximum. For many concurrent, long running transactions in memory constraint
@@ -365,6 +457,48 @@ public class GraphDatabaseConfiguration {
             "Maximum size of the transaction-level cache of recently-used vertices.",
             ConfigOption.Type.MASKABLE, 20000);
 
+    /**
+     * Configures the implementation of the transaction-level cache of recently-used vertices whose size is
+     * bounded by {@link #TX_CACHE_SIZE}. See {@link VertexCacheType} for the available implementations.
+     */
+    public static final ConfigOption<String> TX_CACHE_TYPE = new ConfigOption<>(CACHE_NS,"tx-cache-type",
+            "Implementation of the transaction-level cache of recently-used vertices: 'guava' uses a Guava cache with LRU " +
+            "eviction, 'lru' a concurrent LRU cache which evicts in batches and 'clock' an allocation-free hash table keyed " +
+            "by primitive vertex ids with CLOCK eviction.",
+            ConfigOption.Type.MASKABLE, "guava", s -> "guava".equals(s) || "lru".equals(s) || "clock".equals(s));
+
+    /**
+     * Configures the maximum number of bytes of adjacency data which the vertices of a transaction keep cached for the
+     * slice queries executed against them. Once a transaction has cached that many bytes, the results of further
+     * queries are no longer retained so that transactions touching large parts of the graph do not run out of memory.
+     */
+    public static final ConfigOption<Long> TX_QUERY_CACHE_SIZE = new ConfigOption<>(CACHE_NS,"tx-query-cache-size",
+            "Maximum number of bytes of relation query results cached by the vertices of a transaction. " +
+            "Set to 0 to not bound the cached results.",
+            ConfigOption.Type.MASKABLE, 0L, s -> s != null && s >= 0);
+
+    /**
+     * Whether the element ids returned by composite index lookups are cached across the transactions of a graph.
+     * Cached lookups are invalidated when a transaction of this instance commits changes to the looked up index keys.
+     * Changes committed by other instances only become visible once the entries expire after {@link #INDEX_CACHE_TIME}.
+     */
+    public static final ConfigOption<Boolean> INDEX_CACHE = new ConfigOption<>(CACHE_NS,"index-cache",
+            "Whether to enable JanusGraph's graph level cache of composite index lookups. Lookups are invalidated " +
+            "when a local transaction modifies the looked up index keys and all lookups are invalidated when a local " +
+            "index repair job finishes. Changes made by other JanusGraph instances, including index repair jobs " +
+            "run through MapReduce, are only seen once the cached lookups expire.",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Long> INDEX_CACHE_SIZE = new ConfigOption<>(CACHE_NS,"index-cache-size",
+            "Maximum number of element ids held by the graph level cache of composite index lookups.",
+            ConfigOption.Type.MASKABLE, 100000L, ConfigOption.positiveLong());
+
+    public static final ConfigOption<Long> INDEX_CACHE_TIME = new ConfigOption<>(CACHE_NS,"index-cache-time",
+            "Expiration time, in milliseconds, for lookups in the graph level cache of composite index lookups. " +
+            "Set to 0 to disable expiration, which only makes sense when this is the only JanusGraph instance " +
+            "writing to the storage backend.",
+            ConfigOption.Type.MASKABLE, 10000L, s -> s != null && s >= 0);
+
     /**
      * Configures the initial size of the dirty (modified) vertex map used by a transaction.  All vertices created or
      * updated by a transaction are held in that transaction's dirty vertex map until the transaction commits.
@@ -502,6 +636,14 @@ public class GraphDatabaseConfiguration {
             "Whether JanusGraph should attempt to parallelize storage operations",
             ConfigOption.Type.MASKABLE, true);
 
+    public static final ConfigOption<Integer> PARALLEL_COMMIT_THRESHOLD = new ConfigOption<>(STORAGE_NS,"parallel-commit-threshold",
+            "Minimum number of vertices modified by a transaction for the serialization of its relations and their index " +
+                    "updates to be split across the backend operations thread pool on commit. Only applies if " +
+                    PARALLEL_BACKEND_OPS.getName() + " is enabled and to transactions which are not thread-bound, since " +
+                    "thread-bound transactions must only be accessed by their own thread. Set to 0 to always serialize " +
+                    "on the committing thread",
+            ConfigOption.Type.MASKABLE, 0, ConfigOption.nonnegativeInt());
+
     /**
      * A unique identifier for the machine running the JanusGraph instance.
      * It must be ensured that no other machine accessing the storage backend can have the same identifier.
@@ -567,6 +709,15 @@ public class GraphDatabaseConfiguration {
             "up to this many elements.",
             ConfigOption.Type.MASKABLE, 100);
 
+    /**
+     * Number of key ranges into which full scans of a store (e.g. for OLAP or index repair jobs) are split.
+     * Each key range is read by its own set of threads concurrently.
+     */
+    public static final ConfigOption<Integer> SCAN_KEY_RANGES = new ConfigOption<>(STORAGE_NS,"scan-key-ranges",
+            "The number of key ranges a full scan of a store is split into and read concurrently. Splitting requires " +
+            "a storage backend which supports ordered scans; it has no effect otherwise.",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
     public static final ConfigOption<Boolean> DROP_ON_CLEAR = new ConfigOption<>(STORAGE_NS, "drop-on-clear",
         "Whether to drop the graph database (true) or delete rows (false) when clearing storage. " +
             "Note that some backends always drop the graph database when clearing storage. Also note that indices are " +
@@ -619,6 +770,15 @@ public class GraphDatabaseConfiguration {
             "Whether to delete expired locks from the storage backend",
             ConfigOption.Type.MASKABLE, false);
 
+    /**
+     * Whether the consistent key locker should defer writing its lock claims until the locks are checked at commit
+     * time and then write, wait on and read back all claims of a transaction together.
+     */
+    public static final ConfigOption<Boolean> LOCK_BATCH = new ConfigOption<>(LOCK_NS, "batch",
+            "Whether to write all lock claims of a transaction in a single batch mutation at commit time and to " +
+            "verify them with a single wait and multi-key read instead of one write, wait and read per lock",
+            ConfigOption.Type.MASKABLE, false);
+
     /**
      * Locker type to use.  The supported types are in {@link org.janusgraph.diskstorage.Backend}.
      */
@@ -656,6 +816,32 @@ public class GraphDatabaseConfiguration {
             ConfigOption.Type.GLOBAL, true);
 
 
+    // ################ STORAGE - COMPRESSION #######################
+
+    public static final ConfigNamespace STORAGE_COMPRESSION_NS = new ConfigNamespace(STORAGE_NS,"compression",
+            "Options for compressing the values written into the storage backend");
+
+    /**
+     * The codec used to compress the values of the stores configured by {@link #STORAGE_COMPRESSION_STORES}.
+     * Compressed values are prefixed with a header and hence cannot be read without this setting, which is why
+     * it cannot be changed once the graph has been created.
+     */
+    public static final ConfigOption<String> STORAGE_COMPRESSION_CODEC = new ConfigOption<>(STORAGE_COMPRESSION_NS,"codec",
+            "Codec used to compress the values of the configured stores: 'none' stores values as they are, 'lz4' favors " +
+            "speed and 'deflate' a higher compression ratio. Tools which read the storage backend directly, " +
+            "e.g. the Hadoop input formats, need the same compression settings to decompress values.",
+            ConfigOption.Type.FIXED, "none", s -> "none".equals(s) || "lz4".equals(s) || "deflate".equals(s));
+
+    public static final ConfigOption<String[]> STORAGE_COMPRESSION_STORES = new ConfigOption<>(STORAGE_COMPRESSION_NS,"stores",
+            "Names of the stores whose values are compressed, e.g. edgestore, graphindex, txlog or systemlog. " +
+            "A name ending in '*' matches all stores with that prefix, e.g. 'ulog_*' for all user logs.",
+            ConfigOption.Type.FIXED, new String[]{Backend.EDGESTORE_NAME, Backend.INDEXSTORE_NAME});
+
+    public static final ConfigOption<Integer> STORAGE_COMPRESSION_THRESHOLD = new ConfigOption<>(STORAGE_COMPRESSION_NS,"threshold",
+            "Values shorter than this number of bytes are stored uncompressed.",
+            ConfigOption.Type.MASKABLE, 64, ConfigOption.nonnegativeInt());
+
+
     // ################ CLUSTERING ###########################
     // ################################################
 
@@ -736,6 +922,18 @@ public class GraphDatabaseConfiguration {
             "This helps avoid transaction commits waiting on ID reservation even if the block size is relatively small.",
             ConfigOption.Type.MASKABLE, 0.3);
 
+    /**
+     * The maximum number of id blocks an id pool reserves ahead of demand. The pool adapts the number of blocks it
+     * prefetches between one and this value to the observed id consumption rate, so that blocks are claimed before
+     * they are needed during bulk loading. Reserved blocks that are not used before shutdown are wasted.
+     */
+    public static final ConfigOption<Integer> IDS_PREFETCH_BLOCKS = new ConfigOption<>(IDS_NS,"prefetch-blocks",
+            "The maximum number of ID blocks each ID pool reserves ahead of demand.  The pool adjusts the number of " +
+            "blocks it reserves between 1 and this value to the rate at which its IDs are consumed relative to the time " +
+            "it takes to reserve a block.  Larger values reduce commits waiting on ID reservation during bulk loading " +
+            "at the cost of more IDs being wasted when a graph instance shuts down.",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
     // ################ IDAUTHORITY ###################
     // ################################################
 
@@ -862,6 +1060,35 @@ public class GraphDatabaseConfiguration {
                     "and its the developers responsibility to avoid field collisions.",
             ConfigOption.Type.GLOBAL, true);
 
+    public static final ConfigOption<Boolean> INDEX_BULK_ASYNC = new ConfigOption<>(INDEX_NS,"bulk-async",
+            "Whether to apply the mutations of committed transactions to this index asynchronously. The mutations of " +
+            "concurrent transactions are then coalesced into bulk requests and are not immediately visible to index " +
+            "queries once a transaction has been committed. Failures are recorded in the transaction log so that " +
+            "they can be repaired by transaction recovery, hence this requires tx.log-tx to be enabled.",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> INDEX_BULK_MAX_ACTIONS = new ConfigOption<>(INDEX_NS,"bulk-max-actions",
+            "Maximum number of documents mutated by a single asynchronous bulk request.",
+            ConfigOption.Type.MASKABLE, 1000, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Long> INDEX_BULK_MAX_BYTES = new ConfigOption<>(INDEX_NS,"bulk-max-bytes",
+            "Approximate maximum size (in bytes) of the mutations in a single asynchronous bulk request.",
+            ConfigOption.Type.MASKABLE, 5L * 1024 * 1024, ConfigOption.positiveLong());
+
+    public static final ConfigOption<Duration> INDEX_BULK_FLUSH_INTERVAL = new ConfigOption<>(INDEX_NS,"bulk-flush-interval",
+            "Maximum time (in ms) that asynchronous mutations wait to be coalesced with the mutations of other " +
+            "transactions before they are applied.",
+            ConfigOption.Type.MASKABLE, Duration.ofMillis(100L));
+
+    public static final ConfigOption<Integer> INDEX_BULK_CONCURRENT_REQUESTS = new ConfigOption<>(INDEX_NS,"bulk-concurrent-requests",
+            "Maximum number of asynchronous bulk requests in flight against this index.",
+            ConfigOption.Type.MASKABLE, 2, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> INDEX_BULK_MAX_PENDING = new ConfigOption<>(INDEX_NS,"bulk-max-pending",
+            "Maximum number of documents with asynchronous mutations that have not yet been applied. Committing " +
+            "transactions blocks while this number is exceeded.",
+            ConfigOption.Type.MASKABLE, 10000, ConfigOption.positiveInt());
+
 
     // ############## Logging System ######################
     // ################################################
@@ -903,6 +1130,11 @@ public class GraphDatabaseConfiguration {
             "Number of threads to be used in reading and processing log messages",
             ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
 
+    public static final ConfigOption<Integer> LOG_SEND_THREADS = new ConfigOption<>(LOG_NS,"send-threads",
+            "Number of threads to be used in sending batched log messages for logging implementations that support batch " +
+            "sending. Messages are assigned to sending threads by bucket, hence more threads than buckets are not used",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
     public static final ConfigOption<Duration> LOG_STORE_TTL = new ConfigOption<Duration>(LOG_NS,"ttl",
             "Sets a TTL on all log entries, meaning" +
                     "that all entries added to this log expire after the configured amount of time. Requires" +
@@ -1215,11 +1447,20 @@ public class GraphDatabaseConfiguration {
     private boolean forceIndexUsage;
     private boolean batchLoading;
     private int txVertexCacheSize;
+    private VertexCacheType txVertexCacheType;
+    private long txQueryCacheSize;
     private int txDirtyVertexSize;
     private DefaultSchemaMaker defaultSchemaMaker;
     private Boolean propertyPrefetching;
     private boolean adjustQueryLimit;
+    private boolean costBasedIndexSelection;
+    private boolean streamingIntersection;
+    private int intersectionPageSize;
     private Boolean useMultiQuery;
+    private int multiQueryBatchSize;
+    private int indexResultBatchSize;
+    private boolean indexResultProperties;
+    private int parallelCommitThreshold;
     private boolean allowVertexIdSetting;
     private boolean logTransactions;
     private String metricsPrefix;
@@ -1525,6 +1766,8 @@ public class GraphDatabaseConfiguration {
         if (batchLoading) defaultSchemaMaker = DisableDefaultSchemaMaker.INSTANCE;
 
         txVertexCacheSize = configuration.get(TX_CACHE_SIZE);
+        txVertexCacheType = ConfigOption.getEnumValue(configuration.get(TX_CACHE_TYPE), VertexCacheType.class);
+        txQueryCacheSize = configuration.get(TX_QUERY_CACHE_SIZE);
         //Check for explicit dirty vertex cache size first, then fall back on batch-loading-dependent default
         if (configuration.has(TX_DIRTY_SIZE)) {
             txDirtyVertexSize = configuration.get(TX_DIRTY_SIZE);
@@ -1536,9 +1779,22 @@ public class GraphDatabaseConfiguration {
 
         propertyPrefetching = configuration.get(PROPERTY_PREFETCHING);
         useMultiQuery = configuration.get(USE_MULTIQUERY);
+        multiQueryBatchSize = configuration.get(MULTIQUERY_BATCH_SIZE);
+        indexResultBatchSize = configuration.get(INDEX_RESULT_BATCH_SIZE);
+        indexResultProperties = configuration.get(INDEX_RESULT_PROPERTIES);
+        parallelCommitThreshold = configuration.get(PARALLEL_COMMIT_THRESHOLD);
         adjustQueryLimit = configuration.get(ADJUST_LIMIT);
+        costBasedIndexSelection = "cost".equals(configuration.get(INDEX_SELECTION));
+        streamingIntersection = configuration.get(STREAMING_INTERSECTION);
+        intersectionPageSize = configuration.get(INTERSECTION_PAGE_SIZE);
         allowVertexIdSetting = configuration.get(ALLOW_SETTING_VERTEX_ID);
         logTransactions = configuration.get(SYSTEM_LOG_TRANSACTIONS);
+        for (String index : configuration.getContainedNamespaces(INDEX_NS)) {
+            //Failed asynchronous index mutations can only be repaired through the transaction log
+            Preconditions.checkArgument(logTransactions || !configuration.get(INDEX_BULK_ASYNC, index),
+                    "Index [%s] applies mutations asynchronously, which requires transaction logging to be enabled (%s)",
+                    index, ConfigElement.getPath(SYSTEM_LOG_TRANSACTIONS));
+        }
 
         unknownIndexKeyName = configuration.get(IGNORE_UNKNOWN_INDEX_FIELD) ? UNKNOWN_FIELD_NAME : null;
 
@@ -1646,6 +1902,14 @@ public class GraphDatabaseConfiguration {
         return txVertexCacheSize;
     }
 
+    public VertexCacheType getTxVertexCacheType() {
+        return txVertexCacheType;
+    }
+
+    public long getTxQueryCacheSize() {
+        return txQueryCacheSize;
+    }
+
     public int getTxDirtyVertexSize() {
         return txDirtyVertexSize;
     }
@@ -1690,10 +1954,38 @@ public class GraphDatabaseConfiguration {
         return useMultiQuery;
     }
 
+    public int getMultiQueryBatchSize() {
+        return multiQueryBatchSize;
+    }
+
+    public int getIndexResultBatchSize() {
+        return indexResultBatchSize;
+    }
+
+    public boolean hasIndexResultProperties() {
+        return indexResultProperties;
+    }
+
+    public int getParallelCommitThreshold() {
+        return parallelCommitThreshold;
+    }
+
     public boolean adjustQueryLimit() {
         return adjustQueryLimit;
     }
 
+    public boolean useCostBasedIndexSelection() {
+        return costBasedIndexSelection;
+    }
+
+    public boolean useStreamingIntersection() {
+        return streamingIntersection;
+    }
+
+    public int getIntersectionPageSize() {
+        return intersectionPageSize;
+    }
+
     public String getUnknownIndexKeyName() {
         return unknownIndexKeyName;
     }
@@ -1796,6 +2088,14 @@ public class GraphDatabaseConfiguration {
         return serializer;
     }
 
+    /**
+     * Returns the graph level cache of composite index lookups or null if it is disabled.
+     */
+    public CompositeIndexCache getCompositeIndexCache() {
+        if (!configuration.get(INDEX_CACHE)) return null;
+        return new CompositeIndexCache(configuration.get(INDEX_CACHE_SIZE), configuration.get(INDEX_CACHE_TIME), metricsPrefix);
+    }
+
     public SchemaCache getTypeCache(SchemaCache.StoreRetrieval retriever) {
         if (configuration.get(BASIC_METRICS)) return new MetricInstrumentedSchemaCache(retriever);
         else return new StandardSchemaCache(retriever);
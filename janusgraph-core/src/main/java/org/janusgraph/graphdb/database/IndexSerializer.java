@@ -30,6 +30,7 @@ import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
 import org.janusgraph.diskstorage.util.BufferUtil;
 import org.janusgraph.diskstorage.util.HashingUtil;
 import org.janusgraph.diskstorage.util.StaticArrayEntry;
+import org.janusgraph.graphdb.database.cache.CompositeIndexCache;
 import org.janusgraph.graphdb.database.idhandling.VariableLong;
 import org.janusgraph.graphdb.database.management.ManagementSystem;
 import org.janusgraph.graphdb.database.serialize.AttributeUtil;
@@ -74,9 +75,13 @@ public class IndexSerializer {
 
     private final boolean hashKeys;
     private final HashingUtil.HashLength hashLength = HashingUtil.HashLength.SHORT;
+    private final IndexStatistics statistics = new IndexStatistics();
+    private final CompositeIndexCache compositeIndexCache;
 
-    public IndexSerializer(Configuration config, Serializer serializer, Map<String, ? extends IndexInformation> indexes, final boolean hashKeys) {
+    public IndexSerializer(Configuration config, Serializer serializer, Map<String, ? extends IndexInformation> indexes,
+                           final boolean hashKeys, final CompositeIndexCache compositeIndexCache) {
         this.serializer = serializer;
+        this.compositeIndexCache = compositeIndexCache;
         this.configuration = config;
         this.mixedIndexes = indexes;
         this.hashKeys=hashKeys;
@@ -88,6 +93,10 @@ public class IndexSerializer {
                Index Information
     ################################################### */
 
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
     public boolean containsIndex(final String indexName) {
         return mixedIndexes.containsKey(indexName);
     }
@@ -508,28 +517,81 @@ public class IndexSerializer {
         final IndexType index = query.getIndex();
         if (index.isCompositeIndex()) {
             final MultiKeySliceQuery sq = query.getCompositeQuery();
-            final List<EntryList> rs = sq.execute(tx);
-            final List<Object> results = new ArrayList<>(rs.get(0).size());
-            for (EntryList r : rs) {
-                for (java.util.Iterator<Entry> iterator = r.reuseIterator(); iterator.hasNext(); ) {
-                    final Entry entry = iterator.next();
-                    final ReadBuffer entryValue = entry.asReadBuffer();
-                    entryValue.movePositionTo(entry.getValuePosition());
-                    switch(index.getElement()) {
-                        case VERTEX:
-                            results.add(VariableLong.readPositive(entryValue));
-                            break;
-                        default:
-                            results.add(bytebuffer2RelationId(entryValue));
-                    }
-                }
+            if (compositeIndexCache != null) {
+                return compositeIndexCache.get(sq, () -> query((CompositeIndexType) index, sq, tx)).stream();
             }
-            return results.stream();
+            return query((CompositeIndexType) index, sq, tx).stream();
         } else {
             return tx.indexQuery(index.getBackingIndexName(), query.getMixedQuery()).map(IndexSerializer::string2ElementId);
         }
     }
 
+    private List<Object> query(final CompositeIndexType index, final MultiKeySliceQuery sq, final BackendTransaction tx) {
+        final List<EntryList> rs = sq.execute(tx);
+        final List<Object> results = new ArrayList<>(rs.get(0).size());
+        for (EntryList r : rs) {
+            //Results cut off by the limit still count as a sample since they are a lower bound
+            statistics.recordCompositeRows(index, r.size());
+            for (java.util.Iterator<Entry> iterator = r.reuseIterator(); iterator.hasNext(); ) {
+                final Entry entry = iterator.next();
+                final ReadBuffer entryValue = entry.asReadBuffer();
+                entryValue.movePositionTo(entry.getValuePosition());
+                switch(index.getElement()) {
+                    case VERTEX:
+                        results.add(VariableLong.readPositive(entryValue));
+                        break;
+                    default:
+                        results.add(bytebuffer2RelationId(entryValue));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Invalidates the cached lookups of the given composite index keys once their modification has been persisted.
+     */
+    public void invalidateCompositeIndexKeys(final Collection<StaticBuffer> keys) {
+        if (compositeIndexCache != null) compositeIndexCache.invalidate(keys);
+    }
+
+    /**
+     * Invalidates all cached composite index lookups, e.g. after an index has been repaired.
+     */
+    public void invalidateCompositeIndexes() {
+        if (compositeIndexCache != null) compositeIndexCache.invalidateAll();
+    }
+
+    /**
+     * Whether {@link #probe(JointIndexQuery.Subquery, List, BackendTransaction)} can check individual elements against
+     * the given subquery, which requires a composite index storing one column per element.
+     */
+    public boolean supportsProbing(final JointIndexQuery.Subquery query) {
+        return query.getIndex().isCompositeIndex()
+            && ((CompositeIndexType) query.getIndex()).getCardinality() != Cardinality.SINGLE;
+    }
+
+    /**
+     * Returns those of the given element ids which are contained in the results of the given composite index subquery.
+     * Instead of reading all results of the subquery, only the column of each element is read for every index key.
+     */
+    public List<Object> probe(final JointIndexQuery.Subquery query, final List<Object> elementIds, final BackendTransaction tx) {
+        Preconditions.checkArgument(supportsProbing(query), "Index does not support probing: %s", query.getIndex());
+        final List<KeySliceQuery> keys = query.getCompositeQuery().getQueries();
+        final List<Object> results = new ArrayList<>(elementIds.size());
+        for (Object elementId : elementIds) {
+            final StaticBuffer columnStart = getIndexColumnPrefix(elementId);
+            final StaticBuffer columnEnd = BufferUtil.nextBiggerBuffer(columnStart);
+            for (KeySliceQuery key : keys) {
+                if (!tx.indexQuery(new KeySliceQuery(key.getKey(), columnStart, columnEnd).setLimit(1)).isEmpty()) {
+                    results.add(elementId);
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
     public MultiKeySliceQuery getQuery(final CompositeIndexType index, List<Object[]> values) {
         final List<KeySliceQuery> ksqs = new ArrayList<>(values.size());
         for (Object[] value : values) {
@@ -723,6 +785,18 @@ public class IndexSerializer {
         return VariableLong.readPositive(key.asReadBuffer());
     }
 
+    /**
+     * The prefix of all columns of a non-unique composite index entry for the given element, see
+     * {@link #getIndexEntry(CompositeIndexType, RecordEntry[], JanusGraphElement)}
+     */
+    private StaticBuffer getIndexColumnPrefix(Object elementId) {
+        DataOutput out = serializer.getDataOutput(1+8);
+        out.putByte(FIRST_INDEX_COLUMN_BYTE);
+        VariableLong.writePositive(out, elementId instanceof RelationIdentifier
+            ? ((RelationIdentifier) elementId).getRelationId() : (Long) elementId);
+        return out.getStaticBuffer();
+    }
+
     private Entry getIndexEntry(CompositeIndexType index, RecordEntry[] record, JanusGraphElement element) {
         DataOutput out = serializer.getDataOutput(1+8+8*record.length+4*8);
         out.putByte(FIRST_INDEX_COLUMN_BYTE);
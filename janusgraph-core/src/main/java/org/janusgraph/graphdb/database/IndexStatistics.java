@@ -0,0 +1,68 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.database;
+
+import org.janusgraph.graphdb.types.CompositeIndexType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps cheap cardinality statistics for the composite indexes of a graph which the query optimizer uses to estimate
+ * how many elements an index lookup returns.
+ * <p>
+ * The statistics are sampled from the composite index lookups the graph executes anyway: every looked up index key
+ * contributes the number of rows it returned to a per-index moving average. Hence, no additional reads are necessary
+ * but the statistics are only available for indexes that have been used at least once since the graph was opened.
+ */
+public class IndexStatistics {
+
+    /**
+     * Weight of a new sample in the moving average once an index has been sampled {@link #MIN_SAMPLES} times.
+     * Before that, the average is the arithmetic mean of the samples.
+     */
+    private static final double SAMPLE_WEIGHT = 0.05;
+    private static final int MIN_SAMPLES = (int) (1 / SAMPLE_WEIGHT);
+
+    private final ConcurrentMap<Long, RowSample> compositeRows = new ConcurrentHashMap<>();
+
+    /**
+     * Records that looking up a single key of the given composite index returned the given number of rows.
+     */
+    public void recordCompositeRows(CompositeIndexType index, int rows) {
+        compositeRows.computeIfAbsent(index.getID(), id -> new RowSample()).add(rows);
+    }
+
+    /**
+     * Returns the estimated average number of rows per key of the given composite index or a negative number if the
+     * index has not been sampled yet.
+     */
+    public double getCompositeRowsPerKey(CompositeIndexType index) {
+        final RowSample sample = compositeRows.get(index.getID());
+        return sample == null ? -1 : sample.average;
+    }
+
+    private static class RowSample {
+
+        private int samples = 0;
+        private volatile double average = 0;
+
+        private synchronized void add(int rows) {
+            if (samples < MIN_SAMPLES) samples++;
+            average += (rows - average) / (samples < MIN_SAMPLES ? samples : MIN_SAMPLES);
+        }
+    }
+
+}
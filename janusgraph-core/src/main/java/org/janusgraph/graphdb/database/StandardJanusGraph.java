@@ -18,6 +18,7 @@ import com.carrotsearch.hppc.LongArrayList;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.*;
 import org.janusgraph.core.*;
 import org.janusgraph.core.schema.ConsistencyModifier;
@@ -29,6 +30,7 @@ import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
 import org.janusgraph.diskstorage.indexing.IndexEntry;
 import org.janusgraph.diskstorage.indexing.IndexTransaction;
 import org.janusgraph.diskstorage.keycolumnvalue.*;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVEntryMutation;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVSCache;
 import org.janusgraph.diskstorage.log.Log;
 import org.janusgraph.diskstorage.log.Message;
@@ -81,10 +83,15 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.REGISTRATION_TIME;
 
@@ -145,7 +152,8 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
         this.serializer = config.getSerializer();
         StoreFeatures storeFeatures = backend.getStoreFeatures();
         this.indexSerializer = new IndexSerializer(configuration.getConfiguration(), this.serializer,
-                this.backend.getIndexInformation(), storeFeatures.isDistributed() && storeFeatures.isKeyOrdered());
+                this.backend.getIndexInformation(), storeFeatures.isDistributed() && storeFeatures.isKeyOrdered(),
+                configuration.getCompositeIndexCache());
         this.edgeSerializer = new EdgeSerializer(this.serializer);
         this.vertexExistenceQuery = edgeSerializer.getQuery(BaseKey.VertexExists, Direction.OUT, new EdgeSerializer.TypedInterval[0]).setLimit(1);
         this.queryCache = new RelationQueryCache(this.edgeSerializer);
@@ -502,17 +510,85 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
         } else return 0;
     }
 
+    private static final int PARALLEL_COMMIT_CHUNKS = 4 * Runtime.getRuntime().availableProcessors();
+
     private static class ModificationSummary {
 
         final boolean hasModifications;
         final boolean has2iModifications;
+        final List<StaticBuffer> compositeIndexKeys;
 
-        private ModificationSummary(boolean hasModifications, boolean has2iModifications) {
+        private ModificationSummary(boolean hasModifications, boolean has2iModifications, List<StaticBuffer> compositeIndexKeys) {
             this.hasModifications = hasModifications;
             this.has2iModifications = has2iModifications;
+            this.compositeIndexKeys = compositeIndexKeys;
         }
     }
 
+    private KCVEntryMutation getRelationMutation(long vertexId, List<InternalRelation> edges, StandardJanusGraphTx tx) {
+        final List<Entry> additions = new ArrayList<>(edges.size());
+        final List<Entry> deletions = new ArrayList<>(Math.max(10, edges.size() / 10));
+        for (final InternalRelation edge : edges) {
+            final InternalRelationType baseType = (InternalRelationType) edge.getType();
+            assert baseType.getBaseType()==null;
+
+            for (InternalRelationType type : baseType.getRelationIndexes()) {
+                if (type.getStatus()== SchemaStatus.DISABLED) continue;
+                for (int pos = 0; pos < edge.getArity(); pos++) {
+                    if (!type.isUnidirected(Direction.BOTH) && !type.isUnidirected(EdgeDirection.fromPosition(pos)))
+                        continue; //Directionality is not covered
+                    if (edge.getVertex(pos).longId()==vertexId) {
+                        StaticArrayEntry entry = edgeSerializer.writeRelation(edge, type, pos, tx);
+                        if (edge.isRemoved()) {
+                            deletions.add(entry);
+                        } else {
+                            Preconditions.checkArgument(edge.isNew());
+                            int ttl = getTTL(edge);
+                            if (ttl > 0) {
+                                entry.setMetaData(EntryMetaData.TTL, ttl);
+                            }
+                            additions.add(entry);
+                        }
+                    }
+                }
+            }
+        }
+        return new KCVEntryMutation(additions, deletions);
+    }
+
+    /**
+     * Applies the function to all elements and returns the results in the order of the elements. If an executor is
+     * given, the elements are split into chunks which are processed concurrently.
+     */
+    private static <E,R> List<R> transform(List<E> elements, Function<E,R> function, ExecutorService executor) {
+        final int size = elements.size();
+        final List<R> results = new ArrayList<>(size);
+        if (executor == null || size < 2) {
+            for (E element : elements) results.add(function.apply(element));
+            return results;
+        }
+        final int numChunks = Math.min(size, PARALLEL_COMMIT_CHUNKS);
+        final List<Callable<List<R>>> tasks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            final List<E> chunk = elements.subList(i * size / numChunks, (i + 1) * size / numChunks);
+            tasks.add(() -> {
+                final List<R> chunkResults = new ArrayList<>(chunk.size());
+                for (E element : chunk) chunkResults.add(function.apply(element));
+                return chunkResults;
+            });
+        }
+        try {
+            for (Future<List<R>> future : executor.invokeAll(tasks)) results.addAll(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JanusGraphException("Interrupted while preparing commit", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause());
+            throw new JanusGraphException("Could not prepare commit", e.getCause());
+        }
+        return results;
+    }
+
     public ModificationSummary prepareCommit(final Collection<InternalRelation> addedRelations,
                                      final Collection<InternalRelation> deletedRelations,
                                      final Predicate<InternalRelation> filter,
@@ -523,7 +599,8 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
         ListMultimap<Long, InternalRelation> mutations = ArrayListMultimap.create();
         ListMultimap<InternalVertex, InternalRelation> mutatedProperties = ArrayListMultimap.create();
         List<IndexSerializer.IndexUpdate> indexUpdates = Lists.newArrayList();
-        //1) Collect deleted edges and their index updates and acquire edge locks
+        //1) Collect deleted edges and acquire edge locks
+        List<InternalRelation> deleted = new ArrayList<>();
         for (InternalRelation del : Iterables.filter(deletedRelations,filter)) {
             Preconditions.checkArgument(del.isRemoved());
             for (int pos = 0; pos < del.getLen(); pos++) {
@@ -537,10 +614,11 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                     mutator.acquireEdgeLock(idManager.getKey(vertex.longId()), entry);
                 }
             }
-            indexUpdates.addAll(indexSerializer.getIndexUpdates(del));
+            deleted.add(del);
         }
 
-        //2) Collect added edges and their index updates and acquire edge locks
+        //2) Collect added edges and acquire edge locks
+        List<InternalRelation> added = new ArrayList<>();
         for (InternalRelation add : Iterables.filter(addedRelations,filter)) {
             Preconditions.checkArgument(add.isNew());
 
@@ -555,10 +633,22 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                     mutator.acquireEdgeLock(idManager.getKey(vertex.longId()), entry.getColumn());
                 }
             }
-            indexUpdates.addAll(indexSerializer.getIndexUpdates(add));
+            added.add(add);
         }
 
-        //3) Collect all index update for vertices
+        //Large transactions serialize their relations in parallel on the backend thread pool. Serialization resolves
+        //schema elements and vertices through the transaction, hence this requires a thread-safe transaction
+        final int parallelThreshold = config.getParallelCommitThreshold();
+        final ExecutorService executor = parallelThreshold > 0 && mutations.keySet().size() >= parallelThreshold
+                && !tx.getConfiguration().isSingleThreaded() ? backend.getThreadPool() : null;
+
+        //3) Collect all index updates for edges and vertices
+        for (Collection<IndexSerializer.IndexUpdate> updates : transform(deleted, indexSerializer::getIndexUpdates, executor)) {
+            indexUpdates.addAll(updates);
+        }
+        for (Collection<IndexSerializer.IndexUpdate> updates : transform(added, indexSerializer::getIndexUpdates, executor)) {
+            indexUpdates.addAll(updates);
+        }
         for (InternalVertex v : mutatedProperties.keySet()) {
             indexUpdates.addAll(indexSerializer.getIndexUpdates(v,mutatedProperties.get(v)));
         }
@@ -579,47 +669,26 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
         }
 
         //5) Add relation mutations
-        for (Long vertexId : mutations.keySet()) {
+        final List<Long> vertexIds = new ArrayList<>(mutations.keySet());
+        for (Long vertexId : vertexIds) {
             Preconditions.checkArgument(vertexId > 0, "Vertex has no id: %s", vertexId);
-            final List<InternalRelation> edges = mutations.get(vertexId);
-            final List<Entry> additions = new ArrayList<>(edges.size());
-            final List<Entry> deletions = new ArrayList<>(Math.max(10, edges.size() / 10));
-            for (final InternalRelation edge : edges) {
-                final InternalRelationType baseType = (InternalRelationType) edge.getType();
-                assert baseType.getBaseType()==null;
-
-                for (InternalRelationType type : baseType.getRelationIndexes()) {
-                    if (type.getStatus()== SchemaStatus.DISABLED) continue;
-                    for (int pos = 0; pos < edge.getArity(); pos++) {
-                        if (!type.isUnidirected(Direction.BOTH) && !type.isUnidirected(EdgeDirection.fromPosition(pos)))
-                            continue; //Directionality is not covered
-                        if (edge.getVertex(pos).longId()==vertexId) {
-                            StaticArrayEntry entry = edgeSerializer.writeRelation(edge, type, pos, tx);
-                            if (edge.isRemoved()) {
-                                deletions.add(entry);
-                            } else {
-                                Preconditions.checkArgument(edge.isNew());
-                                int ttl = getTTL(edge);
-                                if (ttl > 0) {
-                                    entry.setMetaData(EntryMetaData.TTL, ttl);
-                                }
-                                additions.add(entry);
-                            }
-                        }
-                    }
-                }
-            }
-
-            StaticBuffer vertexKey = idManager.getKey(vertexId);
-            mutator.mutateEdges(vertexKey, additions, deletions);
+        }
+        final List<KCVEntryMutation> vertexMutations = transform(vertexIds,
+                vertexId -> getRelationMutation(vertexId, mutations.get(vertexId), tx), executor);
+        for (int i = 0; i < vertexIds.size(); i++) {
+            StaticBuffer vertexKey = idManager.getKey(vertexIds.get(i));
+            KCVEntryMutation mutation = vertexMutations.get(i);
+            mutator.mutateEdges(vertexKey, mutation.getAdditions(), mutation.getDeletions());
         }
 
         //6) Add index updates
         boolean has2iMods = false;
+        final List<StaticBuffer> compositeIndexKeys = new ArrayList<>();
         for (IndexSerializer.IndexUpdate indexUpdate : indexUpdates) {
             assert indexUpdate.isAddition() || indexUpdate.isDeletion();
             if (indexUpdate.isCompositeIndex()) {
                 final IndexSerializer.IndexUpdate<StaticBuffer,Entry> update = indexUpdate;
+                compositeIndexKeys.add(update.getKey());
                 if (update.isAddition())
                     mutator.mutateIndex(update.getKey(), Lists.newArrayList(update.getEntry()), KCVSCache.NO_DELETIONS);
                 else
@@ -635,7 +704,7 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                     itx.delete(indexStore,update.getKey(),update.getEntry().field,update.getEntry().value,update.getElement().isRemoved());
             }
         }
-        return new ModificationSummary(!mutations.isEmpty(),has2iMods);
+        return new ModificationSummary(!mutations.isEmpty(),has2iMods,compositeIndexKeys);
     }
 
     private static final Predicate<InternalRelation> SCHEMA_FILTER =
@@ -666,6 +735,7 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
         final KCVSLog txLog = logTransaction?backend.getSystemTxLog():null;
         final TransactionLogHeader txLogHeader = new TransactionLogHeader(transactionId,txTimestamp, times);
         ModificationSummary commitSummary;
+        final Set<StaticBuffer> compositeIndexKeys = new HashSet<>();
 
         try {
             //3.1 Log transaction (write-ahead log) if enabled
@@ -697,6 +767,7 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                     //[FAILURE] If the preparation throws an exception abort directly - nothing persisted since batch-loading cannot be enabled for schema elements
                     commitSummary = prepareCommit(addedRelations,deletedRelations, SCHEMA_FILTER, schemaMutator, tx, acquireLocks);
                     assert commitSummary.hasModifications && !commitSummary.has2iModifications;
+                    compositeIndexKeys.addAll(commitSummary.compositeIndexKeys);
                 } catch (Throwable e) {
                     //Roll back schema tx and escalate exception
                     schemaMutator.rollback();
@@ -715,6 +786,7 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
             //[FAILURE] Exceptions during preparation here cause the entire transaction to fail on transactional systems
             //or just the non-system part on others. Nothing has been persisted unless batch-loading
             commitSummary = prepareCommit(addedRelations,deletedRelations, hasTxIsolation? NO_FILTER : NO_SCHEMA_FILTER, mutator, tx, acquireLocks);
+            compositeIndexKeys.addAll(commitSummary.compositeIndexKeys);
             if (commitSummary.hasModifications) {
                 String logTxIdentifier = tx.getConfiguration().getLogIdentifier();
                 boolean hasSecondaryPersistence = logTxIdentifier!=null || commitSummary.has2iModifications;
@@ -740,11 +812,13 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                 if (hasSecondaryPersistence) {
                     LogTxStatus status = LogTxStatus.SECONDARY_SUCCESS;
                     Map<String,Throwable> indexFailures = ImmutableMap.of();
+                    Map<String,CompletableFuture<Void>> pendingIndexes = ImmutableMap.of();
                     boolean userlogSuccess = true;
 
                     try {
                         //2. Commit indexes - [FAILURE] all exceptions are collected and logged but nothing is aborted
                         indexFailures = mutator.commitIndexes();
+                        pendingIndexes = mutator.getPendingIndexMutations();
                         if (!indexFailures.isEmpty()) {
                             status = LogTxStatus.SECONDARY_FAILURE;
                             for (Map.Entry<String,Throwable> entry : indexFailures.entrySet()) {
@@ -771,14 +845,28 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
                             }
                         }
                     } finally {
-                        if (logTransaction) {
-                            //[FAILURE] An exception here will be logged and not escalated; tx considered success and
-                            // needs to be cleaned up later
-                            try {
-                                txLog.add(txLogHeader.serializeSecondary(serializer,status,indexFailures,userlogSuccess),txLogHeader.getLogKey());
-                            } catch (Throwable e) {
-                                log.error("Could not tx-log secondary persistence status on transaction ["+transactionId+"]",e);
-                            }
+                        if (pendingIndexes.isEmpty()) {
+                            if (logTransaction) logSecondaryStatus(transactionId,txLog,txLogHeader,status,indexFailures,userlogSuccess);
+                        } else {
+                            //2a. Asynchronously applied index mutations - [FAILURE] is recorded once they completed
+                            final Map<String,CompletableFuture<Void>> pending = pendingIndexes;
+                            final Map<String,Throwable> failures = new HashMap<>(indexFailures);
+                            final LogTxStatus commitStatus = status;
+                            final boolean userlogCommitted = userlogSuccess;
+                            CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[pending.size()])).whenComplete((v, t) -> {
+                                for (Map.Entry<String,CompletableFuture<Void>> entry : pending.entrySet()) {
+                                    try {
+                                        entry.getValue().join();
+                                    } catch (CompletionException e) {
+                                        failures.put(entry.getKey(),e.getCause());
+                                        log.error("Error while applying index mutations for transaction ["+transactionId+"] on index: " +entry.getKey(),e.getCause());
+                                    }
+                                }
+                                if (logTransaction) {
+                                    logSecondaryStatus(transactionId,txLog,txLogHeader,
+                                            failures.isEmpty()?commitStatus:LogTxStatus.SECONDARY_FAILURE,failures,userlogCommitted);
+                                }
+                            });
                         }
                     }
                 } else {
@@ -800,10 +888,24 @@ public class StandardJanusGraph extends JanusGraphBlueprintsGraph {
             }
             if (e instanceof RuntimeException) throw (RuntimeException)e;
             else throw new JanusGraphException("Unexpected exception",e);
+        } finally {
+            //Modified index keys may have been persisted even if the commit failed
+            indexSerializer.invalidateCompositeIndexKeys(compositeIndexKeys);
         }
     }
 
 
+    private void logSecondaryStatus(long transactionId, KCVSLog txLog, TransactionLogHeader txLogHeader, LogTxStatus status,
+                                    Map<String,Throwable> indexFailures, boolean userlogSuccess) {
+        //[FAILURE] An exception here will be logged and not escalated; tx considered success and
+        // needs to be cleaned up later
+        try {
+            txLog.add(txLogHeader.serializeSecondary(serializer,status,indexFailures,userlogSuccess),txLogHeader.getLogKey());
+        } catch (Throwable e) {
+            log.error("Could not tx-log secondary persistence status on transaction ["+transactionId+"]",e);
+        }
+    }
+
     private static class ShutdownThread extends Thread {
         private final StandardJanusGraph graph;
 
@@ -0,0 +1,150 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.database.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.util.CacheMetricsAction;
+import org.janusgraph.graphdb.query.graph.MultiKeySliceQuery;
+import org.janusgraph.util.stats.MetricManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches the element ids returned by composite index lookups across the transactions of a graph.
+ * <p>
+ * Lookups are identified by their {@link MultiKeySliceQuery} which, unlike the index type, does not reference the
+ * transaction it was created in. A cached lookup is invalidated when any of its index keys is modified through
+ * {@link #invalidate(Collection)}, when all lookups are invalidated through {@link #invalidateAll()} and otherwise
+ * expires after the configured time. Lookups which were running while
+ * an invalidation happened are not cached, since they might have read the index before the modification.
+ */
+public class CompositeIndexCache {
+
+    public static final String METRICS_NAME = "indexcache";
+
+    private final Cache<MultiKeySliceQuery, List<Object>> cache;
+    /**
+     * The cached lookups by each of their index keys
+     */
+    private final ConcurrentMap<StaticBuffer, Set<MultiKeySliceQuery>> lookups = new ConcurrentHashMap<>();
+    private final String metricsPrefix;
+    private long invalidations = 0;
+
+    /**
+     * @param maxSize maximum number of element ids to cache
+     * @param expirationMillis time after which lookups expire or 0 if they should only be evicted due to size
+     * @param metricsPrefix prefix of the metrics recorded for this cache or null to not record any
+     */
+    public CompositeIndexCache(long maxSize, long expirationMillis, String metricsPrefix) {
+        Preconditions.checkArgument(maxSize > 0, "Invalid cache size: %s", maxSize);
+        Preconditions.checkArgument(expirationMillis >= 0, "Invalid expiration time: %s", expirationMillis);
+        this.metricsPrefix = metricsPrefix;
+        CacheBuilder<MultiKeySliceQuery, List<Object>> builder = CacheBuilder.newBuilder()
+            .weigher((Weigher<MultiKeySliceQuery, List<Object>>) (q, r) -> 2 + r.size())
+            .maximumWeight(maxSize)
+            .removalListener((RemovalListener<MultiKeySliceQuery, List<Object>>) notification -> {
+                if (notification.getCause() != RemovalCause.REPLACED) unregister(notification.getKey());
+            });
+        if (expirationMillis > 0) builder = builder.expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS);
+        cache = builder.build();
+    }
+
+    /**
+     * Returns the cached element ids for the given lookup or retrieves and caches them through the given loader.
+     */
+    public List<Object> get(MultiKeySliceQuery query, Supplier<List<Object>> loader) {
+        incAction(CacheMetricsAction.RETRIEVAL);
+        List<Object> result = cache.getIfPresent(query);
+        if (result != null) return result;
+        incAction(CacheMetricsAction.MISS);
+        final long invalidationsBefore;
+        synchronized (this) {
+            invalidationsBefore = invalidations;
+        }
+        result = Collections.unmodifiableList(loader.get());
+        synchronized (this) {
+            if (invalidations == invalidationsBefore) {
+                for (KeySliceQuery key : query.getQueries()) {
+                    lookups.computeIfAbsent(key.getKey(), k -> ConcurrentHashMap.newKeySet()).add(query);
+                }
+                cache.put(query, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Invalidates all cached lookups of the given index keys. Must be called after the modification of these keys
+     * has been persisted.
+     */
+    public void invalidate(Collection<StaticBuffer> keys) {
+        if (keys.isEmpty()) return;
+        synchronized (this) {
+            invalidations++;
+            for (StaticBuffer key : keys) {
+                final Set<MultiKeySliceQuery> queries = lookups.remove(key);
+                if (queries != null) {
+                    incAction(CacheMetricsAction.EXPIRE);
+                    cache.invalidateAll(queries);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates all cached lookups. Used when index keys have been modified without knowing which ones, e.g. by an
+     * index repair job writing directly to the index store.
+     */
+    public void invalidateAll() {
+        synchronized (this) {
+            invalidations++;
+            incAction(CacheMetricsAction.EXPIRE);
+            cache.invalidateAll();
+            lookups.clear();
+        }
+    }
+
+    private synchronized void unregister(MultiKeySliceQuery query) {
+        //The lookup may have been cached again since it was removed
+        if (cache.asMap().containsKey(query)) return;
+        for (KeySliceQuery key : query.getQueries()) {
+            lookups.computeIfPresent(key.getKey(), (k, queries) -> {
+                queries.remove(query);
+                return queries.isEmpty() ? null : queries;
+            });
+        }
+    }
+
+    private void incAction(CacheMetricsAction action) {
+        if (metricsPrefix != null) {
+            MetricManager.INSTANCE.getCounter(metricsPrefix, METRICS_NAME, action.getName()).inc();
+        }
+    }
+
+}
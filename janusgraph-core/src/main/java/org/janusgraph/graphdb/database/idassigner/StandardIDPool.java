@@ -16,6 +16,7 @@ package org.janusgraph.graphdb.database.idassigner;
 
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Queue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -35,10 +36,18 @@ import org.janusgraph.diskstorage.IDBlock;
 
 import org.janusgraph.diskstorage.IDAuthority;
 
+import org.janusgraph.util.stats.MetricManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * An {@link IDPool} which hands out the ids of blocks acquired from an {@link IDAuthority} in the background.
+ * <p>
+ * Up to {@code maxPrefetchBlocks} blocks are reserved ahead of demand. The number of blocks actually prefetched
+ * adapts to the ratio between the time it takes to acquire a block from the authority and the time it takes
+ * to consume one, so that a pool under bulk load keeps enough blocks in reserve while an idle pool does not hold
+ * on to more ids than a single renewal.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 
@@ -74,6 +83,16 @@ public class StandardIDPool implements IDPool {
 
     private static final int RENEW_ID_COUNT = 100;
 
+    /**
+     * Weight of the most recent observation in the moving averages of block consumption and renewal time
+     */
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private static final String M_IDS = "ids";
+    private static final String M_WAIT = "wait";
+    private static final String M_RENEW = "renew";
+    private static final String M_PREFETCH = "prefetch";
+
     private final IDAuthority idAuthority;
     private final long idUpperBound; //exclusive
     private final int partition;
@@ -81,6 +100,8 @@ public class StandardIDPool implements IDPool {
 
     private final Duration renewTimeout;
     private final double renewBufferPercentage;
+    private final int maxPrefetchBlocks;
+    private final String metricsPrefix;
 
     private IDBlock currentBlock;
     private long currentIndex;
@@ -89,9 +110,16 @@ public class StandardIDPool implements IDPool {
 //    private long currentMaxID;
 //    private long renewBufferID;
 
-    private volatile IDBlock nextBlock;
-    private Future<IDBlock> idBlockFuture;
-    private IDBlockGetter idBlockGetter;
+    private final Queue<IDBlock> nextBlocks;
+    private int prefetchBlocks;
+    private long currentBlockStart;
+    private double avgBlockConsumptionNanos;
+    private double avgRenewalNanos;
+
+    /**
+     * Submitted id block getters in the order in which their blocks are handed out
+     */
+    private final Deque<IDBlockGetter> idBlockGetters;
     private final ThreadPoolExecutor exec;
 
     private volatile boolean closed;
@@ -99,6 +127,15 @@ public class StandardIDPool implements IDPool {
     private final Queue<Future<?>> closeBlockers;
 
     public StandardIDPool(IDAuthority idAuthority, int partition, int idNamespace, long idUpperBound, Duration renewTimeout, double renewBufferPercentage) {
+        this(idAuthority, partition, idNamespace, idUpperBound, renewTimeout, renewBufferPercentage, 1, null);
+    }
+
+    /**
+     * @param maxPrefetchBlocks the maximum number of id blocks this pool reserves ahead of demand
+     * @param metricsPrefix the metrics prefix under which id wait and renewal times are recorded or null to disable metrics
+     */
+    public StandardIDPool(IDAuthority idAuthority, int partition, int idNamespace, long idUpperBound, Duration renewTimeout,
+                          double renewBufferPercentage, int maxPrefetchBlocks, String metricsPrefix) {
         Preconditions.checkArgument(idUpperBound > 0);
         this.idAuthority = idAuthority;
         Preconditions.checkArgument(partition>=0);
@@ -110,12 +147,19 @@ public class StandardIDPool implements IDPool {
         this.renewTimeout = renewTimeout;
         Preconditions.checkArgument(renewBufferPercentage>0.0 && renewBufferPercentage<=1.0,"Renew-buffer percentage must be in (0.0,1.0]");
         this.renewBufferPercentage = renewBufferPercentage;
+        Preconditions.checkArgument(maxPrefetchBlocks>0,"Number of prefetched blocks must be positive");
+        this.maxPrefetchBlocks = maxPrefetchBlocks;
+        this.metricsPrefix = metricsPrefix;
 
         currentBlock = UNINITIALIZED_BLOCK;
         currentIndex = 0;
         renewBlockIndex = 0;
 
-        nextBlock = null;
+        nextBlocks = new ArrayDeque<>(maxPrefetchBlocks);
+        prefetchBlocks = 1;
+        currentBlockStart = 0;
+        avgBlockConsumptionNanos = 0;
+        avgRenewalNanos = 0;
 
         // daemon=true would probably be fine too
         exec = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
@@ -125,7 +169,7 @@ public class StandardIDPool implements IDPool {
                         .build());
         //exec.allowCoreThreadTimeOut(false);
         //exec.prestartCoreThread();
-        idBlockFuture = null;
+        idBlockGetters = new ArrayDeque<>(maxPrefetchBlocks);
 
         closeBlockers = new ArrayDeque<>(4);
 
@@ -134,9 +178,11 @@ public class StandardIDPool implements IDPool {
 
     private synchronized void waitForIDBlockGetter() throws InterruptedException {
         Stopwatch sw = Stopwatch.createStarted();
-        if (null != idBlockFuture) {
+        final IDBlockGetter idBlockGetter = idBlockGetters.poll();
+        if (null != idBlockGetter) {
+            final Future<IDBlock> idBlockFuture = idBlockGetter.getFuture();
             try {
-                nextBlock = idBlockFuture.get(renewTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                addNextBlock(idBlockGetter, idBlockFuture.get(renewTimeout.toMillis(), TimeUnit.MILLISECONDS));
             } catch (ExecutionException e) {
                 String msg = String.format("ID block allocation on partition(%d)-namespace(%d) failed with an exception in %s",
                         partition, idNamespace, sw.stop());
@@ -149,50 +195,129 @@ public class StandardIDPool implements IDPool {
                 if (idAuthority.supportsInterruption()) {
                     idBlockFuture.cancel(true);
                 } else {
-                    // Attempt to clean one dead element out of closeBlockers every time we append to it
-                    if (!closeBlockers.isEmpty()) {
-                        Future<?> f = closeBlockers.peek();
-                        if (null != f && f.isDone())
-                            closeBlockers.remove();
-                    }
-                    closeBlockers.add(idBlockFuture);
+                    addCloseBlocker(idBlockFuture);
                 }
                 throw new JanusGraphException(msg, e);
             } catch (CancellationException e) {
                 String msg = String.format("ID block allocation on partition(%d)-namespace(%d) was cancelled after %s",
                         partition, idNamespace, sw.stop());
                 throw new JanusGraphException(msg, e);
-            } finally {
-                idBlockFuture = null;
             }
             // Allow InterruptedException to propagate up the stack
         }
     }
 
+    private void addCloseBlocker(Future<?> future) {
+        // Attempt to clean one dead element out of closeBlockers every time we append to it
+        if (!closeBlockers.isEmpty()) {
+            Future<?> f = closeBlockers.peek();
+            if (null != f && f.isDone())
+                closeBlockers.remove();
+        }
+        closeBlockers.add(future);
+    }
+
+    /**
+     * Moves the blocks returned by completed id block getters into the queue of blocks to hand out next. A failed
+     * getter is left in place so that its failure surfaces once its block is actually needed.
+     */
+    private synchronized void collectIDBlockGetters() {
+        IDBlockGetter idBlockGetter;
+        while (null != (idBlockGetter = idBlockGetters.peek())) {
+            final Future<IDBlock> idBlockFuture = idBlockGetter.getFuture();
+            if (!idBlockFuture.isDone() || idBlockFuture.isCancelled()) return;
+            final IDBlock block;
+            try {
+                block = idBlockFuture.get();
+            } catch (ExecutionException | InterruptedException e) {
+                return;
+            }
+            idBlockGetters.remove();
+            addNextBlock(idBlockGetter, block);
+        }
+    }
+
+    private void addNextBlock(IDBlockGetter idBlockGetter, IDBlock block) {
+        nextBlocks.add(block);
+        final long renewalNanos = idBlockGetter.getRenewalNanos();
+        if (renewalNanos > 0) avgRenewalNanos = average(avgRenewalNanos, renewalNanos);
+    }
+
+    private static double average(double average, long observation) {
+        return average == 0 ? observation : average + RATE_SMOOTHING * (observation - average);
+    }
+
+    /**
+     * Starts acquiring id blocks in the background until the given number of blocks beyond the current one have
+     * been acquired or are being acquired.
+     */
+    private synchronized void prefetch(int numBlocks) {
+        collectIDBlockGetters();
+        while (nextBlocks.size() + idBlockGetters.size() < numBlocks && !closed
+                && !nextBlocks.contains(ID_POOL_EXHAUSTION)) {
+            startIDBlockGetter();
+        }
+    }
+
+    /**
+     * Adapts the number of prefetched blocks to the number of blocks consumed while a single block is acquired.
+     */
+    private void adaptPrefetchBlocks(boolean waited) {
+        final long now = System.nanoTime();
+        final boolean firstBlock = currentBlockStart == 0;
+        if (!firstBlock) avgBlockConsumptionNanos = average(avgBlockConsumptionNanos, now - currentBlockStart);
+        currentBlockStart = now;
+        if (firstBlock) return;
+
+        int target = prefetchBlocks;
+        if (avgBlockConsumptionNanos > 0 && avgRenewalNanos > 0) {
+            target = (int) Math.min(maxPrefetchBlocks, Math.ceil(avgRenewalNanos / avgBlockConsumptionNanos));
+        }
+        // Having to wait for a block means demand outpaced the current prefetch depth
+        if (waited) target = Math.max(target, prefetchBlocks * 2);
+        prefetchBlocks = Math.max(1, Math.min(maxPrefetchBlocks, target));
+        if (null != metricsPrefix) {
+            MetricManager.INSTANCE.getHistogram(metricsPrefix, M_IDS, M_PREFETCH).update(prefetchBlocks);
+        }
+    }
+
     private synchronized void nextBlock() throws InterruptedException {
         assert currentIndex == currentBlock.numIds();
         Preconditions.checkState(!closed,"ID Pool has been closed for partition(%s)-namespace(%s) - cannot apply for new id block",
                 partition,idNamespace);
 
-        if (null == nextBlock && null == idBlockFuture) {
+        collectIDBlockGetters();
+
+        if (nextBlocks.isEmpty() && idBlockGetters.isEmpty()) {
             startIDBlockGetter();
         }
 
-        if (null == nextBlock) {
-            waitForIDBlockGetter();
+        final boolean waited = nextBlocks.isEmpty();
+        if (waited) {
+            final long waitStart = System.nanoTime();
+            try {
+                waitForIDBlockGetter();
+            } finally {
+                if (null != metricsPrefix) {
+                    MetricManager.INSTANCE.getTimer(metricsPrefix, M_IDS, M_WAIT)
+                        .update(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                }
+            }
         }
 
-        if (nextBlock == ID_POOL_EXHAUSTION)
+        if (nextBlocks.peek() == ID_POOL_EXHAUSTION)
             throw new IDPoolExhaustedException("Exhausted ID Pool for partition(" + partition+")-namespace("+idNamespace+")");
 
-        currentBlock = nextBlock;
+        currentBlock = nextBlocks.remove();
         currentIndex = 0;
 
         log.debug("ID partition({})-namespace({}) acquired block: [{}]", partition, idNamespace, currentBlock);
 
         assert currentBlock.numIds()>0;
 
-        nextBlock = null;
+        adaptPrefetchBlocks(waited);
+        // Top up the blocks held beyond the renewal which starts at renewBlockIndex
+        prefetch(prefetchBlocks - 1);
 
         assert RENEW_ID_COUNT>0;
         renewBlockIndex = Math.max(0,currentBlock.numIds()-Math.max(RENEW_ID_COUNT, Math.round(currentBlock.numIds()*renewBufferPercentage)));
@@ -212,7 +337,7 @@ public class StandardIDPool implements IDPool {
         }
 
         if (currentIndex == renewBlockIndex) {
-            startIDBlockGetter();
+            prefetch(prefetchBlocks);
         }
 
         long returnId = currentBlock.getId(currentIndex);
@@ -225,6 +350,12 @@ public class StandardIDPool implements IDPool {
     @Override
     public synchronized void close() {
         closed=true;
+        // Only wait for the oldest getter, abandon all getters prefetching beyond it
+        while (idBlockGetters.size() > 1) {
+            final IDBlockGetter idBlockGetter = idBlockGetters.pollLast();
+            idBlockGetter.stopRequested();
+            addCloseBlocker(idBlockGetter.getFuture());
+        }
         try {
             waitForIDBlockGetter();
         } catch (InterruptedException e) {
@@ -244,12 +375,12 @@ public class StandardIDPool implements IDPool {
     }
 
     private synchronized void startIDBlockGetter() {
-        Preconditions.checkArgument(idBlockFuture == null, idBlockFuture);
         if (closed) return; //Don't renew anymore if closed
         //Renew buffer
         log.debug("Starting id block renewal thread upon {}", currentIndex);
-        idBlockGetter = new IDBlockGetter(idAuthority, partition, idNamespace, renewTimeout);
-        idBlockFuture = exec.submit(idBlockGetter);
+        final IDBlockGetter idBlockGetter = new IDBlockGetter(idAuthority, partition, idNamespace, renewTimeout, metricsPrefix);
+        idBlockGetter.setFuture(exec.submit(idBlockGetter));
+        idBlockGetters.add(idBlockGetter);
     }
 
     private static class IDBlockGetter implements Callable<IDBlock> {
@@ -259,16 +390,35 @@ public class StandardIDPool implements IDPool {
         private final int partition;
         private final int idNamespace;
         private final Duration renewTimeout;
+        private final String metricsPrefix;
         private volatile boolean stopRequested;
+        private volatile long renewalNanos;
+        private Future<IDBlock> future;
 
-        public IDBlockGetter(IDAuthority idAuthority, int partition, int idNamespace, Duration renewTimeout) {
+        public IDBlockGetter(IDAuthority idAuthority, int partition, int idNamespace, Duration renewTimeout, String metricsPrefix) {
             this.idAuthority = idAuthority;
             this.partition = partition;
             this.idNamespace = idNamespace;
             this.renewTimeout = renewTimeout;
+            this.metricsPrefix = metricsPrefix;
             this.alive = Stopwatch.createStarted();
         }
 
+        private void setFuture(Future<IDBlock> future) {
+            this.future = future;
+        }
+
+        private Future<IDBlock> getFuture() {
+            return future;
+        }
+
+        /**
+         * The time it took to acquire the id block from the authority or 0 if it has not been acquired
+         */
+        private long getRenewalNanos() {
+            return renewalNanos;
+        }
+
         private void stopRequested()
         {
             this.stopRequested = true;
@@ -286,6 +436,10 @@ public class StandardIDPool implements IDPool {
                     throw new JanusGraphException("ID block retrieval aborted by caller");
                 }
                 IDBlock idBlock = idAuthority.getIDBlock(partition, idNamespace, renewTimeout);
+                renewalNanos = running.elapsed(TimeUnit.NANOSECONDS);
+                if (null != metricsPrefix) {
+                    MetricManager.INSTANCE.getTimer(metricsPrefix, M_IDS, M_RENEW).update(renewalNanos, TimeUnit.NANOSECONDS);
+                }
                 log.debug("Retrieved ID block from authority on partition({})-namespace({}), " +
                           "exec time {}, exec+q time {}",
                           partition, idNamespace, running.stop(), alive.stop());
@@ -87,6 +87,13 @@ public interface InternalVertex extends JanusGraphVertex, InternalElement {
      */
     boolean hasAddedRelations();
 
+    /**
+     * Called when this vertex is evicted from the vertex cache of its transaction, or replaced there by another
+     * instance, without having been modified. Such a vertex is no longer held by the transaction.
+     */
+    default void evictedFromCache() {
+    }
+
     @Override
     VertexCentricQueryBuilder query();
 
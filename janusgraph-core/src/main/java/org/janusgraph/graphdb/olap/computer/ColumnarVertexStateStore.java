@@ -0,0 +1,437 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.google.common.base.Preconditions;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * {@link VertexStateStore} which assigns every vertex a dense ordinal and keeps one column per compute key and per
+ * message scope, indexed by that ordinal, instead of one state object per vertex.
+ * <p>
+ * Columns holding only {@link Double} values (e.g. ranks or distances) are stored outside of the Java heap in
+ * {@link LongPages}, which are memory-mapped when a spill directory is given. A column switches to on-heap
+ * object pages once a value of another type is written into it. The message columns of the previous iteration are
+ * recycled for the next iteration. The index from vertex ids to ordinals is kept in direct memory as well.
+ */
+class ColumnarVertexStateStore<M> implements VertexStateStore<M> {
+
+    private static final int NUM_SEGMENTS = 256;
+    private static final int NUM_LOCKS = 1024;
+
+    private final File spillDirectory;
+    private final OrdinalSegment[] ordinals;
+    private final LongPages vertexIds;
+    private final AtomicInteger numVertices = new AtomicInteger(0);
+    private final Object[] locks;
+
+    private final Column[] properties;
+    private Column[] previousMessages = new Column[0];
+    private Column[] currentMessages = new Column[0];
+    private final Deque<Column> spareColumns = new ArrayDeque<>();
+
+    ColumnarVertexStateStore(int numVertices, Map<String,Integer> keyMap, File spillDirectory) {
+        Preconditions.checkArgument(numVertices>=0 && VertexState.isValidIdMap(keyMap));
+        this.spillDirectory = spillDirectory;
+        this.vertexIds = new LongPages(spillDirectory);
+        this.ordinals = new OrdinalSegment[NUM_SEGMENTS];
+        for (int i = 0; i < NUM_SEGMENTS; i++) ordinals[i] = new OrdinalSegment(numVertices / NUM_SEGMENTS, vertexIds);
+        this.locks = new Object[NUM_LOCKS];
+        for (int i = 0; i < NUM_LOCKS; i++) locks[i] = new Object();
+        this.properties = new Column[keyMap.size()];
+        for (int i = 0; i < properties.length; i++) properties[i] = newColumn();
+    }
+
+    /**
+     * Returns the ordinal of the given vertex or -1 if it has none and none should be created.
+     */
+    private int getOrdinal(long vertexId, boolean create) {
+        final long hash = BitMixer.mix64(vertexId);
+        final OrdinalSegment segment = ordinals[(int) hash & (NUM_SEGMENTS - 1)];
+        synchronized (segment) {
+            int ordinal = segment.get(vertexId, hash);
+            if (ordinal < 0 && create) {
+                ordinal = numVertices.getAndIncrement();
+                Preconditions.checkState(ordinal >= 0, "Exceeded the maximum number of vertices");
+                vertexIds.set(ordinal, vertexId);
+                segment.add(ordinal, hash);
+            }
+            return ordinal;
+        }
+    }
+
+    private Column newColumn() {
+        return new Column(spillDirectory, numVertices);
+    }
+
+    private Object getLock(int ordinal) {
+        return locks[ordinal & (NUM_LOCKS - 1)];
+    }
+
+    @Override
+    public <V> void setProperty(long vertexId, String key, V value, Map<String,Integer> keyMap) {
+        assert keyMap.containsKey(key);
+        final int ordinal = getOrdinal(vertexId, value != null);
+        if (ordinal >= 0) properties[keyMap.get(key)].set(ordinal, value);
+    }
+
+    @Override
+    public <V> V getProperty(long vertexId, String key, Map<String,Integer> keyMap) {
+        assert keyMap.containsKey(key);
+        final int ordinal = getOrdinal(vertexId, false);
+        if (ordinal < 0) return null;
+        return (V) properties[keyMap.get(key)].get(ordinal);
+    }
+
+    @Override
+    public void setMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap) {
+        assert message!=null && scope!=null;
+        Preconditions.checkArgument(scopeMap.containsKey(scope),"Provided scope was not declared in the VertexProgram: %s",scope);
+        final Column column = currentMessages[scopeMap.get(scope)];
+        final int ordinal = getOrdinal(vertexId, true);
+        synchronized (getLock(ordinal)) {
+            column.set(ordinal, message);
+        }
+    }
+
+    @Override
+    public void addMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap,
+                           MessageCombiner<M> combiner) {
+        assert message!=null && scope!=null && combiner!=null;
+        Preconditions.checkArgument(scopeMap.containsKey(scope),"Provided scope was not declared in the VertexProgram: %s",scope);
+        final Column column = currentMessages[scopeMap.get(scope)];
+        final int ordinal = getOrdinal(vertexId, true);
+        synchronized (getLock(ordinal)) {
+            final M previous = (M) column.get(ordinal);
+            column.set(ordinal, previous == null ? message : combiner.combine(message, previous));
+        }
+    }
+
+    @Override
+    public M getMessage(long vertexId, MessageScope scope, Map<MessageScope,Integer> scopeMap) {
+        assert scope!=null && VertexState.isValidIdMap(scopeMap);
+        final Integer position = scopeMap.get(scope);
+        if (position == null) return null;
+        final int ordinal = getOrdinal(vertexId, false);
+        if (ordinal < 0) return null;
+        return (M) previousMessages[position].get(ordinal);
+    }
+
+    @Override
+    public void nextIteration(Map<MessageScope,Integer> scopeMap) {
+        assert VertexState.isValidIdMap(scopeMap);
+        final Column[] columns = new Column[scopeMap.size()];
+        for (int i = 0; i < columns.length; i++) {
+            if (spareColumns.isEmpty()) {
+                columns[i] = newColumn();
+            } else {
+                columns[i] = spareColumns.pop();
+                columns[i].clear();
+            }
+        }
+        currentMessages = columns;
+    }
+
+    @Override
+    public void completeIteration() {
+        spareColumns.addAll(Arrays.asList(previousMessages));
+        previousMessages = currentMessages;
+        currentMessages = new Column[0];
+    }
+
+    @Override
+    public Map<Long,Map<String,Object>> getProperties(Map<String,Integer> keyMap) {
+        return new AbstractMap<Long,Map<String,Object>>() {
+            @Override
+            public Set<Entry<Long,Map<String,Object>>> entrySet() {
+                return new AbstractSet<Entry<Long,Map<String,Object>>>() {
+                    @Override
+                    public Iterator<Entry<Long,Map<String,Object>>> iterator() {
+                        final int size = numVertices.get();
+                        return new Iterator<Entry<Long,Map<String,Object>>>() {
+
+                            private int ordinal = 0;
+
+                            @Override
+                            public boolean hasNext() {
+                                return ordinal < size;
+                            }
+
+                            @Override
+                            public Entry<Long,Map<String,Object>> next() {
+                                if (!hasNext()) throw new NoSuchElementException();
+                                final Map<String,Object> values = new HashMap<>(keyMap.size());
+                                for (Map.Entry<String,Integer> key : keyMap.entrySet()) {
+                                    final Object value = properties[key.getValue()].get(ordinal);
+                                    if (value != null) values.put(key.getKey(), value);
+                                }
+                                return new SimpleImmutableEntry<>(vertexIds.get(ordinal++), values);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return numVertices.get();
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (OrdinalSegment segment : ordinals) {
+            synchronized (segment) {
+                segment.close();
+            }
+        }
+        vertexIds.close();
+        for (Column column : properties) column.close();
+        for (Column column : previousMessages) column.close();
+        for (Column column : currentMessages) column.close();
+        for (Column column : spareColumns) column.close();
+        spareColumns.clear();
+    }
+
+    /**
+     * Open addressing hash table from the vertex ids of one segment to their ordinals. Each slot holds an ordinal
+     * plus one, so that 0 marks an empty slot, and the vertex id of an ordinal is read from the vertex id column.
+     * Must be accessed while holding its monitor.
+     */
+    private static class OrdinalSegment {
+
+        private static final int MIN_CAPACITY = 16;
+        private static final int MAX_CAPACITY = 1 << 29;
+
+        private final LongPages vertexIds;
+        private ByteBuffer slots;
+        private int mask;
+        private int size = 0;
+
+        OrdinalSegment(int expectedSize, LongPages vertexIds) {
+            this.vertexIds = vertexIds;
+            int capacity = MIN_CAPACITY;
+            while (capacity < MAX_CAPACITY && expectedSize >= capacity / 4 * 3) capacity <<= 1;
+            allocate(capacity);
+        }
+
+        /**
+         * Returns the ordinal of the given vertex or -1 if it has none.
+         */
+        int get(long vertexId, long hash) {
+            for (int slot = slot(hash); ; slot = (slot + 1) & mask) {
+                final int ordinal = slots.getInt(slot * Integer.BYTES) - 1;
+                if (ordinal < 0 || vertexIds.get(ordinal) == vertexId) return ordinal;
+            }
+        }
+
+        /**
+         * Adds the given ordinal, whose vertex id must have been written to the vertex id column and must not have
+         * been added yet.
+         */
+        void add(int ordinal, long hash) {
+            if (size >= (mask + 1) / 4 * 3) grow();
+            insert(ordinal, hash);
+            size++;
+        }
+
+        void close() {
+            if (slots != null) LongPages.release(slots);
+            slots = null;
+            size = 0;
+        }
+
+        private int slot(long hash) {
+            return (int) (hash >>> 32) & mask;
+        }
+
+        private void insert(int ordinal, long hash) {
+            int slot = slot(hash);
+            while (slots.getInt(slot * Integer.BYTES) != 0) slot = (slot + 1) & mask;
+            slots.putInt(slot * Integer.BYTES, ordinal + 1);
+        }
+
+        private void allocate(int capacity) {
+            slots = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+            mask = capacity - 1;
+        }
+
+        private void grow() {
+            Preconditions.checkState(mask + 1 < MAX_CAPACITY, "Exceeded the maximum number of vertices");
+            final ByteBuffer previous = slots;
+            allocate((mask + 1) * 2);
+            for (int i = 0; i < previous.capacity(); i += Integer.BYTES) {
+                final int ordinal = previous.getInt(i) - 1;
+                if (ordinal >= 0) insert(ordinal, BitMixer.mix64(vertexIds.get(ordinal)));
+            }
+            LongPages.release(previous);
+        }
+    }
+
+    /**
+     * A column of values indexed by vertex ordinal. The column stores {@link Double} values off-heap until a value
+     * of a different type is written, at which point all values are moved to on-heap object pages.
+     */
+    private static class Column {
+
+        /**
+         * A non-canonical NaN which is never produced by {@link Double#doubleToLongBits(double)}. Values are stored
+         * xor'ed with this pattern so that unwritten (zeroed) memory reads as absent.
+         */
+        private static final long ABSENT = 0x7ff0deadbeef0001L;
+
+        private final AtomicInteger numVertices;
+        private final StampedLock lock = new StampedLock();
+        private final LongPages doubles;
+        private final ObjectPages objects = new ObjectPages();
+        private volatile boolean numeric = true;
+
+        Column(File spillDirectory, AtomicInteger numVertices) {
+            this.numVertices = numVertices;
+            this.doubles = new LongPages(spillDirectory);
+        }
+
+        Object get(int ordinal) {
+            final long stamp = lock.tryOptimisticRead();
+            Object value = read(ordinal);
+            if (!lock.validate(stamp)) {
+                final long readStamp = lock.readLock();
+                try {
+                    value = read(ordinal);
+                } finally {
+                    lock.unlockRead(readStamp);
+                }
+            }
+            return value;
+        }
+
+        void set(int ordinal, Object value) {
+            final long readStamp = lock.readLock();
+            try {
+                if (!numeric || value == null || value instanceof Double) {
+                    write(ordinal, value);
+                    return;
+                }
+            } finally {
+                lock.unlockRead(readStamp);
+            }
+            final long writeStamp = lock.writeLock();
+            try {
+                if (numeric) toObjects();
+                write(ordinal, value);
+            } finally {
+                lock.unlockWrite(writeStamp);
+            }
+        }
+
+        /**
+         * Removes all values. Must not be called concurrently with reads or writes.
+         */
+        void clear() {
+            if (numeric) doubles.clear();
+            else objects.clear();
+        }
+
+        void close() {
+            doubles.close();
+            objects.clear();
+        }
+
+        private Object read(int ordinal) {
+            if (!numeric) return objects.get(ordinal);
+            final long bits = doubles.get(ordinal);
+            return bits == 0 ? null : Double.longBitsToDouble(bits ^ ABSENT);
+        }
+
+        private void write(int ordinal, Object value) {
+            if (!numeric) objects.set(ordinal, value);
+            else doubles.set(ordinal, value == null ? 0 : Double.doubleToLongBits((Double) value) ^ ABSENT);
+        }
+
+        private void toObjects() {
+            final int size = numVertices.get();
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                final Object value = read(ordinal);
+                if (value != null) objects.set(ordinal, value);
+            }
+            numeric = false;
+            doubles.clear();
+        }
+    }
+
+    /**
+     * On-heap counterpart to {@link LongPages} for arbitrary objects.
+     */
+    private static class ObjectPages {
+
+        private static final int PAGE_BITS = 14;
+        private static final int PAGE_SIZE = 1 << PAGE_BITS;
+        private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+        private volatile Object[][] pages = new Object[0][];
+
+        Object get(int index) {
+            final Object[][] p = pages;
+            final int page = index >>> PAGE_BITS;
+            if (page >= p.length || p[page] == null) return null;
+            return p[page][index & PAGE_MASK];
+        }
+
+        void set(int index, Object value) {
+            final int page = index >>> PAGE_BITS;
+            Object[][] p = pages;
+            if (page >= p.length || p[page] == null) {
+                if (value == null) return;
+                p = allocatePage(page);
+            }
+            p[page][index & PAGE_MASK] = value;
+        }
+
+        void clear() {
+            for (Object[] page : pages) {
+                if (page != null) Arrays.fill(page, null);
+            }
+        }
+
+        private synchronized Object[][] allocatePage(int page) {
+            Object[][] p = pages;
+            if (page < p.length && p[page] != null) return p;
+            if (page >= p.length) p = Arrays.copyOf(p, Math.max(page + 1, p.length * 2));
+            else p = p.clone();
+            p[page] = new Object[PAGE_SIZE];
+            pages = p;
+            return p;
+        }
+    }
+
+}
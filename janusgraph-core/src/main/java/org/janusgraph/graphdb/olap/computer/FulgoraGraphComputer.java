@@ -21,8 +21,11 @@ import org.janusgraph.core.JanusGraphException;
 import org.janusgraph.core.JanusGraphComputer;
 import org.janusgraph.core.JanusGraphTransaction;
 import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.diskstorage.BackendException;
 import org.janusgraph.diskstorage.configuration.Configuration;
+import org.janusgraph.diskstorage.keycolumnvalue.scan.ScanJob;
 import org.janusgraph.diskstorage.keycolumnvalue.scan.ScanMetrics;
+import org.janusgraph.diskstorage.keycolumnvalue.scan.ScanSnapshot;
 import org.janusgraph.diskstorage.keycolumnvalue.scan.StandardScanner;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
@@ -47,6 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -78,6 +82,10 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
     private int numThreads = 1;//Math.max(1,Runtime.getRuntime().availableProcessors());
     private final int readBatchSize;
     private final int writeBatchSize;
+    private boolean useSnapshot;
+    private final boolean columnarVertexMemory;
+    private final File spillDirectory;
+    private ScanSnapshot snapshot = null;
 
     private ResultGraph resultGraphMode = null;
     private Persist persistMode = null;
@@ -92,6 +100,10 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
         this.graph = graph;
         this.writeBatchSize = configuration.get(GraphDatabaseConfiguration.BUFFER_SIZE);
         this.readBatchSize = this.writeBatchSize * 10;
+        this.useSnapshot = configuration.get(GraphDatabaseConfiguration.COMPUTER_SNAPSHOT);
+        this.columnarVertexMemory = "columnar".equals(configuration.get(GraphDatabaseConfiguration.COMPUTER_VERTEX_MEMORY));
+        this.spillDirectory = configuration.has(GraphDatabaseConfiguration.COMPUTER_SPILL_DIRECTORY)
+                ? new File(configuration.get(GraphDatabaseConfiguration.COMPUTER_SPILL_DIRECTORY)) : null;
         this.name = "compute" + computerCounter.incrementAndGet();
     }
 
@@ -128,6 +140,12 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
         return this;
     }
 
+    @Override
+    public JanusGraphComputer snapshot(boolean snapshot) {
+        useSnapshot = snapshot;
+        return this;
+    }
+
     @Override
     public GraphComputer program(final VertexProgram vertexProgram) {
         Preconditions.checkState(this.vertexProgram == null, "A vertex program has already been set");
@@ -169,11 +187,19 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
 
         memory = new FulgoraMemory(vertexProgram, mapReduces);
 
-        return CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.<ComputerResult>supplyAsync(() -> {
             final long time = System.currentTimeMillis();
+            if (useSnapshot) {
+                try {
+                    snapshot = graph.getBackend().buildEdgeScanSnapshot();
+                } catch (BackendException e) {
+                    throw new JanusGraphException("Could not open edge store snapshot", e);
+                }
+            }
             if (null != vertexProgram) {
                 // ##### Execute vertex program
-                vertexMemory = new FulgoraVertexMemory(expectedNumVertices, graph.getIDManager(), vertexProgram);
+                vertexMemory = new FulgoraVertexMemory(expectedNumVertices, graph.getIDManager(), vertexProgram,
+                        columnarVertexMemory, columnarVertexMemory ? spillDirectory : null);
                 // execute the vertex program
                 vertexProgram.setup(memory);
 
@@ -183,11 +209,10 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
                         vertexMemory.nextIteration(vertexProgram.getMessageScopes(memory));
 
                         jobId = name + "#" + iteration;
-                        StandardScanner.Builder scanBuilder = graph.getBackend().buildEdgeScanJob();
+                        StandardScanner.Builder scanBuilder = buildEdgeScanJob(job);
                         scanBuilder.setJobId(jobId);
                         scanBuilder.setNumProcessingThreads(numThreads);
                         scanBuilder.setWorkBlockSize(readBatchSize);
-                        scanBuilder.setJob(job);
                         PartitionedVertexProgramExecutor programExecutor = new PartitionedVertexProgramExecutor(graph, memory, vertexMemory, vertexProgram);
                         try {
                             //Iterates over all vertices and computes the vertex program on all non-partitioned vertices. For partitioned ones, the data is aggregated
@@ -196,6 +221,7 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
                             if (failures > 0) {
                                 throw new JanusGraphException("Failed to process [" + failures + "] vertices in vertex program iteration [" + iteration + "]. Computer is aborting.");
                             }
+                            if (snapshot != null) snapshot.complete();
                             //Runs the vertex program on all aggregated, partitioned vertices.
                             programExecutor.run(numThreads, jobResult);
                             failures = jobResult.getCustom(PartitionedVertexProgramExecutor.PARTITION_VERTEX_POSTFAIL);
@@ -231,11 +257,10 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
             // Execute map jobs
             jobId = name + "#map";
             try (VertexMapJob.Executor job = VertexMapJob.getVertexMapJob(graph, vertexMemory, mapJobs)) {
-                StandardScanner.Builder scanBuilder = graph.getBackend().buildEdgeScanJob();
+                StandardScanner.Builder scanBuilder = buildEdgeScanJob(job);
                 scanBuilder.setJobId(jobId);
                 scanBuilder.setNumProcessingThreads(numThreads);
                 scanBuilder.setWorkBlockSize(readBatchSize);
-                scanBuilder.setJob(job);
                 try {
                     ScanMetrics jobResult = scanBuilder.execute().get();
                     long failures = jobResult.get(ScanMetrics.Metric.FAILURE);
@@ -345,9 +370,38 @@ public class FulgoraGraphComputer implements JanusGraphComputer {
             this.memory.setRuntime(System.currentTimeMillis() - time);
             this.memory.complete();
             return new DefaultComputerResult(resultgraph, this.memory);
+        }).whenComplete((result, failure) -> {
+            closeSnapshot();
+            if (vertexMemory != null) vertexMemory.close();
         });
     }
 
+    /**
+     * Builds a scan over the edge store for the given job. If a snapshot is used and it covers the queries of the
+     * job, the scan is answered from the snapshot. Otherwise the storage backend is scanned and, if a snapshot is
+     * used, the data read is recorded into it.
+     */
+    private StandardScanner.Builder buildEdgeScanJob(ScanJob job) {
+        if (snapshot == null) {
+            return graph.getBackend().buildEdgeScanJob().setJob(job);
+        } else if (snapshot.covers(job.getQueries())) {
+            return graph.getBackend().buildScanJob(snapshot).setJob(job);
+        } else {
+            return graph.getBackend().buildEdgeScanJob().setJob(snapshot.record(job));
+        }
+    }
+
+    private void closeSnapshot() {
+        if (snapshot == null) return;
+        try {
+            snapshot.close();
+        } catch (BackendException e) {
+            log.warn("Could not close edge store snapshot", e);
+        } finally {
+            snapshot = null;
+        }
+    }
+
 
     private class VertexPropertyWriter implements Runnable {
 
@@ -26,6 +26,7 @@ import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
 import org.apache.tinkerpop.gremlin.process.computer.VertexProgram;
 import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
 
+import java.io.File;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,7 +39,7 @@ public class FulgoraVertexMemory<M> {
 
 
 
-    private final NonBlockingHashMapLong<VertexState<M>> vertexStates;
+    private final VertexStateStore<M> vertexStates;
     private final IDManager idManager;
     private final Set<VertexComputeKey> computeKeys;
     private final Map<String,Integer> elementKeyMap;
@@ -50,25 +51,27 @@ public class FulgoraVertexMemory<M> {
     private final NonBlockingHashMapLong<PartitionVertexAggregate<M>> partitionVertices;
 
     public FulgoraVertexMemory(int numVertices, final IDManager idManager, final VertexProgram<M> vertexProgram) {
+        this(numVertices, idManager, vertexProgram, false, null);
+    }
+
+    /**
+     * @param columnar whether to keep the vertex state in columns indexed by a dense vertex ordinal instead of one
+     *                 state object per vertex, see {@link ColumnarVertexStateStore}
+     * @param spillDirectory directory in which the off-heap columns of a columnar memory are memory-mapped, or null
+     *                       to allocate them in direct memory
+     */
+    public FulgoraVertexMemory(int numVertices, final IDManager idManager, final VertexProgram<M> vertexProgram,
+                               boolean columnar, File spillDirectory) {
         Preconditions.checkArgument(numVertices>=0 && vertexProgram!=null && idManager!=null);
-        vertexStates = new NonBlockingHashMapLong<>(numVertices);
+        Preconditions.checkArgument(columnar || spillDirectory==null, "Only a columnar vertex memory can spill to disk");
         partitionVertices = new NonBlockingHashMapLong<>(64);
         this.idManager = idManager;
         this.combiner = FulgoraUtil.getMessageCombiner(vertexProgram);
         this.computeKeys = vertexProgram.getVertexComputeKeys();
         this.elementKeyMap = getIdMap(vertexProgram.getVertexComputeKeys().stream().map(VertexComputeKey::getKey).collect(Collectors.toCollection(HashSet::new)));
         this.previousScopes = ImmutableMap.of();
-    }
-
-    private VertexState<M> get(long vertexId, boolean create) {
-        assert vertexId==getCanonicalId(vertexId);
-        VertexState<M> state = vertexStates.get(vertexId);
-        if (state==null) {
-            if (!create) return VertexState.EMPTY_STATE;
-            vertexStates.putIfAbsent(vertexId,new VertexState<>(elementKeyMap));
-            state = vertexStates.get(vertexId);
-        }
-        return state;
+        if (columnar) vertexStates = new ColumnarVertexStateStore<>(numVertices, elementKeyMap, spillDirectory);
+        else vertexStates = new ObjectVertexStateStore<>(numVertices, elementKeyMap);
     }
 
     public long getCanonicalId(long vertexId) {
@@ -81,25 +84,28 @@ public class FulgoraVertexMemory<M> {
     }
 
     public<V> void setProperty(long vertexId, String key, V value) {
-        get(vertexId,true).setProperty(key,value,elementKeyMap);
+        assert vertexId==getCanonicalId(vertexId);
+        vertexStates.setProperty(vertexId,key,value,elementKeyMap);
     }
 
     public<V> V getProperty(long vertexId, String key) {
-        return get(vertexId,false).getProperty(key,elementKeyMap);
+        assert vertexId==getCanonicalId(vertexId);
+        return vertexStates.getProperty(vertexId,key,elementKeyMap);
     }
 
     void sendMessage(long vertexId, M message, MessageScope scope) {
-        VertexState<M> state = get(vertexId,true);
-        if (scope instanceof MessageScope.Global) state.addMessage(message,GLOBAL_SCOPE,currentScopes,combiner);
-        else state.setMessage(message,scope,currentScopes);
+        assert vertexId==getCanonicalId(vertexId);
+        if (scope instanceof MessageScope.Global) vertexStates.addMessage(vertexId,message,GLOBAL_SCOPE,currentScopes,combiner);
+        else vertexStates.setMessage(vertexId,message,scope,currentScopes);
     }
 
     M getMessage(long vertexId, MessageScope scope) {
-        return get(vertexId,false).getMessage(normalizeScope(scope),previousScopes);
+        assert vertexId==getCanonicalId(vertexId);
+        return vertexStates.getMessage(vertexId,normalizeScope(scope),previousScopes);
     }
 
     void completeIteration() {
-        for (VertexState<M> state : vertexStates.values()) state.completeIteration();
+        vertexStates.completeIteration();
         partitionVertices.clear();
         previousScopes = currentScopes;
         inExecute = false;
@@ -107,19 +113,21 @@ public class FulgoraVertexMemory<M> {
 
     void nextIteration(Set<MessageScope> scopes) {
         currentScopes = getIdMap(normalizeScopes(scopes));
+        vertexStates.nextIteration(currentScopes);
         partitionVertices.clear();
         inExecute = true;
     }
 
     public Map<Long,Map<String,Object>> getMutableVertexProperties() {
-        return Maps.transformValues(vertexStates, vs -> {
-            Map<String,Object> map = new HashMap<>(elementKeyMap.size());
-            for (String key : elementKeyMap.keySet()) {
-                Object v = vs.getProperty(key,elementKeyMap);
-                if (v!=null) map.put(key,v);
-            }
-            return map;
-        });
+        return vertexStates.getProperties(elementKeyMap);
+    }
+
+    /**
+     * Releases the memory held for the vertex states.
+     */
+    public void close() {
+        vertexStates.close();
+        partitionVertices.clear();
     }
 
     public Set<String> getMemoryKeys() {
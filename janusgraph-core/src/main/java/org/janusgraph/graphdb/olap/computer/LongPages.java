@@ -0,0 +1,187 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.core.JanusGraphException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A growable array of longs which is kept outside of the Java heap, either in direct memory or, if a spill
+ * directory is configured, in a memory-mapped temporary file so that the operating system can page it out.
+ * <p>
+ * Memory is allocated in fixed size pages on first write. Unwritten positions read as 0. Concurrent reads and
+ * writes of distinct positions are safe; concurrent writes to the same position must be synchronized externally.
+ * The memory is released on {@link #close()}.
+ */
+class LongPages {
+
+    private static final Logger log = LoggerFactory.getLogger(LongPages.class);
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int PAGE_BYTES = PAGE_SIZE * Long.BYTES;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private volatile ByteBuffer[] pages = new ByteBuffer[0];
+
+    //Java 9 and later: sun.misc.Unsafe#invokeCleaner(ByteBuffer)
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    //Java 8: sun.nio.ch.DirectBuffer#cleaner() and sun.misc.Cleaner#clean()
+    private static final Method CLEANER;
+    private static final Method CLEAN;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null, cleaner = null, clean = null;
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+            try {
+                cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            } catch (ReflectiveOperationException | RuntimeException e2) {
+                log.debug("Direct buffers cannot be released explicitly and are freed once garbage collected", e2);
+                cleaner = null;
+                clean = null;
+            }
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+        CLEANER = cleaner;
+        CLEAN = clean;
+    }
+
+    LongPages(File spillDirectory) {
+        if (spillDirectory == null) {
+            file = null;
+            raf = null;
+        } else {
+            Preconditions.checkArgument(spillDirectory.isDirectory(), "Not a directory: %s", spillDirectory);
+            try {
+                file = File.createTempFile("fulgora", ".mem", spillDirectory);
+                file.deleteOnExit();
+                raf = new RandomAccessFile(file, "rw");
+            } catch (IOException e) {
+                throw new JanusGraphException("Could not create spill file in: " + spillDirectory, e);
+            }
+        }
+    }
+
+    long get(int index) {
+        final ByteBuffer[] p = pages;
+        final int page = index >>> PAGE_BITS;
+        if (page >= p.length || p[page] == null) return 0;
+        return p[page].getLong((index & PAGE_MASK) * Long.BYTES);
+    }
+
+    void set(int index, long value) {
+        getPage(index >>> PAGE_BITS).putLong((index & PAGE_MASK) * Long.BYTES, value);
+    }
+
+    /**
+     * Resets all positions to 0 while retaining the allocated memory.
+     */
+    void clear() {
+        for (ByteBuffer page : pages) {
+            if (page == null) continue;
+            for (int i = 0; i < PAGE_BYTES; i += Long.BYTES) page.putLong(i, 0);
+        }
+    }
+
+    /**
+     * Releases the memory and the spill file. Must not be called concurrently with reads or writes, which must
+     * not happen afterwards either.
+     */
+    void close() {
+        final ByteBuffer[] p = pages;
+        pages = new ByteBuffer[0];
+        for (ByteBuffer page : p) {
+            if (page != null) release(page);
+        }
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                throw new JanusGraphException("Could not close spill file: " + file, e);
+            } finally {
+                if (!file.delete()) file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Frees the given direct or memory-mapped buffer right away instead of once it is garbage collected, so that
+     * neither direct memory nor mappings of deleted spill files accumulate until the next full collection.
+     * The buffer must not be accessed afterwards.
+     */
+    static void release(ByteBuffer buffer) {
+        if (!buffer.isDirect()) return;
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else if (CLEANER != null) {
+                final Object cleaner = CLEANER.invoke(buffer);
+                if (cleaner != null) CLEAN.invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not release direct buffer, it is freed once garbage collected", e);
+        }
+    }
+
+    private ByteBuffer getPage(int page) {
+        final ByteBuffer[] p = pages;
+        if (page < p.length && p[page] != null) return p[page];
+        return allocatePage(page);
+    }
+
+    private synchronized ByteBuffer allocatePage(int page) {
+        ByteBuffer[] p = pages;
+        if (page < p.length && p[page] != null) return p[page];
+        if (page >= p.length) p = Arrays.copyOf(p, Math.max(page + 1, p.length * 2));
+        else p = p.clone();
+        p[page] = newPage(page);
+        pages = p;
+        return p[page];
+    }
+
+    private ByteBuffer newPage(int page) {
+        if (raf == null) return ByteBuffer.allocateDirect(PAGE_BYTES);
+        try {
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) page * PAGE_BYTES, PAGE_BYTES);
+        } catch (IOException e) {
+            throw new JanusGraphException("Could not map page of spill file: " + file, e);
+        }
+    }
+
+}
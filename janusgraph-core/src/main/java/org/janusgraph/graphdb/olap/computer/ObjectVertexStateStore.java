@@ -0,0 +1,100 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import com.google.common.collect.Maps;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link VertexStateStore} which keeps one {@link VertexState} object per vertex on the heap.
+ */
+class ObjectVertexStateStore<M> implements VertexStateStore<M> {
+
+    private final NonBlockingHashMapLong<VertexState<M>> vertexStates;
+    private final Map<String,Integer> elementKeyMap;
+
+    ObjectVertexStateStore(int numVertices, Map<String,Integer> elementKeyMap) {
+        this.vertexStates = new NonBlockingHashMapLong<>(numVertices);
+        this.elementKeyMap = elementKeyMap;
+    }
+
+    private VertexState<M> get(long vertexId, boolean create) {
+        VertexState<M> state = vertexStates.get(vertexId);
+        if (state==null) {
+            if (!create) return VertexState.EMPTY_STATE;
+            vertexStates.putIfAbsent(vertexId,new VertexState<>(elementKeyMap));
+            state = vertexStates.get(vertexId);
+        }
+        return state;
+    }
+
+    @Override
+    public <V> void setProperty(long vertexId, String key, V value, Map<String,Integer> keyMap) {
+        get(vertexId,true).setProperty(key,value,keyMap);
+    }
+
+    @Override
+    public <V> V getProperty(long vertexId, String key, Map<String,Integer> keyMap) {
+        return get(vertexId,false).getProperty(key,keyMap);
+    }
+
+    @Override
+    public void setMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap) {
+        get(vertexId,true).setMessage(message,scope,scopeMap);
+    }
+
+    @Override
+    public void addMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap,
+                           MessageCombiner<M> combiner) {
+        get(vertexId,true).addMessage(message,scope,scopeMap,combiner);
+    }
+
+    @Override
+    public M getMessage(long vertexId, MessageScope scope, Map<MessageScope,Integer> scopeMap) {
+        return get(vertexId,false).getMessage(scope,scopeMap);
+    }
+
+    @Override
+    public void nextIteration(Map<MessageScope,Integer> scopeMap) {
+        //Nothing to prepare, message slots are allocated lazily
+    }
+
+    @Override
+    public void completeIteration() {
+        for (VertexState<M> state : vertexStates.values()) state.completeIteration();
+    }
+
+    @Override
+    public Map<Long,Map<String,Object>> getProperties(Map<String,Integer> keyMap) {
+        return Maps.transformValues(vertexStates, vs -> {
+            Map<String,Object> map = new HashMap<>(keyMap.size());
+            for (String key : keyMap.keySet()) {
+                Object v = vs.getProperty(key,keyMap);
+                if (v!=null) map.put(key,v);
+            }
+            return map;
+        });
+    }
+
+    @Override
+    public void close() {
+        vertexStates.clear();
+    }
+}
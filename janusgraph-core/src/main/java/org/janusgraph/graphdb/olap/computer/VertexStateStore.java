@@ -0,0 +1,57 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+
+import java.util.Map;
+
+/**
+ * Holds the compute key values and the messages of the vertices of a {@link FulgoraVertexMemory}.
+ * Messages are double-buffered: messages sent in the current iteration are only visible to
+ * {@link #getMessage(long, MessageScope, Map)} after {@link #completeIteration()}.
+ * <p>
+ * Vertex ids passed into a store are canonical ids. Implementations must support concurrent access from the
+ * worker threads of a scan.
+ */
+interface VertexStateStore<M> {
+
+    <V> void setProperty(long vertexId, String key, V value, Map<String,Integer> keyMap);
+
+    <V> V getProperty(long vertexId, String key, Map<String,Integer> keyMap);
+
+    void setMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap);
+
+    void addMessage(long vertexId, M message, MessageScope scope, Map<MessageScope,Integer> scopeMap,
+                    MessageCombiner<M> combiner);
+
+    M getMessage(long vertexId, MessageScope scope, Map<MessageScope,Integer> scopeMap);
+
+    void nextIteration(Map<MessageScope,Integer> scopeMap);
+
+    void completeIteration();
+
+    /**
+     * Returns a view of the compute key values of all vertices which have state in this store.
+     */
+    Map<Long,Map<String,Object>> getProperties(Map<String,Integer> keyMap);
+
+    /**
+     * Releases all resources held by this store.
+     */
+    void close();
+
+}
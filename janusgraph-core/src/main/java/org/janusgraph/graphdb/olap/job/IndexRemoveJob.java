@@ -79,6 +79,8 @@ public class IndexRemoveJob extends IndexUpdateJob implements ScanJob {
     @Override
     public void workerIterationEnd(ScanMetrics metrics) {
         super.workerIterationEnd(metrics);
+        //The index entries were deleted directly from the index store, bypassing the invalidation on transaction commit
+        if (!isRelationTypeIndex()) indexSerializer.invalidateCompositeIndexes();
         graph.close();
     }
 
@@ -190,6 +190,15 @@ public class IndexRepairJob extends IndexUpdateJob implements VertexScanJob {
         }
     }
 
+    @Override
+    public void workerIterationEnd(ScanMetrics metrics) {
+        super.workerIterationEnd(metrics);
+        //The index entries were written directly to the index store, bypassing the invalidation on transaction commit
+        if (index instanceof JanusGraphIndex && ((JanusGraphIndex) index).isCompositeIndex()) {
+            graph.getIndexSerializer().invalidateCompositeIndexes();
+        }
+    }
+
     @Override
     public void getQueries(QueryContainer queries) {
         if (index instanceof RelationTypeIndex) {
@@ -58,9 +58,19 @@ public class GraphCentricQuery extends BaseQuery implements ElementQuery<JanusGr
      * The type of element this query is asking for: vertex, edge, or property.
      */
     private final ElementCategory resultType;
+    /**
+     * The property keys of the resulting vertices to load together with each batch of index results, all properties
+     * if empty and none if null.
+     */
+    private final String[] preloadedPropertyKeys;
 
     public GraphCentricQuery(ElementCategory resultType, Condition<JanusGraphElement> condition, OrderList orders,
                              BackendQueryHolder<JointIndexQuery> indexQuery, int limit) {
+        this(resultType, condition, orders, indexQuery, limit, null);
+    }
+
+    public GraphCentricQuery(ElementCategory resultType, Condition<JanusGraphElement> condition, OrderList orders,
+                             BackendQueryHolder<JointIndexQuery> indexQuery, int limit, String[] preloadedPropertyKeys) {
         super(limit);
         Preconditions.checkNotNull(condition);
         Preconditions.checkArgument(orders != null && orders.isImmutable());
@@ -71,6 +81,7 @@ public class GraphCentricQuery extends BaseQuery implements ElementQuery<JanusGr
         this.orders = orders;
         this.resultType = resultType;
         this.indexQuery = indexQuery;
+        this.preloadedPropertyKeys = preloadedPropertyKeys;
     }
 
     public static GraphCentricQuery emptyQuery(ElementCategory resultType) {
@@ -92,6 +103,10 @@ public class GraphCentricQuery extends BaseQuery implements ElementQuery<JanusGr
         return orders;
     }
 
+    public String[] getPreloadedPropertyKeys() {
+        return preloadedPropertyKeys;
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
@@ -22,6 +22,7 @@ import org.janusgraph.core.*;
 import org.janusgraph.core.attribute.Cmp;
 import org.janusgraph.core.schema.SchemaStatus;
 import org.janusgraph.core.schema.JanusGraphSchemaType;
+import org.janusgraph.diskstorage.indexing.IndexQuery;
 import org.janusgraph.graphdb.database.IndexSerializer;
 import org.janusgraph.graphdb.internal.ElementCategory;
 import org.janusgraph.graphdb.internal.InternalRelationType;
@@ -73,6 +74,14 @@ public class GraphCentricQueryBuilder implements JanusGraphQuery<GraphCentricQue
      * The profiler observing this query
      */
     private QueryProfiler profiler = QueryProfiler.NO_OP;
+    /**
+     * The property keys of the resulting vertices to load together with each batch of index results. None by default.
+     */
+    private String[] preloadedPropertyKeys = null;
+    /**
+     * The estimated number of results of each index considered by the last cost-based index selection
+     */
+    private Map<String, Long> candidateEstimates = null;
 
     public GraphCentricQueryBuilder(StandardJanusGraphTx tx, IndexSerializer serializer) {
         Preconditions.checkNotNull(tx);
@@ -93,6 +102,16 @@ public class GraphCentricQueryBuilder implements JanusGraphQuery<GraphCentricQue
         return this;
     }
 
+    /**
+     * Loads the given properties of the resulting vertices, or all of them if no keys are given, together with each
+     * batch of vertices returned by an index.
+     */
+    public GraphCentricQueryBuilder preloadProperties(String... keys) {
+        Preconditions.checkNotNull(keys);
+        this.preloadedPropertyKeys = keys;
+        return this;
+    }
+
     @Override
     public GraphCentricQueryBuilder has(String key, JanusGraphPredicate predicate, Object condition) {
         Preconditions.checkNotNull(key);
@@ -195,12 +214,20 @@ public class GraphCentricQueryBuilder implements JanusGraphQuery<GraphCentricQue
     private static final double CARDINALITY_SINGE_SCORE = 1000;
     private static final double CARDINALITY_OTHER_SCORE = 1000;
 
+    /**
+     * How many more results an additional subquery may have than the first one to still be intersected with it
+     * rather than being filtered in memory, since loading an element costs about an order of magnitude more than
+     * retrieving its id from an index.
+     */
+    private static final long INTERSECTION_COST_FACTOR = 10;
+
 
     public GraphCentricQuery constructQuery(final ElementCategory resultType) {
         QueryProfiler optProfiler = profiler.addNested(QueryProfiler.OPTIMIZATION);
         optProfiler.startTimer();
         GraphCentricQuery query = constructQueryWithoutProfile(resultType);
         optProfiler.stopTimer();
+        if (candidateEstimates != null) optProfiler.setAnnotation(QueryProfiler.CANDIDATES_ANNOTATION, candidateEstimates);
         query.observeWith(profiler);
         return query;
     }
@@ -228,57 +255,94 @@ public class GraphCentricQueryBuilder implements JanusGraphQuery<GraphCentricQue
             }
             return true;
         });
+        final List<IndexCandidate> candidates = new ArrayList<>(indexCandidates.size());
+        for (IndexType index : indexCandidates) {
+            final IndexCandidate candidate = getCandidate(index, conditions);
+            if (candidate != null) candidates.add(candidate);
+        }
 
-        /*
-        Determine the best join index query to answer this query:
-        Iterate over all potential indexes (as compiled above) and compute a score based on how many clauses
-        this index covers. The index with the highest score (as long as it covers at least one additional clause)
-        is picked and added to the joint query for as long as such exist.
-         */
-        JointIndexQuery jointQuery = new JointIndexQuery();
+        final JointIndexQuery jointQuery = new JointIndexQuery();
+        final Set<Condition> coveredClauses = Sets.newHashSet();
+        final boolean isSorted;
+        candidateEstimates = null;
+        if (tx.getGraph().getConfiguration().useCostBasedIndexSelection() && candidates.size() > 1 && estimate(candidates)) {
+            isSorted = selectByCost(candidates, jointQuery, coveredClauses);
+        } else {
+            isSorted = selectByScore(candidates, jointQuery, coveredClauses);
+        }
+
+        BackendQueryHolder<JointIndexQuery> query;
+        if (!coveredClauses.isEmpty()) {
+            int indexLimit = limit == Query.NO_LIMIT ? HARD_MAX_LIMIT : limit;
+            if (tx.getGraph().getConfiguration().adjustQueryLimit()) {
+                indexLimit = limit == Query.NO_LIMIT ? DEFAULT_NO_LIMIT : Math.min(MAX_BASE_LIMIT, limit);
+            }
+            indexLimit = Math.min(HARD_MAX_LIMIT,
+                QueryUtil.adjustLimitForTxModifications(tx, coveredClauses.size(), indexLimit));
+            jointQuery.setLimit(indexLimit);
+            query = new BackendQueryHolder<>(jointQuery,
+                    coveredClauses.size() == conditions.numChildren(), isSorted);
+        } else {
+            query = new BackendQueryHolder<>(new JointIndexQuery(), false, isSorted);
+        }
+        return new GraphCentricQuery(resultType, conditions, orders, query, limit, preloadedPropertyKeys);
+    }
+
+    /**
+     * Returns the part of the query conditions the given index can answer or null if it cannot answer any.
+     */
+    private IndexCandidate getCandidate(IndexType index, And<JanusGraphElement> conditions) {
+        final Set<Condition> subcover = Sets.newHashSet();
+        //Check that this index actually applies in case of a schema constraint
+        if (index.hasSchemaTypeConstraint()) {
+            JanusGraphSchemaType type = index.getSchemaTypeConstraint();
+            Map.Entry<Condition,Collection<Object>> equalCon
+                    = getEqualityConditionValues(conditions,ImplicitKey.LABEL);
+            if (equalCon==null) return null;
+            Collection<Object> labels = equalCon.getValue();
+            assert labels.size() >= 1;
+            if (labels.size()>1) {
+                log.warn("The query optimizer currently does not support multiple label constraints in query: {}",this);
+                return null;
+            }
+            if (!type.name().equals(Iterables.getOnlyElement(labels))) {
+                return null;
+            }
+            subcover.add(equalCon.getKey());
+        }
+
+        final Object subCondition;
+        boolean coversOrder = false;
+        if (index.isCompositeIndex()) {
+            subCondition = indexCover((CompositeIndexType) index,conditions,subcover);
+        } else {
+            subCondition = indexCover((MixedIndexType) index,conditions,serializer,subcover);
+            coversOrder = !orders.isEmpty() && indexCoversOrder((MixedIndexType)index,orders);
+        }
+        if (subCondition==null) return null;
+        assert !subcover.isEmpty();
+        return new IndexCandidate(index, subcover, subCondition, coversOrder);
+    }
+
+    /*
+    Determine the best join index query to answer this query:
+    Iterate over all potential indexes (as compiled above) and compute a score based on how many clauses
+    this index covers. The index with the highest score (as long as it covers at least one additional clause)
+    is picked and added to the joint query for as long as such exist.
+     */
+    private boolean selectByScore(List<IndexCandidate> candidates, JointIndexQuery jointQuery, Set<Condition> coveredClauses) {
         boolean isSorted = orders.isEmpty();
-        Set<Condition> coveredClauses = Sets.newHashSet();
         while (true) {
-            IndexType bestCandidate = null;
+            IndexCandidate bestCandidate = null;
             double candidateScore = 0.0;
-            Set<Condition> candidateSubcover = null;
             boolean candidateSupportsSort = false;
-            Object candidateSubCondition = null;
-
-            for (IndexType index : indexCandidates) {
-                Set<Condition> subcover = Sets.newHashSet();
-                Object subCondition;
-                boolean supportsSort = orders.isEmpty();
-                //Check that this index actually applies in case of a schema constraint
-                if (index.hasSchemaTypeConstraint()) {
-                    JanusGraphSchemaType type = index.getSchemaTypeConstraint();
-                    Map.Entry<Condition,Collection<Object>> equalCon
-                            = getEqualityConditionValues(conditions,ImplicitKey.LABEL);
-                    if (equalCon==null) continue;
-                    Collection<Object> labels = equalCon.getValue();
-                    assert labels.size() >= 1;
-                    if (labels.size()>1) {
-                        log.warn("The query optimizer currently does not support multiple label constraints in query: {}",this);
-                        continue;
-                    }
-                    if (!type.name().equals(Iterables.getOnlyElement(labels))) {
-                        continue;
-                    }
-                    subcover.add(equalCon.getKey());
-                }
 
-                if (index.isCompositeIndex()) {
-                    subCondition = indexCover((CompositeIndexType) index,conditions,subcover);
-                } else {
-                    subCondition = indexCover((MixedIndexType) index,conditions,serializer,subcover);
-                    if (coveredClauses.isEmpty() && !supportsSort
-                            && indexCoversOrder((MixedIndexType)index,orders)) supportsSort=true;
-                }
-                if (subCondition==null) continue;
-                assert !subcover.isEmpty();
+            for (IndexCandidate candidate : candidates) {
+                final IndexType index = candidate.index;
+                final boolean supportsSort = orders.isEmpty() || (coveredClauses.isEmpty() && candidate.coversOrder);
                 double score = 0.0;
                 boolean coversAdditionalClause = false;
-                for (Condition c : subcover) {
+                for (Condition c : candidate.subcover) {
                     double s = (c instanceof PredicateCondition && ((PredicateCondition)c).getPredicate()==Cmp.EQUAL)?
                             EQUAL_CONDITION_SCORE:OTHER_CONDITION_SCORE;
                     if (coveredClauses.contains(c)) s=s*ALREADY_MATCHED_ADJUSTOR;
@@ -291,47 +355,117 @@ public class GraphCentricQueryBuilder implements JanusGraphQuery<GraphCentricQue
                 if (supportsSort) score+=ORDER_MATCH;
                 if (coversAdditionalClause && score>candidateScore) {
                     candidateScore=score;
-                    bestCandidate=index;
-                    candidateSubcover = subcover;
-                    candidateSubCondition = subCondition;
+                    bestCandidate=candidate;
                     candidateSupportsSort = supportsSort;
                 }
             }
             if (bestCandidate!=null) {
                 if (coveredClauses.isEmpty()) isSorted=candidateSupportsSort;
-                coveredClauses.addAll(candidateSubcover);
-                if (bestCandidate.isCompositeIndex()) {
-                    jointQuery.add((CompositeIndexType)bestCandidate,
-                            serializer.getQuery((CompositeIndexType)bestCandidate,(List<Object[]>)candidateSubCondition));
-                } else {
-                    jointQuery.add((MixedIndexType)bestCandidate,
-                            serializer.getQuery((MixedIndexType)bestCandidate,(Condition)candidateSubCondition,orders));
-                }
+                coveredClauses.addAll(bestCandidate.subcover);
+                jointQuery.add(bestCandidate.index, bestCandidate.getQuery(), JointIndexQuery.Subquery.UNKNOWN_ESTIMATE);
             } else {
                 break;
             }
             /* TODO: smarter optimization:
-            - use in-memory histograms to estimate selectivity of PredicateConditions and filter out low-selectivity ones
-                    if they would result in an individual index call (better to filter afterwards in memory)
             - move OR's up and extend GraphCentricQuery to allow multiple JointIndexQuery for proper or'ing of queries
             */
         }
+        return isSorted;
+    }
 
-        BackendQueryHolder<JointIndexQuery> query;
-        if (!coveredClauses.isEmpty()) {
-            int indexLimit = limit == Query.NO_LIMIT ? HARD_MAX_LIMIT : limit;
-            if (tx.getGraph().getConfiguration().adjustQueryLimit()) {
-                indexLimit = limit == Query.NO_LIMIT ? DEFAULT_NO_LIMIT : Math.min(MAX_BASE_LIMIT, limit);
-            }
-            indexLimit = Math.min(HARD_MAX_LIMIT,
-                QueryUtil.adjustLimitForTxModifications(tx, coveredClauses.size(), indexLimit));
-            jointQuery.setLimit(indexLimit);
-            query = new BackendQueryHolder<>(jointQuery,
-                    coveredClauses.size() == conditions.numChildren(), isSorted);
+    /**
+     * Estimates the number of results of all candidates and returns whether this succeeded for every one of them.
+     */
+    private boolean estimate(List<IndexCandidate> candidates) {
+        for (IndexCandidate candidate : candidates) {
+            candidate.estimate = estimateResults(candidate);
+            if (candidate.estimate < 0) return false;
+        }
+        candidateEstimates = new LinkedHashMap<>(candidates.size());
+        for (IndexCandidate candidate : candidates) candidateEstimates.put(candidate.index.getName(), candidate.estimate);
+        return true;
+    }
+
+    private long estimateResults(IndexCandidate candidate) {
+        if (candidate.index.isCompositeIndex()) {
+            final CompositeIndexType index = (CompositeIndexType) candidate.index;
+            final int keys = ((List<Object[]>) candidate.subCondition).size();
+            if (index.getCardinality() == Cardinality.SINGLE) return keys;
+            final double rowsPerKey = serializer.getStatistics().getCompositeRowsPerKey(index);
+            //Every key costs at least one lookup, even if previous lookups mostly came back empty
+            return rowsPerKey < 0 ? JointIndexQuery.Subquery.UNKNOWN_ESTIMATE : Math.max(keys, (long) Math.ceil(keys * rowsPerKey));
         } else {
-            query = new BackendQueryHolder<>(new JointIndexQuery(), false, isSorted);
+            try {
+                final Long totals = tx.getTxHandle().totals(candidate.index.getBackingIndexName(), (IndexQuery) candidate.getQuery());
+                return totals == null ? JointIndexQuery.Subquery.UNKNOWN_ESTIMATE : totals;
+            } catch (JanusGraphException e) {
+                log.debug("Could not estimate the results of index [{}]", candidate.index.getName(), e);
+                return JointIndexQuery.Subquery.UNKNOWN_ESTIMATE;
+            }
+        }
+    }
+
+    /*
+    Picks the candidate with the fewest estimated results as the first subquery, unless the query is ordered and a
+    candidate returning its results in that order is not much less selective. Further candidates covering additional
+    clauses are intersected with it, most selective first, as long as retrieving their results is cheaper than loading
+    and filtering the results of the first subquery in memory.
+     */
+    private boolean selectByCost(List<IndexCandidate> candidates, JointIndexQuery jointQuery, Set<Condition> coveredClauses) {
+        candidates.sort(Comparator.<IndexCandidate>comparingLong(c -> c.estimate)
+            .thenComparing(c -> -c.subcover.size())
+            .thenComparing(c -> c.index.isMixedIndex()));
+        IndexCandidate first = candidates.get(0);
+        final long maxEstimate = INTERSECTION_COST_FACTOR * Math.max(1, first.estimate);
+        if (!orders.isEmpty() && !first.coversOrder) {
+            for (IndexCandidate candidate : candidates) {
+                if (candidate.coversOrder && candidate.estimate <= maxEstimate) {
+                    first = candidate;
+                    break;
+                }
+            }
+        }
+        jointQuery.add(first.index, first.getQuery(), first.estimate);
+        coveredClauses.addAll(first.subcover);
+        for (IndexCandidate candidate : candidates) {
+            if (candidate != first && candidate.estimate <= maxEstimate && !coveredClauses.containsAll(candidate.subcover)) {
+                jointQuery.add(candidate.index, candidate.getQuery(), candidate.estimate);
+                coveredClauses.addAll(candidate.subcover);
+            }
+        }
+        return orders.isEmpty() || first.coversOrder;
+    }
+
+    /**
+     * An index which can answer some clauses of the query, see {@link #getCandidate(IndexType, And)}.
+     */
+    private class IndexCandidate {
+
+        private final IndexType index;
+        private final Set<Condition> subcover;
+        private final Object subCondition;
+        /**
+         * Whether this index returns its results in the order of the query when it is queried first
+         */
+        private final boolean coversOrder;
+        private BackendQuery query;
+        private long estimate = JointIndexQuery.Subquery.UNKNOWN_ESTIMATE;
+
+        private IndexCandidate(IndexType index, Set<Condition> subcover, Object subCondition, boolean coversOrder) {
+            this.index = index;
+            this.subcover = subcover;
+            this.subCondition = subCondition;
+            this.coversOrder = coversOrder;
+        }
+
+        private BackendQuery getQuery() {
+            if (query == null) {
+                query = index.isCompositeIndex()
+                    ? serializer.getQuery((CompositeIndexType) index, (List<Object[]>) subCondition)
+                    : serializer.getQuery((MixedIndexType) index, (Condition) subCondition, orders);
+            }
+            return query;
         }
-        return new GraphCentricQuery(resultType, conditions, orders, query, limit);
     }
 
     public static boolean indexCoversOrder(MixedIndexType index, OrderList orders) {
@@ -55,11 +55,18 @@ public class JointIndexQuery extends BaseQuery implements BackendQuery<JointInde
     }
 
     public void add(MixedIndexType index, IndexQuery query) {
-        queries.add(new Subquery(index, query));
+        add(index, query, Subquery.UNKNOWN_ESTIMATE);
     }
 
     public void add(CompositeIndexType index, MultiKeySliceQuery query) {
-        queries.add(new Subquery(index, query));
+        add(index, query, Subquery.UNKNOWN_ESTIMATE);
+    }
+
+    /**
+     * Adds a subquery for the given index together with the number of results the query optimizer estimated for it.
+     */
+    public void add(IndexType index, BackendQuery query, long estimatedResults) {
+        queries.add(new Subquery(index, query, estimatedResults));
     }
 
     public int size() {
@@ -107,14 +114,20 @@ public class JointIndexQuery extends BaseQuery implements BackendQuery<JointInde
 
     public static class Subquery implements BackendQuery<Subquery>, ProfileObservable {
 
+        public static final long UNKNOWN_ESTIMATE = -1;
+
         private final IndexType index;
         private final BackendQuery query;
+        private final long estimatedResults;
         private QueryProfiler profiler = QueryProfiler.NO_OP;
 
-        private Subquery(IndexType index, BackendQuery query) {
+        private Subquery(IndexType index, BackendQuery query, long estimatedResults) {
             assert index!=null && query!=null && (query instanceof MultiKeySliceQuery || query instanceof IndexQuery);
+            Preconditions.checkArgument(index.isCompositeIndex() == query instanceof MultiKeySliceQuery,
+                "Query [%s] does not match index [%s]", query, index);
             this.index = index;
             this.query = query;
+            this.estimatedResults = estimatedResults;
         }
 
         public void observeWith(QueryProfiler prof) {
@@ -122,6 +135,7 @@ public class JointIndexQuery extends BaseQuery implements BackendQuery<JointInde
             profiler.setAnnotation(QueryProfiler.QUERY_ANNOTATION,query);
             profiler.setAnnotation(QueryProfiler.INDEX_ANNOTATION,index.getName());
             if (index.isMixedIndex()) profiler.setAnnotation(QueryProfiler.INDEX_ANNOTATION+"_impl",index.getBackingIndexName());
+            if (estimatedResults != UNKNOWN_ESTIMATE) profiler.setAnnotation(QueryProfiler.ESTIMATE_ANNOTATION,estimatedResults);
         }
 
         public QueryProfiler getProfiler() {
@@ -132,6 +146,14 @@ public class JointIndexQuery extends BaseQuery implements BackendQuery<JointInde
             return index;
         }
 
+        /**
+         * Returns the number of results the query optimizer estimated for this subquery or
+         * {@link #UNKNOWN_ESTIMATE} if it was chosen without an estimate.
+         */
+        public long getEstimatedResults() {
+            return estimatedResults;
+        }
+
         public IndexQuery getMixedQuery() {
             Preconditions.checkArgument(index.isMixedIndex() && query instanceof IndexQuery);
             return (IndexQuery)query;
@@ -163,7 +185,7 @@ public class JointIndexQuery extends BaseQuery implements BackendQuery<JointInde
 
         @Override
         public Subquery updateLimit(int newLimit) {
-            return new Subquery(index,query.updateLimit(newLimit));
+            return new Subquery(index,query.updateLimit(newLimit),estimatedResults);
         }
 
         @Override
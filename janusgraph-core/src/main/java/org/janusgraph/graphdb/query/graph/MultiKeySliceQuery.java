@@ -44,6 +44,10 @@ public class MultiKeySliceQuery extends BaseQuery implements BackendQuery<MultiK
         return newQuery;
     }
 
+    public List<KeySliceQuery> getQueries() {
+        return queries;
+    }
+
     public List<EntryList> execute(final BackendTransaction tx) {
         int total = 0;
         final List<EntryList> result = new ArrayList<>(Math.min(getLimit(), queries.size()));
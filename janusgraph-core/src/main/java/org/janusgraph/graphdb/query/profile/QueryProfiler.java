@@ -38,6 +38,8 @@ public interface QueryProfiler {
     String QUERY_ANNOTATION = "query";
     String FULLSCAN_ANNOTATION = "fullscan";
     String INDEX_ANNOTATION = "index";
+    String ESTIMATE_ANNOTATION = "estimate";
+    String CANDIDATES_ANNOTATION = "candidates";
 
     String OR_QUERY = "OR-query";
     String AND_QUERY = "AND-query";
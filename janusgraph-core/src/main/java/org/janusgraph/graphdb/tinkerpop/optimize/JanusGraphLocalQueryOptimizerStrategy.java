@@ -52,6 +52,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
         //If this is a compute graph then we can't apply local traversal optimisation at this stage.
         StandardJanusGraph janusGraph = graph instanceof StandardJanusGraphTx ? ((StandardJanusGraphTx) graph).getGraph() : (StandardJanusGraph) graph;
         final boolean useMultiQuery = !TraversalHelper.onGraphComputer(traversal) && janusGraph.getConfiguration().useMultiQuery();
+        final int batchSize = janusGraph.getConfiguration().getMultiQueryBatchSize();
 
         /*
                 ====== VERTEX STEP ======
@@ -76,6 +77,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
 
             if (useMultiQuery) {
                 vertexStep.setUseMultiQuery(true);
+                vertexStep.setBatchSize(batchSize);
             }
         });
 
@@ -97,6 +99,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
 
             if (useMultiQuery) {
                 propertiesStep.setUseMultiQuery(true);
+                propertiesStep.setBatchSize(batchSize);
             }
         });
 
@@ -119,7 +122,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
                 HasStepFolder.foldInRange(vertexStep, localTraversal);
 
 
-                unfoldLocalTraversal(traversal,localStep,localTraversal,vertexStep,useMultiQuery);
+                unfoldLocalTraversal(traversal,localStep,localTraversal,vertexStep,useMultiQuery,batchSize);
             }
 
             if (localStart instanceof PropertiesStep) {
@@ -133,7 +136,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
                 HasStepFolder.foldInRange(propertiesStep, localTraversal);
 
 
-                unfoldLocalTraversal(traversal,localStep,localTraversal,propertiesStep,useMultiQuery);
+                unfoldLocalTraversal(traversal,localStep,localTraversal,propertiesStep,useMultiQuery,batchSize);
             }
 
         });
@@ -141,7 +144,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
 
     private static void unfoldLocalTraversal(final Traversal.Admin<?, ?> traversal,
                                              LocalStep<?,?> localStep, Traversal.Admin localTraversal,
-                                             MultiQueriable vertexStep, boolean useMultiQuery) {
+                                             MultiQueriable vertexStep, boolean useMultiQuery, int batchSize) {
         assert localTraversal.asAdmin().getSteps().size() > 0;
         if (localTraversal.asAdmin().getSteps().size() == 1) {
             //Can replace the entire localStep by the vertex step in the outer traversal
@@ -151,6 +154,7 @@ public class JanusGraphLocalQueryOptimizerStrategy extends AbstractTraversalStra
 
             if (useMultiQuery) {
                 vertexStep.setUseMultiQuery(true);
+                vertexStep.setBatchSize(batchSize);
             }
         }
     }
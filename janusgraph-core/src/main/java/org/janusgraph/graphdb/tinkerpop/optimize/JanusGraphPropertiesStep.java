@@ -29,7 +29,6 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
-import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -50,8 +49,8 @@ public class JanusGraphPropertiesStep<E> extends PropertiesStep<E> implements Ha
         this.limit = Query.NO_LIMIT;
     }
 
-    private boolean initialized = false;
     private boolean useMultiQuery = false;
+    private int batchSize = Integer.MAX_VALUE;
     private Map<JanusGraphVertex, Iterable<? extends JanusGraphProperty>> multiQueryResults = null;
     private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
 
@@ -61,6 +60,11 @@ public class JanusGraphPropertiesStep<E> extends PropertiesStep<E> implements Ha
         this.useMultiQuery = useMultiQuery;
     }
 
+    @Override
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     private <Q extends BaseVertexQuery> Q makeQuery(Q query) {
         String[] keys = getPropertyKeys();
         query.keys(keys);
@@ -81,39 +85,34 @@ public class JanusGraphPropertiesStep<E> extends PropertiesStep<E> implements Ha
         return (Iterator<E>) Iterators.transform(iterable.iterator(), Property::value);
     }
 
-    @SuppressWarnings("deprecation")
-    private void initialize() {
-        assert !initialized;
-        initialized = true;
+    /**
+     * Executes a single multi-query for the given vertex traverser and up to batchSize-1 further incoming
+     * traversers. The additional traversers are put back into the starts so that they are subsequently processed
+     * against the results of this batch; those which are not vertices are answered individually.
+     */
+    private void initializeBatch(final Traverser.Admin<Element> first) {
         assert getReturnType().forProperties() || (orders.isEmpty() && hasContainers.isEmpty());
 
-        if (!starts.hasNext()) throw FastNoSuchElementException.instance();
+        JanusGraphMultiVertexQuery multiQuery = JanusGraphTraversalUtil.getTx(traversal).multiQuery();
+        multiQuery.addVertex((Vertex) first.get());
         List<Traverser.Admin<Element>> elements = new ArrayList<>();
-        starts.forEachRemaining(elements::add);
-        starts.add(elements.iterator());
-        assert elements.size() > 0;
-
-        useMultiQuery = useMultiQuery && elements.stream().allMatch(e -> e.get() instanceof Vertex);
-
-        if (useMultiQuery) {
-            JanusGraphMultiVertexQuery multiQuery = JanusGraphTraversalUtil.getTx(traversal).multiQuery();
-            elements.forEach(e -> multiQuery.addVertex((Vertex) e.get()));
-            makeQuery(multiQuery);
-
-            multiQueryResults = multiQuery.properties();
+        while (elements.size() + 1 < batchSize && starts.hasNext()) {
+            Traverser.Admin<Element> e = starts.next();
+            elements.add(e);
+            if (e.get() instanceof Vertex) multiQuery.addVertex((Vertex) e.get());
         }
-    }
+        starts.add(elements.iterator());
+        makeQuery(multiQuery);
 
-    @Override
-    protected Traverser.Admin<E> processNextStart() {
-        if (!initialized) initialize();
-        return super.processNextStart();
+        multiQueryResults = multiQuery.properties();
     }
 
     @Override
     protected Iterator<E> flatMap(final Traverser.Admin<Element> traverser) {
-        if (useMultiQuery) { //it is guaranteed that all elements are vertices
-            assert multiQueryResults != null;
+        if (useMultiQuery && traverser.get() instanceof Vertex) {
+            if (multiQueryResults == null || !multiQueryResults.containsKey(traverser.get())) {
+                initializeBatch(traverser);
+            }
             return convertIterator(multiQueryResults.get(traverser.get()));
         } else if (traverser.get() instanceof JanusGraphVertex || traverser.get() instanceof WrappedVertex) {
             JanusGraphVertexQuery query = makeQuery((JanusGraphTraversalUtil.getJanusGraphVertex(traverser)).query());
@@ -139,13 +138,13 @@ public class JanusGraphPropertiesStep<E> extends PropertiesStep<E> implements Ha
     @Override
     public void reset() {
         super.reset();
-        this.initialized = false;
+        this.multiQueryResults = null;
     }
 
     @Override
     public JanusGraphPropertiesStep<E> clone() {
         final JanusGraphPropertiesStep<E> clone = (JanusGraphPropertiesStep<E>) super.clone();
-        clone.initialized = false;
+        clone.multiQueryResults = null;
         return clone;
     }
 
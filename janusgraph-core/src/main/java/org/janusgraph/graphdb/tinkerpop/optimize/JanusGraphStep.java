@@ -47,6 +47,7 @@ public class JanusGraphStep<S, E extends Element> extends GraphStep<S, E> implem
     private int limit = BaseQuery.NO_LIMIT;
     private final List<OrderEntry> orders = new ArrayList<>();
     private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
+    private String[] preloadedPropertyKeys = null;
 
 
     public JanusGraphStep(final GraphStep<S, E> originalStep) {
@@ -68,6 +69,7 @@ public class JanusGraphStep<S, E extends Element> extends GraphStep<S, E> implem
             for (OrderEntry order : orders) query.orderBy(order.key, order.order);
             if (limit != BaseQuery.NO_LIMIT) query.limit(limit);
             ((GraphCentricQueryBuilder) query).profiler(queryProfiler);
+            if (preloadedPropertyKeys != null) ((GraphCentricQueryBuilder) query).preloadProperties(preloadedPropertyKeys);
             return Vertex.class.isAssignableFrom(this.returnClass) ? query.vertices().iterator() : query.edges().iterator();
         });
     }
@@ -98,6 +100,14 @@ public class JanusGraphStep<S, E extends Element> extends GraphStep<S, E> implem
         return this.limit;
     }
 
+    /**
+     * Loads the given properties of the returned vertices, or all of them if no keys are given, together with each
+     * batch of vertices returned by an index, because the next step reads them.
+     */
+    public void setPreloadedPropertyKeys(String[] keys) {
+        this.preloadedPropertyKeys = keys;
+    }
+
     @Override
     public void setMetrics(MutableMetrics metrics) {
         queryProfiler = new TP3ProfileWrapper(metrics);
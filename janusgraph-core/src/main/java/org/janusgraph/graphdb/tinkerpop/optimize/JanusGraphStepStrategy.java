@@ -16,8 +16,11 @@ package org.janusgraph.graphdb.tinkerpop.optimize;
 
 import org.janusgraph.graphdb.tinkerpop.ElementUtils;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertyMapStep;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
@@ -47,6 +50,15 @@ public class JanusGraphStepStrategy extends AbstractTraversalStrategy<TraversalS
                 HasStepFolder.foldInHasContainer(janusGraphStep, traversal);
                 HasStepFolder.foldInOrder(janusGraphStep, traversal, traversal, janusGraphStep.returnsVertex());
                 HasStepFolder.foldInRange(janusGraphStep, traversal);
+                if (janusGraphStep.returnsVertex()) {
+                    //Loads the properties read by the next step together with the vertices returned by an index
+                    final Step<?, ?> nextStep = janusGraphStep.getNextStep();
+                    if (nextStep instanceof PropertiesStep) {
+                        janusGraphStep.setPreloadedPropertyKeys(((PropertiesStep<?>) nextStep).getPropertyKeys());
+                    } else if (nextStep instanceof PropertyMapStep) {
+                        janusGraphStep.setPreloadedPropertyKeys(((PropertyMapStep<?, ?>) nextStep).getPropertyKeys());
+                    }
+                }
             } else {
                 //Make sure that any provided "start" elements are instantiated in the current transaction
                 Object[] ids = originalGraphStep.getIds();
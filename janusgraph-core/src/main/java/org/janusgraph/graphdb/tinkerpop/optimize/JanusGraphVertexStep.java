@@ -30,7 +30,6 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.Profiling;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
-import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.process.traversal.util.MutableMetrics;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -53,8 +52,8 @@ public class JanusGraphVertexStep<E extends Element> extends VertexStep<E> imple
         this.limit = Query.NO_LIMIT;
     }
 
-    private boolean initialized = false;
     private boolean useMultiQuery = false;
+    private int batchSize = Integer.MAX_VALUE;
     private Map<JanusGraphVertex, Iterable<? extends JanusGraphElement>> multiQueryResults = null;
     private QueryProfiler queryProfiler = QueryProfiler.NO_OP;
 
@@ -63,6 +62,11 @@ public class JanusGraphVertexStep<E extends Element> extends VertexStep<E> imple
         this.useMultiQuery = useMultiQuery;
     }
 
+    @Override
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
     public <Q extends BaseVertexQuery> Q makeQuery(Q query) {
         query.labels(getEdgeLabels());
         query.direction(getDirection());
@@ -75,36 +79,32 @@ public class JanusGraphVertexStep<E extends Element> extends VertexStep<E> imple
         return query;
     }
 
-    @SuppressWarnings("deprecation")
-    private void initialize() {
-        assert !initialized;
-        initialized = true;
-        if (useMultiQuery) {
-            if (!starts.hasNext()) throw FastNoSuchElementException.instance();
-            JanusGraphMultiVertexQuery multiQuery = JanusGraphTraversalUtil.getTx(traversal).multiQuery();
-            List<Traverser.Admin<Vertex>> vertices = new ArrayList<>();
-            starts.forEachRemaining(v -> {
-                vertices.add(v);
-                multiQuery.addVertex(v.get());
-            });
-            starts.add(vertices.iterator());
-            assert vertices.size() > 0;
-            makeQuery(multiQuery);
-
-            multiQueryResults = (Vertex.class.isAssignableFrom(getReturnClass())) ? multiQuery.vertices() : multiQuery.edges();
+    /**
+     * Executes a single multi-query for the given traverser and up to batchSize-1 further incoming traversers.
+     * The additional traversers are put back into the starts so that they are subsequently processed against
+     * the results of this batch.
+     */
+    private void initializeBatch(final Traverser.Admin<Vertex> first) {
+        JanusGraphMultiVertexQuery multiQuery = JanusGraphTraversalUtil.getTx(traversal).multiQuery();
+        multiQuery.addVertex(first.get());
+        List<Traverser.Admin<Vertex>> vertices = new ArrayList<>();
+        while (vertices.size() + 1 < batchSize && starts.hasNext()) {
+            Traverser.Admin<Vertex> v = starts.next();
+            vertices.add(v);
+            multiQuery.addVertex(v.get());
         }
-    }
+        starts.add(vertices.iterator());
+        makeQuery(multiQuery);
 
-    @Override
-    protected Traverser.Admin<E> processNextStart() {
-        if (!initialized) initialize();
-        return super.processNextStart();
+        multiQueryResults = (Vertex.class.isAssignableFrom(getReturnClass())) ? multiQuery.vertices() : multiQuery.edges();
     }
 
     @Override
     protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
         if (useMultiQuery) {
-            assert multiQueryResults != null;
+            if (multiQueryResults == null || !multiQueryResults.containsKey(traverser.get())) {
+                initializeBatch(traverser);
+            }
             return (Iterator<E>) multiQueryResults.get(traverser.get()).iterator();
         } else {
             JanusGraphVertexQuery query = makeQuery((JanusGraphTraversalUtil.getJanusGraphVertex(traverser)).query());
@@ -115,13 +115,13 @@ public class JanusGraphVertexStep<E extends Element> extends VertexStep<E> imple
     @Override
     public void reset() {
         super.reset();
-        this.initialized = false;
+        this.multiQueryResults = null;
     }
 
     @Override
     public JanusGraphVertexStep<E> clone() {
         final JanusGraphVertexStep<E> clone = (JanusGraphVertexStep<E>) super.clone();
-        clone.initialized = false;
+        clone.multiQueryResults = null;
         return clone;
     }
 
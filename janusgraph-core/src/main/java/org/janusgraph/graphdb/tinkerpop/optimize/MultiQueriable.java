@@ -23,4 +23,9 @@ public interface MultiQueriable<S,E> extends Step<S,E> {
 
     void setUseMultiQuery(boolean useMultiQuery);
 
+    /**
+     * Sets the maximum number of incoming traversers combined into a single multi-query.
+     */
+    void setBatchSize(int batchSize);
+
 }
@@ -15,6 +15,7 @@
 package org.janusgraph.graphdb.transaction;
 
 import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.cache.Cache;
@@ -33,6 +34,7 @@ import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.graphdb.query.profile.QueryProfiler;
 import org.janusgraph.graphdb.relations.RelationComparator;
 import org.janusgraph.graphdb.tinkerpop.JanusGraphBlueprintsTransaction;
+import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 import org.janusgraph.graphdb.database.EdgeSerializer;
 import org.janusgraph.graphdb.database.IndexSerializer;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
@@ -59,7 +61,6 @@ import org.janusgraph.graphdb.transaction.indexcache.ConcurrentIndexCache;
 import org.janusgraph.graphdb.transaction.indexcache.IndexCache;
 import org.janusgraph.graphdb.transaction.indexcache.SimpleIndexCache;
 import org.janusgraph.graphdb.transaction.lock.*;
-import org.janusgraph.graphdb.transaction.vertexcache.GuavaVertexCache;
 import org.janusgraph.graphdb.transaction.vertexcache.VertexCache;
 import org.janusgraph.graphdb.types.*;
 import org.janusgraph.graphdb.types.system.*;
@@ -130,6 +131,13 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
      */
     private final VertexCache vertexCache;
 
+    /**
+     * Bounds the number of bytes of relation query results cached by the {@link CacheVertex}s of this transaction,
+     * 0 if unbounded.
+     */
+    private final long queryCacheLimit;
+    private final AtomicLong queryCacheWeight = new AtomicLong(0);
+
     //######## Data structures that keep track of new and deleted elements
     //These data structures cannot release elements, since we would loose track of what was added or deleted
     /**
@@ -193,7 +201,8 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
         Preconditions.checkArgument(graph.isOpen());
         Preconditions.checkNotNull(config);
         this.graph = graph;
-        this.times = graph.getConfiguration().getTimestampProvider();
+        final GraphDatabaseConfiguration graphConfig = graph.getConfiguration();
+        this.times = graphConfig.getTimestampProvider();
         this.config = config;
         this.idManager = graph.getIDManager();
         this.idInspector = idManager;
@@ -238,11 +247,12 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
         long effectiveVertexCacheSize = config.getVertexCacheSize();
         if (!config.isReadOnly()) {
             effectiveVertexCacheSize = Math.max(MIN_VERTEX_CACHE_SIZE, effectiveVertexCacheSize);
-            log.debug("Guava vertex cache size: requested={} effective={} (min={})",
+            log.debug("Vertex cache size: requested={} effective={} (min={})",
                     config.getVertexCacheSize(), effectiveVertexCacheSize, MIN_VERTEX_CACHE_SIZE);
         }
 
-        vertexCache = new GuavaVertexCache(effectiveVertexCacheSize,concurrencyLevel,config.getDirtyVertexSize());
+        vertexCache = graphConfig.getTxVertexCacheType().create(effectiveVertexCacheSize,concurrencyLevel,config.getDirtyVertexSize());
+        queryCacheLimit = graphConfig.getTxQueryCacheSize();
 
         indexCache = CacheBuilder.newBuilder().weigher((Weigher<JointIndexQuery.Subquery, List<Object>>) (q, r) -> 2 + r.size()).concurrencyLevel(concurrencyLevel).maximumWeight(config.getIndexCacheWeight()).build();
 
@@ -1013,6 +1023,30 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
         return new VertexCentricQueryBuilder(((InternalVertex) vertex).it());
     }
 
+    /**
+     * Whether the given relation query result may be cached by a vertex of this transaction without exceeding
+     * the configured query cache size. If so, the result is accounted against that size.
+     */
+    public boolean admitToQueryCache(EntryList result) {
+        if (queryCacheLimit <= 0) return true;
+        final int weight = result.getByteSize();
+        long current;
+        do {
+            current = queryCacheWeight.get();
+            if (current + weight > queryCacheLimit) return false;
+        } while (!queryCacheWeight.compareAndSet(current, current + weight));
+        return true;
+    }
+
+    /**
+     * Returns the given number of bytes of previously admitted relation query results to the query cache size, once
+     * these results are no longer cached by a vertex held by this transaction.
+     */
+    public void releaseFromQueryCache(long weight) {
+        if (queryCacheLimit <= 0) return;
+        queryCacheWeight.addAndGet(-weight);
+    }
+
     @Override
     @Deprecated
     public JanusGraphMultiVertexQuery multiQuery(JanusGraphVertex... vertices) {
@@ -1118,13 +1152,14 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
 
     public final QueryExecutor<GraphCentricQuery, JanusGraphElement, JointIndexQuery> elementProcessorImpl = new QueryExecutor<GraphCentricQuery, JanusGraphElement, JointIndexQuery>() {
 
-        private PredicateCondition<PropertyKey, JanusGraphElement> getEqualityCondition(Condition<JanusGraphElement> condition) {
+        private PredicateCondition<PropertyKey, JanusGraphElement> getEqualityCondition(Condition<JanusGraphElement> condition,
+                                                                                        Predicate<PropertyKey> keyFilter) {
             if (condition instanceof PredicateCondition) {
                 final PredicateCondition<PropertyKey, JanusGraphElement> pc = (PredicateCondition) condition;
-                if (pc.getPredicate() == Cmp.EQUAL && TypeUtil.hasSimpleInternalVertexKeyIndex(pc.getKey())) return pc;
+                if (pc.getPredicate() == Cmp.EQUAL && keyFilter.apply(pc.getKey())) return pc;
             } else if (condition instanceof And) {
                 for (final Condition<JanusGraphElement> child : condition.getChildren()) {
-                    final PredicateCondition<PropertyKey, JanusGraphElement> p = getEqualityCondition(child);
+                    final PredicateCondition<PropertyKey, JanusGraphElement> p = getEqualityCondition(child, keyFilter);
                     if (p != null) return p;
                 }
             }
@@ -1141,7 +1176,7 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
 
             if (query.getResultType() == ElementCategory.VERTEX && hasModifications()) {
                 Preconditions.checkArgument(QueryUtil.isQueryNormalForm(query.getCondition()));
-                PredicateCondition<PropertyKey, JanusGraphElement> standardIndexKey = getEqualityCondition(query.getCondition());
+                PredicateCondition<PropertyKey, JanusGraphElement> standardIndexKey = getEqualityCondition(query.getCondition(), TypeUtil::hasSimpleInternalVertexKeyIndex);
                 Iterator<JanusGraphVertex> vertices;
                 if (standardIndexKey == null) {
                     final Set<PropertyKey> keys = Sets.newHashSet();
@@ -1153,8 +1188,15 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
                         return true;
                     });
                     Preconditions.checkArgument(!keys.isEmpty(), "Invalid query condition: %s", query.getCondition());
+                    //If the query only constrains one key by equality, look up the matching properties directly. Otherwise, a vertex
+                    //whose new property matches one condition could match the others through properties loaded from the backend.
+                    final PredicateCondition<PropertyKey, JanusGraphElement> equalityCondition = keys.size() != 1 ? null
+                        : getEqualityCondition(query.getCondition(), key -> !(key instanceof ImplicitKey));
+                    final List<InternalRelation> candidates = equalityCondition == null || equalityCondition.getValue() == null
+                        ? addedRelations.getView(keys, relation -> true)
+                        : addedRelations.getView(equalityCondition.getKey(), equalityCondition.getValue(), relation -> true);
                     Set<JanusGraphVertex> vertexSet = Sets.newHashSet();
-                    for (final JanusGraphRelation r : addedRelations.getView(relation -> keys.contains(relation.getType()))) {
+                    for (final JanusGraphRelation r : candidates) {
                         vertexSet.add(((JanusGraphVertexProperty) r).element());
                     }
                     for (JanusGraphRelation r : deletedRelations.values()) {
@@ -1207,9 +1249,15 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
         public Iterator<JanusGraphElement> execute(final GraphCentricQuery query, final JointIndexQuery indexQuery, final Object exeInfo, final QueryProfiler profiler) {
             Iterator<JanusGraphElement> iterator;
             if (!indexQuery.isEmpty()) {
+                final boolean streamingIntersection = graph.getConfiguration().useStreamingIntersection();
                 final List<QueryUtil.IndexCall<Object>> retrievals = new ArrayList<>();
+                final List<JointIndexQuery.Subquery> probes = new ArrayList<>();
                 for (int i = 1; i < indexQuery.size(); i++) {
                     final JointIndexQuery.Subquery subquery = indexQuery.getQuery(i);
+                    if (streamingIntersection && indexSerializer.supportsProbing(subquery)) {
+                        probes.add(subquery);
+                        continue;
+                    }
                     retrievals.add(limit -> {
                         final JointIndexQuery.Subquery adjustedQuery = subquery.updateLimit(limit);
                         try {
@@ -1220,8 +1268,12 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
                         }
                     });
                 }
+                final Set<Object> otherResults = retrievals.isEmpty() ? null
+                    : new HashSet<>(QueryUtil.processIntersectingRetrievals(retrievals, indexQuery.getLimit()));
+                final boolean batchVertices = query.getResultType() == ElementCategory.VERTEX && graph.getConfiguration().useMultiQuery();
                 iterator = new SubqueryIterator(indexQuery.getQuery(0), indexSerializer, txHandle, indexCache, indexQuery.getLimit(), getConversionFunction(query.getResultType()),
-                        retrievals.isEmpty() ? null: QueryUtil.processIntersectingRetrievals(retrievals, indexQuery.getLimit()));
+                        otherResults, probes, graph.getConfiguration().getIntersectionPageSize(),
+                        batchVertices ? ids -> getIndexedVertices(ids, query.getPreloadedPropertyKeys()) : null, graph.getConfiguration().getIndexResultBatchSize());
             } else {
                 if (config.hasForceIndexUsage()) throw new JanusGraphException("Could not find a suitable index to answer graph query and graph scans are disabled: " + query);
                 log.warn("Query requires iterating over all vertices [{}]. For better performance, use indexes", query.getCondition());
@@ -1264,6 +1316,51 @@ public class StandardJanusGraphTx extends JanusGraphBlueprintsTransaction implem
         }
     }
 
+    /**
+     * Converts a batch of vertex ids returned by an index into vertices, verifying the existence of those not yet
+     * in the vertex cache (if configured) and loading the given properties of all vertices with one multi-query each.
+     * All properties are loaded if the given keys are empty, or if they are null and
+     * {@link GraphDatabaseConfiguration#INDEX_RESULT_PROPERTIES} is enabled.
+     * Vertices which do not exist are omitted.
+     */
+    private List<JanusGraphElement> getIndexedVertices(List<Object> ids, String[] propertyKeys) {
+        final LongHashSet missing = new LongHashSet();
+        final LongHashSet verified = new LongHashSet();
+        if (internalVertexRetriever.hasVerifyExistence()) {
+            final LongArrayList unknownIds = new LongArrayList(ids.size());
+            for (Object id : ids) {
+                Preconditions.checkArgument(id instanceof Long);
+                final long vertexId = (Long) id;
+                if (!idInspector.isPartitionedVertex(vertexId) && !vertexCache.contains(vertexId)) unknownIds.add(vertexId);
+            }
+            if (!unknownIds.isEmpty()) {
+                final List<EntryList> existence = graph.edgeMultiQuery(unknownIds, graph.vertexExistenceQuery, txHandle);
+                for (int i = 0; i < unknownIds.size(); i++) {
+                    if (existence.get(i).isEmpty()) missing.add(unknownIds.get(i));
+                    else verified.add(unknownIds.get(i));
+                }
+            }
+        }
+        final List<JanusGraphElement> vertices = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Preconditions.checkArgument(id instanceof Long);
+            final long vertexId = (Long) id;
+            if (missing.contains(vertexId)) continue;
+            vertices.add(verified.contains(vertexId) ? getExistingVertex(vertexId) : getInternalVertex(vertexId));
+        }
+        if (propertyKeys == null && graph.getConfiguration().hasIndexResultProperties()) propertyKeys = new String[0];
+        //A single property is accessed by loading all properties when prefetching them, see VertexCentricQueryBuilder
+        if (propertyKeys != null && propertyKeys.length == 1 && config.hasPropertyPrefetching()) propertyKeys = new String[0];
+        if (propertyKeys != null) {
+            final List<JanusGraphVertex> loaded = new ArrayList<>(vertices.size());
+            for (JanusGraphElement vertex : vertices) {
+                if (!vertex.isNew() && !vertex.isRemoved()) loaded.add((JanusGraphVertex) vertex);
+            }
+            if (!loaded.isEmpty()) multiQuery(loaded).keys(propertyKeys).properties();
+        }
+        return vertices;
+    }
+
     private final Function<Object, JanusGraphVertex> vertexIDConversionFct = id -> {
         Preconditions.checkNotNull(id);
         Preconditions.checkArgument(id instanceof Long);
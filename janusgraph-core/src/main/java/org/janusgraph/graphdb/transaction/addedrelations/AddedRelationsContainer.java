@@ -16,6 +16,10 @@ package org.janusgraph.graphdb.transaction.addedrelations;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import org.janusgraph.core.JanusGraphVertexProperty;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.RelationType;
+import org.janusgraph.core.attribute.Cmp;
 import org.janusgraph.graphdb.internal.InternalRelation;
 
 import java.util.Collection;
@@ -33,6 +37,23 @@ public interface AddedRelationsContainer {
 
     List<InternalRelation> getView(Predicate<InternalRelation> filter);
 
+    /**
+     * Returns the relations of one of the given (distinct) types which match the filter.
+     * Implementations may use an index on the relation type rather than inspecting all relations.
+     */
+    default List<InternalRelation> getView(Collection<? extends RelationType> types, Predicate<InternalRelation> filter) {
+        return getView(relation -> types.contains(relation.getType()) && filter.apply(relation));
+    }
+
+    /**
+     * Returns the properties of the given key which are {@link Cmp#EQUAL} to the given value and match the filter.
+     * Implementations may use an index on the property values rather than inspecting all relations.
+     */
+    default List<InternalRelation> getView(PropertyKey key, Object value, Predicate<InternalRelation> filter) {
+        return getView(relation -> relation.isProperty() && key.equals(relation.getType())
+            && Cmp.EQUAL.test(((JanusGraphVertexProperty) relation).value(), value) && filter.apply(relation));
+    }
+
     boolean isEmpty();
 
     /**
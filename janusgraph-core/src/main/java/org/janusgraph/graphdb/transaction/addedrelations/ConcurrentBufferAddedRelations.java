@@ -15,8 +15,11 @@
 package org.janusgraph.graphdb.transaction.addedrelations;
 
 import com.google.common.base.Predicate;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.RelationType;
 import org.janusgraph.graphdb.internal.InternalRelation;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -45,4 +48,14 @@ public class ConcurrentBufferAddedRelations extends SimpleBufferAddedRelations {
         return super.getView(filter);
     }
 
+    @Override
+    public synchronized List<InternalRelation> getView(Collection<? extends RelationType> types, Predicate<InternalRelation> filter) {
+        return super.getView(types, filter);
+    }
+
+    @Override
+    public synchronized List<InternalRelation> getView(PropertyKey key, Object value, Predicate<InternalRelation> filter) {
+        return super.getView(key, value, filter);
+    }
+
 }
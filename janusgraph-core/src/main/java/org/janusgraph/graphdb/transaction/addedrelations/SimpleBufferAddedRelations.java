@@ -15,11 +15,18 @@
 package org.janusgraph.graphdb.transaction.addedrelations;
 
 import com.google.common.base.Predicate;
+import org.janusgraph.core.JanusGraphVertexProperty;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.RelationType;
 import org.janusgraph.graphdb.internal.InternalRelation;
 
 import java.util.*;
 
 /**
+ * Buffers the added relations in a list. Lookups by relation type or property value are answered from indexes
+ * which are only built once the first such lookup happens, so that transactions which never query their own
+ * additions do not pay for them, and which are maintained on every change from then on.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 
@@ -32,6 +39,9 @@ public class SimpleBufferAddedRelations implements AddedRelationsContainer {
     private List<InternalRelation> added;
     private List<InternalRelation> deleted;
 
+    private Map<RelationType, Set<InternalRelation>> typeIndex;
+    private Map<PropertyKey, Map<Object, Set<InternalRelation>>> valueIndex;
+
     public SimpleBufferAddedRelations() {
         added = new ArrayList<>(INITIAL_ADDED_SIZE);
         deleted = null;
@@ -39,12 +49,14 @@ public class SimpleBufferAddedRelations implements AddedRelationsContainer {
 
     @Override
     public boolean add(InternalRelation relation) {
+        if (typeIndex != null) index(relation);
         return added.add(relation);
     }
 
     @Override
     public boolean remove(InternalRelation relation) {
         if (added.isEmpty()) return false;
+        if (typeIndex != null) unindex(relation);
         if (deleted==null) deleted = new ArrayList<>(INITIAL_DELETED_SIZE);
         boolean del = deleted.add(relation);
         if (deleted.size()>MAX_DELETED_SIZE) cleanup();
@@ -78,6 +90,68 @@ public class SimpleBufferAddedRelations implements AddedRelationsContainer {
         return result;
     }
 
+    @Override
+    public List<InternalRelation> getView(Collection<? extends RelationType> types, Predicate<InternalRelation> filter) {
+        buildIndexes();
+        final List<InternalRelation> result = new ArrayList<>();
+        for (RelationType type : types) {
+            final Set<InternalRelation> relations = typeIndex.get(type);
+            if (relations == null) continue;
+            for (InternalRelation r : relations) {
+                if (filter.apply(r)) result.add(r);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<InternalRelation> getView(PropertyKey key, Object value, Predicate<InternalRelation> filter) {
+        if (!isIndexable(value)) return AddedRelationsContainer.super.getView(key, value, filter);
+        buildIndexes();
+        final Map<Object, Set<InternalRelation>> values = valueIndex.get(key);
+        final Set<InternalRelation> relations = values == null ? null : values.get(value);
+        if (relations == null) return new ArrayList<>(0);
+        final List<InternalRelation> result = new ArrayList<>(relations.size());
+        for (InternalRelation r : relations) {
+            if (filter.apply(r)) result.add(r);
+        }
+        return result;
+    }
+
+    private static boolean isIndexable(Object value) {
+        //Array values are not compared by equals() and hence cannot be looked up in a hash map
+        return value != null && !value.getClass().isArray();
+    }
+
+    private void buildIndexes() {
+        if (typeIndex != null) return;
+        cleanup();
+        typeIndex = new HashMap<>();
+        valueIndex = new HashMap<>();
+        for (InternalRelation r : added) index(r);
+    }
+
+    private void index(InternalRelation relation) {
+        typeIndex.computeIfAbsent(relation.getType(), t -> new LinkedHashSet<>()).add(relation);
+        if (relation.isProperty()) {
+            final Object value = ((JanusGraphVertexProperty) relation).value();
+            if (isIndexable(value)) {
+                valueIndex.computeIfAbsent((PropertyKey) relation.getType(), k -> new HashMap<>())
+                    .computeIfAbsent(value, v -> new LinkedHashSet<>()).add(relation);
+            }
+        }
+    }
+
+    private void unindex(InternalRelation relation) {
+        final Set<InternalRelation> relations = typeIndex.get(relation.getType());
+        if (relations != null) relations.remove(relation);
+        if (relation.isProperty()) {
+            final Map<Object, Set<InternalRelation>> values = valueIndex.get(relation.getType());
+            final Set<InternalRelation> valueRelations = values == null ? null : values.get(((JanusGraphVertexProperty) relation).value());
+            if (valueRelations != null) valueRelations.remove(relation);
+        }
+    }
+
     @Override
     public Collection<InternalRelation> getAll() {
         cleanup();
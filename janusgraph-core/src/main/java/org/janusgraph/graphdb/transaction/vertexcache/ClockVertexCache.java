@@ -0,0 +1,291 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.transaction.vertexcache;
+
+import com.google.common.base.Preconditions;
+import org.janusgraph.graphdb.internal.InternalVertex;
+import org.janusgraph.graphdb.vertices.AbstractVertex;
+import org.janusgraph.util.datastructures.Retriever;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cliffc.high_scale_lib.NonBlockingHashMapLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link VertexCache} which keeps the recently-used vertices in open addressing hash tables keyed by the primitive
+ * vertex id and evicts according to the CLOCK (second chance) policy. Contrary to {@link GuavaVertexCache} and
+ * {@link LRUVertexCache}, cache hits and the bookkeeping for eviction do not allocate any objects.
+ * <p>
+ * The cache is split into segments by vertex id, each guarded by its own lock, according to the concurrency level.
+ * The tables of a segment start small and grow with the number of cached vertices up to the maximum cache size.
+ */
+public class ClockVertexCache implements VertexCache {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(ClockVertexCache.class);
+
+    private static final long EMPTY = 0;
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 29;
+
+    private final NonBlockingHashMapLong<InternalVertex> volatileVertices;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    public ClockVertexCache(final long maxCacheSize, final int concurrencyLevel, final int initialDirtySize) {
+        Preconditions.checkArgument(maxCacheSize > 0, "Invalid cache size: %s", maxCacheSize);
+        Preconditions.checkArgument(concurrencyLevel > 0, "Invalid concurrency level: %s", concurrencyLevel);
+        volatileVertices = new NonBlockingHashMapLong<>(initialDirtySize);
+        log.debug("Created dirty vertex map with initial size {}", initialDirtySize);
+
+        int numSegments = 1;
+        while (numSegments < concurrencyLevel && numSegments < maxCacheSize) numSegments <<= 1;
+        final int segmentCapacity = (int) Math.min((maxCacheSize + numSegments - 1) / numSegments, MAX_SEGMENT_CAPACITY);
+        segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) segments[i] = new Segment(segmentCapacity);
+        segmentMask = numSegments - 1;
+        log.debug("Created vertex cache with max size {} in {} segments", maxCacheSize, numSegments);
+    }
+
+    private static long hash(long id) {
+        final long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    @Override
+    public boolean contains(long id) {
+        final long hash = hash(id);
+        return segmentFor(hash).contains(id, hash) || volatileVertices.containsKey(id);
+    }
+
+    @Override
+    public InternalVertex get(final long id, final Retriever<Long, InternalVertex> retriever) {
+        Preconditions.checkArgument(id != EMPTY);
+        final long hash = hash(id);
+        final Segment segment = segmentFor(hash);
+
+        InternalVertex vertex = segment.get(id, hash);
+
+        if (vertex == null) {
+            InternalVertex newVertex = volatileVertices.get(id);
+
+            if (newVertex == null) {
+                newVertex = retriever.get(id);
+            }
+            assert newVertex != null;
+            vertex = segment.putIfAbsent(id, hash, newVertex);
+        }
+
+        return vertex;
+    }
+
+    @Override
+    public void add(InternalVertex vertex, long id) {
+        Preconditions.checkNotNull(vertex);
+        Preconditions.checkArgument(id != EMPTY);
+        final long hash = hash(id);
+
+        segmentFor(hash).put(id, hash, vertex);
+        if (vertex.isNew() || vertex.hasAddedRelations())
+            volatileVertices.put(id, vertex);
+    }
+
+    @Override
+    public List<InternalVertex> getAllNew() {
+        final List<InternalVertex> vertices = new ArrayList<>(10);
+        for (InternalVertex v : volatileVertices.values()) {
+            if (v.isNew()) vertices.add(v);
+        }
+        return vertices;
+    }
+
+    @Override
+    public synchronized void close() {
+        volatileVertices.clear();
+        for (Segment segment : segments) segment.clear();
+    }
+
+    /**
+     * Called for a vertex which is evicted from the cache or replaced by another vertex with the same id.
+     */
+    private void removed(long id, InternalVertex vertex) {
+        if (((AbstractVertex) vertex).isTxOpen() && vertex.isModified()) {
+            volatileVertices.putIfAbsent(id, vertex);
+        } else {
+            vertex.evictedFromCache();
+        }
+    }
+
+    /**
+     * A linear probing hash table holding at most {@link #capacity} vertices. The table is never more than half full
+     * and entries are removed by shifting subsequent entries back, hence there are no tombstones.
+     */
+    private class Segment {
+
+        private final int capacity;
+        private final int maxTableSize;
+
+        private long[] keys;
+        private InternalVertex[] values;
+        private boolean[] referenced;
+        private int size;
+        private int hand;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            int tableSize = INITIAL_TABLE_SIZE;
+            while (tableSize < 2 * capacity) tableSize <<= 1;
+            maxTableSize = tableSize;
+            allocate(INITIAL_TABLE_SIZE);
+        }
+
+        private void allocate(int tableSize) {
+            keys = new long[tableSize];
+            values = new InternalVertex[tableSize];
+            referenced = new boolean[tableSize];
+            size = 0;
+            hand = 0;
+        }
+
+        private int indexOf(long id, long hash) {
+            final int mask = keys.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == EMPTY) return -1;
+                if (keys[i] == id) return i;
+            }
+        }
+
+        private synchronized boolean contains(long id, long hash) {
+            return indexOf(id, hash) >= 0;
+        }
+
+        private synchronized InternalVertex get(long id, long hash) {
+            final int i = indexOf(id, hash);
+            if (i < 0) return null;
+            referenced[i] = true;
+            return values[i];
+        }
+
+        /**
+         * Adds the given vertex unless the id is already cached and returns the cached vertex.
+         */
+        private synchronized InternalVertex putIfAbsent(long id, long hash, InternalVertex vertex) {
+            final int i = indexOf(id, hash);
+            if (i >= 0) {
+                referenced[i] = true;
+                return values[i];
+            }
+            insert(id, hash, vertex);
+            return vertex;
+        }
+
+        private synchronized void put(long id, long hash, InternalVertex vertex) {
+            final int i = indexOf(id, hash);
+            if (i < 0) {
+                insert(id, hash, vertex);
+                return;
+            }
+            referenced[i] = true;
+            if (values[i] != vertex) {
+                final InternalVertex previous = values[i];
+                values[i] = vertex;
+                removed(id, previous);
+            }
+        }
+
+        private void insert(long id, long hash, InternalVertex vertex) {
+            if (size >= capacity) evict();
+            else if (size >= keys.length >> 1) grow();
+            final int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = id;
+            values[i] = vertex;
+            referenced[i] = false;
+            size++;
+        }
+
+        /**
+         * Advances the clock hand to the first vertex which was not referenced since the hand last passed it,
+         * clearing the reference bits on the way, and evicts that vertex.
+         */
+        private void evict() {
+            final int mask = keys.length - 1;
+            while (true) {
+                final int i = hand;
+                hand = (hand + 1) & mask;
+                if (keys[i] == EMPTY) continue;
+                if (referenced[i]) {
+                    referenced[i] = false;
+                    continue;
+                }
+                final long id = keys[i];
+                final InternalVertex vertex = values[i];
+                remove(i);
+                removed(id, vertex);
+                return;
+            }
+        }
+
+        private void remove(int slot) {
+            final int mask = keys.length - 1;
+            int gap = slot;
+            for (int i = (slot + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                final int home = (int) hash(keys[i]) & mask;
+                //Move the entry into the gap unless the gap lies before its home position
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    referenced[gap] = referenced[i];
+                    gap = i;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = null;
+            referenced[gap] = false;
+            size--;
+        }
+
+        private void grow() {
+            assert keys.length < maxTableSize;
+            final long[] oldKeys = keys;
+            final InternalVertex[] oldValues = values;
+            final boolean[] oldReferenced = referenced;
+            final int oldSize = size;
+            allocate(oldKeys.length << 1);
+            final int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == EMPTY) continue;
+                int i = (int) hash(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+                referenced[i] = oldReferenced[j];
+            }
+            size = oldSize;
+        }
+
+        private synchronized void clear() {
+            allocate(INITIAL_TABLE_SIZE);
+        }
+    }
+}
@@ -52,6 +52,8 @@ public class GuavaVertexCache implements VertexCache {
                     final InternalVertex v = notification.getValue();
                     if (((AbstractVertex) v).isTxOpen() && v.isModified()) {
                         volatileVertices.putIfAbsent(notification.getKey(), v);
+                    } else {
+                        v.evictedFromCache();
                     }
                 })
                 .build();
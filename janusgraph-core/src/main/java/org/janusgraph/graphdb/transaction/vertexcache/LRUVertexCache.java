@@ -42,6 +42,8 @@ public class LRUVertexCache implements VertexCache {
 
                 if (vertex.isModified()) {
                     volatileVertices.putIfAbsent(vertexId, vertex);
+                } else {
+                    vertex.evictedFromCache();
                 }
             });
 
@@ -0,0 +1,55 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.transaction.vertexcache;
+
+/**
+ * The {@link VertexCache} implementations a transaction can use to cache recently-used vertices.
+ */
+public enum VertexCacheType {
+
+    /**
+     * {@link GuavaVertexCache}: a Guava cache with LRU eviction keyed by boxed vertex ids.
+     */
+    GUAVA {
+        @Override
+        public VertexCache create(long maxCacheSize, int concurrencyLevel, int initialDirtySize) {
+            return new GuavaVertexCache(maxCacheSize, concurrencyLevel, initialDirtySize);
+        }
+    },
+
+    /**
+     * {@link LRUVertexCache}: a concurrent LRU cache which evicts in batches once a high watermark is reached.
+     */
+    LRU {
+        @Override
+        public VertexCache create(long maxCacheSize, int concurrencyLevel, int initialDirtySize) {
+            return new LRUVertexCache((int) Math.min(maxCacheSize, Integer.MAX_VALUE));
+        }
+    },
+
+    /**
+     * {@link ClockVertexCache}: an open addressing table keyed by primitive vertex ids with CLOCK eviction which
+     * does not allocate on lookups.
+     */
+    CLOCK {
+        @Override
+        public VertexCache create(long maxCacheSize, int concurrencyLevel, int initialDirtySize) {
+            return new ClockVertexCache(maxCacheSize, concurrencyLevel, initialDirtySize);
+        }
+    };
+
+    public abstract VertexCache create(long maxCacheSize, int concurrencyLevel, int initialDirtySize);
+
+}
@@ -18,8 +18,10 @@
 package org.janusgraph.graphdb.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -30,7 +32,9 @@ import org.janusgraph.graphdb.database.IndexSerializer;
 import org.janusgraph.graphdb.query.graph.JointIndexQuery;
 import org.janusgraph.graphdb.query.profile.QueryProfiler;
 
+import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
+import com.google.common.collect.Iterators;
 
 /**
  * @author davidclement90@laposte.net
@@ -45,13 +49,44 @@ public class SubqueryIterator implements Iterator<JanusGraphElement>, AutoClosea
 
     private List<Object> currentIds;
 
+    private int numIds = 0;
+
     private QueryProfiler profiler;
 
     private boolean isTimerRunning;
 
     public SubqueryIterator(JointIndexQuery.Subquery subQuery, IndexSerializer indexSerializer, BackendTransaction tx,
             Cache<JointIndexQuery.Subquery, List<Object>> indexCache, int limit,
-            Function<Object, ? extends JanusGraphElement> function, List<Object> otherResults) {
+            Function<Object, ? extends JanusGraphElement> function, Set<Object> otherResults) {
+        this(subQuery, indexSerializer, tx, indexCache, limit, function, otherResults, Collections.emptyList(), 1);
+    }
+
+    /**
+     * Returns the elements of the given subquery which are contained in the given results of other subqueries and,
+     * retrieving the ids in pages of the given size, in the results of the given composite index subqueries as
+     * determined by {@link IndexSerializer#probe(JointIndexQuery.Subquery, List, BackendTransaction)}.
+     * The results of a subquery are only cached if there is nothing to probe, since they would otherwise be held
+     * in memory completely.
+     */
+    public SubqueryIterator(JointIndexQuery.Subquery subQuery, IndexSerializer indexSerializer, BackendTransaction tx,
+            Cache<JointIndexQuery.Subquery, List<Object>> indexCache, int limit,
+            Function<Object, ? extends JanusGraphElement> function, Set<Object> otherResults,
+            List<JointIndexQuery.Subquery> probes, int pageSize) {
+        this(subQuery, indexSerializer, tx, indexCache, limit, function, otherResults, probes, pageSize, null, 1);
+    }
+
+    /**
+     * Like {@link #SubqueryIterator(JointIndexQuery.Subquery, IndexSerializer, BackendTransaction, Cache, int, Function, Set, List, int)}
+     * but, if a batch conversion is given, converts the resulting ids into elements in batches of the given size
+     * instead of converting them one at a time with the given function.
+     */
+    public SubqueryIterator(JointIndexQuery.Subquery subQuery, IndexSerializer indexSerializer, BackendTransaction tx,
+            Cache<JointIndexQuery.Subquery, List<Object>> indexCache, int limit,
+            Function<Object, ? extends JanusGraphElement> function, Set<Object> otherResults,
+            List<JointIndexQuery.Subquery> probes, int pageSize,
+            Function<List<Object>, List<? extends JanusGraphElement>> batchConversion, int batchSize) {
+        Preconditions.checkArgument(pageSize > 0, "Invalid page size: %s", pageSize);
+        Preconditions.checkArgument(batchSize > 0, "Invalid batch size: %s", batchSize);
         this.subQuery = subQuery;
         this.indexCache = indexCache;
         final List<Object> cacheResponse = indexCache.getIfPresent(subQuery);
@@ -60,24 +95,43 @@ public class SubqueryIterator implements Iterator<JanusGraphElement>, AutoClosea
             stream = cacheResponse.stream();
         } else {
             try {
-                currentIds = new ArrayList<>();
+                if (probes.isEmpty()) currentIds = new ArrayList<>();
                 profiler = QueryProfiler.startProfile(subQuery.getProfiler(), subQuery);
                 isTimerRunning = true;
-                stream = indexSerializer.query(subQuery, tx).peek(r -> currentIds.add(r));
+                stream = indexSerializer.query(subQuery, tx).peek(r -> {
+                    numIds++;
+                    if (currentIds != null) currentIds.add(r);
+                });
             } catch (final Exception e) {
                 throw new JanusGraphException("Could not call index", e.getCause());
             }
         }
-        elementIterator = stream.limit(limit).filter(e -> otherResults == null || otherResults.contains(e)).map(function).map(r -> (JanusGraphElement) r).iterator();
+        Iterator<Object> ids = stream.limit(limit).filter(e -> otherResults == null || otherResults.contains(e)).map(e -> (Object) e).iterator();
+        if (!probes.isEmpty()) {
+            ids = Iterators.concat(Iterators.transform(Iterators.partition(ids, pageSize), page -> {
+                List<Object> matches = page;
+                for (JointIndexQuery.Subquery probe : probes) {
+                    if (matches.isEmpty()) break;
+                    matches = indexSerializer.probe(probe, matches, tx);
+                }
+                return matches.iterator();
+            }));
+        }
+        if (batchConversion == null) {
+            elementIterator = Iterators.transform(ids, function::apply);
+        } else {
+            elementIterator = Iterators.concat(Iterators.transform(Iterators.partition(ids, batchSize),
+                batch -> batchConversion.apply(batch).iterator()));
+        }
     }
 
     @Override
     public boolean hasNext() {
-        if (!elementIterator.hasNext() && currentIds != null) {
-            indexCache.put(subQuery, currentIds);
+        if (!elementIterator.hasNext() && isTimerRunning) {
+            if (currentIds != null) indexCache.put(subQuery, currentIds);
             profiler.stopTimer();
             isTimerRunning = false;
-            profiler.setResultSize(currentIds.size());
+            profiler.setResultSize(numIds);
         }
         return elementIterator.hasNext();
     }
@@ -15,40 +15,86 @@
 package org.janusgraph.graphdb.vertices;
 
 import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.StaticBuffer;
 import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
 import org.janusgraph.util.datastructures.Retriever;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
+ * A vertex which caches the results of the slice queries executed against it.
+ * <p>
+ * The cached results are kept in an immutable {@link QueryCache} snapshot, a treap ordered by slice start in which
+ * every node holds the largest slice end of its subtree. Writers insert into a copy of the path to the new node under
+ * the vertex monitor, reads never lock and find the cached query which subsumes a given query by only descending into
+ * the subtrees whose slice ranges can contain it. The amount of adjacency data cached by all vertices of a
+ * transaction is bounded by {@link StandardJanusGraphTx#admitToQueryCache(EntryList)}. A vertex releases its share
+ * of that budget once it is evicted from the vertex cache of the transaction.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 
 public class CacheVertex extends StandardVertex {
-    // We don't try to be smart and match with previous queries
-    // because that would waste more cycles on lookup than save actual memory
-    // We use a normal map with synchronization since the likelihood of contention
-    // is super low in a single transaction
-    protected final Map<SliceQuery, EntryList> queryCache;
+
+    private volatile QueryCache queryCache = QueryCache.EMPTY;
+    /**
+     * Number of bytes of the cached results which are accounted against the query cache size of the transaction
+     */
+    private long admittedWeight = 0;
+    private boolean evicted = false;
 
     public CacheVertex(StandardJanusGraphTx tx, long id, byte lifecycle) {
         super(tx, id, lifecycle);
-        queryCache = new HashMap<>(4);
     }
 
     protected void addToQueryCache(final SliceQuery query, final EntryList entries) {
-        synchronized (queryCache) {
-            //TODO: become smarter about what to cache and when (e.g. memory pressure)
-            queryCache.put(query, entries);
+        synchronized (this) {
+            queryCache = queryCache.with(query, entries);
         }
     }
 
     protected int getQueryCacheSize() {
-        synchronized (queryCache) {
-            return queryCache.size();
+        return queryCache.size();
+    }
+
+    protected EntryList getFromQueryCache(final SliceQuery query) {
+        return queryCache.get(query);
+    }
+
+    /**
+     * Caches the result if the transaction admits it. A result which replaces a result cached for the same query by
+     * a concurrent load releases the weight of the replaced one. Results of a vertex which has been evicted from the
+     * vertex cache are not cached since they could no longer be accounted against the transaction.
+     */
+    private void admitToQueryCache(final SliceQuery query, final EntryList result) {
+        synchronized (this) {
+            if (evicted) return;
+        }
+        if (!tx().admitToQueryCache(result)) return;
+        long released;
+        synchronized (this) {
+            if (evicted) {
+                released = result.getByteSize();
+            } else {
+                final EntryList previous = queryCache.get(query);
+                queryCache = queryCache.with(query, result);
+                released = previous == null ? 0 : Math.min(previous.getByteSize(), admittedWeight);
+                admittedWeight += result.getByteSize() - released;
+            }
+        }
+        if (released > 0) tx().releaseFromQueryCache(released);
+    }
+
+    @Override
+    public void evictedFromCache() {
+        final long released;
+        synchronized (this) {
+            evicted = true;
+            released = admittedWeight;
+            admittedWeight = 0;
         }
+        if (released > 0) tx().releaseFromQueryCache(released);
     }
 
     @Override
@@ -56,41 +102,132 @@ public class CacheVertex extends StandardVertex {
         if (isNew())
             return EntryList.EMPTY_LIST;
 
-        EntryList result;
-        synchronized (queryCache) {
-            result = queryCache.get(query);
-        }
+        final QueryCache cache = queryCache;
+        EntryList result = cache.get(query);
         if (result == null) {
             //First check for super
-            Map.Entry<SliceQuery, EntryList> superset = getSuperResultSet(query);
+            final QueryCache.Node superset = cache.getSuperResultSet(query);
             if (superset == null) {
                 result = lookup.get(query);
             } else {
-                result = query.getSubset(superset.getKey(), superset.getValue());
+                result = query.getSubset(superset.query, superset.result);
             }
-            addToQueryCache(query, result);
-
+            admitToQueryCache(query, result);
         }
         return result;
     }
 
     @Override
     public boolean hasLoadedRelations(final SliceQuery query) {
-        synchronized (queryCache) {
-            return queryCache.get(query) != null || getSuperResultSet(query) != null;
-        }
+        final QueryCache cache = queryCache;
+        return cache.get(query) != null || cache.getSuperResultSet(query) != null;
     }
 
-    private Map.Entry<SliceQuery, EntryList> getSuperResultSet(final SliceQuery query) {
+    /**
+     * Immutable set of cached slice queries and their results, organized as a treap which is ordered by slice start,
+     * slice end and limit and heap-ordered by random priorities. Each node holds the largest slice end within its
+     * subtree which allows to skip all subtrees that cannot contain a query subsuming a requested slice. Inserting
+     * copies the nodes on the path to the new node only, so that previous snapshots remain valid for readers.
+     */
+    private static final class QueryCache {
+
+        private static final QueryCache EMPTY = new QueryCache(null, 0);
+
+        private final Node root;
+        private final int size;
+
+        private QueryCache(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private static int compare(SliceQuery a, SliceQuery b) {
+            int cmp = a.getSliceStart().compareTo(b.getSliceStart());
+            if (cmp == 0) cmp = a.getSliceEnd().compareTo(b.getSliceEnd());
+            if (cmp == 0) cmp = Integer.compare(a.getLimit(), b.getLimit());
+            return cmp;
+        }
+
+        private EntryList get(SliceQuery query) {
+            Node node = root;
+            while (node != null) {
+                final int cmp = compare(query, node.query);
+                if (cmp == 0) return node.result;
+                node = cmp < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+
+        private Node getSuperResultSet(SliceQuery query) {
+            return getSuperResultSet(root, query);
+        }
+
+        private static Node getSuperResultSet(Node node, SliceQuery query) {
+            while (node != null && node.maxEnd.compareTo(query.getSliceEnd()) >= 0) {
+                final Node left = getSuperResultSet(node.left, query);
+                if (left != null) return left;
+                //The node and its right subtree start after the requested slice
+                if (node.query.getSliceStart().compareTo(query.getSliceStart()) > 0) return null;
+                if (node.query.subsumes(query)) return node;
+                node = node.right;
+            }
+            return null;
+        }
+
+        private QueryCache with(SliceQuery query, EntryList result) {
+            final boolean exists = get(query) != null;
+            return new QueryCache(insert(root, query, result, ThreadLocalRandom.current().nextInt()),
+                    exists ? size : size + 1);
+        }
 
-        synchronized (queryCache) {
-            if (queryCache.size() > 0) {
-                for (Map.Entry<SliceQuery, EntryList> entry : queryCache.entrySet()) {
-                    if (entry.getKey().subsumes(query)) return entry;
+        private static Node insert(Node node, SliceQuery query, EntryList result, int priority) {
+            if (node == null) return new Node(query, result, priority, null, null);
+            final int cmp = compare(query, node.query);
+            if (cmp == 0) return new Node(query, result, node.priority, node.left, node.right);
+            if (cmp < 0) {
+                final Node left = insert(node.left, query, result, priority);
+                if (left.priority > node.priority) {
+                    //Rotate right
+                    return new Node(left.query, left.result, left.priority, left.left,
+                            new Node(node.query, node.result, node.priority, left.right, node.right));
+                }
+                return new Node(node.query, node.result, node.priority, left, node.right);
+            } else {
+                final Node right = insert(node.right, query, result, priority);
+                if (right.priority > node.priority) {
+                    //Rotate left
+                    return new Node(right.query, right.result, right.priority,
+                            new Node(node.query, node.result, node.priority, node.left, right.left), right.right);
                 }
+                return new Node(node.query, node.result, node.priority, node.left, right);
+            }
+        }
+
+        private static final class Node {
+
+            private final SliceQuery query;
+            private final EntryList result;
+            private final int priority;
+            private final Node left;
+            private final Node right;
+            private final StaticBuffer maxEnd;
+
+            private Node(SliceQuery query, EntryList result, int priority, Node left, Node right) {
+                this.query = query;
+                this.result = result;
+                this.priority = priority;
+                this.left = left;
+                this.right = right;
+                StaticBuffer end = query.getSliceEnd();
+                if (left != null && left.maxEnd.compareTo(end) > 0) end = left.maxEnd;
+                if (right != null && right.maxEnd.compareTo(end) > 0) end = right.maxEnd;
+                this.maxEnd = end;
             }
         }
-        return null;
     }
 
 }
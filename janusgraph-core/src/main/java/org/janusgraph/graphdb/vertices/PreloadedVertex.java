@@ -68,7 +68,7 @@ public class PreloadedVertex extends CacheVertex {
     }
 
     public EntryList getFromCache(final SliceQuery query) {
-        return queryCache.get(query);
+        return getFromQueryCache(query);
     }
 
     @Override
@@ -81,6 +81,24 @@ public interface CQLConfigOptions {
             ConfigOption.Type.MASKABLE,
             false);
 
+    // Multi-key slice queries
+    ConfigOption<Integer> MULTI_QUERY_MAX_IN_FLIGHT = new ConfigOption<>(
+            CQL_NS,
+            "multi-query-max-in-flight",
+            "The maximum number of asynchronous slice queries a single multi-key query may have outstanding against " +
+                    "Cassandra at any time",
+            ConfigOption.Type.MASKABLE,
+            256,
+            ConfigOption.positiveInt());
+
+    ConfigOption<Boolean> MULTI_QUERY_TOKEN_ORDERED = new ConfigOption<>(
+            CQL_NS,
+            "multi-query-token-ordered",
+            "Whether the slice queries of a multi-key query are issued in partitioner token order, so that queries " +
+                    "against the same replicas are sent together",
+            ConfigOption.Type.MASKABLE,
+            true);
+
     // Replication
     ConfigOption<Integer> REPLICATION_FACTOR = new ConfigOption<>(
             CQL_NS,
@@ -43,13 +43,18 @@ import static org.janusgraph.diskstorage.cql.CQLConfigOptions.CF_COMPRESSION_BLO
 import static org.janusgraph.diskstorage.cql.CQLConfigOptions.CF_COMPRESSION_TYPE;
 import static org.janusgraph.diskstorage.cql.CQLConfigOptions.COMPACTION_OPTIONS;
 import static org.janusgraph.diskstorage.cql.CQLConfigOptions.COMPACTION_STRATEGY;
+import static org.janusgraph.diskstorage.cql.CQLConfigOptions.MULTI_QUERY_MAX_IN_FLIGHT;
+import static org.janusgraph.diskstorage.cql.CQLConfigOptions.MULTI_QUERY_TOKEN_ORDERED;
 import static org.janusgraph.diskstorage.cql.CQLTransaction.getTransaction;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 
 import org.janusgraph.diskstorage.BackendException;
@@ -75,20 +80,25 @@ import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.Token;
 import com.datastax.driver.core.exceptions.QueryValidationException;
 import com.datastax.driver.core.exceptions.UnsupportedFeatureException;
 import com.datastax.driver.core.schemabuilder.TableOptions.CompactionOptions;
 import com.datastax.driver.core.schemabuilder.TableOptions.CompressionOptions;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import io.vavr.Lazy;
 import io.vavr.Tuple;
+import io.vavr.Tuple2;
 import io.vavr.Tuple3;
 import io.vavr.collection.Array;
 import io.vavr.collection.Iterator;
+import io.vavr.collection.Seq;
 import io.vavr.concurrent.Future;
 import io.vavr.control.Try;
 
@@ -128,6 +138,8 @@ public class CQLKeyColumnValueStore implements KeyColumnValueStore {
     private final String tableName;
     private final CQLColValGetter getter;
     private final Runnable closer;
+    private final int multiQueryMaxInFlight;
+    private final boolean multiQueryTokenOrdered;
 
     private final PreparedStatement getSlice;
     private final PreparedStatement getKeysAll;
@@ -151,6 +163,8 @@ public class CQLKeyColumnValueStore implements KeyColumnValueStore {
         this.closer = closer;
         this.session = this.storeManager.getSession();
         this.getter = new CQLColValGetter(storeManager.getMetaDataSchema(this.tableName));
+        this.multiQueryMaxInFlight = configuration.get(MULTI_QUERY_MAX_IN_FLIGHT);
+        this.multiQueryTokenOrdered = configuration.get(MULTI_QUERY_TOKEN_ORDERED);
 
         initializeTable(this.session, this.storeManager.getKeyspaceName(), tableName, configuration);
 
@@ -266,20 +280,63 @@ public class CQLKeyColumnValueStore implements KeyColumnValueStore {
     public EntryList getSlice(final KeySliceQuery query, final StoreTransaction txh) throws BackendException {
         final Future<EntryList> result = Future.fromJavaFuture(
                 this.executorService,
-                this.session.executeAsync(this.getSlice.bind()
-                        .setBytes(KEY_BINDING, query.getKey().asByteBuffer())
-                        .setBytes(SLICE_START_BINDING, query.getSliceStart().asByteBuffer())
-                        .setBytes(SLICE_END_BINDING, query.getSliceEnd().asByteBuffer())
-                        .setInt(LIMIT_BINDING, query.getLimit())
-                        .setConsistencyLevel(getTransaction(txh).getReadConsistencyLevel())))
+                this.session.executeAsync(bindGetSlice(query.getKey(), query, txh)))
                 .map(resultSet -> fromResultSet(resultSet, this.getter));
         interruptibleWait(result);
         return result.getValue().get().getOrElseThrow(EXCEPTION_MAPPER);
     }
 
+    /**
+     * Issues one asynchronous slice query per key and waits once for all of them to complete. At most
+     * {@link CQLConfigOptions#MULTI_QUERY_MAX_IN_FLIGHT} queries are outstanding at any time. When
+     * {@link CQLConfigOptions#MULTI_QUERY_TOKEN_ORDERED} is enabled, the queries are issued in token order so that
+     * queries routed to the same replicas are sent together.
+     */
     @Override
     public Map<StaticBuffer, EntryList> getSlice(final List<StaticBuffer> keys, final SliceQuery query, final StoreTransaction txh) throws BackendException {
-        throw new UnsupportedOperationException("The CQL backend does not support multi-key queries");
+        final List<StaticBuffer> orderedKeys = this.multiQueryTokenOrdered ? tokenOrdered(keys) : keys;
+        final Semaphore inFlight = new Semaphore(this.multiQueryMaxInFlight);
+        final List<ResultSetFuture> resultSets = new ArrayList<>(orderedKeys.size());
+        try {
+            for (final StaticBuffer key : orderedKeys) {
+                inFlight.acquire();
+                final ResultSetFuture resultSet = this.session.executeAsync(bindGetSlice(key, query, txh));
+                resultSet.addListener(inFlight::release, MoreExecutors.directExecutor());
+                resultSets.add(resultSet);
+            }
+        } catch (final InterruptedException e) {
+            resultSets.forEach(resultSet -> resultSet.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PermanentBackendException(e);
+        }
+
+        final Future<Seq<Tuple2<StaticBuffer, EntryList>>> result = Future.sequence(this.executorService,
+                Iterator.range(0, orderedKeys.size()).map(i -> Future.fromJavaFuture(this.executorService, resultSets.get(i))
+                        .map(resultSet -> Tuple.of(orderedKeys.get(i), fromResultSet(resultSet, this.getter)))));
+        try {
+            interruptibleWait(result);
+        } finally {
+            if (!result.isSuccess()) resultSets.forEach(resultSet -> resultSet.cancel(true));
+        }
+        return result.getValue().get().getOrElseThrow(EXCEPTION_MAPPER).toJavaMap(HashMap::new, Function.identity());
+    }
+
+    private Statement bindGetSlice(final StaticBuffer key, final SliceQuery query, final StoreTransaction txh) {
+        return this.getSlice.bind()
+                .setBytes(KEY_BINDING, key.asByteBuffer())
+                .setBytes(SLICE_START_BINDING, query.getSliceStart().asByteBuffer())
+                .setBytes(SLICE_END_BINDING, query.getSliceEnd().asByteBuffer())
+                .setInt(LIMIT_BINDING, query.getLimit())
+                .setConsistencyLevel(getTransaction(txh).getReadConsistencyLevel());
+    }
+
+    private List<StaticBuffer> tokenOrdered(final List<StaticBuffer> keys) {
+        final Metadata metadata = this.session.getCluster().getMetadata();
+        final Map<StaticBuffer, Token> tokens = new HashMap<>(keys.size());
+        keys.forEach(key -> tokens.put(key, metadata.newToken(key.asByteBuffer())));
+        final List<StaticBuffer> ordered = new ArrayList<>(keys);
+        ordered.sort(Comparator.comparing(tokens::get));
+        return ordered;
     }
 
     /**
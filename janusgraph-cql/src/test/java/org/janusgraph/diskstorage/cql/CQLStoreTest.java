@@ -18,14 +18,22 @@ import static org.janusgraph.diskstorage.cql.CassandraStorageSetup.*;
 import static org.janusgraph.diskstorage.cql.CQLConfigOptions.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.Entry;
+import org.janusgraph.diskstorage.EntryList;
 import org.janusgraph.diskstorage.KeyColumnValueStoreTest;
+import org.janusgraph.diskstorage.KeyValueStoreUtil;
+import org.janusgraph.diskstorage.StaticBuffer;
 import org.janusgraph.diskstorage.configuration.Configuration;
 import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.diskstorage.keycolumnvalue.StoreFeatures;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 import org.janusgraph.testcategory.OrderedKeyStoreTests;
@@ -157,6 +165,56 @@ public class CQLStoreTest extends KeyColumnValueStoreTest {
         assertTrue(features.hasCellTTL());
     }
 
+    @Test
+    public void testMultiKeySlice() throws BackendException {
+        final String[][] values = generateValues();
+        loadValues(values);
+        newTx();
+        checkMultiKeySlice(values.length);
+    }
+
+    @Test
+    public void testMultiKeySliceWithBoundedInFlightQueries() throws BackendException {
+        final String[][] values = generateValues();
+        loadValues(values);
+        close();
+        manager = openStorageManager(getBaseStorageConfiguration()
+            .set(MULTI_QUERY_MAX_IN_FLIGHT, 1)
+            .set(MULTI_QUERY_TOKEN_ORDERED, false));
+        store = manager.openDatabase(storeName);
+        tx = startTx();
+        checkMultiKeySlice(values.length);
+    }
+
+    /**
+     * Compares the result of a multi-key slice over all keys (and one which does not exist) with the results of the
+     * corresponding single-key slices.
+     */
+    private void checkMultiKeySlice(final int numKeys) throws BackendException {
+        final List<StaticBuffer> keys = new ArrayList<>(numKeys + 1);
+        for (int i = 0; i <= numKeys; i++) {
+            keys.add(KeyValueStoreUtil.getBuffer(i));
+        }
+        final SliceQuery query = new SliceQuery(KeyValueStoreUtil.getBuffer(5), KeyValueStoreUtil.getBuffer(25)).setLimit(10);
+
+        final Map<StaticBuffer, EntryList> results = store.getSlice(keys, query, tx);
+        assertEquals(keys.size(), results.size());
+        for (final StaticBuffer key : keys) {
+            final List<StaticBuffer> expected = columns(store.getSlice(new KeySliceQuery(key, query), tx));
+            assertEquals(expected, columns(results.get(key)));
+        }
+        assertEquals(10, results.get(keys.get(0)).size());
+        assertTrue(results.get(keys.get(numKeys)).isEmpty());
+    }
+
+    private static List<StaticBuffer> columns(final EntryList entries) {
+        final List<StaticBuffer> columns = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            columns.add(entry.getColumn());
+        }
+        return columns;
+    }
+
     @Override
     public CQLStoreManager openStorageManagerForClearStorageTest() throws Exception {
         return openStorageManager(getBaseStorageConfiguration().set(GraphDatabaseConfiguration.DROP_ON_CLEAR, true));
@@ -27,10 +27,12 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.janusgraph.diskstorage.es.compat.ES6Compat;
 import org.janusgraph.diskstorage.es.rest.util.HttpAuthTypes;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.apache.commons.lang.StringUtils;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectMapper;
 import org.apache.tinkerpop.shaded.jackson.databind.ObjectWriter;
 import org.apache.tinkerpop.shaded.jackson.databind.SerializationFeature;
@@ -85,12 +87,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -167,6 +177,23 @@ public class ElasticSearchIndex implements IndexProvider {
             new ConfigOption<>(ELASTICSEARCH_NS, "scroll-keep-alive",
             "How long (in seconds) elasticsearch should keep alive the scroll context.", ConfigOption.Type.GLOBAL_OFFLINE, 60);
 
+    public static final ConfigOption<Boolean> ES_SCROLL_PREFETCH =
+            new ConfigOption<>(ELASTICSEARCH_NS, "scroll-prefetch",
+            "Whether to retrieve the next page of a scroll in the background while the current page is being consumed.",
+            ConfigOption.Type.MASKABLE, false);
+
+    public static final ConfigOption<Integer> ES_SCROLL_SLICES =
+            new ConfigOption<>(ELASTICSEARCH_NS, "scroll-slices",
+            "Number of slices into which unordered queries with more results than fit into one page are split. " +
+            "The slices are scrolled in parallel (requires Elasticsearch 5.x or later).",
+            ConfigOption.Type.MASKABLE, 1, ConfigOption.positiveInt());
+
+    public static final ConfigOption<Integer> ES_SCROLL_THREADS =
+            new ConfigOption<>(ELASTICSEARCH_NS, "scroll-threads",
+            "Maximum number of threads retrieving scroll pages in the background for prefetching and sliced scrolls. " +
+            "Further retrievals wait until a thread becomes available.",
+            ConfigOption.Type.MASKABLE, 8, ConfigOption.positiveInt());
+
     public static final ConfigNamespace ES_INGEST_PIPELINES =
             new ConfigNamespace(ELASTICSEARCH_NS, "ingest-pipeline", "Ingest pipeline applicable to a store of an index.");
 
@@ -281,6 +308,12 @@ public class ElasticSearchIndex implements IndexProvider {
     private final boolean useAllField;
     private final boolean useMultitypeIndex;
     private final Map<String, Object> ingestPipelines;
+    private final boolean scrollPrefetch;
+    private final int scrollSlices;
+    /**
+     * Retrieves scroll pages in the background, null if neither prefetching nor sliced scrolls are enabled
+     */
+    private final ExecutorService scrollExecutor;
 
     public ElasticSearchIndex(Configuration config) throws BackendException {
         indexName = config.get(INDEX_NAME);
@@ -293,6 +326,20 @@ public class ElasticSearchIndex implements IndexProvider {
 
         batchSize = config.get(INDEX_MAX_RESULT_SET_SIZE);
         log.debug("Configured ES query nb result by query to {}", batchSize);
+        scrollPrefetch = config.get(ES_SCROLL_PREFETCH);
+        scrollSlices = config.get(ES_SCROLL_SLICES);
+        Preconditions.checkArgument(scrollSlices == 1 || client.getMajorVersion().getValue() >= 5,
+                "Sliced scrolls are not supported by Elasticsearch %s.x.", client.getMajorVersion().getValue());
+        if (scrollPrefetch || scrollSlices > 1) {
+            final int scrollThreads = config.get(ES_SCROLL_THREADS);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(scrollThreads, scrollThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("elasticsearch-scroll-%d").build());
+            executor.allowCoreThreadTimeOut(true);
+            scrollExecutor = executor;
+        } else {
+            scrollExecutor = null;
+        }
 
         switch (client.getMajorVersion()) {
             case ONE:
@@ -1093,17 +1140,104 @@ public class ElasticSearchIndex implements IndexProvider {
             sr.setSize(batchSize);
         }
 
-        ElasticSearchResponse response;
+        final boolean useScroll = sr.getSize() >= batchSize;
+        try {
+            final String indexStoreName = getIndexStoreName(query.getStore());
+            final String indexType = useMultitypeIndex ? query.getStore() : null;
+            final CloseableIterator<RawQuery.Result<String>> resultIterator;
+            if (useScroll && scrollSlices > 1 && query.getOrder().isEmpty()) {
+                resultIterator = slicedScroll(indexStoreName, indexType, sr);
+            } else {
+                final ElasticSearchResponse response = client.search(indexStoreName, indexType,
+                        compat.createRequestBody(sr, NULL_PARAMETERS), useScroll);
+                log.debug("First Executed query [{}] in {} ms", query.getCondition(), response.getTook());
+                resultIterator = new ElasticSearchScroll(client, response, sr.getSize(), scrollPrefetch ? scrollExecutor : null);
+            }
+            return stream(resultIterator, query.hasLimit() ? query.getLimit() : Long.MAX_VALUE)
+                    .map(RawQuery.Result::getResult);
+        } catch (final IOException | UncheckedIOException e) {
+            throw new PermanentBackendException(e);
+        }
+    }
+
+    /**
+     * Splits the given scroll request into {@link #ES_SCROLL_SLICES} slices whose pages are retrieved in parallel
+     * and returns their interleaved results.
+     */
+    private CloseableIterator<RawQuery.Result<String>> slicedScroll(String indexStoreName, String indexType,
+                                                                    ElasticSearchRequest sr) throws IOException {
+        final List<CompletableFuture<ElasticSearchResponse>> responses = new ArrayList<>(scrollSlices);
+        for (int slice = 0; slice < scrollSlices; slice++) {
+            sr.setSlice(slice, scrollSlices);
+            final Map<String,Object> request = compat.createRequestBody(sr, NULL_PARAMETERS);
+            responses.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return client.search(indexStoreName, indexType, request, true);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e.getMessage(), e);
+                }
+            }, scrollExecutor));
+        }
+        final List<ElasticSearchScroll> scrolls = new ArrayList<>(scrollSlices);
+        for (int slice = 0; slice < scrollSlices; slice++) {
+            try {
+                scrolls.add(new ElasticSearchScroll(client, responses.get(slice).join(), sr.getSize(), scrollExecutor));
+            } catch (final CompletionException e) {
+                //Release the slices which have been or are still being opened
+                scrolls.forEach(ElasticSearchScroll::close);
+                for (final CompletableFuture<ElasticSearchResponse> response : responses.subList(slice + 1, scrollSlices)) {
+                    response.thenAccept(r -> new ElasticSearchScroll(client, r, sr.getSize()).close());
+                }
+                if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+                throw new IOException("Could not retrieve slice of scroll", e.getCause());
+            }
+        }
+        return ElasticSearchScroll.interleave(scrolls);
+    }
+
+    /**
+     * Streams at most the given number of results. The scrolls are released once the limit has been reached, the
+     * results have been exhausted or the stream is closed, whichever comes first, so that consumers which stop early
+     * neither leave prefetches running nor keep scroll contexts alive until they expire.
+     */
+    private static Stream<RawQuery.Result<String>> stream(CloseableIterator<RawQuery.Result<String>> results,
+                                                          long limit) {
+        final Iterator<RawQuery.Result<String>> limited = new Iterator<RawQuery.Result<String>>() {
+
+            private long returned = 0;
+
+            @Override
+            public boolean hasNext() {
+                return returned < limit && results.hasNext();
+            }
+
+            @Override
+            public RawQuery.Result<String> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final RawQuery.Result<String> result = results.next();
+                if (++returned == limit) results.close();
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(limited, Spliterator.ORDERED), false)
+                .onClose(results::close);
+    }
+
+    @Override
+    public Long totals(IndexQuery query, KeyInformation.IndexRetriever informations,
+                       BaseTransaction tx) throws BackendException {
+        final ElasticSearchRequest sr = new ElasticSearchRequest();
+        final Map<String,Object> esQuery = getFilter(query.getCondition(), informations.get(query.getStore()));
+        sr.setQuery(compat.prepareQuery(esQuery));
+        sr.setFrom(0);
+        sr.setSize(0);
         try {
             final String indexStoreName = getIndexStoreName(query.getStore());
             final String indexType = useMultitypeIndex ? query.getStore() : null;
-            response = client.search(indexStoreName, indexType, compat.createRequestBody(sr, NULL_PARAMETERS),
-                    sr.getSize() >= batchSize);
-            log.debug("First Executed query [{}] in {} ms", query.getCondition(), response.getTook());
-            final ElasticSearchScroll resultIterator = new ElasticSearchScroll(client, response, sr.getSize());
-            final Stream<RawQuery.Result<String>> toReturn
-                    = StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED), false);
-            return (query.hasLimit() ? toReturn.limit(query.getLimit()) : toReturn).map(RawQuery.Result::getResult);
+            final ElasticSearchResponse response = client.search(indexStoreName, indexType,
+                    compat.createRequestBody(sr, NULL_PARAMETERS), false);
+            log.debug("Executed totals query [{}] in {} ms", query.getCondition(), response.getTook());
+            return response.getTotal();
         } catch (final IOException | UncheckedIOException e) {
             throw new PermanentBackendException(e);
         }
@@ -1161,11 +1295,10 @@ public class ElasticSearchIndex implements IndexProvider {
         final int size = query.hasLimit() ? Math.min(query.getLimit() + query.getOffset(), batchSize) : batchSize;
         final ElasticSearchResponse response = runCommonQuery(query, tx, size, size >= batchSize );
         log.debug("First Executed query [{}] in {} ms", query.getQuery(), response.getTook());
-        final ElasticSearchScroll resultIterator = new ElasticSearchScroll(client, response, size);
-        final Stream<RawQuery.Result<String>> toReturn
-                = StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED),
-                false).skip(query.getOffset());
-        return query.hasLimit() ? toReturn.limit(query.getLimit()) : toReturn;
+        final ElasticSearchScroll resultIterator = new ElasticSearchScroll(client, response, size,
+                scrollPrefetch ? scrollExecutor : null);
+        return stream(resultIterator, query.hasLimit() ? query.getOffset() + (long) query.getLimit() : Long.MAX_VALUE)
+                .skip(query.getOffset());
     }
 
     @Override
@@ -1251,6 +1384,7 @@ public class ElasticSearchIndex implements IndexProvider {
 
     @Override
     public void close() throws BackendException {
+        if (scrollExecutor != null) scrollExecutor.shutdownNow();
         try {
             client.close();
         } catch (final IOException e) {
@@ -16,31 +16,85 @@ package org.janusgraph.diskstorage.es;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.janusgraph.diskstorage.indexing.RawQuery;
 import org.janusgraph.diskstorage.indexing.RawQuery.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author David Clement (david.clement90@laposte.net)
  */
-public class ElasticSearchScroll implements Iterator<RawQuery.Result<String>> {
+public class ElasticSearchScroll implements CloseableIterator<RawQuery.Result<String>> {
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticSearchScroll.class);
 
     private final BlockingQueue<RawQuery.Result<String>> queue;
     private boolean isFinished;
     private final ElasticSearchClient client;
     private final String scrollId;
     private final int batchSize;
+    private final Executor prefetchExecutor;
+    private CompletableFuture<ElasticSearchResponse> nextResponse;
 
     public ElasticSearchScroll(ElasticSearchClient client, ElasticSearchResponse initialResponse, int nbDocByQuery) {
+        this(client, initialResponse, nbDocByQuery, null);
+    }
+
+    /**
+     * @param prefetchExecutor executor retrieving the next page of the scroll while the current one is iterated
+     *                         or null if pages should only be retrieved once the current one is consumed
+     */
+    public ElasticSearchScroll(ElasticSearchClient client, ElasticSearchResponse initialResponse, int nbDocByQuery,
+                               Executor prefetchExecutor) {
         queue = new LinkedBlockingQueue<>();
         this.client = client;
         this.scrollId = initialResponse.getScrollId();
         this.batchSize = nbDocByQuery;
+        this.prefetchExecutor = prefetchExecutor;
         initialResponse.getResults().forEach(queue::add);
-        this.isFinished = initialResponse.numResults() < nbDocByQuery;
+        //Requests which do not open a scroll return all their results at once
+        this.isFinished = scrollId == null || initialResponse.numResults() < nbDocByQuery;
+        if (!isFinished) prefetch();
+    }
+
+    private void prefetch() {
+        if (prefetchExecutor == null || isFinished) return;
+        nextResponse = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.search(scrollId);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }, prefetchExecutor);
+    }
+
+    private ElasticSearchResponse nextResponse() throws IOException {
+        if (nextResponse == null) return client.search(scrollId);
+        try {
+            return nextResponse.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IOException("Could not retrieve next page of scroll", e.getCause());
+        } finally {
+            nextResponse = null;
+        }
+    }
+
+    /**
+     * Whether results of the current page remain to be iterated, which does not require any request.
+     */
+    boolean hasBufferedResults() {
+        return !queue.isEmpty();
     }
 
     @Override
@@ -52,10 +106,11 @@ public class ElasticSearchScroll implements Iterator<RawQuery.Result<String>> {
             if (isFinished) {
                 return false;
             }
-            final ElasticSearchResponse res = client.search(scrollId);
+            final ElasticSearchResponse res = nextResponse();
             res.getResults().forEach(queue::add);
             isFinished = res.numResults() < batchSize;
             if (isFinished) client.deleteScroll(scrollId);
+            else prefetch();
             return res.numResults() > 0;
         } catch (final IOException e) {
              throw new UncheckedIOException(e.getMessage(), e);
@@ -70,4 +125,72 @@ public class ElasticSearchScroll implements Iterator<RawQuery.Result<String>> {
               throw new UncheckedIOException(new IOException("Interrupted waiting on queue", e));
          }
     }
+
+    /**
+     * Releases the scroll if its results have not been consumed completely: cancels the retrieval of the next page
+     * and clears the scroll context instead of keeping it alive until it expires.
+     */
+    @Override
+    public void close() {
+        if (isFinished) return;
+        isFinished = true;
+        queue.clear();
+        if (nextResponse != null) {
+            nextResponse.cancel(false);
+            nextResponse = null;
+        }
+        try {
+            client.deleteScroll(scrollId);
+        } catch (final IOException e) {
+            log.warn("Could not clear scroll " + scrollId, e);
+        }
+    }
+
+    /**
+     * Iterates the results of the given scrolls one page at a time from each, so that all scroll contexts are kept
+     * alive while the results are consumed.
+     */
+    public static CloseableIterator<RawQuery.Result<String>> interleave(List<ElasticSearchScroll> scrolls) {
+        return new CloseableIterator<RawQuery.Result<String>>() {
+
+            private final List<ElasticSearchScroll> remaining = new ArrayList<>(scrolls);
+            private int position = 0;
+            private boolean inPage = false;
+
+            @Override
+            public boolean hasNext() {
+                while (!remaining.isEmpty()) {
+                    final ElasticSearchScroll scroll = remaining.get(position);
+                    if (scroll.hasBufferedResults()) {
+                        inPage = true;
+                        return true;
+                    }
+                    if (inPage) {
+                        //The current page of this scroll has been consumed, continue with the next scroll
+                        inPage = false;
+                        position = (position + 1) % remaining.size();
+                    } else if (scroll.hasNext()) {
+                        inPage = true;
+                        return true;
+                    } else {
+                        remaining.remove(position);
+                        if (position >= remaining.size()) position = 0;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public RawQuery.Result<String> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return remaining.get(position).next();
+            }
+
+            @Override
+            public void close() {
+                remaining.forEach(ElasticSearchScroll::close);
+                remaining.clear();
+            }
+        };
+    }
 }
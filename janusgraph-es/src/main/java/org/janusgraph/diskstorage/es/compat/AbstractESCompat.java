@@ -182,6 +182,7 @@ public abstract class AbstractESCompat {
         }
         
         Optional.ofNullable(request.getQuery()).ifPresent(parameter -> requestBody.put("query", parameter));
+        Optional.ofNullable(request.getSlice()).ifPresent(parameter -> requestBody.put("slice", parameter));
         Optional.ofNullable(parameters).ifPresent(p -> Arrays.stream(p).forEachOrdered(parameter -> requestBody.put(parameter.key(), parameter.value())));
         return requestBody;
     }
@@ -0,0 +1,175 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.es;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
+import org.janusgraph.diskstorage.indexing.RawQuery;
+import org.junit.After;
+import org.junit.Test;
+
+public class ElasticSearchScrollTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static ElasticSearchResponse page(String scrollId, int from, int to) {
+        final ElasticSearchResponse response = new ElasticSearchResponse();
+        response.setScrollId(scrollId);
+        response.setResults(IntStream.range(from, to).mapToObj(i -> new RawQuery.Result<>(scrollId + i, 1.0))
+            .collect(Collectors.toList()));
+        return response;
+    }
+
+    /**
+     * Returns a scroll over the given number of results whose first page has already been retrieved.
+     */
+    private ElasticSearchScroll scroll(ElasticSearchClient client, String scrollId, int numResults, boolean prefetch)
+            throws IOException {
+        final List<ElasticSearchResponse> pages = new ArrayList<>();
+        for (int from = PAGE_SIZE; from <= numResults; from += PAGE_SIZE) {
+            pages.add(page(scrollId, from, Math.min(from + PAGE_SIZE, numResults)));
+        }
+        if (!pages.isEmpty()) {
+            when(client.search(scrollId)).thenReturn(pages.get(0),
+                pages.subList(1, pages.size()).toArray(new ElasticSearchResponse[pages.size() - 1]));
+        }
+        return new ElasticSearchScroll(client, page(scrollId, 0, Math.min(PAGE_SIZE, numResults)), PAGE_SIZE,
+            prefetch ? executor : null);
+    }
+
+    private static List<String> results(Iterator<RawQuery.Result<String>> iterator) {
+        final List<String> results = new ArrayList<>();
+        iterator.forEachRemaining(result -> results.add(result.getResult()));
+        return results;
+    }
+
+    private static List<String> expected(String scrollId, int numResults) {
+        return IntStream.range(0, numResults).mapToObj(i -> scrollId + i).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testScroll() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        assertEquals(expected("a", 8), results(scroll(client, "a", 8, false)));
+        verify(client, times(2)).search("a");
+        verify(client).deleteScroll("a");
+    }
+
+    @Test
+    public void testScrollWithPrefetch() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        assertEquals(expected("a", 9), results(scroll(client, "a", 9, true)));
+        verify(client, times(3)).search("a");
+        verify(client).deleteScroll("a");
+    }
+
+    @Test
+    public void testInterleavedScrolls() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final List<String> results = results(ElasticSearchScroll.interleave(Arrays.asList(
+            scroll(client, "a", 7, true), scroll(client, "b", 2, true), scroll(client, "c", 4, true))));
+        assertEquals(Arrays.asList("a0", "a1", "a2", "b0", "b1", "c0", "c1", "c2", "a3", "a4", "a5", "c3", "a6"), results);
+    }
+
+    @Test
+    public void testCloseReleasesScroll() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final ElasticSearchScroll scroll = scroll(client, "a", 9, false);
+        assertEquals("a0", scroll.next().getResult());
+        scroll.close();
+        assertFalse(scroll.hasNext());
+        verify(client, never()).search("a");
+        verify(client).deleteScroll("a");
+    }
+
+    @Test
+    public void testCloseCancelsPrefetch() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final ExecutorService blocked = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            blocked.submit(() -> {
+                release.await();
+                return null;
+            });
+            final ElasticSearchScroll scroll = new ElasticSearchScroll(client, page("a", 0, PAGE_SIZE), PAGE_SIZE, blocked);
+            scroll.close();
+            release.countDown();
+            blocked.shutdown();
+            assertTrue(blocked.awaitTermination(10, TimeUnit.SECONDS));
+            assertFalse(scroll.hasNext());
+            verify(client, never()).search("a");
+            verify(client).deleteScroll("a");
+        } catch (final InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            blocked.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCloseAfterExhaustion() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final ElasticSearchScroll scroll = scroll(client, "a", 8, true);
+        assertEquals(expected("a", 8), results(scroll));
+        scroll.close();
+        verify(client, times(1)).deleteScroll("a");
+    }
+
+    @Test
+    public void testCloseInterleavedScrolls() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final CloseableIterator<RawQuery.Result<String>> results = ElasticSearchScroll.interleave(Arrays.asList(
+            scroll(client, "a", 7, false), scroll(client, "b", 2, false), scroll(client, "c", 4, false)));
+        assertEquals("a0", results.next().getResult());
+        results.close();
+        assertFalse(results.hasNext());
+        verify(client).deleteScroll("a");
+        verify(client).deleteScroll("c");
+        //The only page of this slice has been retrieved already and its scroll context is not kept alive
+        verify(client, never()).deleteScroll("b");
+    }
+
+    @Test
+    public void testWithoutScroll() throws IOException {
+        final ElasticSearchClient client = mock(ElasticSearchClient.class);
+        final ElasticSearchScroll scroll = new ElasticSearchScroll(client, page(null, 0, PAGE_SIZE), PAGE_SIZE, executor);
+        assertEquals(Arrays.asList("null0", "null1", "null2"), results(scroll));
+        scroll.close();
+        verifyZeroInteractions(client);
+    }
+
+}
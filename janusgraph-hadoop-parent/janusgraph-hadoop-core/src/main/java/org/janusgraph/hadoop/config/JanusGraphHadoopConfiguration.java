@@ -61,6 +61,23 @@ public class JanusGraphHadoopConfiguration {
                     "The name of the column family from which the Hadoop input format should read.  " +
                             "Usually edgestore or graphindex.", ConfigOption.Type.LOCAL, Backend.EDGESTORE_NAME);
 
+    public static final ConfigOption<String[]> INPUT_EDGE_LABELS =
+            new ConfigOption<>(IOFORMAT_NS, "edge-labels",
+                    "The names of the edge labels to read from JanusGraph.  When set, edges with other labels are " +
+                    "skipped and, where the storage backend supports it, not even retrieved from it.  " +
+                    "HBase filters the columns on the region servers.  Cassandra restricts the scan to the single " +
+                    "column range covering all projected relation types, which the CQL input format can only do with " +
+                    "ALLOW FILTERING: every partition of a token range is still visited, so the savings are mainly " +
+                    "in network transfer and deserialization, and columns between the projected types are still read.  " +
+                    "By default, edges of all labels are read.", ConfigOption.Type.LOCAL, String[].class);
+
+    public static final ConfigOption<String[]> INPUT_PROPERTY_KEYS =
+            new ConfigOption<>(IOFORMAT_NS, "property-keys",
+                    "The names of the property keys to read from JanusGraph.  When set, vertex properties with other " +
+                    "keys are skipped and, where the storage backend supports it, not even retrieved from it.  " +
+                    "The pushdown to the storage backend has the same cost as for ioformat.edge-labels.  " +
+                    "By default, vertex properties of all keys are read.", ConfigOption.Type.LOCAL, String[].class);
+
     // JanusGraph bulkload vertex program configuration
 
     public static final ConfigNamespace BULKLOAD_NS =
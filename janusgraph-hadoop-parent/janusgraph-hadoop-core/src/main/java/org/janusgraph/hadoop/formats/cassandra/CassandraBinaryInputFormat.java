@@ -17,6 +17,7 @@ package org.janusgraph.hadoop.formats.cassandra;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.StaticBuffer;
 import org.janusgraph.diskstorage.cassandra.AbstractCassandraStoreManager;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 import org.janusgraph.hadoop.config.JanusGraphHadoopConfiguration;
 import org.janusgraph.hadoop.formats.util.AbstractBinaryInputFormat;
@@ -88,17 +89,18 @@ public class CassandraBinaryInputFormat extends AbstractBinaryInputFormat {
                 mrConf.get(JanusGraphHadoopConfiguration.COLUMN_FAMILY_NAME), wideRows);
         log.debug("Set keyspace: {}", janusgraphConf.get(AbstractCassandraStoreManager.CASSANDRA_KEYSPACE));
 
-        // Set the column slice bounds via Faunus' vertex query filter
+        // Set the column slice bounds to those of the projected relation types, if any
         final SlicePredicate predicate = new SlicePredicate();
         final int rangeBatchSize = config.getInt(RANGE_BATCH_SIZE_CONFIG, Integer.MAX_VALUE);
-        predicate.setSlice_range(getSliceRange(rangeBatchSize)); // TODO stop slicing the whole row
+        predicate.setSlice_range(getSliceRange(getInputSlices(), rangeBatchSize));
         ConfigHelper.setInputSlicePredicate(config, predicate);
     }
 
-    private SliceRange getSliceRange(final int limit) {
+    private SliceRange getSliceRange(final List<SliceQuery> slices, final int limit) {
+        // A slice predicate holds a single range, so read the range covering all (sorted) slices
         final SliceRange sliceRange = new SliceRange();
-        sliceRange.setStart(JanusGraphHadoopSetupCommon.DEFAULT_SLICE_QUERY.getSliceStart().asByteBuffer());
-        sliceRange.setFinish(JanusGraphHadoopSetupCommon.DEFAULT_SLICE_QUERY.getSliceEnd().asByteBuffer());
+        sliceRange.setStart(slices.get(0).getSliceStart().asByteBuffer());
+        sliceRange.setFinish(slices.get(slices.size() - 1).getSliceEnd().asByteBuffer());
         sliceRange.setCount(Math.min(limit, JanusGraphHadoopSetupCommon.DEFAULT_SLICE_QUERY.getLimit()));
         return sliceRange;
     }
@@ -37,6 +37,7 @@ import org.apache.cassandra.hadoop.ColumnFamilySplit;
 import org.apache.cassandra.hadoop.ConfigHelper;
 import org.apache.cassandra.hadoop.HadoopCompat;
 import org.apache.cassandra.hadoop.cql3.CqlConfigHelper;
+import org.apache.cassandra.thrift.SlicePredicate;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.classification.InterfaceStability.Unstable;
 import org.apache.hadoop.conf.Configuration;
@@ -51,6 +52,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -89,6 +91,8 @@ public class CqlBridgeRecordReader extends RecordReader<StaticBuffer, Iterable<E
     private IPartitioner partitioner;
     private String inputColumns;
     private String userDefinedWhereClauses;
+    private ByteBuffer columnStart;
+    private ByteBuffer columnFinish;
 
     private final List<String> partitionKeys = new ArrayList<>();
 
@@ -149,6 +153,12 @@ public class CqlBridgeRecordReader extends RecordReader<StaticBuffer, Iterable<E
         }
 
         if (StringUtils.isEmpty(cqlQuery)) {
+            // Restrict the columns to the slice range of the input format, unless it covers the entire row
+            final SlicePredicate predicate = ConfigHelper.getInputSlicePredicate(conf);
+            if (predicate != null && predicate.isSetSlice_range() && predicate.getSlice_range().getStart().length > 0) {
+                columnStart = predicate.getSlice_range().bufferForStart();
+                columnFinish = predicate.getSlice_range().bufferForFinish();
+            }
             cqlQuery = buildQuery();
         }
         log.trace("cqlQuery {}", cqlQuery);
@@ -243,7 +253,9 @@ public class CqlBridgeRecordReader extends RecordReader<StaticBuffer, Iterable<E
             AbstractType type = partitioner.getTokenValidator();
             Object startToken = type.compose(type.fromString(split.getStartToken()));
             Object endToken = type.compose(type.fromString(split.getEndToken()));
-            SimpleStatement statement = new SimpleStatement(cqlQuery, startToken, endToken);
+            SimpleStatement statement = columnStart == null
+                ? new SimpleStatement(cqlQuery, startToken, endToken)
+                : new SimpleStatement(cqlQuery, startToken, endToken, columnStart, columnFinish);
             rowIterator = session.execute(statement).iterator();
             for (ColumnMetadata meta : cluster.getMetadata().getKeyspace(quote(keyspace)).getTable(quote(cfName)).getPartitionKey()) {
                 partitionBoundColumns.put(meta.getName(), Boolean.TRUE);
@@ -304,7 +316,8 @@ public class CqlBridgeRecordReader extends RecordReader<StaticBuffer, Iterable<E
     /**
      * Build a query for the reader of the form:
      *
-     * SELECT * FROM ks>cf token(pk1,...pkn)>? AND token(pk1,...pkn)<=? [AND user where clauses]
+     * SELECT * FROM ks>cf token(pk1,...pkn)>? AND token(pk1,...pkn)<=? [AND column1>=? AND column1<=?]
+     * [AND user where clauses]
      * [ALLOW FILTERING]
      */
     private String buildQuery() {
@@ -320,10 +333,14 @@ public class CqlBridgeRecordReader extends RecordReader<StaticBuffer, Iterable<E
 
     private String getAdditionalWhereClauses() {
         String whereClause = "";
+        if (columnStart != null) {
+            whereClause += String.format(" AND %s>=? AND %s<=?",
+                quote(DistinctKeyIterator.COLUMN_NAME), quote(DistinctKeyIterator.COLUMN_NAME));
+        }
         if (StringUtils.isNotEmpty(userDefinedWhereClauses)) {
             whereClause += " AND " + userDefinedWhereClauses;
         }
-        if (StringUtils.isNotEmpty(userDefinedWhereClauses)) {
+        if (columnStart != null || StringUtils.isNotEmpty(userDefinedWhereClauses)) {
             whereClause += " ALLOW FILTERING";
         }
         return whereClause;
@@ -17,15 +17,19 @@ package org.janusgraph.hadoop.formats.hbase;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.PermanentBackendException;
 import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.hbase.HBaseKeyColumnValueStore;
 import org.janusgraph.diskstorage.hbase.HBaseStoreManager;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 import org.janusgraph.hadoop.config.JanusGraphHadoopConfiguration;
 import org.janusgraph.hadoop.formats.util.AbstractBinaryInputFormat;
+import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.mapreduce.TableInputFormat;
 import org.apache.hadoop.hbase.mapreduce.TableMapReduceUtil;
@@ -96,7 +100,15 @@ public class HBaseBinaryInputFormat extends AbstractBinaryInputFormat {
         edgeStoreFamily = Bytes.toBytes(cfName);
         scanner.addFamily(edgeStoreFamily);
 
-        //scanner.setFilter(getColumnFilter(janusgraphSetup.inputSlice(this.vertexQuery))); // TODO
+        final List<SliceQuery> slices = getInputSlices();
+        if (slices.size() > 1 || !slices.get(0).equals(JanusGraphHadoopSetupCommon.DEFAULT_SLICE_QUERY)) {
+            final FilterList filter = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+            for (SliceQuery slice : slices) {
+                filter.addFilter(HBaseKeyColumnValueStore.getFilter(slice));
+            }
+            log.debug("Reading column slices {} using filter {}", slices, filter);
+            scanner.setFilter(filter);
+        }
         //TODO (minor): should we set other options in http://hbase.apache.org/apidocs/org/apache/hadoop/hbase/client/Scan.html for optimization?
         // This is a workaround, to be removed when convertScanToString becomes public in hbase
         // package.
@@ -17,12 +17,18 @@ package org.janusgraph.hadoop.formats.util;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.StaticBuffer;
 import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.hadoop.config.ModifiableHadoopConfiguration;
 import org.janusgraph.hadoop.config.JanusGraphHadoopConfiguration;
+import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetup;
+import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.tinkerpop.gremlin.hadoop.structure.io.HadoopPoolsConfigurable;
 
+import java.util.Collections;
+import java.util.List;
+
 public abstract class AbstractBinaryInputFormat extends InputFormat<StaticBuffer, Iterable<Entry>> implements HadoopPoolsConfigurable {
 
     protected Configuration hadoopConf;
@@ -41,4 +47,23 @@ public abstract class AbstractBinaryInputFormat extends InputFormat<StaticBuffer
     public Configuration getConf() {
         return hadoopConf;
     }
+
+    /**
+     * Returns the slices of each row to be read from the storage backend. These cover the entire row unless
+     * edge labels or property keys have been projected, in which case the schema is read to determine the slices.
+     *
+     * @see JanusGraphHadoopSetup#inputSlices()
+     */
+    protected List<SliceQuery> getInputSlices() {
+        if (!mrConf.has(JanusGraphHadoopConfiguration.INPUT_EDGE_LABELS)
+                && !mrConf.has(JanusGraphHadoopConfiguration.INPUT_PROPERTY_KEYS)) {
+            return Collections.singletonList(JanusGraphHadoopSetupCommon.DEFAULT_SLICE_QUERY);
+        }
+        final JanusGraphHadoopSetup setup = JanusGraphHadoopSetupCommon.open(hadoopConf);
+        try {
+            return setup.inputSlices();
+        } finally {
+            setup.close();
+        }
+    }
 }
@@ -17,8 +17,7 @@ package org.janusgraph.hadoop.formats.util;
 import com.google.common.base.Preconditions;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.StaticBuffer;
-import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetup;
-import org.janusgraph.util.system.ConfigurationUtil;
+import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon;
 import org.apache.tinkerpop.gremlin.hadoop.structure.io.VertexWritable;
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
@@ -29,25 +28,13 @@ import java.io.IOException;
 import java.util.List;
 import java.util.function.Function;
 
-import static org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon.SETUP_CLASS_NAME;
-import static org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon.SETUP_PACKAGE_PREFIX;
-
 public abstract class GiraphInputFormat extends InputFormat<NullWritable, VertexWritable> implements Configurable {
 
     private final InputFormat<StaticBuffer, Iterable<Entry>> inputFormat;
     private static final RefCountedCloseable<JanusGraphVertexDeserializer> refCounter;
 
     static {
-        refCounter = new RefCountedCloseable<>((conf) -> {
-            final String janusgraphVersion = "current";
-
-            String className = SETUP_PACKAGE_PREFIX + janusgraphVersion + SETUP_CLASS_NAME;
-
-            JanusGraphHadoopSetup ts = ConfigurationUtil.instantiate(
-                    className, new Object[]{ conf }, new Class[]{ Configuration.class });
-
-            return new JanusGraphVertexDeserializer(ts);
-        });
+        refCounter = new RefCountedCloseable<>((conf) -> new JanusGraphVertexDeserializer(JanusGraphHadoopSetupCommon.open(conf)));
     }
 
 
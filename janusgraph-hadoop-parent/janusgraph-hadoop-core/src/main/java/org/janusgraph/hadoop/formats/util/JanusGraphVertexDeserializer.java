@@ -19,6 +19,9 @@ import com.google.common.base.Preconditions;
 import org.janusgraph.core.*;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.StaticBuffer;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.util.BackendCompression;
+import org.janusgraph.diskstorage.util.CompressedStore;
 import org.janusgraph.graphdb.database.RelationReader;
 import org.janusgraph.graphdb.idmanagement.IDManager;
 import org.janusgraph.graphdb.internal.InternalRelationType;
@@ -26,18 +29,18 @@ import org.janusgraph.graphdb.relations.RelationCache;
 import org.janusgraph.graphdb.types.TypeInspector;
 import org.janusgraph.hadoop.formats.util.input.SystemTypeInspector;
 import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetup;
+import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
-import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.structure.util.star.StarGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 public class JanusGraphVertexDeserializer implements AutoCloseable {
 
@@ -45,6 +48,9 @@ public class JanusGraphVertexDeserializer implements AutoCloseable {
     private final TypeInspector typeManager;
     private final SystemTypeInspector systemTypes;
     private final IDManager idManager;
+    private final List<SliceQuery> inputSlices;
+    private final boolean isProjection;
+    private final Function<Entry, Entry> decompressor;
 
     private static final Logger log =
             LoggerFactory.getLogger(JanusGraphVertexDeserializer.class);
@@ -54,25 +60,15 @@ public class JanusGraphVertexDeserializer implements AutoCloseable {
         this.typeManager = setup.getTypeInspector();
         this.systemTypes = setup.getSystemTypeInspector();
         this.idManager = setup.getIDManager();
+        this.inputSlices = setup.inputSlices();
+        this.isProjection = inputSlices.size() != 1 || !inputSlices.get(0).equals(setup.inputSlice());
+        final BackendCompression compression = setup.getInputCompression();
+        this.decompressor = compression == BackendCompression.NO_COMPRESSION ? null : CompressedStore.decompressor(compression);
     }
 
-    private static Boolean isLoopAdded(Vertex vertex, String label) {
-        Iterator<Vertex> adjacentVertices = vertex.vertices(Direction.BOTH, label);
-
-        while (adjacentVertices.hasNext()) {
-            Vertex adjacentVertex = adjacentVertices.next();
-
-            if(adjacentVertex.equals(vertex)){
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    // Read a single row from the edgestore and create a TinkerVertex corresponding to the row
-    // The neighboring vertices are represented by DetachedVertex instances
-    public TinkerVertex readHadoopVertex(final StaticBuffer key, Iterable<Entry> entries) {
+    // Read a single row from the edgestore and create a StarVertex corresponding to the row
+    // The neighboring vertices are represented by StarAdjacentVertex instances
+    public StarGraph.StarVertex readHadoopVertex(final StaticBuffer key, Iterable<Entry> entries) {
 
         // Convert key to a vertex ID
         final long vertexId = idManager.getKeyID(key);
@@ -86,48 +82,45 @@ public class JanusGraphVertexDeserializer implements AutoCloseable {
             return null;
         }
 
-        // Create TinkerVertex
-        TinkerGraph tg = TinkerGraph.open();
-
-        TinkerVertex tv = null;
-
-        // Iterate over edgestore columns to find the vertex's label relation
+        // Decode each edgestore column (relation) once, collecting the relations until the vertex's label is known
+        final RelationReader relationReader = setup.getRelationReader(vertexId);
+        final List<RelationCache> relations = new ArrayList<>();
+        final List<RelationType> types = new ArrayList<>();
+        String label = null;
+        boolean exists = false;
         for (final Entry data : entries) {
-            RelationReader relationReader = setup.getRelationReader(vertexId);
-            final RelationCache relation = relationReader.parseRelation(data, false, typeManager);
+            if (isProjection && !isInInputSlices(data)) continue; //Ignore columns outside of the projection
+            final RelationCache relation = relationReader.parseRelation(decompressor == null ? data : decompressor.apply(data),
+                    false, typeManager);
             if (systemTypes.isVertexLabelSystemType(relation.typeId)) {
                 // Found vertex Label
-                long vertexLabelId = relation.getOtherVertexId();
-                VertexLabel vl = typeManager.getExistingVertexLabel(vertexLabelId);
-                // Create TinkerVertex with this label
-                tv = getOrCreateVertex(vertexId, vl.name(), tg);
+                label = typeManager.getExistingVertexLabel(relation.getOtherVertexId()).name();
+            } else if (systemTypes.isVertexExistsSystemType(relation.typeId)) {
+                exists = true;
             }
+            if (systemTypes.isSystemType(relation.typeId)) continue; //Ignore system types
+            final RelationType type = typeManager.getExistingRelationType(relation.typeId);
+            if (((InternalRelationType)type).isInvisibleType()) continue; //Ignore hidden types
+            relations.add(relation);
+            types.add(type);
         }
 
-        // Added this following testing
-        if (null == tv) {
-            tv = getOrCreateVertex(vertexId, null, tg);
-        }
-
-        Preconditions.checkState(null != tv, "Unable to determine vertex label for vertex with ID %s", vertexId);
+        // Create StarVertex
+        final StarGraph sg = StarGraph.open();
+        final StarGraph.StarVertex sv = (StarGraph.StarVertex) (null == label
+                ? sg.addVertex(T.id, vertexId) : sg.addVertex(T.id, vertexId, T.label, label));
 
-        // Iterate over and decode edgestore columns (relations) on this vertex
-        for (final Entry data : entries) {
+        // Create the relations (edges or properties) on this vertex
+        for (int i = 0; i < relations.size(); i++) {
+            final RelationCache relation = relations.get(i);
+            final RelationType type = types.get(i);
             try {
-                RelationReader relationReader = setup.getRelationReader(vertexId);
-                final RelationCache relation = relationReader.parseRelation(data, false, typeManager);
-
-                if (systemTypes.isSystemType(relation.typeId)) continue; //Ignore system types
-                final RelationType type = typeManager.getExistingRelationType(relation.typeId);
-                if (((InternalRelationType)type).isInvisibleType()) continue; //Ignore hidden types
-
-                // Decode and create the relation (edge or property)
                 if (type.isPropertyKey()) {
                     // Decode property
                     Object value = relation.getValue();
                     Preconditions.checkNotNull(value);
                     VertexProperty.Cardinality card = getPropertyKeyCardinality(type.name());
-                    tv.property(card, type.name(), value, T.id, relation.relationId);
+                    sv.property(card, type.name(), value, T.id, relation.relationId);
                 } else {
                     assert type.isEdgeLabel();
 
@@ -142,21 +135,21 @@ public class JanusGraphVertexDeserializer implements AutoCloseable {
                         continue;
                     }
 
-                    // Decode edge
-                    TinkerEdge te;
-
-                    // We don't know the label of the other vertex, but one must be provided
-                    TinkerVertex adjacentVertex = getOrCreateVertex(relation.getOtherVertexId(), null, tg);
-
-                    // handle self-loop edges
-                    if (tv.equals(adjacentVertex) && isLoopAdded(tv, type.name())) {
+                    // Self-loop edges are stored in both directions, but adding the outgoing edge adds both
+                    if (relation.getOtherVertexId() == vertexId && relation.direction.equals(Direction.IN)) {
                         continue;
                     }
 
+                    // Decode edge
+                    Edge te;
+
+                    // We don't know the label of the other vertex, so it is represented by an adjacent vertex
+                    Vertex adjacentVertex = sg.addVertex(T.id, relation.getOtherVertexId());
+
                     if (relation.direction.equals(Direction.IN)) {
-                        te = (TinkerEdge)adjacentVertex.addEdge(type.name(), tv, T.id, relation.relationId);
+                        te = adjacentVertex.addEdge(type.name(), sv, T.id, relation.relationId);
                     } else if (relation.direction.equals(Direction.OUT)) {
-                        te = (TinkerEdge)tv.addEdge(type.name(), adjacentVertex, T.id, relation.relationId);
+                        te = sv.addEdge(type.name(), adjacentVertex, T.id, relation.relationId);
                     } else {
                         throw new RuntimeException("Direction.BOTH is not supported");
                     }
@@ -179,29 +172,28 @@ public class JanusGraphVertexDeserializer implements AutoCloseable {
             }
         }
 
-        /*Since we are filtering out system relation types, we might end up with vertices that have no incident relations.
-         This is especially true for schema vertices. Those are filtered out.     */
-        if (!tv.edges(Direction.BOTH).hasNext() && !tv.properties().hasNext()) {
+        if (isProjection) {
+            /*A projection does not contain all relations of a vertex, so whether it is a (non-schema) vertex is
+             determined by the hidden vertex state property.     */
+            if (!exists || idManager.isSchemaVertexId(vertexId)) {
+                log.trace("Vertex {} does not exist or is a schema vertex", vertexId);
+                return null;
+            }
+        } else if (!sv.edges(Direction.BOTH).hasNext() && !sv.properties().hasNext()) {
+            /*Since we are filtering out system relation types, we might end up with vertices that have no incident relations.
+             This is especially true for schema vertices. Those are filtered out.     */
             log.trace("Vertex {} has no relations", vertexId);
             return null;
         }
-        return tv;
+        return sv;
     }
 
-    public TinkerVertex getOrCreateVertex(final long vertexId, final String label, final TinkerGraph tg) {
-        TinkerVertex v;
-
-        try {
-            v = (TinkerVertex)tg.vertices(vertexId).next();
-        } catch (NoSuchElementException e) {
-            if (null != label) {
-                v = (TinkerVertex) tg.addVertex(T.label, label, T.id, vertexId);
-            } else {
-                v = (TinkerVertex) tg.addVertex(T.id, vertexId);
-            }
+    private boolean isInInputSlices(final Entry data) {
+        final StaticBuffer column = data.getColumnAs(StaticBuffer.STATIC_FACTORY);
+        for (final SliceQuery slice : inputSlices) {
+            if (slice.contains(column)) return true;
         }
-
-        return v;
+        return false;
     }
 
     private VertexProperty.Cardinality getPropertyKeyCardinality(String name) {
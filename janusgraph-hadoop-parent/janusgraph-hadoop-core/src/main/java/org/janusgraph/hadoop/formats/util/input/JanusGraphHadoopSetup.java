@@ -15,10 +15,13 @@
 package org.janusgraph.hadoop.formats.util.input;
 
 import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.util.BackendCompression;
 import org.janusgraph.graphdb.database.RelationReader;
 import org.janusgraph.graphdb.idmanagement.IDManager;
 import org.janusgraph.graphdb.types.TypeInspector;
 
+import java.util.List;
+
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -41,6 +44,21 @@ public interface JanusGraphHadoopSetup {
      */
     SliceQuery inputSlice();
 
+    /**
+     * Return the sorted, non-overlapping slices of a row which hold the relations to be read.
+     *
+     * Unless edge labels or property keys have been projected in the configuration, this is the single
+     * {@link #inputSlice()}. Otherwise, the slices cover the projected relation types, the vertex label
+     * and the hidden vertex state property.
+     */
+    List<SliceQuery> inputSlices();
+
+    /**
+     * Return the compression of the values of the input store. The input formats read the values as they are
+     * stored, so they need to be decompressed before they can be parsed.
+     */
+    BackendCompression getInputCompression();
+
     void close();
 
     boolean getFilterPartitionedVertices();
@@ -17,6 +17,13 @@ package org.janusgraph.hadoop.formats.util.input;
 import org.janusgraph.diskstorage.StaticBuffer;
 import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.diskstorage.util.StaticArrayBuffer;
+import org.janusgraph.util.system.ConfigurationUtil;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -30,6 +37,17 @@ public abstract class JanusGraphHadoopSetupCommon implements JanusGraphHadoopSet
     public static final String SETUP_PACKAGE_PREFIX = "org.janusgraph.hadoop.formats.util.input.";
     public static final String SETUP_CLASS_NAME = ".JanusGraphHadoopSetupImpl";
 
+    /**
+     * Instantiates the {@link JanusGraphHadoopSetup} of the current JanusGraph version for the given configuration.
+     */
+    public static JanusGraphHadoopSetup open(final Configuration config) {
+        final String janusgraphVersion = "current";
+
+        final String className = SETUP_PACKAGE_PREFIX + janusgraphVersion + SETUP_CLASS_NAME;
+
+        return ConfigurationUtil.instantiate(className, new Object[]{ config }, new Class[]{ Configuration.class });
+    }
+
     @Override
     public SliceQuery inputSlice() {
         //For now, only return the full range because the current input format needs to read the hidden
@@ -37,6 +55,32 @@ public abstract class JanusGraphHadoopSetupCommon implements JanusGraphHadoopSet
         return DEFAULT_SLICE_QUERY;
     }
 
+    @Override
+    public List<SliceQuery> inputSlices() {
+        return Collections.singletonList(inputSlice());
+    }
+
+    /**
+     * Sorts the given slices by their start and merges those which overlap or are adjacent.
+     */
+    protected static List<SliceQuery> mergeSlices(final List<SliceQuery> slices) {
+        final List<SliceQuery> sorted = new ArrayList<>(slices);
+        sorted.sort(Comparator.comparing(SliceQuery::getSliceStart));
+        final List<SliceQuery> merged = new ArrayList<>(sorted.size());
+        for (final SliceQuery slice : sorted) {
+            final int last = merged.size() - 1;
+            if (last >= 0 && merged.get(last).getSliceEnd().compareTo(slice.getSliceStart()) >= 0) {
+                final SliceQuery previous = merged.get(last);
+                if (previous.getSliceEnd().compareTo(slice.getSliceEnd()) < 0) {
+                    merged.set(last, new SliceQuery(previous.getSliceStart(), slice.getSliceEnd()));
+                }
+            } else {
+                merged.add(slice);
+            }
+        }
+        return merged;
+    }
+
     @Override
     public void close() {
         //Do nothing
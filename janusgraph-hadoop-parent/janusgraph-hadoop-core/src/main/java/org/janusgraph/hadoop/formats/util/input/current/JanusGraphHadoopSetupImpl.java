@@ -17,10 +17,17 @@ package org.janusgraph.hadoop.formats.util.input.current;
 import com.google.common.base.Preconditions;
 import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.RelationType;
+import org.janusgraph.diskstorage.Backend;
 import org.janusgraph.diskstorage.configuration.BasicConfiguration;
+import org.janusgraph.diskstorage.configuration.ConfigOption;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.util.BackendCompression;
+import org.janusgraph.graphdb.database.EdgeSerializer;
 import org.janusgraph.graphdb.database.RelationReader;
 import org.janusgraph.graphdb.database.StandardJanusGraph;
 import org.janusgraph.graphdb.idmanagement.IDManager;
+import org.janusgraph.graphdb.internal.InternalRelationType;
 import org.janusgraph.graphdb.internal.JanusGraphSchemaCategory;
 import org.janusgraph.graphdb.query.QueryUtil;
 import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
@@ -37,6 +44,9 @@ import org.janusgraph.hadoop.formats.util.input.JanusGraphHadoopSetupCommon;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.hadoop.conf.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
  */
@@ -102,6 +112,49 @@ public class JanusGraphHadoopSetupImpl extends JanusGraphHadoopSetupCommon {
         };
     }
 
+    @Override
+    public List<SliceQuery> inputSlices() {
+        if (!scanConf.has(JanusGraphHadoopConfiguration.INPUT_EDGE_LABELS)
+                && !scanConf.has(JanusGraphHadoopConfiguration.INPUT_PROPERTY_KEYS)) {
+            return super.inputSlices();
+        }
+        final List<InternalRelationType> types = new ArrayList<>();
+        types.add(BaseLabel.VertexLabelEdge);
+        types.add(BaseKey.VertexExists);
+        addProjectedTypes(types, JanusGraphHadoopConfiguration.INPUT_EDGE_LABELS, JanusGraphSchemaCategory.EDGELABEL);
+        addProjectedTypes(types, JanusGraphHadoopConfiguration.INPUT_PROPERTY_KEYS, JanusGraphSchemaCategory.PROPERTYKEY);
+
+        final EdgeSerializer edgeSerializer = graph.getEdgeSerializer();
+        final List<SliceQuery> slices = new ArrayList<>(types.size());
+        for (InternalRelationType type : types) {
+            final Direction dir = type.isEdgeLabel() && type.isUnidirected(Direction.BOTH) ? Direction.BOTH : Direction.OUT;
+            slices.add(edgeSerializer.getQuery(type, dir, new EdgeSerializer.TypedInterval[type.getSortKey().length]));
+        }
+        return mergeSlices(slices);
+    }
+
+    private void addProjectedTypes(List<InternalRelationType> types, ConfigOption<String[]> option,
+                                   JanusGraphSchemaCategory category) {
+        if (scanConf.has(option)) {
+            for (String name : scanConf.get(option)) {
+                final RelationType type = tx.getRelationType(name);
+                Preconditions.checkArgument(type != null && (category == JanusGraphSchemaCategory.EDGELABEL
+                        ? type.isEdgeLabel() : type.isPropertyKey()), "Not a valid %s: %s", option.getName(), name);
+                types.add((InternalRelationType) type);
+            }
+        } else {
+            for (JanusGraphVertex type : QueryUtil.getVertices(tx, BaseKey.SchemaCategory, category)) {
+                types.add((InternalRelationType) type);
+            }
+        }
+    }
+
+    @Override
+    public BackendCompression getInputCompression() {
+        return Backend.getStoreCompression(graph.getConfiguration().getConfiguration(),
+                scanConf.get(JanusGraphHadoopConfiguration.COLUMN_FAMILY_NAME));
+    }
+
     @Override
     public IDManager getIDManager() {
         return graph.getIDManager();
@@ -15,6 +15,8 @@
 package org.janusgraph.hadoop.scan;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import org.janusgraph.diskstorage.Backend;
 import org.janusgraph.diskstorage.Entry;
 import org.janusgraph.diskstorage.EntryList;
 import org.janusgraph.diskstorage.StaticBuffer;
@@ -23,7 +25,9 @@ import org.janusgraph.diskstorage.configuration.Configuration;
 import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
 import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.diskstorage.keycolumnvalue.scan.ScanJob;
+import org.janusgraph.diskstorage.util.BackendCompression;
 import org.janusgraph.diskstorage.util.BufferUtil;
+import org.janusgraph.diskstorage.util.CompressedStore;
 import org.janusgraph.diskstorage.util.EntryArrayList;
 import org.janusgraph.hadoop.config.ModifiableHadoopConfiguration;
 import org.janusgraph.hadoop.config.JanusGraphHadoopConfiguration;
@@ -35,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import static org.janusgraph.hadoop.compat.HadoopCompatLoader.DEFAULT_COMPAT;
@@ -53,6 +58,7 @@ public class HadoopScanMapper extends Mapper<StaticBuffer, Iterable<Entry>, Null
     private Predicate<StaticBuffer> keyFilter;
     private SliceQuery initialQuery;
     private List<SliceQuery> subsequentQueries;
+    private Function<Entry, Entry> decompressor;
 
     @Override
     protected void setup(Context context) throws IOException, InterruptedException {
@@ -72,6 +78,10 @@ public class HadoopScanMapper extends Mapper<StaticBuffer, Iterable<Entry>, Null
         //Preconditions.checkNotNull(jobConf);
         Preconditions.checkNotNull(job);
         job.workerIterationStart(jobConf, graphConf, metrics);
+        // Values are read as they are stored and hence need to be decompressed before they are handed to the job
+        final BackendCompression compression = Backend.getStoreCompression(graphConf,
+                scanConf.get(JanusGraphHadoopConfiguration.COLUMN_FAMILY_NAME));
+        decompressor = compression == BackendCompression.NO_COMPRESSION ? null : CompressedStore.decompressor(compression);
         keyFilter = job.getKeyFilter();
         List<SliceQuery> sliceQueries = job.getQueries();
         Preconditions.checkArgument(null != sliceQueries, "Job cannot specify null query list");
@@ -96,7 +106,7 @@ public class HadoopScanMapper extends Mapper<StaticBuffer, Iterable<Entry>, Null
 
     @Override
     protected void map(StaticBuffer key, Iterable<Entry> values, Context context) throws IOException, InterruptedException {
-        EntryArrayList al = EntryArrayList.of(values);
+        EntryArrayList al = EntryArrayList.of(decompressor == null ? values : Iterables.transform(values, decompressor::apply));
 
         // KeyFilter check
         if (!keyFilter.test(key)) {
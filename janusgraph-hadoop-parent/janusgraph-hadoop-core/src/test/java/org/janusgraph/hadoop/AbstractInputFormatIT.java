@@ -17,8 +17,10 @@ package org.janusgraph.hadoop;
 import com.google.common.collect.ImmutableSet;
 import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.diskstorage.configuration.ConfigElement;
 import org.janusgraph.example.GraphOfTheGodsFactory;
 import org.janusgraph.graphdb.JanusGraphBaseTest;
+import org.janusgraph.hadoop.config.JanusGraphHadoopConfiguration;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.spark.process.computer.SparkGraphComputer;
@@ -126,5 +128,23 @@ public abstract class AbstractInputFormatIT extends JanusGraphBaseTest {
         assertEquals(3, geoShapes.size());
     }
 
+    @Test
+    public void testReadWithProjection() throws Exception {
+        GraphOfTheGodsFactory.load(graph, null, true);
+
+        // Only read "battled" edges and "name" properties using the input format
+        Graph g = getGraph();
+        g.configuration().setProperty(ConfigElement.getPath(JanusGraphHadoopConfiguration.INPUT_EDGE_LABELS), "battled");
+        g.configuration().setProperty(ConfigElement.getPath(JanusGraphHadoopConfiguration.INPUT_PROPERTY_KEYS), "name");
+        GraphTraversalSource t = g.traversal().withComputer(SparkGraphComputer.class);
+        assertEquals(12L, (long) t.V().count().next());
+        assertEquals(12L, (long) t.V().values("name").count().next());
+        assertEquals(0L, (long) t.V().values("age").count().next());
+        assertEquals(ImmutableSet.of("battled"), ImmutableSet.copyOf(t.E().label().toList()));
+        assertEquals(3L, (long) t.E().count().next());
+        assertEquals(3L, (long) t.E().values("time").count().next());
+        assertEquals(ImmutableSet.of("monster"), ImmutableSet.copyOf(t.V().has("name", "hercules").out().label().toList()));
+    }
+
     abstract protected Graph getGraph() throws IOException, ConfigurationException;
 }
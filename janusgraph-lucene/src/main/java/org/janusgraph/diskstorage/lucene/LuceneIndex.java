@@ -14,9 +14,11 @@
 
 package org.janusgraph.diskstorage.lucene;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Shape;
 
@@ -25,6 +27,8 @@ import org.janusgraph.core.schema.Mapping;
 import org.janusgraph.graphdb.internal.Order;
 import org.janusgraph.core.attribute.*;
 import org.janusgraph.diskstorage.*;
+import org.janusgraph.diskstorage.configuration.ConfigNamespace;
+import org.janusgraph.diskstorage.configuration.ConfigOption;
 import org.janusgraph.diskstorage.configuration.Configuration;
 import org.janusgraph.diskstorage.indexing.*;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
@@ -32,7 +36,7 @@ import org.janusgraph.graphdb.database.serialize.AttributeUtil;
 import org.janusgraph.graphdb.query.JanusGraphPredicate;
 import org.janusgraph.graphdb.query.condition.*;
 import org.janusgraph.graphdb.types.ParameterType;
-import org.janusgraph.util.system.IOUtils;
+import org.janusgraph.util.stats.MetricManager;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -56,6 +60,7 @@ import org.apache.lucene.spatial.prefix.tree.SpatialPrefixTree;
 import org.apache.lucene.spatial.query.SpatialArgs;
 import org.apache.lucene.spatial.query.SpatialOperation;
 import org.apache.lucene.spatial.vector.PointVectorStrategy;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.QueryBuilder;
@@ -68,15 +73,27 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.BASIC_METRICS;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.INDEX_NS;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.getSystemMetricsPrefix;
+
 /**
+ * Queries are answered by near-real-time searchers which are shared by all transactions and managed per store
+ * through a {@link SearcherManager}. Commits of concurrent transactions can be coalesced into a single Lucene commit,
+ * see {@link #COMMIT_INTERVAL}.
+ *
  * @author Matthias Broecheler (me@matthiasb.com)
  */
 
@@ -104,11 +121,51 @@ public class LuceneIndex implements IndexProvider {
      */
     public static final double DEFAULT_GEO_DIST_ERROR_PCT = 0.025;
 
+    public static final ConfigNamespace LUCENE_NS =
+            new ConfigNamespace(INDEX_NS, "lucene", "Lucene index configuration");
+
+    public static final ConfigOption<Duration> REFRESH_INTERVAL = new ConfigOption<>(LUCENE_NS, "refresh-interval",
+            "Interval at which the searchers shared by all transactions are refreshed in the background. If zero, a " +
+            "transaction refreshes the searcher of a store when it first queries that store and hence sees all changes " +
+            "made before. Otherwise, changes become visible to queries within this interval.",
+            ConfigOption.Type.MASKABLE, Duration.ZERO);
+
+    public static final ConfigOption<Duration> COMMIT_INTERVAL = new ConfigOption<>(LUCENE_NS, "commit-interval",
+            "Time window in which the commits of concurrent transactions are coalesced into a single Lucene commit. " +
+            "A transaction returns once a commit which includes its changes has completed. If zero, every transaction " +
+            "commits its changes on its own.",
+            ConfigOption.Type.MASKABLE, Duration.ZERO);
+
+    private static final String M_LUCENE = "lucene";
+    private static final String M_REFRESH = "refresh";
+    private static final String M_COMMIT = "commit";
+    private static final String M_COMMIT_MUTATIONS = "commit-mutations";
+
     private static final Map<Geo, SpatialOperation> SPATIAL_PREDICATES = spatialPredicates();
 
     private final Map<String, IndexWriter> writers = new HashMap<>(4);
     private final ReentrantLock writerLock = new ReentrantLock();
 
+    /**
+     * Searchers shared by all transactions. A store which is not yet written to by this instance is searched
+     * through the last commit in its directory, otherwise through the near-real-time view of its writer.
+     */
+    private final Map<String, SearcherManager> searcherManagers = new ConcurrentHashMap<>(4);
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService refreshExecutor;
+
+    /**
+     * Group commit state: {@link #mutationSequence} counts the applied mutations and is guarded by
+     * {@link #writerLock}, the other fields are guarded by {@link #commitMonitor}.
+     */
+    private final Duration commitInterval;
+    private final Object commitMonitor = new Object();
+    private long mutationSequence = 0;
+    private long committedSequence = 0;
+    private boolean committing = false;
+
+    private final String metricsPrefix;
+
     private final Map<String, SpatialStrategy> spatial = new ConcurrentHashMap<>(12);
     private final SpatialContext ctx = Geoshape.getSpatialContext();
 
@@ -127,6 +184,20 @@ public class LuceneIndex implements IndexProvider {
         }
         basePath = directory.getAbsolutePath();
         log.debug("Configured Lucene to use base directory [{}]", basePath);
+
+        refreshInterval = config.get(REFRESH_INTERVAL);
+        commitInterval = config.get(COMMIT_INTERVAL);
+        Preconditions.checkArgument(!refreshInterval.isNegative() && !commitInterval.isNegative(),
+            "Invalid refresh [%s] or commit [%s] interval", refreshInterval, commitInterval);
+        metricsPrefix = config.get(BASIC_METRICS) ? getSystemMetricsPrefix() : null;
+        if (refreshInterval.isZero()) {
+            refreshExecutor = null;
+        } else {
+            refreshExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("LuceneRefresh-%d").build());
+            refreshExecutor.scheduleWithFixedDelay(this::refreshSearchers,
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
     }
 
     private Directory getStoreDirectory(String store) throws BackendException {
@@ -154,6 +225,10 @@ public class LuceneIndex implements IndexProvider {
             try {
                 writer = new IndexWriter(getStoreDirectory(store), iwc);
                 writers.put(store, writer);
+                //Switch the searchers of this store over to the near-real-time view of the new writer
+                final SearcherManager previous = searcherManagers.put(store,
+                    withMetrics(new SearcherManager(writer, true, true, null)));
+                if (previous != null) previous.close();
             } catch (final IOException e) {
                 throw new PermanentBackendException("Could not create writer", e);
             }
@@ -161,6 +236,107 @@ public class LuceneIndex implements IndexProvider {
         return writer;
     }
 
+    /**
+     * Returns the shared searcher manager of the given store or null if the index of that store does not yet exist.
+     */
+    private SearcherManager getSearcherManager(String store) throws BackendException {
+        SearcherManager manager = searcherManagers.get(store);
+        if (manager == null) {
+            writerLock.lock();
+            try {
+                manager = searcherManagers.get(store);
+                if (manager == null) {
+                    manager = withMetrics(new SearcherManager(getStoreDirectory(store), null));
+                    searcherManagers.put(store, manager);
+                }
+            } catch (final IndexNotFoundException e) {
+                return null;
+            } catch (final IOException e) {
+                throw new PermanentBackendException("Could not open index reader on store: " + store, e);
+            } finally {
+                writerLock.unlock();
+            }
+        }
+        return manager;
+    }
+
+    private SearcherManager withMetrics(SearcherManager manager) {
+        if (metricsPrefix != null) manager.addListener(new RefreshTimer());
+        return manager;
+    }
+
+    private void refreshSearchers() {
+        for (final Map.Entry<String, SearcherManager> manager : searcherManagers.entrySet()) {
+            try {
+                manager.getValue().maybeRefresh();
+            } catch (final AlreadyClosedException e) {
+                //The store switched to a new writer or the index is closing
+            } catch (final IOException | RuntimeException e) {
+                log.warn("Could not refresh searcher of store [{}]", manager.getKey(), e);
+            }
+        }
+    }
+
+    private void commit(IndexWriter writer) throws IOException {
+        final Timer.Context time = metricsPrefix == null ? null :
+            MetricManager.INSTANCE.getTimer(metricsPrefix, M_LUCENE, M_COMMIT).time();
+        try {
+            writer.commit();
+        } finally {
+            if (time != null) time.stop();
+        }
+    }
+
+    /**
+     * Blocks until a commit which includes the mutation with the given sequence number has completed. The first
+     * waiting transaction leads the next commit: it waits for {@link #commitInterval} so that concurrent transactions
+     * can apply their mutations and then commits all writers at once on their behalf.
+     */
+    private void awaitGroupCommit(long sequence) throws BackendException {
+        synchronized (commitMonitor) {
+            while (committedSequence < sequence && committing) {
+                try {
+                    commitMonitor.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new PermanentBackendException("Interrupted while waiting for commit", e);
+                }
+            }
+            if (committedSequence >= sequence) return;
+            committing = true;
+        }
+        long target = -1;
+        try {
+            Thread.sleep(commitInterval.toMillis());
+            writerLock.lock();
+            try {
+                for (final IndexWriter writer : writers.values()) {
+                    if (writer.hasUncommittedChanges()) commit(writer);
+                }
+                target = mutationSequence;
+            } finally {
+                writerLock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PermanentBackendException("Interrupted while waiting for commit", e);
+        } catch (final IOException e) {
+            throw new TemporaryBackendException("Could not commit Lucene index", e);
+        } finally {
+            synchronized (commitMonitor) {
+                if (target >= 0) {
+                    if (metricsPrefix != null) {
+                        MetricManager.INSTANCE.getHistogram(metricsPrefix, M_LUCENE, M_COMMIT_MUTATIONS)
+                            .update(target - committedSequence);
+                    }
+                    committedSequence = target;
+                }
+                committing = false;
+                commitMonitor.notifyAll();
+            }
+        }
+    }
+
     private SpatialStrategy getSpatialStrategy(String key, KeyInformation ki) {
         SpatialStrategy strategy = spatial.get(key);
         final Mapping mapping = Mapping.getMapping(ki);
@@ -208,26 +384,43 @@ public class LuceneIndex implements IndexProvider {
     @Override
     public void mutate(Map<String, Map<String, IndexMutation>> mutations, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException {
         final Transaction ltx = (Transaction) tx;
+        final long sequence;
         writerLock.lock();
         try {
             for (final Map.Entry<String, Map<String, IndexMutation>> stores : mutations.entrySet()) {
                 mutateStores(stores, information);
             }
+            sequence = ++mutationSequence;
             ltx.postCommit();
         } catch (final IOException e) {
             throw new TemporaryBackendException("Could not update Lucene index", e);
         } finally {
             writerLock.unlock();
         }
+        if (!commitInterval.isZero()) awaitGroupCommit(sequence);
+    }
+
+    /**
+     * Returns a searcher on the near-real-time view of the given store's writer which reflects all changes applied
+     * so far. Must be released through {@link #releaseWriterSearcher(String, IndexSearcher)}.
+     */
+    private IndexSearcher acquireWriterSearcher(String store) throws IOException {
+        Preconditions.checkArgument(writerLock.isHeldByCurrentThread() && writers.containsKey(store));
+        final SearcherManager manager = searcherManagers.get(store);
+        manager.maybeRefreshBlocking();
+        return manager.acquire();
+    }
+
+    private void releaseWriterSearcher(String store, IndexSearcher searcher) throws IOException {
+        if (searcher != null) searcherManagers.get(store).release(searcher);
     }
 
     private void mutateStores(Map.Entry<String, Map<String, IndexMutation>> stores, KeyInformation.IndexRetriever information) throws IOException, BackendException {
-        IndexReader reader = null;
+        final String storeName = stores.getKey();
+        IndexSearcher searcher = null;
         try {
-            final String storeName = stores.getKey();
             final IndexWriter writer = getWriter(storeName, information);
-            reader = DirectoryReader.open(writer, true, true);
-            final IndexSearcher searcher = new IndexSearcher(reader);
+            searcher = acquireWriterSearcher(storeName);
             for (final Map.Entry<String, IndexMutation> entry : stores.getValue().entrySet()) {
                 final String documentId = entry.getKey();
                 final IndexMutation mutation = entry.getValue();
@@ -262,9 +455,9 @@ public class LuceneIndex implements IndexProvider {
                 //write the old document to the index with the modifications
                 writer.updateDocument(new Term(DOCID, documentId), doc);
             }
-            writer.commit();
+            if (commitInterval.isZero()) commit(writer);
         } finally {
-            IOUtils.closeQuietly(reader);
+            releaseWriterSearcher(storeName, searcher);
         }
     }
 
@@ -275,28 +468,13 @@ public class LuceneIndex implements IndexProvider {
             for (final Map.Entry<String, Map<String, List<IndexEntry>>> stores : documents.entrySet()) {
                 final String store = stores.getKey();
                 final IndexWriter writer = getWriter(store, information);
-                final IndexReader reader = DirectoryReader.open(writer, true, true);
-                final IndexSearcher searcher = new IndexSearcher(reader);
-
-                for (final Map.Entry<String, List<IndexEntry>> entry : stores.getValue().entrySet()) {
-                    final String docID = entry.getKey();
-                    final List<IndexEntry> content = entry.getValue();
-
-                    if (content == null || content.isEmpty()) {
-                        if (log.isTraceEnabled())
-                            log.trace("Deleting document [{}]", docID);
-
-                        writer.deleteDocuments(new Term(DOCID, docID));
-                        continue;
-                    }
-
-                    final Pair<Document, Map<String, Shape>> docAndGeo = retrieveOrCreate(docID, searcher);
-                    addToDocument(store, docID, docAndGeo.getKey(), content, docAndGeo.getValue(), information);
-
-                    //write the old document to the index with the modifications
-                    writer.updateDocument(new Term(DOCID, docID), docAndGeo.getKey());
+                final IndexSearcher searcher = acquireWriterSearcher(store);
+                try {
+                    restoreStore(store, writer, searcher, stores.getValue(), information);
+                } finally {
+                    releaseWriterSearcher(store, searcher);
                 }
-                writer.commit();
+                commit(writer);
             }
             tx.commit();
         } catch (final IOException e) {
@@ -306,6 +484,28 @@ public class LuceneIndex implements IndexProvider {
         }
     }
 
+    private void restoreStore(String store, IndexWriter writer, IndexSearcher searcher, Map<String, List<IndexEntry>> documents,
+                              KeyInformation.IndexRetriever information) throws IOException {
+        for (final Map.Entry<String, List<IndexEntry>> entry : documents.entrySet()) {
+            final String docID = entry.getKey();
+            final List<IndexEntry> content = entry.getValue();
+
+            if (content == null || content.isEmpty()) {
+                if (log.isTraceEnabled())
+                    log.trace("Deleting document [{}]", docID);
+
+                writer.deleteDocuments(new Term(DOCID, docID));
+                continue;
+            }
+
+            final Pair<Document, Map<String, Shape>> docAndGeo = retrieveOrCreate(docID, searcher);
+            addToDocument(store, docID, docAndGeo.getKey(), content, docAndGeo.getValue(), information);
+
+            //write the old document to the index with the modifications
+            writer.updateDocument(new Term(DOCID, docID), docAndGeo.getKey());
+        }
+    }
+
     private Pair<Document, Map<String, Shape>> retrieveOrCreate(String docID, IndexSearcher searcher) throws IOException {
         final Document doc;
         final TopDocs hits = searcher.search(new TermQuery(new Term(DOCID, docID)), 10);
@@ -476,6 +676,23 @@ public class LuceneIndex implements IndexProvider {
         }
     }
 
+    @Override
+    public Long totals(IndexQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException {
+        final String store = query.getStore();
+        final LuceneCustomAnalyzer delegatingAnalyzer = delegatingAnalyzerFor(store, information);
+        final SearchParams searchParams = convertQuery(query.getCondition(), information.get(store), delegatingAnalyzer);
+        try {
+            final IndexSearcher searcher = ((Transaction) tx).getSearcher(store);
+            if (searcher == null) return 0L; //Index does not yet exist
+            Query q = searchParams.getQuery();
+            if (null == q)
+                q = new MatchAllDocsQuery();
+            return (long) searcher.count(q);
+        } catch (final IOException e) {
+            throw new TemporaryBackendException("Could not execute Lucene query", e);
+        }
+    }
+
     private static Query numericQuery(String key, Cmp relation, Number value) {
         switch (relation) {
             case EQUAL:
@@ -820,7 +1037,10 @@ public class LuceneIndex implements IndexProvider {
 
     @Override
     public void close() throws BackendException {
+        if (refreshExecutor != null) refreshExecutor.shutdownNow();
         try {
+            for (SearcherManager m : searcherManagers.values()) m.close();
+            searcherManagers.clear();
             for (IndexWriter w : writers.values()) w.close();
         } catch (IOException e) {
             throw new PermanentBackendException("Could not close writers", e);
@@ -853,32 +1073,41 @@ public class LuceneIndex implements IndexProvider {
 
         private final BaseTransactionConfig config;
         private final Set<String> updatedStores = Sets.newHashSet();
-        private final Map<String, IndexSearcher> searchers = new HashMap<>(4);
+        private final Map<String, Pair<SearcherManager, IndexSearcher>> searchers = new HashMap<>(4);
 
         private Transaction(BaseTransactionConfig config) {
             this.config = config;
         }
 
         private synchronized IndexSearcher getSearcher(String store) throws BackendException {
-            IndexSearcher searcher = searchers.get(store);
-            if (searcher == null) {
-                final IndexReader reader;
-                try {
-                    reader = DirectoryReader.open(getStoreDirectory(store));
-                    searcher = new IndexSearcher(reader);
-                } catch (final IndexNotFoundException e) {
-                    searcher = null;
-                } catch (final IOException e) {
-                    throw new PermanentBackendException("Could not open index reader on store: " + store, e);
+            if (searchers.containsKey(store)) {
+                final Pair<SearcherManager, IndexSearcher> searcher = searchers.get(store);
+                return searcher == null ? null : searcher.getValue();
+            }
+            try {
+                while (true) {
+                    final SearcherManager manager = getSearcherManager(store);
+                    if (manager == null) {
+                        searchers.put(store, null);
+                        return null;
+                    }
+                    try {
+                        if (refreshInterval.isZero()) manager.maybeRefreshBlocking();
+                        final IndexSearcher searcher = manager.acquire();
+                        searchers.put(store, new ImmutablePair<>(manager, searcher));
+                        return searcher;
+                    } catch (final AlreadyClosedException e) {
+                        //The store switched over to a new writer in the meantime, retry with its searcher manager
+                        if (searcherManagers.get(store) == manager) throw e;
+                    }
                 }
-                searchers.put(store, searcher);
+            } catch (final IOException | AlreadyClosedException e) {
+                throw new PermanentBackendException("Could not open index reader on store: " + store, e);
             }
-            return searcher;
         }
 
         public void postCommit() throws BackendException {
             close();
-            searchers.clear();
         }
 
 
@@ -894,11 +1123,34 @@ public class LuceneIndex implements IndexProvider {
 
         private void close() throws BackendException {
             try {
-                for (final IndexSearcher searcher : searchers.values()) {
-                    if (searcher != null) searcher.getIndexReader().close();
+                for (final Pair<SearcherManager, IndexSearcher> searcher : searchers.values()) {
+                    if (searcher != null) searcher.getKey().release(searcher.getValue());
                 }
             } catch (final IOException e) {
                 throw new PermanentBackendException("Could not close searcher", e);
+            } finally {
+                searchers.clear();
+            }
+        }
+    }
+
+    /**
+     * Records the time taken by each refresh of a {@link SearcherManager} which opened a new searcher.
+     */
+    private class RefreshTimer implements ReferenceManager.RefreshListener {
+
+        private long start;
+
+        @Override
+        public void beforeRefresh() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void afterRefresh(boolean didRefresh) {
+            if (didRefresh) {
+                MetricManager.INSTANCE.getTimer(metricsPrefix, M_LUCENE, M_REFRESH)
+                    .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
 
@@ -21,19 +21,30 @@ import org.janusgraph.core.attribute.*;
 import org.janusgraph.diskstorage.BackendException;
 import org.janusgraph.diskstorage.configuration.Configuration;
 import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
+import org.janusgraph.diskstorage.indexing.IndexEntry;
 import org.janusgraph.diskstorage.indexing.IndexProvider;
 import org.janusgraph.diskstorage.indexing.IndexProviderTest;
+import org.janusgraph.diskstorage.indexing.IndexQuery;
+import org.janusgraph.diskstorage.indexing.IndexTransaction;
 import org.janusgraph.core.schema.Mapping;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 
+import org.janusgraph.graphdb.query.condition.PredicateCondition;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
 
+import java.time.Duration;
 import java.util.Date;
 
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -73,6 +84,50 @@ public class LuceneIndexTest extends IndexProviderTest {
         return config.restrictTo(index);
     }
 
+    private static Configuration getLocalLuceneTestConfig(Duration refreshInterval, Duration commitInterval) {
+        final String index = "lucene";
+        ModifiableConfiguration config = GraphDatabaseConfiguration.buildGraphConfiguration();
+        config.set(GraphDatabaseConfiguration.INDEX_DIRECTORY, StorageSetup.getHomeDir("lucene"),index);
+        config.set(LuceneIndex.REFRESH_INTERVAL, refreshInterval, index);
+        config.set(LuceneIndex.COMMIT_INTERVAL, commitInterval, index);
+        return config.restrictTo(index);
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        tx.commit();
+        tx = null;
+        index.close();
+        index = new LuceneIndex(getLocalLuceneTestConfig(Duration.ofMillis(50), Duration.ofMillis(20)));
+        final String store = "vertex";
+        initialize(store);
+
+        final int numThreads = 8, numDocs = 25;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(numThreads);
+            for (int t = 0; t < numThreads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < numDocs; i++) {
+                        final IndexTransaction itx = openTx();
+                        itx.add(store, "doc" + thread + "-" + i, new IndexEntry(TIME, (long) i), true);
+                        itx.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        //Every transaction waited for its changes to be committed, hence they must survive a reopen
+        index.close();
+        open();
+        assertEquals(numThreads * numDocs, tx.queryStream(new IndexQuery(store,
+            PredicateCondition.of(TIME, Cmp.GREATER_THAN_EQUAL, 0L))).count());
+    }
+
     @Test
     public void testSupport() {
         // DEFAULT(=TEXT) support
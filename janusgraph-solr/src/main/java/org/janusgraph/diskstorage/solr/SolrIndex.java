@@ -26,6 +26,7 @@ import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -38,6 +39,8 @@ import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -112,6 +115,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @author Jared Holmberg (jholmberg@bericotechnoLogies.com), Pavel Yaskevich (pavel@thinkaurelius.com)
@@ -205,6 +209,10 @@ public class SolrIndex implements IndexProvider {
             "When mutating - wait for the index to reflect new mutations before returning. This can have a negative impact on performance.",
             ConfigOption.Type.LOCAL, false);
 
+    public static final ConfigOption<Boolean> QUERY_PREFETCH = new ConfigOption<>(SOLR_NS, "query-prefetch",
+            "Whether to retrieve the next page of query results in the background while the current page is being consumed.",
+            ConfigOption.Type.MASKABLE, false);
+
 
     private static final IndexFeatures SOLR_FEATURES = new IndexFeatures.Builder()
         .supportsDocumentTTL()
@@ -227,6 +235,10 @@ public class SolrIndex implements IndexProvider {
     private final String ttlField;
     private final int batchSize;
     private final boolean waitSearcher;
+    /**
+     * Retrieves pages of query results in the background, null if prefetching is disabled
+     */
+    private final ExecutorService prefetchExecutor;
 
     public SolrIndex(final Configuration config) throws BackendException {
         Preconditions.checkArgument(config!=null);
@@ -238,6 +250,8 @@ public class SolrIndex implements IndexProvider {
         batchSize = config.get(INDEX_MAX_RESULT_SET_SIZE);
         ttlField = config.get(TTL_FIELD);
         waitSearcher = config.get(WAIT_SEARCHER);
+        prefetchExecutor = config.get(QUERY_PREFETCH) ? Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("solr-prefetch-%d").build()) : null;
 
         switch (mode) {
             case CLOUD:
@@ -573,15 +587,43 @@ public class SolrIndex implements IndexProvider {
         } else {
             solrQuery.setRows(batchSize);
         }
-        return executeQuery(query.hasLimit() ? query.getLimit() : null, 0, collection, solrQuery,
+        return executeQuery(query.hasLimit() ? query.getLimit() : null, 0, collection, keyIdField, solrQuery,
             doc -> doc.getFieldValue(keyIdField).toString());
     }
 
-    private <E> Stream<E> executeQuery(Integer limit, int offset, String collection, SolrQuery solrQuery,
-                                       Function<SolrDocument, E> function) throws PermanentBackendException {
+    @Override
+    public Long totals(IndexQuery query, KeyInformation.IndexRetriever information,
+                       BaseTransaction tx) throws BackendException {
+        final String collection = query.getStore();
+        final SolrQuery solrQuery = new SolrQuery("*:*");
+        solrQuery.addFilterQuery(buildQueryFilter(query.getCondition(), information.get(collection)));
+        solrQuery.setStart(0);
+        solrQuery.setRows(0);
+        try {
+            final QueryResponse response = solrClient.query(collection, solrQuery);
+            logger.debug("Executed totals query [{}] in {} ms", query.getCondition(), response.getElapsedTime());
+            return response.getResults().getNumFound();
+        } catch (final IOException e) {
+            logger.error("Query did not complete : ", e);
+            throw new PermanentBackendException(e);
+        } catch (final SolrServerException e) {
+            logger.error("Unable to query Solr index.", e);
+            throw new PermanentBackendException(e);
+        }
+    }
+
+    /**
+     * Pages through the results using a cursor unless the query starts at an offset, in which case Solr has to skip
+     * the results before the offset for every page.
+     */
+    private <E> Stream<E> executeQuery(Integer limit, int offset, String collection, String keyIdField,
+                                       SolrQuery solrQuery, Function<SolrDocument, E> function)
+                                       throws PermanentBackendException {
+        final boolean useCursor = offset == 0;
+        if (useCursor) addKeySortClause(solrQuery, keyIdField);
         try {
             final SolrResultIterator<E> resultIterator = new SolrResultIterator<>(solrClient, limit, offset,
-                solrQuery.getRows(), collection, solrQuery, function);
+                solrQuery.getRows(), collection, solrQuery, function, useCursor, prefetchExecutor);
             return StreamSupport.stream(Spliterators.spliteratorUnknownSize(resultIterator, Spliterator.ORDERED),
                 false);
         } catch (final IOException | UncheckedIOException e) {
@@ -593,6 +635,18 @@ public class SolrIndex implements IndexProvider {
         }
     }
 
+    /**
+     * Cursors require the sort to include the unique key of the collection as a tiebreaker.
+     */
+    static void addKeySortClause(SolrQuery solrQuery, String keyIdField) {
+        final String sort = solrQuery.get(CommonParams.SORT);
+        if (StringUtils.isBlank(sort)) {
+            solrQuery.set(CommonParams.SORT, "score desc," + keyIdField + " asc");
+        } else if (Arrays.stream(sort.split(",")).map(clause -> clause.trim().split("\\s+")[0])
+                .noneMatch(keyIdField::equals)) {
+            solrQuery.set(CommonParams.SORT, sort + "," + keyIdField + " asc");
+        }
+    }
 
     private SolrQuery runCommonQuery(RawQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx,
                                      String collection, String keyIdField) throws BackendException {
@@ -621,7 +675,7 @@ public class SolrIndex implements IndexProvider {
                                                  BaseTransaction tx) throws BackendException {
         final String collection = query.getStore();
         final String keyIdField = getKeyFieldId(collection);
-        return executeQuery(query.hasLimit() ? query.getLimit() : null, query.getOffset(), collection,
+        return executeQuery(query.hasLimit() ? query.getLimit() : null, query.getOffset(), collection, keyIdField,
             runCommonQuery(query, information, tx, collection, keyIdField), doc -> {
             final double score = Double.parseDouble(doc.getFieldValue("score").toString());
             return new RawQuery.Result<>(doc.getFieldValue(keyIdField).toString(), score);
@@ -894,6 +948,7 @@ public class SolrIndex implements IndexProvider {
     @Override
     public void close() throws BackendException {
         logger.trace("Shutting down connection to Solr", solrClient);
+        if (prefetchExecutor != null) prefetchExecutor.shutdownNow();
         try {
             solrClient.close();
         } catch (final IOException e) {
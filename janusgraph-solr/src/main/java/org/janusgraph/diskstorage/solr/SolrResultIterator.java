@@ -16,85 +16,171 @@ package org.janusgraph.diskstorage.solr;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 
 /**
+ * Iterates the results of a Solr query one page at a time.
+ * <p>
+ * Unless an offset is given, pages are retrieved using Solr's <code>cursorMark</code> deep paging which requires
+ * the query to be sorted on the unique key of the collection (see {@link SolrIndex}). Otherwise, pages are retrieved
+ * by increasing the start offset which requires Solr to skip all previous results for every page.
+ * If an executor is given, the next page is retrieved in the background while the current page is being consumed.
+ *
  * @author David Clement (david.clement90@laposte.net)
  */
 class SolrResultIterator<E> implements Iterator<E> {
 
     private final SolrClient solrClient;
-    private final BlockingQueue<E> queue;
-    private int count;
-    private int numBatches;
     private final Long limit;
     private final int offset;
     private final int batchSize;
     private final String collection;
     private final SolrQuery solrQuery;
     private final Function<SolrDocument, E> getFieldValue;
+    private final boolean useCursor;
+    private final Executor prefetchExecutor;
+
+    private Iterator<E> page;
+    private CompletableFuture<Page<E>> nextPage;
+    private String cursorMark;
+    private boolean isFinished;
+    private long count;
+    private long retrieved;
+    private int numBatches;
 
     public SolrResultIterator(SolrClient solrClient, Integer limit, int offset, int nbDocByQuery, String collection, SolrQuery solrQuery, Function<SolrDocument, E> function) throws SolrServerException, IOException {
+        this(solrClient, limit, offset, nbDocByQuery, collection, solrQuery, function, false, null);
+    }
+
+    public SolrResultIterator(SolrClient solrClient, Integer limit, int offset, int nbDocByQuery, String collection,
+                              SolrQuery solrQuery, Function<SolrDocument, E> function, boolean useCursor,
+                              Executor prefetchExecutor) throws SolrServerException, IOException {
         this.solrClient = solrClient;
         count = 0;
         this.offset = offset;
         this.batchSize = nbDocByQuery;
-        queue = new LinkedBlockingQueue<>();
         this.collection = collection;
         this.solrQuery = solrQuery;
         this.getFieldValue = function;
-        final long nbFound = solrClient.queryAndStreamResponse(collection, solrQuery, new SolrCallbackHandler(this, function)).getResults().getNumFound() - offset;
+        this.useCursor = useCursor;
+        this.prefetchExecutor = prefetchExecutor;
+        cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        final Page<E> first = fetch(cursorMark, offset);
+        final long nbFound = first.numFound - offset;
         this.limit = limit != null ? Math.min(nbFound, limit) : nbFound;
-        numBatches = 1;
+        numBatches = 0;
+        load(first);
     }
 
-    public BlockingQueue<E> getQueue(){
-        return queue;
+    private Page<E> fetch(String cursor, int start) throws SolrServerException, IOException {
+        final ModifiableSolrParams params = new ModifiableSolrParams(solrQuery);
+        if (useCursor) {
+            params.set(CursorMarkParams.CURSOR_MARK_PARAM, cursor);
+        } else {
+            params.set(CommonParams.START, start);
+        }
+        final List<E> results = new ArrayList<>(batchSize);
+        final QueryResponse response = solrClient.queryAndStreamResponse(collection, params,
+            new SolrCallbackHandler<>(results, getFieldValue));
+        return new Page<>(results, response.getResults().getNumFound(), response.getNextCursorMark());
+    }
+
+    private void load(Page<E> current) {
+        numBatches++;
+        page = current.results.iterator();
+        retrieved += current.results.size();
+        if (useCursor) {
+            //Solr returns the cursor mark it was given once all results have been retrieved
+            isFinished = current.nextCursorMark == null || current.nextCursorMark.equals(cursorMark);
+            cursorMark = current.nextCursorMark;
+        }
+        isFinished = isFinished || current.results.isEmpty() || retrieved >= limit;
+        if (!isFinished && prefetchExecutor != null) {
+            final String cursor = cursorMark;
+            final int start = numBatches * batchSize + offset;
+            nextPage = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fetch(cursor, start);
+                } catch (final SolrServerException e) {
+                    throw new UncheckedSolrException(e.getMessage(), e);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e.getMessage(), e);
+                }
+            }, prefetchExecutor);
+        }
+    }
+
+    private Page<E> nextPage() throws SolrServerException, IOException {
+        if (nextPage == null) return fetch(cursorMark, numBatches * batchSize + offset);
+        try {
+            return nextPage.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException("Could not retrieve next page of results", e.getCause());
+        } finally {
+            nextPage = null;
+        }
     }
 
     @Override
     public boolean hasNext() {
-        if (count != 0 && count % batchSize == 0 && count < limit) {
+        while (count < limit && !page.hasNext() && !isFinished) {
             try {
-                solrQuery.setStart(numBatches * batchSize + offset);
-                solrClient.queryAndStreamResponse(collection, solrQuery, new SolrCallbackHandler(this, getFieldValue));
-                numBatches++;
+                load(nextPage());
             } catch (final SolrServerException e) {
                 throw new UncheckedSolrException(e.getMessage(), e);
             } catch (final IOException e) {
                 throw new UncheckedIOException(e.getMessage(), e);
             }
         }
-        return count < limit;
+        return count < limit && page.hasNext();
     }
 
     @Override
     public E next() {
-        try {
-            count++;
-            return queue.take();
-        } catch (final InterruptedException e) {
-             throw new UncheckedIOException(new IOException("Interrupted waiting on queue", e));
+        if (!hasNext()) throw new NoSuchElementException();
+        count++;
+        return page.next();
+    }
+
+    private static class Page<E> {
+
+        private final List<E> results;
+        private final long numFound;
+        private final String nextCursorMark;
+
+        private Page(List<E> results, long numFound, String nextCursorMark) {
+            this.results = results;
+            this.numFound = numFound;
+            this.nextCursorMark = nextCursorMark;
         }
     }
 
-    private class SolrCallbackHandler<E> extends StreamingResponseCallback {
+    private static class SolrCallbackHandler<E> extends StreamingResponseCallback {
 
-        private final SolrResultIterator<E> iterator;
+        private final List<E> results;
         private final Function<SolrDocument, E> function;
 
-        public SolrCallbackHandler(SolrResultIterator<E> iterator, Function<SolrDocument, E> function) {
+        public SolrCallbackHandler(List<E> results, Function<SolrDocument, E> function) {
             this.function = function;
-            this.iterator = iterator;
+            this.results = results;
         }
 
         @Override
@@ -103,7 +189,7 @@ class SolrResultIterator<E> implements Iterator<E> {
 
         @Override
         public void streamSolrDocument(SolrDocument doc) {
-            iterator.getQueue().add(function.apply(doc));
+            results.add(function.apply(doc));
         }
     }
-}
\ No newline at end of file
+}
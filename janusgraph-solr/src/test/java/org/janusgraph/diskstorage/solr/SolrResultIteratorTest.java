@@ -0,0 +1,178 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.solr;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.After;
+import org.junit.Test;
+
+public class SolrResultIteratorTest {
+
+    private static final String COLLECTION = "store";
+    private static final String KEY_FIELD = "id";
+    private static final int PAGE_SIZE = 3;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<SolrParams> requests = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns a client serving the given number of documents, which claims to have found the given number of
+     * documents. A cursor mark is the position of the next document and remains unchanged once all documents have
+     * been retrieved.
+     */
+    private SolrClient client(int numDocs, int numFound) throws SolrServerException, IOException {
+        final SolrClient client = mock(SolrClient.class);
+        when(client.queryAndStreamResponse(eq(COLLECTION), any(SolrParams.class), any(StreamingResponseCallback.class)))
+            .thenAnswer(invocation -> {
+                final SolrParams params = (SolrParams) invocation.getArguments()[1];
+                final StreamingResponseCallback callback = (StreamingResponseCallback) invocation.getArguments()[2];
+                synchronized (requests) {
+                    requests.add(params);
+                }
+                final String cursor = params.get(CursorMarkParams.CURSOR_MARK_PARAM);
+                final int start = cursor == null ? params.getInt(CommonParams.START, 0)
+                    : CursorMarkParams.CURSOR_MARK_START.equals(cursor) ? 0 : Integer.parseInt(cursor);
+                final int end = Math.min(start + PAGE_SIZE, numDocs);
+                for (int i = start; i < end; i++) {
+                    final SolrDocument document = new SolrDocument();
+                    document.setField(KEY_FIELD, String.valueOf(i));
+                    callback.streamSolrDocument(document);
+                }
+                final SolrDocumentList results = new SolrDocumentList();
+                results.setNumFound(numFound);
+                final QueryResponse response = mock(QueryResponse.class);
+                when(response.getResults()).thenReturn(results);
+                when(response.getNextCursorMark()).thenReturn(cursor == null ? null : String.valueOf(Math.max(start, end)));
+                return response;
+            });
+        return client;
+    }
+
+    private SolrResultIterator<String> iterator(SolrClient client, Integer limit, int offset, boolean prefetch)
+            throws SolrServerException, IOException {
+        final SolrQuery query = new SolrQuery("*:*");
+        query.setRows(PAGE_SIZE);
+        return new SolrResultIterator<>(client, limit, offset, PAGE_SIZE, COLLECTION, query,
+            document -> (String) document.getFieldValue(KEY_FIELD), offset == 0, prefetch ? executor : null);
+    }
+
+    private static List<String> results(Iterator<String> iterator) {
+        final List<String> results = new ArrayList<>();
+        iterator.forEachRemaining(results::add);
+        return results;
+    }
+
+    private static List<String> expected(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    private List<String> cursors() {
+        return requests.stream().map(params -> params.get(CursorMarkParams.CURSOR_MARK_PARAM)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCursorPaging() throws Exception {
+        assertEquals(expected(0, 8), results(iterator(client(8, 8), null, 0, false)));
+        assertEquals(3, requests.size());
+        assertEquals(Arrays.asList("*", "3", "6"), cursors());
+    }
+
+    @Test
+    public void testCursorStopsAtRepeatedCursorMark() throws Exception {
+        //More documents were found than can be retrieved, e.g. because some were deleted in the meantime
+        assertEquals(expected(0, 6), results(iterator(client(6, 10), null, 0, false)));
+        //The third page is empty and returns the cursor mark it was given
+        assertEquals(Arrays.asList("*", "3", "6"), cursors());
+    }
+
+    @Test
+    public void testCursorStopsAtEmptyPage() throws Exception {
+        assertEquals(expected(0, 0), results(iterator(client(0, 5), null, 0, false)));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testOffsetPaging() throws Exception {
+        assertEquals(expected(2, 8), results(iterator(client(8, 8), null, 2, false)));
+        assertEquals(2, requests.size());
+        for (SolrParams params : requests) assertNull(params.get(CursorMarkParams.CURSOR_MARK_PARAM));
+        assertEquals(Arrays.asList(2, 5), requests.stream().map(params -> params.getInt(CommonParams.START, -1))
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        assertEquals(expected(0, 4), results(iterator(client(8, 8), 4, 0, false)));
+        assertEquals(2, requests.size());
+        assertEquals(expected(2, 6), results(iterator(client(8, 8), 4, 2, false)));
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        final SolrClient client = client(9, 9);
+        final SolrResultIterator<String> iterator = iterator(client, null, 0, true);
+        //The second page is retrieved before the first one has been consumed
+        verify(client, timeout(10000).times(2)).queryAndStreamResponse(eq(COLLECTION), any(SolrParams.class),
+            any(StreamingResponseCallback.class));
+        assertEquals(expected(0, 9), results(iterator));
+        assertEquals(Arrays.asList("*", "3", "6"), cursors());
+    }
+
+    private static String sortWithKey(String sort) {
+        final SolrQuery query = new SolrQuery("*:*");
+        if (sort != null) query.set(CommonParams.SORT, sort);
+        SolrIndex.addKeySortClause(query, KEY_FIELD);
+        return query.get(CommonParams.SORT);
+    }
+
+    @Test
+    public void testAddKeySortClause() {
+        assertEquals("score desc,id asc", sortWithKey(null));
+        assertEquals("time desc,id asc", sortWithKey("time desc"));
+        assertEquals("idx asc,id asc", sortWithKey("idx asc"));
+        assertEquals("id desc", sortWithKey("id desc"));
+        assertEquals("time desc, id asc", sortWithKey("time desc, id asc"));
+    }
+
+}
@@ -1175,6 +1175,15 @@ public abstract class KeyColumnValueStoreTest extends AbstractKCVSTest {
 
     @Test
     public void scanTestWithSimpleJob() throws Exception {
+        scanTestWithSimpleJob(1);
+    }
+
+    @Test
+    public void scanTestWithSimpleJobOnKeyRanges() throws Exception {
+        scanTestWithSimpleJob(7);
+    }
+
+    private void scanTestWithSimpleJob(int numKeyRanges) throws Exception {
         int keys = 1000, columns = 40;
         String[][] values = KeyValueStoreUtil.generateData(keys, columns);
         //Make it only half the number of columns for every 2nd key
@@ -1186,16 +1195,17 @@ public abstract class KeyColumnValueStoreTest extends AbstractKCVSTest {
         clopen();
 
         StandardScanner scanner = new StandardScanner(manager);
-        SimpleScanJobRunner runner = (ScanJob job, Configuration jobConf, String rootNSName) -> runSimpleJob(scanner, job, jobConf);
+        SimpleScanJobRunner runner = (ScanJob job, Configuration jobConf, String rootNSName) -> runSimpleJob(scanner, job, jobConf, numKeyRanges);
 
         SimpleScanJob.runBasicTests(keys, columns, runner);
     }
 
-    private ScanMetrics runSimpleJob(StandardScanner scanner, ScanJob job, Configuration jobConf) throws BackendException, ExecutionException, InterruptedException {
+    private ScanMetrics runSimpleJob(StandardScanner scanner, ScanJob job, Configuration jobConf, int numKeyRanges) throws BackendException, ExecutionException, InterruptedException {
         StandardScanner.Builder jobBuilder = scanner.build();
         jobBuilder.setStoreName(store.getName());
         jobBuilder.setJobConfiguration(jobConf);
         jobBuilder.setNumProcessingThreads(2);
+        jobBuilder.setNumKeyRanges(numKeyRanges);
         jobBuilder.setWorkBlockSize(100);
         jobBuilder.setTimestampProvider(times);
         jobBuilder.setJob(job);
@@ -17,6 +17,7 @@ package org.janusgraph.diskstorage;
 import static org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore.NO_DELETIONS;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -83,6 +84,11 @@ public abstract class LockKeyColumnValueStoreTest extends AbstractKCVSTest {
 
     protected final String concreteClassName;
 
+    /**
+     * Whether the {@link ConsistentKeyLocker}s created by {@link #open()} batch their lock claims.
+     */
+    protected boolean batchLocks = false;
+
     public LockKeyColumnValueStoreTest() {
         concreteClassName = getClass().getSimpleName();
     }
@@ -123,6 +129,7 @@ public abstract class LockKeyColumnValueStoreTest extends AbstractKCVSTest {
             sc.set(GraphDatabaseConfiguration.UNIQUE_INSTANCE_ID,"inst"+i);
             sc.set(GraphDatabaseConfiguration.LOCK_RETRY,10);
             sc.set(GraphDatabaseConfiguration.LOCK_EXPIRE, Duration.ofMillis(EXPIRE_MS));
+            sc.set(GraphDatabaseConfiguration.LOCK_BATCH, batchLocks);
 
             manager[i] = openStorageManager(i, sc);
             StoreFeatures storeFeatures = manager[i].getFeatures();
@@ -257,6 +264,64 @@ public abstract class LockKeyColumnValueStoreTest extends AbstractKCVSTest {
         Assert.assertEquals(v1, KCVSUtil.get(store[0], k, c1, tx[0][0]));
     }
 
+    @Test
+    public void testBatchedLocks() throws BackendException {
+        close();
+        batchLocks = true;
+        open();
+
+        // claims are deferred until the first mutation of each transaction
+        store[0].acquireLock(k, c1, null, tx[0][0]);
+        store[0].acquireLock(k, c2, null, tx[0][0]);
+        store[0].mutate(k, Arrays.asList(StaticArrayEntry.of(c1, v1), StaticArrayEntry.of(c2, v2)), NO_DELETIONS, tx[0][0]);
+        tx[0][0].commit();
+        tx[0][0] = newTransaction(manager[0]);
+
+        // locks were released on commit, so another transaction can claim them
+        store[0].acquireLock(k, c2, v2, tx[0][1]);
+        store[0].mutate(k, Collections.singletonList(StaticArrayEntry.of(c2, v1)), NO_DELETIONS, tx[0][1]);
+        tx[0][1].commit();
+        tx[0][1] = newTransaction(manager[0]);
+
+        Assert.assertEquals(v1, KCVSUtil.get(store[0], k, c1, tx[0][1]));
+        Assert.assertEquals(v1, KCVSUtil.get(store[0], k, c2, tx[0][1]));
+    }
+
+    @Test
+    public void testBatchedRemoteLockContention() throws InterruptedException, BackendException {
+        close();
+        batchLocks = true;
+        open();
+
+        store[0].acquireLock(k, c1, null, tx[0][0]);
+        store[0].acquireLock(k, c2, null, tx[0][0]);
+        store[1].acquireLock(k, c2, null, tx[1][0]);
+
+        Thread.sleep(50L);
+
+        // "host1" writes and checks its claims first, so it holds both locks
+        try {
+            store[0].mutate(k, Arrays.asList(StaticArrayEntry.of(c1, v1), StaticArrayEntry.of(c2, v2)), NO_DELETIONS, tx[0][0]);
+        } catch (BackendException e) {
+            log.error("Claims of the first transaction failed", e);
+            Assert.fail("The first transaction to claim the locks could not acquire them: " + e.getMessage());
+        }
+
+        try {
+            store[1].mutate(k, Collections.singletonList(StaticArrayEntry.of(c2, v1)), NO_DELETIONS, tx[1][0]);
+            Assert.fail("Expected lock contention between remote transactions did not occur");
+        } catch (TemporaryLockingException e) {
+            // "host2" lost on seniority rather than failing to write its claim
+            Assert.assertNull(e.getCause());
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("already held by"));
+        }
+
+        tx[0][0].commit();
+        tx[0][0] = newTransaction(manager[0]);
+        Assert.assertEquals(v1, KCVSUtil.get(store[0], k, c1, tx[0][0]));
+        Assert.assertEquals(v2, KCVSUtil.get(store[0], k, c2, tx[0][0]));
+    }
+
     @Test
     public void singleTransactionWithMultipleLocks() throws BackendException {
         tryWrites(store[0], manager[0], tx[0][0], store[0], tx[0][0]);
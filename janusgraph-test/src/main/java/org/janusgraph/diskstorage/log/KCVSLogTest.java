@@ -15,13 +15,21 @@
 package org.janusgraph.diskstorage.log;
 
 import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import org.janusgraph.diskstorage.BackendException;
 import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
 import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStoreManager;
 import org.janusgraph.diskstorage.keycolumnvalue.StoreManager;
+import org.janusgraph.diskstorage.log.kcvs.KCVSLog;
 import org.janusgraph.diskstorage.log.kcvs.KCVSLogManager;
 
+import org.janusgraph.diskstorage.util.BufferUtil;
 import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Implementation of the {@link LogTest} for {@link KCVSLogManager} based log implementations.
@@ -49,6 +57,54 @@ public abstract class KCVSLogTest extends LogTest {
         return new KCVSLogManager(storeManager,config.restrictTo(LOG_NAME));
     }
 
+    @Test
+    public void testShardedSendersWithOrderedDeliverySerial() throws Exception {
+        final int numBuckets = 4, numMessages = 2000;
+        ModifiableConfiguration config = GraphDatabaseConfiguration.buildGraphConfiguration();
+        config.set(GraphDatabaseConfiguration.UNIQUE_INSTANCE_ID, "sharded");
+        config.set(GraphDatabaseConfiguration.LOG_READ_INTERVAL, Duration.ofMillis(500L), LOG_NAME);
+        config.set(GraphDatabaseConfiguration.LOG_SEND_DELAY, Duration.ofMillis(100L), LOG_NAME);
+        config.set(GraphDatabaseConfiguration.LOG_NUM_BUCKETS, numBuckets, LOG_NAME);
+        config.set(GraphDatabaseConfiguration.LOG_SEND_THREADS, numBuckets, LOG_NAME);
+        config.set(GraphDatabaseConfiguration.LOG_READ_THREADS, numBuckets, LOG_NAME);
+        //Small read batches to exercise immediate re-reads of buckets with pending messages
+        config.set(GraphDatabaseConfiguration.LOG_READ_BATCH_SIZE, 64, LOG_NAME);
+        config.set(KCVSLog.LOG_ORDERED_DELIVERY, true, LOG_NAME);
+        config.set(KCVSLogManager.LOG_FIXED_PARTITION, true, LOG_NAME);
+        LogManager manager = new KCVSLogManager(storeManager, config.restrictTo(LOG_NAME));
+        try {
+            Log log = manager.openLog("sharded");
+            //Messages are assigned to buckets round-robin, so messages with the same residue share a bucket and must
+            //be delivered in the order in which they were added. The reader threads only record the delivery order.
+            final Queue<Long> delivered = new ConcurrentLinkedQueue<>();
+            LatchMessageReader reader = new LatchMessageReader(numMessages) {
+                @Override
+                protected void processMessage(Message message) {
+                    delivered.add(message.getContent().getLong(0));
+                }
+            };
+            log.registerReader(ReadMarker.fromNow(), reader);
+            for (long i = 1; i <= numMessages; i++) {
+                log.add(BufferUtil.getLongBuffer(i));
+            }
+            reader.await(30000);
+            assertEquals(numMessages, delivered.size());
+            final long[] lastValues = new long[numBuckets];
+            for (long value : delivered) {
+                int bucket = (int) (value % numBuckets);
+                assertTrue("Message out of order within bucket: " + lastValues[bucket] + " preceded " + value,
+                    lastValues[bucket] < value);
+                lastValues[bucket] = value;
+            }
+            for (int b = 0; b < numBuckets; b++) {
+                assertEquals(numMessages - (numMessages - b) % numBuckets, lastValues[b]);
+            }
+            log.close();
+        } finally {
+            manager.close();
+        }
+    }
+
     @Override
     public void setup() throws Exception {
         StoreManager m = openStorageManager();
@@ -312,6 +312,80 @@ public abstract class JanusGraphTest extends JanusGraphBaseTest {
 
     @Test
     public void testMediumCreateRetrieve() {
+        mediumCreateRetrieve();
+    }
+
+    @Test
+    public void testMediumCreateRetrieveWithParallelCommit() {
+        clopen(option(PARALLEL_COMMIT_THRESHOLD), 1);
+        mediumCreateRetrieve();
+
+        //Deletions are serialized in parallel as well
+        int numVertices = 0;
+        for (JanusGraphVertex v : tx.query().vertices()) {
+            v.query().direction(Direction.OUT).labels("connect").edges().forEach(JanusGraphEdge::remove);
+            numVertices++;
+        }
+        clopen();
+        for (JanusGraphVertex v : tx.query().vertices()) {
+            assertCount(0, v.query().direction(Direction.BOTH).labels("connect").edges());
+            assertCount(10, v.query().direction(Direction.BOTH).labels("knows").edges());
+            assertEquals(v, getVertex("name", v.value("name")));
+            numVertices--;
+        }
+        assertEquals(0, numVertices);
+    }
+
+    @Test
+    public void testParallelCommitCompositeIndexes() {
+        clopen(option(PARALLEL_COMMIT_THRESHOLD), 2);
+        makeVertexIndexedUniqueKey("name", String.class);
+        makeVertexIndexedKey("group", Integer.class);
+        finishSchema();
+
+        final int numVertices = 300;
+        final int numGroups = 10;
+        for (int i = 0; i < numVertices; i++) {
+            tx.addVertex("name", "v" + i, "group", i % numGroups);
+        }
+        newTx();
+        for (int g = 0; g < numGroups; g++) {
+            assertCount(numVertices / numGroups, tx.query().has("group", g).vertices());
+        }
+
+        //Moving vertices to another group and removing others updates and deletes index entries in parallel
+        for (int i = 0; i < numVertices; i++) {
+            final JanusGraphVertex v = getVertex("name", "v" + i);
+            if (i % 3 == 0) v.remove();
+            else if (i % 3 == 1) v.property(single, "group", numGroups);
+        }
+        clopen();
+        for (int i = 0; i < numVertices; i++) {
+            final JanusGraphVertex v = getVertex("name", "v" + i);
+            if (i % 3 == 0) assertNull(v);
+            else assertEquals(i % 3 == 1 ? numGroups : i % numGroups, (int) v.<Integer>value("group"));
+        }
+        assertCount(numVertices / 3, tx.query().has("group", numGroups).vertices());
+        int remaining = 0;
+        for (int g = 0; g < numGroups; g++) {
+            for (JanusGraphVertex v : tx.query().has("group", g).vertices()) {
+                assertEquals(g, (int) v.<Integer>value("group"));
+                remaining++;
+            }
+        }
+        assertEquals(numVertices / 3, remaining);
+
+        //Thread-bound transactions are serialized on the committing thread
+        for (int i = 0; i < numVertices; i++) {
+            graph.addVertex("name", "w" + i, "group", numGroups + 1);
+        }
+        graph.tx().commit();
+        newTx();
+        assertCount(numVertices, tx.query().has("group", numGroups + 1).vertices());
+        assertNotNull(getVertex("name", "w" + (numVertices - 1)));
+    }
+
+    private void mediumCreateRetrieve() {
         //Create schema
         makeLabel("connect");
         makeVertexIndexedUniqueKey("name", String.class);
@@ -3641,6 +3715,14 @@ public abstract class JanusGraphTest extends JanusGraphBaseTest {
         assertCount(superV * numV, t);
         metrics = t.asAdmin().getSideEffects().get("~metrics");
 
+        //Verify that bounded batches return the same results as a single multi query
+        clopen(option(USE_MULTIQUERY), true, option(MULTIQUERY_BATCH_SIZE), 3);
+        gts = graph.traversal();
+
+        assertNumStep(superV * (numV / 5), 2, gts.V().has("id", sid).outE("knows").has("weight", 1), JanusGraphStep.class, JanusGraphVertexStep.class);
+        assertNumStep(superV * 10, 2, gts.V().has("id", sid).local(__.outE("knows").has("weight", P.gte(1)).has("weight", P.lt(3)).limit(10)), JanusGraphStep.class, JanusGraphVertexStep.class);
+        assertNumStep(superV * numV, 2, gts.V().has("id", sid).values("names"), JanusGraphStep.class, JanusGraphPropertiesStep.class);
+        assertNumStep(superV * numV, 2, gts.V().has("id", sid).outE("knows").values("weight"), JanusGraphVertexStep.class, JanusGraphPropertiesStep.class);
     }
 
     private static void assertNumStep(int expectedResults, int expectedSteps, GraphTraversal traversal, Class<? extends Step>... expectedStepTypes) {
@@ -79,6 +79,11 @@ public class TestMockIndexProvider implements IndexProvider {
     public Long totals(RawQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException {
         return index.totals(query, information,tx);
     }
+
+    @Override
+    public Long totals(IndexQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) throws BackendException {
+        return index.totals(query, information,tx);
+    }
     
     @Override
     public BaseTransactionConfigurable beginTransaction(BaseTransactionConfig config) throws BackendException {
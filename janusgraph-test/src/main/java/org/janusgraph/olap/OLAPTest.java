@@ -513,6 +513,15 @@ public abstract class OLAPTest extends JanusGraphBaseTest {
 
     @Test
     public void testPageRank() throws ExecutionException, InterruptedException {
+        testPageRank(false);
+    }
+
+    @Test
+    public void testPageRankWithSnapshot() throws ExecutionException, InterruptedException {
+        testPageRank(true);
+    }
+
+    private void testPageRank(boolean snapshot) throws ExecutionException, InterruptedException {
         mgmt.makePropertyKey("distance").dataType(Integer.class).cardinality(Cardinality.SINGLE).make();
         mgmt.makeEdgeLabel("knows").multiplicity(Multiplicity.MULTI).make();
         mgmt.makeEdgeLabel("likes").multiplicity(Multiplicity.MULTI).make();
@@ -545,6 +554,7 @@ public abstract class OLAPTest extends JanusGraphBaseTest {
         final JanusGraphComputer computer = graph.compute();
         computer.resultMode(JanusGraphComputer.ResultMode.NONE);
         computer.workers(4);
+        computer.snapshot(snapshot);
         computer.program(PageRankVertexProgram.build().iterations(10).vertexCount(numV).dampingFactor(alpha).create(graph));
         computer.mapReduce(PageRankMapReduce.build().create());
         ComputerResult result = computer.submit().get();
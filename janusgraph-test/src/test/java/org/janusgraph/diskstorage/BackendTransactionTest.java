@@ -0,0 +1,121 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.janusgraph.diskstorage;
+
+import org.janusgraph.core.JanusGraphException;
+import org.janusgraph.diskstorage.common.AbstractStoreTransaction;
+import org.janusgraph.diskstorage.indexing.IndexProvider;
+import org.janusgraph.diskstorage.indexing.IndexTransaction;
+import org.janusgraph.diskstorage.indexing.KeyInformation;
+import org.janusgraph.diskstorage.util.StandardBaseTransactionConfig;
+import org.janusgraph.diskstorage.util.time.TimestampProviders;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BackendTransactionTest {
+
+    private static final BaseTransactionConfig TX_CONFIG = StandardBaseTransactionConfig.of(TimestampProviders.MILLI);
+    private static final Duration MAX_TIME = Duration.ofSeconds(10);
+
+    private final KeyInformation.IndexRetriever information = new KeyInformation.IndexRetriever() {
+        @Override
+        public KeyInformation get(String store, String key) {
+            return null;
+        }
+
+        @Override
+        public KeyInformation.StoreRetriever get(String store) {
+            return null;
+        }
+    };
+    private final ExecutorService threadPool = Executors.newSingleThreadExecutor();
+    private final Set<String> committed = ConcurrentHashMap.newKeySet();
+
+    @After
+    public void tearDown() {
+        threadPool.shutdownNow();
+    }
+
+    private BackendTransaction open(String... indexes) throws BackendException {
+        final Map<String, IndexTransaction> indexTx = new HashMap<>();
+        for (String index : indexes) {
+            indexTx.put(index, new IndexTransaction(indexProvider(index), information, TX_CONFIG, MAX_TIME));
+        }
+        return new BackendTransaction(null, TX_CONFIG, null, null, null, null, MAX_TIME, indexTx, threadPool);
+    }
+
+    /**
+     * Returns an index whose transactions record their commit or fail it if the index name starts with "failing"
+     */
+    private IndexProvider indexProvider(String name) {
+        return (IndexProvider) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{IndexProvider.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("beginTransaction")) throw new UnsupportedOperationException();
+                return new AbstractStoreTransaction((BaseTransactionConfig) args[0]) {
+                    @Override
+                    public void commit() throws BackendException {
+                        if (name.startsWith("failing")) throw new PermanentBackendException("Index unavailable");
+                        committed.add(name);
+                    }
+                };
+            });
+    }
+
+    @Test
+    public void testCommitIndexes() throws Exception {
+        final Map<String, Throwable> exceptions = open("search", "failing", "other").commitIndexes();
+        assertEquals(new HashSet<>(Arrays.asList("search", "other")), committed);
+        assertEquals(1, exceptions.size());
+        assertTrue(exceptions.get("failing") instanceof PermanentBackendException);
+    }
+
+    @Test
+    public void testCommitIndexesFromPoolThread() throws Exception {
+        final BackendTransaction tx = open("search", "other", "third");
+        final Future<Map<String, Throwable>> exceptions = threadPool.submit(tx::commitIndexes);
+        assertTrue(exceptions.get(MAX_TIME.toMillis(), TimeUnit.MILLISECONDS).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("search", "other", "third")), committed);
+    }
+
+    @Test
+    public void testCommitIndexesWhenInterrupted() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            open("search", "other").commitIndexes();
+            fail();
+        } catch (JanusGraphException expected) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+}
@@ -14,6 +14,7 @@
 
 package org.janusgraph.diskstorage.cache;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.janusgraph.diskstorage.EntryList;
 import org.janusgraph.diskstorage.StaticBuffer;
@@ -21,10 +22,14 @@ import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
 import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
 import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
 import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheInvalidationLog;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheTransaction;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.ExpirationKCVSCache;
 import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVSCache;
+import org.janusgraph.diskstorage.log.kcvs.KCVSLogManager;
 import org.janusgraph.diskstorage.util.BufferUtil;
+import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
 
 
 import org.junit.Test;
@@ -49,7 +54,7 @@ public class ExpirationCacheTest extends KCVSCacheTest {
         return getCache(store,Duration.ofDays(1), Duration.ZERO);
     }
 
-    private static KCVSCache getCache(KeyColumnValueStore store, Duration expirationTime, Duration graceWait) {
+    private static ExpirationKCVSCache getCache(KeyColumnValueStore store, Duration expirationTime, Duration graceWait) {
         return new ExpirationKCVSCache(store,METRICS_STRING,expirationTime.toMillis(),graceWait.toMillis(),CACHE_SIZE);
     }
 
@@ -147,6 +152,60 @@ public class ExpirationCacheTest extends KCVSCacheTest {
         assertEquals(0,store.getSliceCalls());
     }
 
+    @Test
+    public void testCrossInstanceInvalidation() throws Exception {
+        final String logName = "cachelog";
+        loadStore(100, 10);
+        final ExpirationKCVSCache localCache = getCache(store, Duration.ofDays(1), Duration.ZERO);
+        final ExpirationKCVSCache peerCache = getCache(store, Duration.ofDays(1), Duration.ZERO);
+        cache = localCache;
+        final KCVSLogManager localLogs = openLogManager("local", logName), peerLogs = openLogManager("peer", logName);
+        try {
+            //Batches of two keys, so that the mutations below are published in multiple messages
+            final CacheInvalidationLog localInvalidations = new CacheInvalidationLog(localLogs.openLog(logName), "local",
+                ImmutableMap.of(localCache.getName(), localCache), 2);
+            new CacheInvalidationLog(peerLogs.openLog(logName), "peer", ImmutableMap.of(peerCache.getName(), peerCache), 2);
+
+            final List<StaticBuffer> keys = Lists.newArrayList(BufferUtil.getIntBuffer(81), BufferUtil.getIntBuffer(37),
+                BufferUtil.getIntBuffer(2));
+            final SliceQuery query = getQuery(2, 8);
+            CacheTransaction tx = getCacheTx();
+            for (StaticBuffer key : keys) assertEquals(6, peerCache.getSlice(new KeySliceQuery(key, query), tx).size());
+            tx.commit();
+
+            tx = new CacheTransaction(getStoreTx(), storeManager, 1024, MAX_WRITE_TIME, false, localInvalidations);
+            for (StaticBuffer key : keys) {
+                localCache.mutateEntries(key, KeyColumnValueStore.NO_ADDITIONS, Lists.newArrayList(getEntry(4, 4)), tx);
+            }
+            tx.commit();
+
+            //The peer expires the keys once it has read the invalidations from the log
+            final Instant deadline = times.getTime().plus(Duration.ofSeconds(10));
+            for (StaticBuffer key : keys) {
+                int results;
+                do {
+                    tx = getCacheTx();
+                    results = peerCache.getSlice(new KeySliceQuery(key, query), tx).size();
+                    tx.commit();
+                    if (results != 5) times.sleepFor(Duration.ofMillis(50));
+                } while (results != 5 && times.getTime().isBefore(deadline));
+                assertEquals(5, results);
+            }
+        } finally {
+            peerCache.close();
+            localLogs.close();
+            peerLogs.close();
+        }
+    }
+
+    private KCVSLogManager openLogManager(String senderId, String logName) {
+        final ModifiableConfiguration config = GraphDatabaseConfiguration.buildGraphConfiguration();
+        config.set(GraphDatabaseConfiguration.UNIQUE_INSTANCE_ID, senderId);
+        config.set(GraphDatabaseConfiguration.LOG_READ_INTERVAL, Duration.ofMillis(100L), logName);
+        config.set(GraphDatabaseConfiguration.LOG_SEND_DELAY, Duration.ZERO, logName);
+        return new KCVSLogManager(storeManager, config.restrictTo(logName));
+    }
+
     private void verifyResults(StaticBuffer key, List<StaticBuffer> keys, SliceQuery query, int expectedResults) throws Exception {
         CacheTransaction tx = getCacheTx();
         assertEquals(expectedResults,cache.getSlice(new KeySliceQuery(key,query),tx).size());
@@ -0,0 +1,120 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.cache;
+
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheTransaction;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVSCache;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.OffHeapKCVSCache;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapKCVSCacheTest extends KCVSCacheTest {
+
+    public static final String METRICS_STRING = "metrics";
+    public static final long CACHE_SIZE = 1024*1024*16; //16 MB
+
+    @Override
+    public KCVSCache getCache(KeyColumnValueStore store) {
+        return new OffHeapKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, CACHE_SIZE);
+    }
+
+    @Test
+    public void testEmptyAndCopiedResults() throws Exception {
+        final int numKeys = 10, numCols = 10;
+        loadStore(numKeys, numCols);
+        final CacheTransaction tx = getCacheTx();
+        //Keys beyond the loaded ones have no columns
+        assertTrue(cache.getSlice(getQuery(numKeys + 1, 0, numCols + 1), tx).isEmpty());
+        final EntryList first = cache.getSlice(getQuery(1, 0, numCols + 1), tx);
+        store.resetCounter();
+        assertTrue(cache.getSlice(getQuery(numKeys + 1, 0, numCols + 1), tx).isEmpty());
+        final EntryList second = cache.getSlice(getQuery(1, 0, numCols + 1), tx);
+        assertEquals(0, store.getSliceCalls());
+        //Hits are rehydrated from the off-heap copy
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        tx.commit();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final int numKeys = 1000, numCols = 10;
+        final long maxBytes = 64 * 1024;
+        loadStore(numKeys, numCols);
+        final OffHeapKCVSCache offHeapCache = new OffHeapKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, maxBytes, 1);
+        cache = offHeapCache;
+
+        CacheTransaction tx = getCacheTx();
+        for (int i = 1; i <= numKeys; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        tx.commit();
+        assertTrue(offHeapCache.getByteSize() > 0);
+        assertTrue(offHeapCache.getByteSize() <= maxBytes);
+
+        //The most recently read keys are still cached while the first ones have been evicted
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = numKeys - 9; i <= numKeys; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        assertEquals(0, store.getSliceCalls());
+        assertEquals(numCols, cache.getSlice(getQuery(1, 0, numCols + 1), tx).size());
+        assertEquals(1, store.getSliceCalls());
+        tx.commit();
+
+        cache.clearCache();
+        assertEquals(0, offHeapCache.getByteSize());
+    }
+
+    @Test
+    public void testSlabReassignment() throws Exception {
+        final int numKeys = 1000, numCols = 10, numSmall = 100;
+        //A single slab, which is assigned to the size class of the first results
+        final long maxBytes = 64 * 1024;
+        loadStore(numKeys, numCols);
+        final OffHeapKCVSCache offHeapCache = new OffHeapKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, maxBytes, 1);
+        cache = offHeapCache;
+
+        CacheTransaction tx = getCacheTx();
+        for (int i = 1; i <= numKeys; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        tx.commit();
+
+        //Results of a different size are cached once the slab has been reassigned to their size class
+        tx = getCacheTx();
+        for (int i = 1; i <= numSmall; i++) assertEquals(1, cache.getSlice(getQuery(i, 0, 2), tx).size());
+        tx.commit();
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = 1; i <= numSmall; i++) assertEquals(1, cache.getSlice(getQuery(i, 0, 2), tx).size());
+        tx.commit();
+        assertEquals(0, store.getSliceCalls());
+        assertTrue(offHeapCache.getByteSize() <= maxBytes);
+
+        //The slab moves back once the original results are used more recently again
+        tx = getCacheTx();
+        for (int i = 1; i <= 10; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        tx.commit();
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = 1; i <= 10; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        tx.commit();
+        assertEquals(0, store.getSliceCalls());
+    }
+
+}
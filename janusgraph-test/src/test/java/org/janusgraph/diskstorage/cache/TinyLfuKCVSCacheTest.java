@@ -0,0 +1,144 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.cache;
+
+import com.google.common.collect.Lists;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeySliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.CacheTransaction;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.KCVSCache;
+import org.janusgraph.diskstorage.keycolumnvalue.cache.TinyLfuKCVSCache;
+import org.janusgraph.diskstorage.util.BufferUtil;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TinyLfuKCVSCacheTest extends KCVSCacheTest {
+
+    public static final String METRICS_STRING = "metrics";
+    public static final long CACHE_SIZE = 1024*1024*48; //48 MB
+
+    @Override
+    public KCVSCache getCache(KeyColumnValueStore store) {
+        return new TinyLfuKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, CACHE_SIZE);
+    }
+
+    /**
+     * Returns the weight of the result of a single query for all columns of a key loaded by {@link #loadStore(int, int)}
+     */
+    private long getEntryWeight(int numCols) throws Exception {
+        return getWeight(getQuery(1, 0, numCols + 1));
+    }
+
+    /**
+     * Returns the weight of the cached result of the given query
+     */
+    private long getWeight(KeySliceQuery query) throws Exception {
+        final TinyLfuKCVSCache probe = new TinyLfuKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, CACHE_SIZE, 1);
+        final CacheTransaction tx = getCacheTx();
+        probe.getSlice(query, tx);
+        tx.commit();
+        return probe.getByteSize();
+    }
+
+    @Test
+    public void testScanResistance() throws Exception {
+        final int numCols = 10, numHot = 10, numScanned = 500, capacity = 20;
+        loadStore(numHot + numScanned, numCols);
+        final long maxWeight = capacity * getEntryWeight(numCols);
+        final TinyLfuKCVSCache lfuCache = new TinyLfuKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, maxWeight, 1);
+        cache = lfuCache;
+        store.resetCounter();
+
+        //Repeatedly read the hot keys...
+        CacheTransaction tx = getCacheTx();
+        for (int t = 0; t < 5; t++) {
+            for (int i = 1; i <= numHot; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        }
+        assertEquals(numHot, store.getSliceCalls());
+        //...then scan many other keys once
+        for (int i = numHot + 1; i <= numHot + numScanned; i++) {
+            assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        }
+        tx.commit();
+        assertTrue(lfuCache.getByteSize() <= maxWeight);
+
+        //The scan must not have evicted the hot keys
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = 1; i <= numHot; i++) assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+        tx.commit();
+        assertEquals(0, store.getSliceCalls());
+    }
+
+    @Test
+    public void testRejectedCandidateEvictsNothing() throws Exception {
+        final int numHot = 10, largeKey = numHot + 2, numCols = 50;
+        loadStore(largeKey, numCols);
+        final long smallWeight = getWeight(getQuery(1, 1, 2));
+        final long largeWeight = getWeight(getQuery(largeKey, 1, numCols + 1));
+        //The main region fits the cold and the hot results, but not another one
+        final long maxWeight = (long) Math.ceil((numHot + 1) * smallWeight / 0.99) + 1;
+        assertTrue(largeWeight > 2 * smallWeight && largeWeight < maxWeight * 0.99);
+        cache = new TinyLfuKCVSCache(store, METRICS_STRING, Duration.ofDays(1).toMillis(), 0, maxWeight, 1);
+
+        //The least recently used result is requested once, all others are hot
+        CacheTransaction tx = getCacheTx();
+        assertEquals(1, cache.getSlice(getQuery(1, 1, 2), tx).size());
+        for (int t = 0; t < 5; t++) {
+            for (int i = 2; i <= numHot + 1; i++) assertEquals(1, cache.getSlice(getQuery(i, 1, 2), tx).size());
+        }
+        //The large result would displace the cold one and a hot one, so it is rejected...
+        for (int t = 0; t < 2; t++) {
+            assertEquals(numCols, cache.getSlice(getQuery(largeKey, 1, numCols + 1), tx).size());
+        }
+        tx.commit();
+
+        //...without evicting the cold result
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = 1; i <= numHot + 1; i++) assertEquals(1, cache.getSlice(getQuery(i, 1, 2), tx).size());
+        tx.commit();
+        assertEquals(0, store.getSliceCalls());
+    }
+
+    @Test
+    public void testIncrementalInvalidation() throws Exception {
+        final int numKeys = 100, numCols = 10;
+        loadStore(numKeys, numCols);
+
+        CacheTransaction tx = getCacheTx();
+        for (int i = 1; i <= numKeys; i++) {
+            assertEquals(numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+            assertEquals(6, cache.getSlice(getQuery(i, 2, 8), tx).size());
+        }
+        cache.mutateEntries(BufferUtil.getIntBuffer(42), KeyColumnValueStore.NO_ADDITIONS, Lists.newArrayList(getEntry(4, 4)), tx);
+        tx.commit();
+
+        //Only the results of the invalidated key are reloaded
+        store.resetCounter();
+        tx = getCacheTx();
+        for (int i = 1; i <= numKeys; i++) {
+            assertEquals(i == 42 ? numCols - 1 : numCols, cache.getSlice(getQuery(i, 0, numCols + 1), tx).size());
+            assertEquals(i == 42 ? 5 : 6, cache.getSlice(new KeySliceQuery(BufferUtil.getIntBuffer(i), getQuery(2, 8)), tx).size());
+        }
+        tx.commit();
+        assertEquals(2, store.getSliceCalls());
+    }
+
+}
@@ -0,0 +1,244 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.indexing;
+
+import com.google.common.collect.ImmutableMap;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.BaseTransaction;
+import org.janusgraph.diskstorage.BaseTransactionConfig;
+import org.janusgraph.diskstorage.BaseTransactionConfigurable;
+import org.janusgraph.diskstorage.PermanentBackendException;
+import org.janusgraph.diskstorage.common.AbstractStoreTransaction;
+import org.janusgraph.diskstorage.util.StandardBaseTransactionConfig;
+import org.janusgraph.diskstorage.util.time.TimestampProviders;
+import org.janusgraph.graphdb.query.JanusGraphPredicate;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkIndexPipelineTest {
+
+    private static final String STORE = "vertex";
+    private static final Duration MAX_WRITE_TIME = Duration.ofSeconds(10);
+    private static final BaseTransactionConfig TX_CONFIG = StandardBaseTransactionConfig.of(TimestampProviders.MILLI);
+
+    private final KeyInformation.StoreRetriever storeInformation = key -> null;
+    private final KeyInformation.IndexRetriever information = new KeyInformation.IndexRetriever() {
+        @Override
+        public KeyInformation get(String store, String key) {
+            return null;
+        }
+
+        @Override
+        public KeyInformation.StoreRetriever get(String store) {
+            return STORE.equals(store) ? storeInformation : null;
+        }
+    };
+    private final RecordingIndexProvider index = new RecordingIndexProvider();
+    /**
+     * The documents of each bulk request in the order in which they were applied
+     */
+    private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private BulkIndexPipeline pipeline;
+
+    @After
+    public void tearDown() {
+        if (pipeline != null) pipeline.close();
+    }
+
+    private BulkIndexPipeline open(int concurrentRequests, int maxActions, Duration flushInterval) {
+        pipeline = new BulkIndexPipeline("search", index, TX_CONFIG, concurrentRequests,
+            maxActions, Long.MAX_VALUE, flushInterval, 100, MAX_WRITE_TIME);
+        return pipeline;
+    }
+
+    private CompletableFuture<Void> submit(String... documents) throws BackendException {
+        final Map<String, IndexMutation> mutations = new HashMap<>();
+        for (String document : documents) {
+            final String[] idAndValue = document.split("=");
+            final IndexMutation mutation = new IndexMutation(false, false);
+            mutation.addition(new IndexEntry("name", idAndValue[1]));
+            mutations.put(idAndValue[0], mutation);
+        }
+        return pipeline.submit(ImmutableMap.of(STORE, mutations), information);
+    }
+
+    private static void await(CompletableFuture<Void> future) throws Exception {
+        future.get(MAX_WRITE_TIME.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testCoalesceTransactions() throws Exception {
+        open(1, 3, Duration.ofHours(1));
+        final CompletableFuture<Void> first = submit("a=1");
+        final CompletableFuture<Void> second = submit("b=1", "c=1");
+        await(first);
+        await(second);
+        assertEquals(1, requests.size());
+        assertEquals(Arrays.asList("a=1", "b=1", "c=1"), requests.get(0));
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        open(2, 1000, Duration.ofMillis(10));
+        await(submit("a=1"));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void testOrderOfDocumentMutations() throws Exception {
+        open(4, 1000, Duration.ofMillis(50));
+        final CompletableFuture<Void> first = submit("a=1", "b=1");
+        final CompletableFuture<Void> second = submit("a=2");
+        await(first);
+        await(second);
+        final List<String> mutationsOfA = new ArrayList<>();
+        for (List<String> request : requests) {
+            for (String document : request) if (document.startsWith("a=")) mutationsOfA.add(document);
+        }
+        assertEquals(Arrays.asList("a=1", "a=2"), mutationsOfA);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        index.failure = new PermanentBackendException("Index unavailable");
+        open(1, 1000, Duration.ZERO);
+        final CompletableFuture<Void> future = submit("a=1");
+        try {
+            future.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(future.isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public void testCloseAppliesPendingMutations() throws Exception {
+        open(2, 1000, Duration.ofHours(1));
+        final CompletableFuture<Void> future = submit("a=1", "b=1", "c=1");
+        assertFalse(future.isDone());
+        pipeline.close();
+        assertTrue(future.isDone() && !future.isCompletedExceptionally());
+        try {
+            submit("d=1");
+            fail();
+        } catch (BackendException expected) {
+        }
+    }
+
+    /**
+     * Records the documents of each mutation as a bulk request or fails all mutations with the configured exception.
+     */
+    private class RecordingIndexProvider implements IndexProvider {
+
+        private volatile BackendException failure;
+
+        @Override
+        public void mutate(Map<String, Map<String, IndexMutation>> mutations, KeyInformation.IndexRetriever information,
+                           BaseTransaction tx) throws BackendException {
+            if (failure != null) throw failure;
+            assertSame(storeInformation, information.get(STORE));
+            final List<String> documents = new ArrayList<>();
+            for (Map.Entry<String, IndexMutation> document : mutations.get(STORE).entrySet()) {
+                documents.add(document.getKey() + "=" + document.getValue().getAdditions().get(0).value);
+            }
+            Collections.sort(documents);
+            requests.add(documents);
+        }
+
+        @Override
+        public BaseTransactionConfigurable beginTransaction(BaseTransactionConfig config) {
+            return new AbstractStoreTransaction(config) {};
+        }
+
+        @Override
+        public void register(String store, String key, KeyInformation information, BaseTransaction tx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void restore(Map<String, Map<String, List<IndexEntry>>> documents, KeyInformation.IndexRetriever information,
+                            BaseTransaction tx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<String> query(IndexQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<RawQuery.Result<String>> query(RawQuery query, KeyInformation.IndexRetriever information,
+                                                     BaseTransaction tx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Long totals(RawQuery query, KeyInformation.IndexRetriever information, BaseTransaction tx) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void clearStorage() {
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public boolean supports(KeyInformation information, JanusGraphPredicate janusgraphPredicate) {
+            return false;
+        }
+
+        @Override
+        public boolean supports(KeyInformation information) {
+            return false;
+        }
+
+        @Override
+        public String mapKey2Field(String key, KeyInformation information) {
+            return key;
+        }
+
+        @Override
+        public IndexFeatures getFeatures() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -35,4 +35,9 @@ public class InMemoryLockKeyColumnValueStoreTest extends LockKeyColumnValueStore
         //Does not apply to non-persisting in-memory store
     }
 
+    @Override
+    public void testBatchedRemoteLockContention() {
+        //Does not apply to non-persisting in-memory store
+    }
+
 }
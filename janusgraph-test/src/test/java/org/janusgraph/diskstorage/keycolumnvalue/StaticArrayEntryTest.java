@@ -228,6 +228,36 @@ public class StaticArrayEntryTest {
         }
     }
 
+    @Test
+    public void testEntryListSerialization() {
+        final Map<Integer,Long> entries = new HashMap<>();
+        for (int i=0;i<50;i++) entries.put(i*2+7,Math.round(Math.random()/2*Long.MAX_VALUE));
+
+        for (final BBEntryGetter getter : BBEntryGetter.values()) {
+            final StaticArrayEntryList list = (StaticArrayEntryList) StaticArrayEntryList.ofByteBuffer(entries.entrySet(), getter);
+            //Write into a direct buffer at an offset to mimic an off-heap slab
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(list.getSerializedSize() + 10);
+            buffer.position(10);
+            list.writeTo(buffer);
+            assertEquals(list.getSerializedSize() + 10, buffer.position());
+            buffer.position(10);
+            final EntryList read = StaticArrayEntryList.readFrom(buffer);
+            assertEquals(list.getSerializedSize() + 10, buffer.position());
+
+            assertEquals(entries.size(), read.size());
+            for (int i = 0; i < read.size(); i++) {
+                final Entry e = read.get(i);
+                checkEntry(e, entries);
+                assertEquals(list.get(i), e);
+                assertEquals(list.get(i).getMetaData(), e.getMetaData());
+            }
+        }
+
+        final ByteBuffer empty = ByteBuffer.allocate(4).putInt(0);
+        empty.flip();
+        assertSame(EntryList.EMPTY_LIST, StaticArrayEntryList.readFrom(empty));
+    }
+
     @Test
     public void testTTLMetadata() {
         WriteBuffer wb = new WriteByteBuffer(128);
@@ -0,0 +1,75 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import org.janusgraph.diskstorage.StaticBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BackendCompressionTest {
+
+    private static final BackendCompression[] COMPRESSIONS = {new LZ4BackendCompression(0), new DeflateBackendCompression(0)};
+
+    private static StaticBuffer roundTrip(BackendCompression compression, byte[] value) {
+        final StaticBuffer compressed = compression.compress(new StaticArrayBuffer(value));
+        assertArrayEquals(value, compression.decompress(compressed).as(StaticBuffer.ARRAY_FACTORY));
+        return compressed;
+    }
+
+    @Test
+    public void testRepetitiveValues() {
+        final Random random = new Random(7);
+        for (BackendCompression compression : COMPRESSIONS) {
+            for (int length : new int[]{64, 1000, 70000, 300000}) {
+                final byte[] value = new byte[length];
+                for (int i = 0; i < length; i++) value[i] = (byte) ("property-" + (i / 40) % 17).charAt(i % 10);
+                //Add some noise so that matches are interrupted
+                for (int i = 0; i < length / 50; i++) value[random.nextInt(length)] = (byte) random.nextInt();
+                assertTrue(roundTrip(compression, value).length() < length / 2);
+            }
+        }
+    }
+
+    @Test
+    public void testIncompressibleAndShortValues() {
+        final Random random = new Random(11);
+        for (BackendCompression compression : COMPRESSIONS) {
+            for (int length : new int[]{0, 1, 4, 12, 13, 100, 5000}) {
+                final byte[] value = new byte[length];
+                random.nextBytes(value);
+                //Values which cannot be compressed are stored with a single header byte
+                assertEquals(length + 1, roundTrip(compression, value).length());
+            }
+        }
+    }
+
+    @Test
+    public void testThreshold() {
+        final byte[] value = new byte[100];
+        final BackendCompression compression = new LZ4BackendCompression(101);
+        assertEquals(101, roundTrip(compression, value).length());
+        assertTrue(roundTrip(new LZ4BackendCompression(100), value).length() < 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentCodec() {
+        final StaticBuffer compressed = new LZ4BackendCompression(0).compress(new StaticArrayBuffer(new byte[1000]));
+        new DeflateBackendCompression(0).decompress(compressed);
+    }
+
+}
@@ -0,0 +1,69 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.diskstorage.util;
+
+import org.janusgraph.diskstorage.Backend;
+import org.janusgraph.diskstorage.Entry;
+import org.janusgraph.diskstorage.KeyColumnValueStoreTest;
+import org.janusgraph.diskstorage.configuration.ModifiableConfiguration;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStoreManager;
+import org.janusgraph.diskstorage.keycolumnvalue.inmemory.InMemoryStoreManager;
+import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.STORAGE_COMPRESSION_CODEC;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.STORAGE_COMPRESSION_THRESHOLD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Runs the store tests against in-memory stores whose values are all compressed.
+ */
+public class CompressedKeyColumnValueStoreTest extends KeyColumnValueStoreTest {
+
+    @Override
+    public KeyColumnValueStoreManager openStorageManager() {
+        return new CompressedStoreManager(new InMemoryStoreManager(), new LZ4BackendCompression(0), storeName -> true);
+    }
+
+    @Override
+    public void clopen() {
+        //Do nothing
+    }
+
+    @Override
+    public void testClearStorage() {}
+
+    @Test
+    public void testDecompressRawValues() {
+        final ModifiableConfiguration config = GraphDatabaseConfiguration.buildGraphConfiguration()
+            .set(STORAGE_COMPRESSION_CODEC, "lz4").set(STORAGE_COMPRESSION_THRESHOLD, 0);
+        //Only the configured stores are compressed
+        assertSame(BackendCompression.NO_COMPRESSION, Backend.getStoreCompression(config, Backend.SYSTEM_TX_LOG_NAME));
+        final BackendCompression compression = Backend.getStoreCompression(config, Backend.EDGESTORE_NAME);
+        assertNotSame(BackendCompression.NO_COMPRESSION, compression);
+
+        //Values read directly from the store are decompressed with the configured compression
+        final Entry entry = StaticArrayEntry.of(BufferUtil.getLongBuffer(1), BufferUtil.getLongBuffer(2));
+        final Entry stored = CompressedStore.compress(Collections.singletonList(entry), compression).get(0);
+        assertNotEquals(entry.getValue(), stored.getValue());
+        assertEquals(entry.getValue(), CompressedStore.decompressor(compression).apply(stored).getValue());
+    }
+
+}
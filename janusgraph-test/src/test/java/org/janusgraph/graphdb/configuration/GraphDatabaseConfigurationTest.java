@@ -14,12 +14,18 @@
 
 package org.janusgraph.graphdb.configuration;
 
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.diskstorage.configuration.ConfigElement;
 import org.janusgraph.diskstorage.configuration.Configuration;
 import org.apache.commons.lang.StringUtils;
 import org.junit.Test;
 
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.INDEX_BULK_ASYNC;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.SYSTEM_LOG_TRANSACTIONS;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Matthias Broecheler (me@matthiasb.com)
@@ -31,5 +37,15 @@ public class GraphDatabaseConfigurationTest {
         assertFalse(StringUtils.containsAny(GraphDatabaseConfiguration.getOrGenerateUniqueInstanceId(Configuration.EMPTY), ConfigElement.ILLEGAL_CHARS));
     }
 
+    @Test
+    public void testAsyncIndexMutationsRequireTransactionLog() {
+        try {
+            JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration().set(INDEX_BULK_ASYNC, true, "search")).close();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(ConfigElement.getPath(SYSTEM_LOG_TRANSACTIONS)));
+        }
+    }
+
 
 }
@@ -0,0 +1,175 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.database.cache;
+
+import com.google.common.collect.Iterables;
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.JanusGraphTransaction;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.core.schema.SchemaAction;
+import org.janusgraph.core.schema.SchemaStatus;
+import org.janusgraph.diskstorage.util.CacheMetricsAction;
+import org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.database.management.ManagementSystem;
+import org.janusgraph.util.stats.MetricManager;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompositeIndexCacheTest {
+
+    private static final String METRICS_PREFIX = "indexcachetest";
+
+    private StandardJanusGraph graph;
+
+    @Before
+    public void setup() {
+        MetricManager.INSTANCE.getRegistry().removeMatching((name, metric) -> name.startsWith(METRICS_PREFIX));
+        graph = (StandardJanusGraph) JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(GraphDatabaseConfiguration.INDEX_CACHE, true).set(GraphDatabaseConfiguration.BASIC_METRICS, true)
+            .set(GraphDatabaseConfiguration.METRICS_PREFIX, METRICS_PREFIX));
+        final JanusGraphManagement mgmt = graph.openManagement();
+        final PropertyKey name = mgmt.makePropertyKey("name").dataType(String.class).make();
+        mgmt.buildIndex("byName", Vertex.class).addKey(name).unique().buildCompositeIndex();
+        mgmt.commit();
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    private static long count(CacheMetricsAction action) {
+        return MetricManager.INSTANCE.getCounter(METRICS_PREFIX, CompositeIndexCache.METRICS_NAME, action.getName()).getCount();
+    }
+
+    private int lookup(String name) {
+        return lookup("name", name);
+    }
+
+    private int lookup(String key, String value) {
+        final JanusGraphTransaction tx = graph.newTransaction();
+        try {
+            return Iterables.size(tx.query().has(key, value).vertices());
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    /**
+     * Asserts that a lookup of the given name returns the expected number of vertices and whether it was cached.
+     */
+    private void assertLookup(String name, int expected, boolean cached) {
+        final long retrievals = count(CacheMetricsAction.RETRIEVAL), misses = count(CacheMetricsAction.MISS);
+        assertEquals(expected, lookup(name));
+        assertEquals(retrievals + 1, count(CacheMetricsAction.RETRIEVAL));
+        assertEquals(misses + (cached ? 0 : 1), count(CacheMetricsAction.MISS));
+    }
+
+    @Test
+    public void testLookupsAreCachedAcrossTransactions() {
+        JanusGraphTransaction tx = graph.newTransaction();
+        tx.addVertex("name", "alice");
+        tx.commit();
+
+        assertLookup("alice", 1, false);
+        assertLookup("alice", 1, true);
+        assertLookup("bob", 0, false);
+        assertLookup("bob", 0, true);
+    }
+
+    @Test
+    public void testLocalModificationsInvalidateLookups() {
+        JanusGraphTransaction tx = graph.newTransaction();
+        final JanusGraphVertex v = tx.addVertex("name", "alice");
+        tx.commit();
+        assertLookup("alice", 1, false);
+        assertLookup("bob", 0, false);
+
+        final long expirations = count(CacheMetricsAction.EXPIRE);
+        tx = graph.newTransaction();
+        tx.getVertex(v.longId()).property("name", "bob");
+        tx.commit();
+        assertTrue(count(CacheMetricsAction.EXPIRE) > expirations);
+        assertLookup("alice", 0, false);
+        assertLookup("bob", 1, false);
+        assertLookup("bob", 1, true);
+
+        tx = graph.newTransaction();
+        tx.getVertex(v.longId()).remove();
+        tx.commit();
+        assertLookup("bob", 0, false);
+    }
+
+    @Test
+    public void testReindexInvalidatesLookups() throws Exception {
+        JanusGraphManagement mgmt = graph.openManagement();
+        mgmt.makePropertyKey("city").dataType(String.class).make();
+        mgmt.commit();
+        final JanusGraphTransaction tx = graph.newTransaction();
+        tx.addVertex("city", "paris");
+        tx.commit();
+
+        //An index enabled without reindexing misses the existing vertex
+        mgmt = graph.openManagement();
+        mgmt.buildIndex("byCity", Vertex.class).addKey(mgmt.getPropertyKey("city")).buildCompositeIndex();
+        mgmt.commit();
+        ManagementSystem.awaitGraphIndexStatus(graph, "byCity").status(SchemaStatus.REGISTERED).call();
+        mgmt = graph.openManagement();
+        mgmt.updateIndex(mgmt.getGraphIndex("byCity"), SchemaAction.ENABLE_INDEX);
+        mgmt.commit();
+        ManagementSystem.awaitGraphIndexStatus(graph, "byCity").status(SchemaStatus.ENABLED).call();
+        assertEquals(0, lookup("city", "paris"));
+        final long misses = count(CacheMetricsAction.MISS);
+        assertEquals(0, lookup("city", "paris"));
+        assertEquals(misses, count(CacheMetricsAction.MISS));
+
+        //Reindexing writes the missing entry and invalidates the cached empty lookup
+        mgmt = graph.openManagement();
+        mgmt.updateIndex(mgmt.getGraphIndex("byCity"), SchemaAction.REINDEX).get();
+        mgmt.commit();
+        assertEquals(1, lookup("city", "paris"));
+        assertEquals(misses + 1, count(CacheMetricsAction.MISS));
+    }
+
+    @Test
+    public void testIndexRemovalInvalidatesLookups() throws Exception {
+        final JanusGraphTransaction tx = graph.newTransaction();
+        tx.addVertex("name", "alice");
+        tx.commit();
+        assertLookup("alice", 1, false);
+        assertLookup("alice", 1, true);
+
+        JanusGraphManagement mgmt = graph.openManagement();
+        mgmt.updateIndex(mgmt.getGraphIndex("byName"), SchemaAction.DISABLE_INDEX);
+        mgmt.commit();
+        ManagementSystem.awaitGraphIndexStatus(graph, "byName").status(SchemaStatus.DISABLED).call();
+
+        //Removing the index deletes its entries directly from the index store
+        mgmt = graph.openManagement();
+        final long expirations = count(CacheMetricsAction.EXPIRE);
+        mgmt.updateIndex(mgmt.getGraphIndex("byName"), SchemaAction.REMOVE_INDEX).get();
+        assertTrue(count(CacheMetricsAction.EXPIRE) > expirations);
+        mgmt.commit();
+    }
+
+}
@@ -23,6 +23,9 @@ import static org.easymock.EasyMock.*;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.janusgraph.diskstorage.BackendException;
 import org.janusgraph.diskstorage.IDAuthority;
 import org.janusgraph.diskstorage.IDBlock;
@@ -66,6 +69,45 @@ public class IDPoolTest {
         testIDPoolWith(partitionID -> new StandardIDPool(idAuthority, partitionID, partitionID, Integer.MAX_VALUE, Duration.ofMillis(2000), 0.2), 10, 20, 100000);
     }
 
+    @Test
+    public void testStandardIDPoolWithPrefetch() throws InterruptedException {
+        final MockIDAuthority idAuthority = new MockIDAuthority(200, Integer.MAX_VALUE, 5);
+        testIDPoolWith(partitionID -> new StandardIDPool(idAuthority, partitionID, partitionID, Integer.MAX_VALUE, Duration.ofMillis(2000), 0.2, 4, null), 10, 20, 10000);
+    }
+
+    @Test
+    public void testPrefetchAdaptsToDemand() throws InterruptedException {
+        final int blockSize = 100, numBlocks = 10;
+        final AtomicInteger acquiredBlocks = new AtomicInteger(0);
+        final CountDownLatch prefetched = new CountDownLatch(numBlocks + 2);
+        final MockIDAuthority idAuthority = new MockIDAuthority(blockSize, Integer.MAX_VALUE, 20) {
+            @Override
+            public IDBlock getIDBlock(int partition, int idNamespace, Duration timeout) throws BackendException {
+                IDBlock block = super.getIDBlock(partition, idNamespace, timeout);
+                acquiredBlocks.incrementAndGet();
+                prefetched.countDown();
+                return block;
+            }
+        };
+        // Consuming ids faster than blocks can be acquired lets the pool reserve more blocks ahead of demand
+        StandardIDPool pool = new StandardIDPool(idAuthority, 0, 1, Integer.MAX_VALUE, Duration.ofMillis(2000), 0.2, 4, null);
+        for (int i = 1; i <= blockSize * numBlocks; i++) {
+            assertEquals(i, pool.nextID());
+        }
+        assertTrue("Blocks were not prefetched ahead of demand", prefetched.await(10, TimeUnit.SECONDS));
+        pool.close();
+
+        // Without prefetching, at most the next block is acquired ahead of demand. Closing the pool waits for all
+        // block renewals, so no further blocks can be acquired afterwards
+        acquiredBlocks.set(0);
+        pool = new StandardIDPool(idAuthority, 1, 1, Integer.MAX_VALUE, Duration.ofMillis(2000), 0.2);
+        for (int i = 1; i <= blockSize * numBlocks; i++) {
+            assertEquals(i, pool.nextID());
+        }
+        pool.close();
+        assertTrue(acquiredBlocks.get() <= numBlocks + 1);
+    }
+
     private void testIDPoolWith(IDPoolFactory poolFactory, final int numPartitions,
                                        final int numThreads, final int attemptsPerThread) throws InterruptedException {
         final Random random = new Random();
@@ -0,0 +1,138 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import org.apache.tinkerpop.gremlin.process.computer.ComputerResult;
+import org.apache.tinkerpop.gremlin.process.computer.KeyValue;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankMapReduce;
+import org.apache.tinkerpop.gremlin.process.computer.ranking.pagerank.PageRankVertexProgram;
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraph;
+import org.janusgraph.core.JanusGraphComputer;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.JanusGraphTransaction;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.diskstorage.Backend;
+import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.diskstorage.StoreMetaData;
+import org.janusgraph.diskstorage.configuration.Configuration;
+import org.janusgraph.diskstorage.keycolumnvalue.KCVSProxy;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyColumnValueStore;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyIterator;
+import org.janusgraph.diskstorage.keycolumnvalue.KeyRangeQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.keycolumnvalue.StoreTransaction;
+import org.janusgraph.diskstorage.keycolumnvalue.inmemory.InMemoryStoreManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.STORAGE_BACKEND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that a {@link FulgoraGraphComputer} with snapshots enabled only scans the storage backend once,
+ * independently of the number of iterations of the vertex program.
+ */
+public class FulgoraSnapshotTest {
+
+    private static final int NUM_VERTICES = 100;
+
+    private static final AtomicInteger EDGESTORE_SCANS = new AtomicInteger();
+
+    /**
+     * In-memory store manager that counts the scans against the edge store.
+     */
+    public static class ScanCountingStoreManager extends InMemoryStoreManager {
+
+        public ScanCountingStoreManager(Configuration configuration) {
+            super(configuration);
+        }
+
+        @Override
+        public KeyColumnValueStore openDatabase(String name, StoreMetaData.Container metaData) throws BackendException {
+            final KeyColumnValueStore store = super.openDatabase(name, metaData);
+            if (!name.equals(Backend.EDGESTORE_NAME)) return store;
+            return new KCVSProxy(store) {
+                @Override
+                public KeyIterator getKeys(KeyRangeQuery keyQuery, StoreTransaction txh) throws BackendException {
+                    EDGESTORE_SCANS.incrementAndGet();
+                    return super.getKeys(keyQuery, txh);
+                }
+
+                @Override
+                public KeyIterator getKeys(SliceQuery columnQuery, StoreTransaction txh) throws BackendException {
+                    EDGESTORE_SCANS.incrementAndGet();
+                    return super.getKeys(columnQuery, txh);
+                }
+            };
+        }
+    }
+
+    private JanusGraph graph;
+
+    @Before
+    public void setUp() {
+        graph = JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(STORAGE_BACKEND, ScanCountingStoreManager.class.getName()));
+        final JanusGraphTransaction tx = graph.newTransaction();
+        final JanusGraphVertex[] vertices = new JanusGraphVertex[NUM_VERTICES];
+        for (int i = 0; i < NUM_VERTICES; i++) vertices[i] = tx.addVertex();
+        for (int i = 0; i < NUM_VERTICES; i++) vertices[i].addEdge("knows", vertices[(i + 1) % NUM_VERTICES]);
+        tx.commit();
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    /**
+     * Runs PageRank for the given number of iterations and returns the number of edge store scans it took.
+     */
+    private int runPageRank(int iterations, boolean snapshot) throws Exception {
+        final int before = EDGESTORE_SCANS.get();
+        final JanusGraphComputer computer = (JanusGraphComputer) graph.compute();
+        computer.resultMode(JanusGraphComputer.ResultMode.NONE);
+        computer.workers(2);
+        computer.snapshot(snapshot);
+        computer.program(PageRankVertexProgram.build().iterations(iterations).vertexCount(NUM_VERTICES).create(graph));
+        computer.mapReduce(PageRankMapReduce.build().create());
+        final ComputerResult result = computer.submit().get();
+
+        final Iterator<KeyValue<Long, Double>> ranks = result.memory().get(PageRankMapReduce.DEFAULT_MEMORY_KEY);
+        int numRanks = 0;
+        for (; ranks.hasNext(); ranks.next()) numRanks++;
+        assertEquals(NUM_VERTICES, numRanks);
+        return EDGESTORE_SCANS.get() - before;
+    }
+
+    @Test
+    public void testSnapshotAvoidsRepeatedScans() throws Exception {
+        final int oneIteration = runPageRank(1, true);
+        assertTrue(oneIteration > 0);
+        assertEquals(oneIteration, runPageRank(5, true));
+    }
+
+    @Test
+    public void testLiveReadsScanEveryIteration() throws Exception {
+        assertTrue(runPageRank(5, false) > runPageRank(1, false));
+    }
+
+}
@@ -0,0 +1,151 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.olap.computer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.tinkerpop.gremlin.process.computer.MessageCombiner;
+import org.apache.tinkerpop.gremlin.process.computer.MessageScope;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(Parameterized.class)
+public class VertexStateStoreTest {
+
+    private static final MessageScope GLOBAL = MessageScope.Global.instance();
+    private static final MessageScope LOCAL = MessageScope.Local.of(__::outE);
+    private static final MessageCombiner<Object> SUM = (a, b) -> (Double) a + (Double) b;
+
+    private static final Map<String,Integer> KEYS = FulgoraVertexMemory.getIdMap(ImmutableList.of("rank", "label"));
+    private static final Map<MessageScope,Integer> SCOPES = FulgoraVertexMemory.getIdMap(ImmutableList.of(GLOBAL, LOCAL));
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{{"object"}, {"columnar"}, {"spill"}});
+    }
+
+    @Parameterized.Parameter
+    public String type;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private VertexStateStore<Object> store;
+
+    @Before
+    public void setUp() throws IOException {
+        switch (type) {
+            case "object": store = new ObjectVertexStateStore<>(16, KEYS); break;
+            case "columnar": store = new ColumnarVertexStateStore<>(16, KEYS, null); break;
+            case "spill": store = new ColumnarVertexStateStore<>(16, KEYS, folder.newFolder()); break;
+            default: throw new AssertionError(type);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testProperties() {
+        final int numVertices = 200000;
+        for (long id = 1; id <= numVertices; id++) store.setProperty(id * 4, "rank", id / 2.0, KEYS);
+        store.setProperty(8, "label", "eight", KEYS);
+        store.setProperty(12, "rank", 0.0, KEYS);
+        store.setProperty(16, "rank", null, KEYS);
+
+        assertEquals(0.5, (Double) store.getProperty(4, "rank", KEYS), 0.0);
+        assertEquals(0.0, (Double) store.getProperty(12, "rank", KEYS), 0.0);
+        assertNull(store.getProperty(16, "rank", KEYS));
+        assertNull(store.getProperty(4, "label", KEYS));
+        assertEquals("eight", store.getProperty(8, "label", KEYS));
+        assertEquals(numVertices / 2.0, (Double) store.getProperty(numVertices * 4L, "rank", KEYS), 0.0);
+        assertNull(store.getProperty(5, "rank", KEYS));
+
+        Map<Long,Map<String,Object>> properties = store.getProperties(KEYS);
+        assertEquals(numVertices, properties.size());
+        assertEquals(numVertices, properties.entrySet().stream().filter(e -> e.getKey() % 4 == 0).count());
+        assertEquals(ImmutableMap.of("rank", 1.0, "label", "eight"), properties.get(8L));
+        assertEquals(ImmutableMap.of(), properties.get(16L));
+
+        //Switching a column to objects retains the previously written values
+        store.setProperty(20, "rank", "five", KEYS);
+        assertEquals("five", store.getProperty(20, "rank", KEYS));
+        assertEquals(3.0, (Double) store.getProperty(24, "rank", KEYS), 0.0);
+    }
+
+    @Test
+    public void testMessages() {
+        store.nextIteration(SCOPES);
+        store.addMessage(1, 1.0, GLOBAL, SCOPES, SUM);
+        store.addMessage(1, 2.5, GLOBAL, SCOPES, SUM);
+        store.setMessage(2, "hello", LOCAL, SCOPES);
+        store.completeIteration();
+
+        assertEquals(3.5, (Double) store.getMessage(1, GLOBAL, SCOPES), 0.0);
+        assertEquals("hello", store.getMessage(2, LOCAL, SCOPES));
+        assertNull(store.getMessage(2, GLOBAL, SCOPES));
+        assertNull(store.getMessage(3, GLOBAL, SCOPES));
+
+        final Map<MessageScope,Integer> globalOnly = FulgoraVertexMemory.getIdMap(ImmutableList.of(GLOBAL));
+        store.nextIteration(globalOnly);
+        store.addMessage(2, 7.0, GLOBAL, globalOnly, SUM);
+        assertEquals(3.5, (Double) store.getMessage(1, GLOBAL, SCOPES), 0.0);
+        store.completeIteration();
+
+        assertNull(store.getMessage(1, GLOBAL, globalOnly));
+        assertEquals(7.0, (Double) store.getMessage(2, GLOBAL, globalOnly), 0.0);
+
+        store.nextIteration(SCOPES);
+        store.completeIteration();
+        assertNull(store.getMessage(2, GLOBAL, SCOPES));
+        assertNull(store.getMessage(2, LOCAL, SCOPES));
+    }
+
+    @Test
+    public void testConcurrentMessages() throws InterruptedException {
+        final int numThreads = 8;
+        final int numVertices = 10000;
+        store.nextIteration(SCOPES);
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                for (long id = 1; id <= numVertices; id++) store.addMessage(id, 1.0, GLOBAL, SCOPES, SUM);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        store.completeIteration();
+        for (long id = 1; id <= numVertices; id++) {
+            assertEquals(numThreads, (Double) store.getMessage(id, GLOBAL, SCOPES), 0.0);
+        }
+    }
+
+}
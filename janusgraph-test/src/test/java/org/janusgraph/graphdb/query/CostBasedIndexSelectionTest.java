@@ -0,0 +1,97 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.query;
+
+import com.google.common.collect.Iterables;
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.internal.ElementCategory;
+import org.janusgraph.graphdb.query.graph.GraphCentricQuery;
+import org.janusgraph.graphdb.query.graph.GraphCentricQueryBuilder;
+import org.janusgraph.graphdb.query.graph.JointIndexQuery;
+import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.INDEX_SELECTION;
+import static org.junit.Assert.*;
+
+public class CostBasedIndexSelectionTest {
+
+    private StandardJanusGraph graph;
+    private StandardJanusGraphTx tx;
+
+    private void open(String indexSelection) {
+        graph = (StandardJanusGraph) JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(INDEX_SELECTION, indexSelection));
+        final JanusGraphManagement mgmt = graph.openManagement();
+        final PropertyKey category = mgmt.makePropertyKey("category").dataType(String.class).make();
+        final PropertyKey name = mgmt.makePropertyKey("name").dataType(String.class).make();
+        mgmt.buildIndex("byCategory", Vertex.class).addKey(category).buildCompositeIndex();
+        mgmt.buildIndex("byName", Vertex.class).addKey(name).buildCompositeIndex();
+        mgmt.commit();
+
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+        for (int i = 0; i < 100; i++) tx.addVertex("category", "a", "name", "v" + i);
+        tx.commit();
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    private JointIndexQuery constructQuery() {
+        final GraphCentricQuery query = ((GraphCentricQueryBuilder) tx.query()).has("category", "a").has("name", "v1")
+            .constructQuery(ElementCategory.VERTEX);
+        assertEquals(1, query.numSubQueries());
+        return query.getSubQuery(0).getBackendQuery();
+    }
+
+    private void observeIndexes() {
+        assertEquals(100, Iterables.size(tx.query().has("category", "a").vertices()));
+        assertEquals(1, Iterables.size(tx.query().has("name", "v1").vertices()));
+    }
+
+    @Test
+    public void testHeuristicIntersectsAllIndexes() {
+        open("heuristic");
+        observeIndexes();
+        final JointIndexQuery query = constructQuery();
+        assertEquals(2, query.size());
+        assertEquals(JointIndexQuery.Subquery.UNKNOWN_ESTIMATE, query.getQuery(0).getEstimatedResults());
+    }
+
+    @Test
+    public void testCostSkipsUnselectiveIndex() {
+        open("cost");
+        //Without statistics the estimates are unknown and the heuristic is used
+        assertEquals(2, constructQuery().size());
+
+        observeIndexes();
+        final JointIndexQuery query = constructQuery();
+        assertEquals(1, query.size());
+        assertEquals("byName", query.getQuery(0).getIndex().getName());
+        assertEquals(1, query.getQuery(0).getEstimatedResults());
+        assertEquals(1, Iterables.size(tx.query().has("category", "a").has("name", "v1").vertices()));
+    }
+
+}
@@ -0,0 +1,160 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.query;
+
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraph;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.JanusGraphTransaction;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.diskstorage.Backend;
+import org.janusgraph.diskstorage.util.MetricInstrumentedStore;
+import org.janusgraph.util.stats.MetricManager;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.*;
+import static org.junit.Assert.*;
+
+public class IndexResultBatchingTest {
+
+    private static final String GROUP_NAME = "indexbatching";
+    private static final int NUM_VERTICES = 50;
+
+    private JanusGraph graph;
+
+    private void open(boolean batch, boolean properties) {
+        graph = JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(BASIC_METRICS, true).set(METRICS_MERGE_STORES, false)
+            .set(USE_MULTIQUERY, batch).set(INDEX_RESULT_BATCH_SIZE, 10).set(INDEX_RESULT_PROPERTIES, properties));
+        final JanusGraphManagement mgmt = graph.openManagement();
+        final PropertyKey group = mgmt.makePropertyKey("group").dataType(Integer.class).make();
+        mgmt.buildIndex("byGroup", Vertex.class).addKey(group).buildCompositeIndex();
+        mgmt.commit();
+
+        final JanusGraphTransaction tx = graph.newTransaction();
+        for (int i = 0; i < NUM_VERTICES; i++) tx.addVertex("group", 1, "number", i);
+        tx.commit();
+    }
+
+    @After
+    public void tearDown() {
+        graph.close();
+    }
+
+    private static long edgeStoreReads() {
+        return MetricManager.INSTANCE.getCounter(GROUP_NAME, Backend.EDGESTORE_NAME, MetricInstrumentedStore.M_GET_SLICE,
+            MetricInstrumentedStore.M_CALLS).getCount();
+    }
+
+    /**
+     * Reads a property of all vertices returned by the index and returns the number of edge store reads this took
+     * after the query had been iterated.
+     */
+    private long readNumbers(boolean verifyExistence) {
+        final JanusGraphTransaction tx = graph.buildTransaction().groupName(GROUP_NAME)
+            .checkInternalVertexExistence(verifyExistence).start();
+        try {
+            final List<JanusGraphVertex> vertices = new ArrayList<>();
+            tx.query().has("group", 1).vertices().forEach(vertices::add);
+            final long before = edgeStoreReads();
+            final Set<Integer> numbers = new HashSet<>();
+            for (JanusGraphVertex v : vertices) numbers.add(v.<Integer>value("number"));
+            assertEquals(NUM_VERTICES, numbers.size());
+            return edgeStoreReads() - before;
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    /**
+     * Counts the vertices returned by the index in a traversal which does not access their properties and returns
+     * the number of edge store reads this took.
+     */
+    private long countVertices() {
+        final JanusGraphTransaction tx = graph.buildTransaction().groupName(GROUP_NAME)
+            .checkInternalVertexExistence(false).start();
+        try {
+            final long before = edgeStoreReads();
+            assertEquals(NUM_VERTICES, tx.traversal().V().has("group", 1).count().next().intValue());
+            return edgeStoreReads() - before;
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    /**
+     * Reads the number of the first vertex returned by the index with a valueMap() step and returns the number of
+     * edge store reads this took. The in-memory store answers multi-queries with one read per vertex.
+     */
+    private long readFirstValueMap() {
+        final JanusGraphTransaction tx = graph.buildTransaction().groupName(GROUP_NAME)
+            .checkInternalVertexExistence(false).start();
+        try {
+            final long before = edgeStoreReads();
+            assertEquals(1, tx.traversal().V().has("group", 1).valueMap("number").next().size());
+            return edgeStoreReads() - before;
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    @Test
+    public void testUnbatchedVertices() {
+        open(false, true);
+        assertEquals(NUM_VERTICES, readNumbers(false));
+    }
+
+    @Test
+    public void testBatchedVertices() {
+        open(true, true);
+        assertEquals(0, readNumbers(false));
+        assertEquals(0, readNumbers(true));
+    }
+
+    @Test
+    public void testBatchedVerticesWithoutProperties() {
+        open(true, false);
+        assertEquals(NUM_VERTICES, readNumbers(false));
+    }
+
+    @Test
+    public void testPropertyFreeTraversal() {
+        open(true, false);
+        assertEquals(0, countVertices());
+        graph.close();
+        open(true, true);
+        assertTrue(countVertices() > 0);
+    }
+
+    @Test
+    public void testTraversalPreloadsRequestedProperties() {
+        open(true, false);
+        //Loads the properties of the first batch together with it
+        assertEquals(10, readFirstValueMap());
+        graph.close();
+        open(false, false);
+        assertEquals(1, readFirstValueMap());
+    }
+
+}
@@ -0,0 +1,88 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.query;
+
+import com.google.common.collect.Iterables;
+import org.janusgraph.core.JanusGraph;
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.core.JanusGraphTransaction;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.core.schema.JanusGraphManagement;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.INTERSECTION_PAGE_SIZE;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.STREAMING_INTERSECTION;
+import static org.junit.Assert.*;
+
+public class StreamingIntersectionTest {
+
+    private JanusGraph graph;
+    private JanusGraphTransaction tx;
+
+    private void open(boolean streaming) {
+        graph = JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(STREAMING_INTERSECTION, streaming).set(INTERSECTION_PAGE_SIZE, 4));
+        final JanusGraphManagement mgmt = graph.openManagement();
+        final PropertyKey half = mgmt.makePropertyKey("half").dataType(Integer.class).make();
+        final PropertyKey third = mgmt.makePropertyKey("third").dataType(Integer.class).make();
+        mgmt.buildIndex("byHalf", Vertex.class).addKey(half).buildCompositeIndex();
+        mgmt.buildIndex("byThird", Vertex.class).addKey(third).buildCompositeIndex();
+        mgmt.commit();
+
+        tx = graph.newTransaction();
+        for (int i = 0; i < 100; i++) tx.addVertex("half", i % 2, "third", i % 3, "number", i);
+        tx.commit();
+        tx = graph.newTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    private void verifyIntersection() {
+        final Set<Integer> numbers = new HashSet<>();
+        for (JanusGraphVertex v : tx.query().has("half", 0).has("third", 0).vertices()) {
+            numbers.add(v.<Integer>value("number"));
+        }
+        assertEquals(17, numbers.size());
+        for (int number : numbers) assertEquals(0, number % 6);
+
+        assertEquals(17, Iterables.size(tx.query().has("half", 0).has("third", 0).vertices()));
+        assertEquals(5, Iterables.size(tx.query().has("half", 0).has("third", 0).limit(5).vertices()));
+        assertEquals(0, Iterables.size(tx.query().has("half", 0).has("third", 5).vertices()));
+    }
+
+    @Test
+    public void testMaterializedIntersection() {
+        open(false);
+        verifyIntersection();
+    }
+
+    @Test
+    public void testStreamingIntersection() {
+        open(true);
+        verifyIntersection();
+    }
+
+}
@@ -34,6 +34,7 @@ import org.janusgraph.graphdb.database.serialize.Serializer;
 import org.janusgraph.graphdb.database.EdgeSerializer;
 import org.janusgraph.graphdb.database.IndexSerializer;
 import org.janusgraph.graphdb.idmanagement.IDManager;
+import org.janusgraph.graphdb.transaction.vertexcache.VertexCacheType;
 
 public class StandardJanusGraphTxTest extends EasyMockSupport {
 
@@ -74,6 +75,8 @@ public class StandardJanusGraphTxTest extends EasyMockSupport {
         expect(mockGraph.getIDManager()).andReturn(idManager);
 
         expect(gdbConfig.getTimestampProvider()).andReturn(tsProvider);
+        expect(gdbConfig.getTxVertexCacheType()).andReturn(VertexCacheType.GUAVA);
+        expect(gdbConfig.getTxQueryCacheSize()).andReturn(0L);
 
         expect(txConfig.isSingleThreaded()).andReturn(true);
         expect(txConfig.hasPreloadedData()).andReturn(false);
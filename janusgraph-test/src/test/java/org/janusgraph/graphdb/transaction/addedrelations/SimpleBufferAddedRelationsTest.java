@@ -0,0 +1,109 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.transaction.addedrelations;
+
+import com.google.common.collect.ImmutableList;
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.PropertyKey;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.internal.InternalRelation;
+import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimpleBufferAddedRelationsTest {
+
+    private StandardJanusGraph graph;
+    private StandardJanusGraphTx tx;
+    private PropertyKey name;
+    private PropertyKey age;
+    private PropertyKey data;
+
+    @Before
+    public void setUp() {
+        graph = (StandardJanusGraph) StorageSetup.getInMemoryGraph();
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+        name = tx.makePropertyKey("name").dataType(String.class).make();
+        age = tx.makePropertyKey("age").dataType(Integer.class).make();
+        data = tx.makePropertyKey("data").dataType(int[].class).make();
+    }
+
+    @After
+    public void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    private InternalRelation property(JanusGraphVertex v, PropertyKey key, Object value) {
+        return (InternalRelation) v.property(key.name(), value);
+    }
+
+    @Test
+    public void testTypeAndValueViews() {
+        final AddedRelationsContainer container = new SimpleBufferAddedRelations();
+        final JanusGraphVertex v1 = tx.addVertex(), v2 = tx.addVertex();
+        final InternalRelation n1 = property(v1, name, "a"), n2 = property(v2, name, "b"), a1 = property(v1, age, 1);
+        container.add(n1);
+        container.add(n2);
+        container.add(a1);
+
+        assertEquals(ImmutableList.of(n1, n2), container.getView(ImmutableList.of(name), r -> true));
+        assertEquals(ImmutableList.of(a1), container.getView(ImmutableList.of(age), r -> true));
+        assertEquals(ImmutableList.of(n2), container.getView(name, "b", r -> true));
+        assertTrue(container.getView(name, "c", r -> true).isEmpty());
+        assertTrue(container.getView(name, "a", r -> false).isEmpty());
+
+        //Indexes are maintained once built
+        final InternalRelation n3 = property(v2, name, "a");
+        container.add(n3);
+        assertEquals(ImmutableList.of(n1, n3), container.getView(name, "a", r -> true));
+        container.remove(n1);
+        assertEquals(ImmutableList.of(n3), container.getView(name, "a", r -> true));
+        assertEquals(ImmutableList.of(n2, n3), container.getView(ImmutableList.of(name), r -> true));
+        assertEquals(ImmutableList.of(n2, a1, n3), container.getView(r -> true));
+    }
+
+    @Test
+    public void testRemovalBeforeIndexing() {
+        final AddedRelationsContainer container = new ConcurrentBufferAddedRelations();
+        final JanusGraphVertex v = tx.addVertex();
+        final InternalRelation n1 = property(v, name, "a"), a1 = property(v, age, 1);
+        container.add(n1);
+        container.add(a1);
+        container.remove(n1);
+        assertTrue(container.getView(name, "a", r -> true).isEmpty());
+        assertEquals(ImmutableList.of(a1), container.getView(age, 1, r -> true));
+        assertEquals(ImmutableList.of(a1), container.getView(ImmutableList.of(name, age), r -> true));
+    }
+
+    @Test
+    public void testArrayValues() {
+        final AddedRelationsContainer container = new SimpleBufferAddedRelations();
+        final JanusGraphVertex v = tx.addVertex();
+        final InternalRelation d1 = property(v, data, new int[]{1, 2});
+        container.add(d1);
+        final List<InternalRelation> view = container.getView(data, new int[]{1, 2}, r -> true);
+        assertEquals(ImmutableList.of(d1), view);
+        assertTrue(container.getView(data, new int[]{2, 1}, r -> true).isEmpty());
+        assertEquals(ImmutableList.of(d1), container.getView(ImmutableList.of(data), r -> true));
+    }
+
+}
@@ -0,0 +1,155 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.transaction.vertexcache;
+
+import org.janusgraph.StorageSetup;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.internal.ElementLifeCycle;
+import org.janusgraph.graphdb.internal.InternalVertex;
+import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
+import org.janusgraph.graphdb.vertices.StandardVertex;
+import org.janusgraph.util.datastructures.Retriever;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClockVertexCacheTest {
+
+    private static final Retriever<Long, InternalVertex> NO_RETRIEVAL = id -> {
+        throw new AssertionError("Vertex should have been cached: " + id);
+    };
+
+    private StandardJanusGraph graph;
+    private StandardJanusGraphTx tx;
+
+    @Before
+    public void setUp() {
+        graph = (StandardJanusGraph) StorageSetup.getInMemoryGraph();
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    private StandardVertex vertex(long id) {
+        return new StandardVertex(tx, id, ElementLifeCycle.Loaded);
+    }
+
+    @Test
+    public void testGetAndAdd() {
+        final VertexCache cache = new ClockVertexCache(10, 1, 10);
+        final StandardVertex v1 = vertex(1), v2 = new StandardVertex(tx, 2, ElementLifeCycle.New);
+        cache.add(v1, 1);
+        cache.add(v2, 2);
+        assertTrue(cache.contains(1));
+        assertTrue(cache.contains(2));
+        assertFalse(cache.contains(3));
+        assertSame(v1, cache.get(1, NO_RETRIEVAL));
+        assertSame(v2, cache.get(2, NO_RETRIEVAL));
+        assertEquals(1, cache.getAllNew().size());
+        assertSame(v2, cache.getAllNew().get(0));
+
+        final StandardVertex v3 = vertex(3);
+        assertSame(v3, cache.get(3, id -> v3));
+        assertSame(v3, cache.get(3, NO_RETRIEVAL));
+
+        cache.close();
+        assertFalse(cache.contains(1));
+        assertFalse(cache.contains(3));
+    }
+
+    @Test
+    public void testEvictionBoundsSize() {
+        final VertexCache cache = new ClockVertexCache(100, 1, 10);
+        for (long id = 1; id <= 1000; id++) cache.get(id, this::vertex);
+        int cached = 0;
+        for (long id = 1; id <= 1000; id++) if (cache.contains(id)) cached++;
+        assertEquals(100, cached);
+    }
+
+    @Test
+    public void testReferencedVerticesSurviveEviction() {
+        final VertexCache cache = new ClockVertexCache(100, 1, 10);
+        final InternalVertex v1 = cache.get(1, this::vertex);
+        for (long id = 2; id <= 1000; id++) {
+            cache.get(id, this::vertex);
+            assertSame(v1, cache.get(1, NO_RETRIEVAL));
+        }
+        assertFalse(cache.contains(2));
+    }
+
+    @Test
+    public void testModifiedVerticesAreRetainedOnEviction() {
+        final VertexCache cache = new ClockVertexCache(100, 1, 10);
+        final StandardVertex v1 = vertex(1);
+        cache.add(v1, 1);
+        v1.updateLifeCycle(ElementLifeCycle.Event.REMOVED_RELATION);
+        for (long id = 2; id <= 1000; id++) cache.get(id, this::vertex);
+        assertTrue(cache.contains(1));
+        assertSame(v1, cache.get(1, NO_RETRIEVAL));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        //Large enough to never evict so that the cache must behave exactly like a map
+        randomOperations(new ClockVertexCache(100000, 4, 10), 5000, false);
+    }
+
+    @Test
+    public void testRandomOperationsWithEviction() {
+        randomOperations(new ClockVertexCache(200, 4, 10), 2000, true);
+    }
+
+    private void randomOperations(VertexCache cache, int maxId, boolean evicts) {
+        final Random random = new Random(42);
+        final Map<Long, InternalVertex> vertices = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final long id = 1 + random.nextInt(maxId);
+            if (random.nextInt(4) == 0) {
+                final StandardVertex v = vertex(id);
+                cache.add(v, id);
+                vertices.put(id, v);
+            } else {
+                final boolean[] retrieved = {false};
+                final InternalVertex v = cache.get(id, vid -> {
+                    retrieved[0] = true;
+                    return vertex(vid);
+                });
+                if (retrieved[0]) {
+                    //The vertex was either never cached or has been evicted
+                    assertTrue(!vertices.containsKey(id) || evicts);
+                    vertices.put(id, v);
+                } else {
+                    assertSame(vertices.get(id), v);
+                }
+            }
+        }
+        for (final Map.Entry<Long, InternalVertex> vertex : vertices.entrySet()) {
+            if (!evicts) assertTrue(cache.contains(vertex.getKey()));
+            if (cache.contains(vertex.getKey())) {
+                assertSame(vertex.getValue(), cache.get(vertex.getKey(), NO_RETRIEVAL));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.transaction.vertexcache;
+
+import org.janusgraph.StorageSetup;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.internal.ElementLifeCycle;
+import org.janusgraph.graphdb.internal.InternalVertex;
+import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
+import org.janusgraph.graphdb.vertices.StandardVertex;
+import org.janusgraph.testcategory.PerformanceTests;
+import org.janusgraph.testutil.JUnitBenchmarkProvider;
+import org.janusgraph.util.datastructures.Retriever;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TestRule;
+
+import java.util.Random;
+
+/**
+ * Compares the {@link VertexCache} implementations on a read-heavy workload with a skewed access distribution
+ * over more vertices than fit into the cache.
+ */
+@Category({ PerformanceTests.class })
+public class VertexCacheSpeedTest {
+
+    private static final int CACHE_SIZE = 20000;
+    private static final int NUM_VERTICES = 100000;
+    private static final int NUM_LOOKUPS = 2000000;
+
+    @Rule
+    public TestRule benchmark = JUnitBenchmarkProvider.get();
+
+    private static StandardJanusGraph graph;
+    private static StandardJanusGraphTx tx;
+    private static InternalVertex[] vertices;
+    private static long[] lookups;
+
+    @BeforeClass
+    public static void setUp() {
+        graph = (StandardJanusGraph) StorageSetup.getInMemoryGraph();
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+        vertices = new InternalVertex[NUM_VERTICES + 1];
+        for (int id = 1; id <= NUM_VERTICES; id++) vertices[id] = new StandardVertex(tx, id, ElementLifeCycle.Loaded);
+        final Random random = new Random(7);
+        lookups = new long[NUM_LOOKUPS];
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            //Squaring skews the accesses towards small ids
+            final double r = random.nextDouble();
+            lookups[i] = 1 + (long) (r * r * NUM_VERTICES);
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    @Test
+    public void testGuavaVertexCache() {
+        run(VertexCacheType.GUAVA);
+    }
+
+    @Test
+    public void testLRUVertexCache() {
+        run(VertexCacheType.LRU);
+    }
+
+    @Test
+    public void testClockVertexCache() {
+        run(VertexCacheType.CLOCK);
+    }
+
+    private void run(VertexCacheType type) {
+        final VertexCache cache = type.create(CACHE_SIZE, 1, 10);
+        final Retriever<Long, InternalVertex> retriever = id -> vertices[id.intValue()];
+        for (final long id : lookups) cache.get(id, retriever);
+        cache.close();
+    }
+}
@@ -0,0 +1,213 @@
+// Copyright 2017 JanusGraph Authors
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.janusgraph.graphdb.vertices;
+
+import org.janusgraph.StorageSetup;
+import org.janusgraph.core.JanusGraphFactory;
+import org.janusgraph.diskstorage.Entry;
+import org.janusgraph.diskstorage.EntryList;
+import org.janusgraph.diskstorage.keycolumnvalue.SliceQuery;
+import org.janusgraph.diskstorage.util.StaticArrayEntryList;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.internal.ElementLifeCycle;
+import org.janusgraph.graphdb.transaction.StandardJanusGraphTx;
+import org.janusgraph.util.datastructures.Retriever;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.janusgraph.diskstorage.cache.KCVSCacheTest.getEntry;
+import static org.janusgraph.diskstorage.cache.KCVSCacheTest.getQuery;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.TX_CACHE_TYPE;
+import static org.janusgraph.graphdb.configuration.GraphDatabaseConfiguration.TX_QUERY_CACHE_SIZE;
+import static org.junit.Assert.*;
+
+public class CacheVertexTest {
+
+    private StandardJanusGraph graph;
+    private StandardJanusGraphTx tx;
+
+    private void open(long queryCacheSize) {
+        open(queryCacheSize, TX_CACHE_TYPE.getDefaultValue());
+    }
+
+    private void open(long queryCacheSize, String vertexCacheType) {
+        graph = (StandardJanusGraph) JanusGraphFactory.open(StorageSetup.getInMemoryConfiguration()
+            .set(TX_QUERY_CACHE_SIZE, queryCacheSize).set(TX_CACHE_TYPE, vertexCacheType));
+        tx = (StandardJanusGraphTx) graph.newTransaction();
+    }
+
+    @After
+    public void tearDown() {
+        tx.rollback();
+        graph.close();
+    }
+
+    private CacheVertex vertex(long id) {
+        return new CacheVertex(tx, id, ElementLifeCycle.Loaded);
+    }
+
+    /**
+     * Returns the columns [0,100) which fall into the queried slice and counts the invocations.
+     */
+    private static Retriever<SliceQuery, EntryList> columns(AtomicInteger calls) {
+        return query -> {
+            calls.incrementAndGet();
+            final List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final Entry entry = getEntry(i, i);
+                if (query.contains(entry.getColumn()) && entries.size() < query.getLimit()) entries.add(entry);
+            }
+            return StaticArrayEntryList.of(entries);
+        };
+    }
+
+    @Test
+    public void testSubsumedQueriesAreAnsweredFromCache() {
+        open(0);
+        final CacheVertex v = vertex(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        assertEquals(20, v.loadRelations(getQuery(40, 60), columns(calls)).size());
+        assertEquals(10, v.loadRelations(getQuery(10, 20), columns(calls)).size());
+        assertEquals(50, v.loadRelations(getQuery(0, 50), columns(calls)).size());
+        assertEquals(3, calls.get());
+
+        assertTrue(v.hasLoadedRelations(getQuery(45, 55)));
+        assertTrue(v.hasLoadedRelations(getQuery(0, 50)));
+        assertFalse(v.hasLoadedRelations(getQuery(45, 65)));
+        assertFalse(v.hasLoadedRelations(getQuery(60, 70)));
+
+        assertEquals(10, v.loadRelations(getQuery(45, 55), columns(calls)).size());
+        assertEquals(5, v.loadRelations(getQuery(5, 10), columns(calls)).size());
+        assertEquals(5, v.loadRelations(getQuery(0, 50).setLimit(5), columns(calls)).size());
+        assertEquals(3, calls.get());
+        assertEquals(6, v.getQueryCacheSize());
+
+        //A limited result only answers queries with the same start
+        assertEquals(5, v.loadRelations(getQuery(70, 90).setLimit(5), columns(calls)).size());
+        assertEquals(2, v.loadRelations(getQuery(70, 72), columns(calls)).size());
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    public void testSubsumptionMatchesLinearScan() {
+        open(0);
+        final CacheVertex v = vertex(1);
+        final AtomicInteger calls = new AtomicInteger(0);
+        final Random random = new Random(42);
+        final List<SliceQuery> cached = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final int start = random.nextInt(100), end = start + 1 + random.nextInt(20);
+            final SliceQuery query = getQuery(start, end);
+            if (random.nextInt(4) == 0) query.setLimit(1 + random.nextInt(5));
+            boolean subsumed = false;
+            for (SliceQuery c : cached) subsumed |= c.subsumes(query);
+            assertEquals(subsumed, v.hasLoadedRelations(query));
+            final int before = calls.get();
+            v.loadRelations(query, columns(calls));
+            assertEquals(subsumed ? before : before + 1, calls.get());
+            if (!cached.contains(query)) cached.add(query);
+        }
+        assertEquals(cached.size(), v.getQueryCacheSize());
+    }
+
+    @Test
+    public void testQueryCacheSizeIsBounded() {
+        final AtomicInteger calls = new AtomicInteger(0);
+        //Leaves room for one result of 20 and one of 10 entries
+        open(columns(calls).get(getQuery(0, 20)).getByteSize() + columns(calls).get(getQuery(20, 30)).getByteSize());
+        calls.set(0);
+        final CacheVertex v1 = vertex(1), v2 = vertex(2);
+        assertEquals(20, v1.loadRelations(getQuery(0, 20), columns(calls)).size());
+        assertEquals(1, v1.getQueryCacheSize());
+        //Exceeds the remaining budget of the transaction and is hence not cached
+        assertEquals(20, v2.loadRelations(getQuery(0, 20), columns(calls)).size());
+        assertEquals(0, v2.getQueryCacheSize());
+        assertEquals(20, v2.loadRelations(getQuery(0, 20), columns(calls)).size());
+        assertEquals(3, calls.get());
+        assertEquals(10, v2.loadRelations(getQuery(20, 30), columns(calls)).size());
+        assertEquals(1, v2.getQueryCacheSize());
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void testReplacedResultReleasesWeight() throws Exception {
+        final AtomicInteger calls = new AtomicInteger(0);
+        final long weight20 = columns(calls).get(getQuery(0, 20)).getByteSize();
+        final long weight10 = columns(calls).get(getQuery(20, 30)).getByteSize();
+        //Fits the same result twice, but not additionally a result of 10 entries
+        open(2 * weight20 + weight10 - 1);
+        final CacheVertex v1 = vertex(1), v2 = vertex(2);
+
+        //Two concurrent loads of the same query both cache their result, the second one replaces the first
+        final CountDownLatch loading = new CountDownLatch(1), loaded = new CountDownLatch(1);
+        final Thread slowLoad = new Thread(() -> v1.loadRelations(getQuery(0, 20), query -> {
+            loading.countDown();
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return columns(calls).get(query);
+        }));
+        slowLoad.start();
+        loading.await();
+        assertEquals(20, v1.loadRelations(getQuery(0, 20), columns(calls)).size());
+        loaded.countDown();
+        slowLoad.join();
+        assertEquals(1, v1.getQueryCacheSize());
+
+        //Only the replacing result is accounted for
+        assertEquals(10, v2.loadRelations(getQuery(20, 30), columns(calls)).size());
+        assertEquals(1, v2.getQueryCacheSize());
+    }
+
+    @Test
+    public void testEvictedVertexReleasesWeightWithGuavaCache() {
+        verifyEvictedVertexReleasesWeight("guava");
+    }
+
+    @Test
+    public void testEvictedVertexReleasesWeightWithClockCache() {
+        verifyEvictedVertexReleasesWeight("clock");
+    }
+
+    private void verifyEvictedVertexReleasesWeight(String vertexCacheType) {
+        final AtomicInteger calls = new AtomicInteger(0);
+        //Leaves room for one result of 20 entries
+        open(columns(calls).get(getQuery(0, 20)).getByteSize(), vertexCacheType);
+        final long id1 = tx.addVertex().longId(), id2 = tx.addVertex().longId();
+        tx.commit();
+
+        //A transaction which caches a single vertex
+        tx = (StandardJanusGraphTx) graph.buildTransaction().readOnly().vertexCacheSize(1).start();
+        final CacheVertex v1 = (CacheVertex) tx.getInternalVertex(id1);
+        assertEquals(20, v1.loadRelations(getQuery(0, 20), columns(calls)).size());
+        assertEquals(1, v1.getQueryCacheSize());
+        //Evicts the first vertex, which frees its share of the query cache
+        final CacheVertex v2 = (CacheVertex) tx.getInternalVertex(id2);
+        assertEquals(20, v2.loadRelations(getQuery(0, 20), columns(calls)).size());
+        assertEquals(1, v2.getQueryCacheSize());
+        //The evicted vertex no longer caches results
+        assertEquals(10, v1.loadRelations(getQuery(20, 30), columns(calls)).size());
+        assertEquals(1, v1.getQueryCacheSize());
+    }
+
+}